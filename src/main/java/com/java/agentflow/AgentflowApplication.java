@@ -1,13 +1,38 @@
 package com.java.agentflow;
 
+import org.springframework.boot.LazyInitializationExcludeFilter;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.lang.annotation.Annotation;
+import java.util.List;
 
 @SpringBootApplication
+@EnableScheduling
 public class AgentflowApplication {
 
 	public static void main(String[] args) {
 		SpringApplication.run(AgentflowApplication.class, args);
 	}
 
+	/**
+	 * With lazy initialization (the worker profile) nothing would ever create the
+	 * beans that only exist to listen or run on a schedule, so keep those eager.
+	 */
+	@Bean
+	static LazyInitializationExcludeFilter eagerListenerBeans() {
+		List<Class<? extends Annotation>> triggers = List.of(KafkaListener.class, Scheduled.class, EventListener.class);
+		return (beanName, beanDefinition, beanType) -> !MethodIntrospector.selectMethods(beanType,
+				(MethodIntrospector.MetadataLookup<Boolean>) method -> triggers.stream()
+						.anyMatch(trigger -> AnnotatedElementUtils.hasAnnotation(method, trigger)) ? Boolean.TRUE : null)
+				.isEmpty();
+	}
+
 }
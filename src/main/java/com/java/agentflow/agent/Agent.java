@@ -27,4 +27,12 @@ public interface Agent {
     default AgentCapabilities getCapabilities() {
         return new AgentCapabilities(getType(), "No description provided");
     }
+
+    /**
+     * Whether identical concurrent calls with this context may share one result.
+     * Agents with side effects should return false for the affected configurations.
+     */
+    default boolean isCoalescible(AgentContext context) {
+        return true;
+    }
 }
@@ -1,5 +1,8 @@
 package com.java.agentflow.agent;
 
+import com.java.agentflow.workflow.engine.PersistentMap;
+
+import java.util.Collections;
 import java.util.Map;
 
 /**
@@ -20,9 +23,20 @@ public record AgentContext(
          */
         Map<String, Object> config) {
     public AgentContext {
-        // Ensure immutability
-        inputs = inputs != null ? Map.copyOf(inputs) : Map.of();
-        config = config != null ? Map.copyOf(config) : Map.of();
+        // Read-only views rather than copies: step inputs can hold large upstream
+        // outputs, and the caller hands ownership of both maps to the context
+        inputs = readOnly(inputs);
+        config = readOnly(config);
+    }
+
+    private static Map<String, Object> readOnly(Map<String, Object> map) {
+        if (map == null) {
+            return Map.of();
+        }
+        if (map instanceof PersistentMap<String, Object> persistent) {
+            return persistent;
+        }
+        return Collections.unmodifiableMap(map);
     }
 
     /**
@@ -0,0 +1,104 @@
+package com.java.agentflow.agent;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Invokes agents, optionally coalescing identical in-flight calls.
+ * When coalescing applies, concurrent calls with the same agent type and
+ * interpolated config share one execution and its result (single-flight).
+ */
+@Component
+public class AgentInvoker {
+
+    private final ObjectMapper keyMapper = new ObjectMapper()
+            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+    private final Map<String, CompletableFuture<AgentResult>> inFlight = new ConcurrentHashMap<>();
+    private final Set<String> coalescedTypes;
+    private final MeterRegistry meterRegistry;
+
+    public AgentInvoker(
+            @Value("${agentflow.singleflight.agents:}") Set<String> coalescedTypes,
+            MeterRegistry meterRegistry) {
+        this.coalescedTypes = coalescedTypes;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Execute an agent.
+     *
+     * @param coalesce per-step override; null falls back to the agent type setting
+     */
+    public AgentResult invoke(Agent agent, AgentContext context, Boolean coalesce) {
+        boolean enabled = coalesce != null ? coalesce : coalescedTypes.contains(agent.getType());
+        if (!enabled || !agent.isCoalescible(context)) {
+            return agent.execute(context);
+        }
+
+        String key = flightKey(agent.getType(), context);
+        if (key == null) {
+            return agent.execute(context);
+        }
+
+        CompletableFuture<AgentResult> flight = new CompletableFuture<>();
+        CompletableFuture<AgentResult> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            meterRegistry.counter("agentflow.singleflight.calls", "agent", agent.getType(), "role", "follower")
+                    .increment();
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                // Fail the follower the way the leader failed
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+
+        meterRegistry.counter("agentflow.singleflight.calls", "agent", agent.getType(), "role", "leader")
+                .increment();
+        try {
+            AgentResult result = share(agent.execute(context));
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private String flightKey(String type, AgentContext context) {
+        try {
+            return type + ":" + keyMapper.writeValueAsString(context.config())
+                    + ":" + keyMapper.writeValueAsString(context.inputs());
+        } catch (JsonProcessingException e) {
+            // Not serializable, so no reliable identity; run uncoalesced
+            return null;
+        }
+    }
+
+    /**
+     * Results are handed to several executions, so expose outputs read-only.
+     */
+    private AgentResult share(AgentResult result) {
+        if (result.outputs() == null) {
+            return result;
+        }
+        return new AgentResult(result.success(), Collections.unmodifiableMap(result.outputs()),
+                result.error(), result.executionTime());
+    }
+}
@@ -0,0 +1,13 @@
+package com.java.agentflow.agent;
+
+/**
+ * Thrown by an agent for an expected failure, such as a missing workflow. Like
+ * any exception thrown by an agent it fails the step without retries; unlike
+ * others it is logged as a warning, without a stack trace.
+ */
+public class NonRetryableAgentException extends RuntimeException {
+
+    public NonRetryableAgentException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,35 @@
+package com.java.agentflow.agent.impl;
+
+import com.java.agentflow.agent.AgentContext;
+
+/**
+ * Config helpers shared by the benchmark agents.
+ */
+final class BenchPayload {
+
+    private BenchPayload() {
+    }
+
+    /**
+     * ASCII filler of the given length, so outputs have a known serialized size.
+     */
+    static String of(int bytes) {
+        return bytes <= 0 ? "" : "x".repeat(bytes);
+    }
+
+    static long number(AgentContext context, String key, long defaultValue) {
+        Object value = context.config().get(key);
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        return value != null ? Long.parseLong(value.toString()) : defaultValue;
+    }
+
+    static double fraction(AgentContext context, String key) {
+        Object value = context.config().get(key);
+        if (value instanceof Number number) {
+            return number.doubleValue();
+        }
+        return value != null ? Double.parseDouble(value.toString()) : 0;
+    }
+}
@@ -4,15 +4,22 @@ import com.java.agentflow.agent.Agent;
 import com.java.agentflow.agent.AgentCapabilities;
 import com.java.agentflow.agent.AgentContext;
 import com.java.agentflow.agent.AgentResult;
+import com.java.agentflow.agent.search.SearchResultCache;
+import com.java.agentflow.agent.search.SearchResultExtractor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.InputStreamReader;
+import java.net.URLEncoder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Agent for web search using DuckDuckGo.
@@ -21,9 +28,23 @@ import java.util.regex.Pattern;
 public class DuckDuckGoSearchAgent implements Agent {
 
     private final RestTemplate restTemplate;
-
-    public DuckDuckGoSearchAgent() {
+    private final SearchResultExtractor extractor;
+    private final SearchResultCache cache;
+    private final MeterRegistry meterRegistry;
+    private final String endpoint;
+
+    public DuckDuckGoSearchAgent(
+            MeterRegistry meterRegistry,
+            ObservationRegistry observationRegistry,
+            @Value("${agentflow.search.endpoint:https://html.duckduckgo.com/html/}") String endpoint,
+            @Value("${agentflow.search.cache-ttl:PT10M}") Duration cacheTtl,
+            @Value("${agentflow.search.cache-size:1000}") int cacheSize) {
         this.restTemplate = new RestTemplate();
+        this.restTemplate.setObservationRegistry(observationRegistry);
+        this.extractor = new SearchResultExtractor();
+        this.cache = new SearchResultCache(cacheTtl, cacheSize);
+        this.meterRegistry = meterRegistry;
+        this.endpoint = endpoint;
     }
 
     @Override
@@ -44,17 +65,14 @@ public class DuckDuckGoSearchAgent implements Agent {
             String query = context.getRequiredConfig("query");
             Integer maxResults = context.getConfig("maxResults", 5);
 
-            String encodedQuery = java.net.URLEncoder.encode(query, "UTF-8");
-            String url = "https://html.duckduckgo.com/html/?q=" + encodedQuery;
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.add("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36");
-            HttpEntity<?> request = new HttpEntity<>(headers);
-
-            ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.GET, request, String.class);
-            String html = response.getBody();
-
-            List<Map<String, String>> results = parseResults(html, maxResults);
+            List<Map<String, String>> results = cache.get(query, maxResults);
+            if (results != null) {
+                meterRegistry.counter("agentflow.search.cache", "result", "hit").increment();
+            } else {
+                meterRegistry.counter("agentflow.search.cache", "result", "miss").increment();
+                results = search(query, maxResults);
+                cache.put(query, maxResults, results);
+            }
 
             Map<String, Object> outputs = new HashMap<>();
             outputs.put("results", results);
@@ -68,29 +86,24 @@ public class DuckDuckGoSearchAgent implements Agent {
         }
     }
 
-    private List<Map<String, String>> parseResults(String html, int maxResults) {
-        List<Map<String, String>> results = new ArrayList<>();
-
-        Pattern linkPattern = Pattern.compile("class=\"result__a\"[^>]*href=\"([^\"]+)\"[^>]*>([^<]+)</a>");
-        Pattern snippetPattern = Pattern.compile("class=\"result__snippet\">([^<]+)</a>");
-
-        Matcher linkMatcher = linkPattern.matcher(html);
-        Matcher snippetMatcher = snippetPattern.matcher(html);
-
-        int count = 0;
-        while (linkMatcher.find() && count < maxResults) {
-            Map<String, String> result = new HashMap<>();
-            result.put("url", linkMatcher.group(1));
-            result.put("title", linkMatcher.group(2));
-
-            if (snippetMatcher.find()) {
-                result.put("snippet", snippetMatcher.group(1));
-            }
-
-            results.add(result);
-            count++;
-        }
-
-        return results;
+    /**
+     * Fetch the result page and extract results while the body is streamed,
+     * closing the connection as soon as enough results have been read.
+     */
+    private List<Map<String, String>> search(String query, int maxResults) {
+        String url = endpoint + "?q=" + URLEncoder.encode(query, StandardCharsets.UTF_8);
+
+        return restTemplate.execute(url, HttpMethod.GET,
+                request -> request.getHeaders().add("User-Agent",
+                        "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36"),
+                response -> {
+                    MediaType contentType = response.getHeaders().getContentType();
+                    Charset charset = contentType != null && contentType.getCharset() != null
+                            ? contentType.getCharset()
+                            : StandardCharsets.UTF_8;
+                    try (var reader = new InputStreamReader(response.getBody(), charset)) {
+                        return extractor.extract(reader, maxResults);
+                    }
+                });
     }
 }
@@ -0,0 +1,46 @@
+package com.java.agentflow.agent.impl;
+
+import com.java.agentflow.agent.Agent;
+import com.java.agentflow.agent.AgentCapabilities;
+import com.java.agentflow.agent.AgentContext;
+import com.java.agentflow.agent.AgentResult;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Benchmark agent that returns its inputs and message immediately, padded to a
+ * configurable payload size. Measures engine overhead without any I/O.
+ * Only registered with {@code agentflow.bench.agents.enabled=true}.
+ */
+@Component
+@ConditionalOnProperty(name = "agentflow.bench.agents.enabled", havingValue = "true")
+public class EchoAgent implements Agent {
+
+    @Override
+    public String getType() {
+        return "echo";
+    }
+
+    @Override
+    public AgentCapabilities getCapabilities() {
+        return new AgentCapabilities(
+                "echo",
+                "Benchmark agent. Returns its inputs and config message, plus payloadBytes of filler.");
+    }
+
+    @Override
+    public AgentResult execute(AgentContext context) {
+        Instant start = Instant.now();
+
+        Map<String, Object> outputs = new HashMap<>();
+        outputs.put("inputs", context.inputs());
+        outputs.put("message", context.getConfig("message", null));
+        outputs.put("payload", BenchPayload.of((int) BenchPayload.number(context, "payloadBytes", 0)));
+        return AgentResult.success(outputs, Duration.between(start, Instant.now()));
+    }
+}
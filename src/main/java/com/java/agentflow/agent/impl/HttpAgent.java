@@ -4,11 +4,20 @@ import com.java.agentflow.agent.Agent;
 import com.java.agentflow.agent.AgentCapabilities;
 import com.java.agentflow.agent.AgentContext;
 import com.java.agentflow.agent.AgentResult;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.HashMap;
@@ -17,14 +26,20 @@ import java.util.Map;
 /**
  * Agent that makes HTTP requests to external APIs.
  * Supports GET, POST, PUT, DELETE with configurable headers and body.
+ * Response bodies over the size limit fail the request while being read,
+ * before they are buffered on the heap.
  */
 @Component
 public class HttpAgent implements Agent {
 
     private final RestTemplate restTemplate;
 
-    public HttpAgent() {
+    public HttpAgent(ObservationRegistry observationRegistry,
+            @Value("${agentflow.http.max-response-size:64MB}") DataSize maxResponseSize) {
         this.restTemplate = new RestTemplate();
+        // Client spans, and the trace context forwarded to the called service
+        this.restTemplate.setObservationRegistry(observationRegistry);
+        this.restTemplate.getInterceptors().add(new ResponseSizeLimit(maxResponseSize.toBytes()));
     }
 
     @Override
@@ -39,6 +54,13 @@ public class HttpAgent implements Agent {
                 "Makes HTTP requests to external APIs. Supports GET, POST, PUT, DELETE.");
     }
 
+    @Override
+    public boolean isCoalescible(AgentContext context) {
+        // Only safe methods; POST/PUT/DELETE/PATCH always run individually
+        String method = context.getConfig("method", "GET").toUpperCase();
+        return method.equals("GET") || method.equals("HEAD");
+    }
+
     @Override
     public AgentResult execute(AgentContext context) {
         Instant start = Instant.now();
@@ -85,4 +107,88 @@ public class HttpAgent implements Agent {
             return AgentResult.failure("Invalid configuration: " + e.getMessage(), executionTime);
         }
     }
+
+    /**
+     * Rejects responses that declare a larger Content-Length, and stops reading
+     * bodies without one as soon as they pass the limit.
+     */
+    private record ResponseSizeLimit(long maxBytes) implements ClientHttpRequestInterceptor {
+
+        @Override
+        public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+                throws IOException {
+            ClientHttpResponse response = execution.execute(request, body);
+            long declared = response.getHeaders().getContentLength();
+            if (declared > maxBytes) {
+                response.close();
+                throw new IOException("Response body of " + declared + " bytes exceeds the " + maxBytes
+                        + " byte limit");
+            }
+            return new LimitedResponse(response, maxBytes);
+        }
+    }
+
+    private record LimitedResponse(ClientHttpResponse response, long maxBytes) implements ClientHttpResponse {
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return response.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return response.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return response.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return new LimitedInputStream(response.getBody(), maxBytes);
+        }
+
+        @Override
+        public void close() {
+            response.close();
+        }
+    }
+
+    private static final class LimitedInputStream extends FilterInputStream {
+
+        private final long maxBytes;
+        private long read;
+
+        private LimitedInputStream(InputStream in, long maxBytes) {
+            super(in);
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count(n);
+            }
+            return n;
+        }
+
+        private void count(int n) throws IOException {
+            read += n;
+            if (read > maxBytes) {
+                throw new IOException("Response body exceeds the " + maxBytes + " byte limit");
+            }
+        }
+    }
 }
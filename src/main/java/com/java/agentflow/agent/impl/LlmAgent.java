@@ -4,7 +4,12 @@ import com.java.agentflow.agent.Agent;
 import com.java.agentflow.agent.AgentCapabilities;
 import com.java.agentflow.agent.AgentContext;
 import com.java.agentflow.agent.AgentResult;
+import com.java.agentflow.agent.ratelimit.LlmRateGovernor;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.exception.RateLimitException;
+import dev.langchain4j.exception.RetriableException;
 import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.response.ChatResponse;
 import dev.langchain4j.model.openai.OpenAiChatModel;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
@@ -23,14 +28,20 @@ public class LlmAgent implements Agent {
     private final String openaiKey;
     private final String openrouterKey;
     private final String groqKey;
+    private final LlmRateGovernor rateGovernor;
+    private final int rateLimitedAttempts;
 
     public LlmAgent(
             @Value("${openai.api.key:}") String openaiKey,
             @Value("${openrouter.api.key:}") String openrouterKey,
-            @Value("${groq.api.key:}") String groqKey) {
+            @Value("${groq.api.key:}") String groqKey,
+            @Value("${agentflow.llm.rate-limit.max-attempts:6}") int rateLimitedAttempts,
+            LlmRateGovernor rateGovernor) {
         this.openaiKey = openaiKey;
         this.openrouterKey = openrouterKey;
         this.groqKey = groqKey;
+        this.rateLimitedAttempts = rateLimitedAttempts;
+        this.rateGovernor = rateGovernor;
     }
 
     @Override
@@ -92,7 +103,8 @@ public class LlmAgent implements Agent {
                     .temperature(temperature)
                     .topP(topP)
                     .maxTokens(maxTokens)
-                    .maxRetries(maxRetries)
+                    // Retries are driven by the rate governor so 429s back off cluster-wide
+                    .maxRetries(0)
                     .timeout(Duration.ofSeconds(60));
 
             if (baseUrl != null) {
@@ -100,7 +112,8 @@ public class LlmAgent implements Agent {
             }
 
             ChatModel chatModel = builder.build();
-            String response = chatModel.chat(prompt);
+            String response = chat(chatModel, provider, model, prompt, maxTokens, maxRetries)
+                    .aiMessage().text();
 
             Map<String, Object> outputs = new HashMap<>();
             outputs.put("response", response);
@@ -110,9 +123,45 @@ public class LlmAgent implements Agent {
 
             return AgentResult.success(outputs, Duration.between(start, Instant.now()));
 
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return AgentResult.failure("LLM call interrupted", Duration.between(start, Instant.now()));
         } catch (Exception e) {
             return AgentResult.failure("LLM call failed: " + e.getMessage(),
                     Duration.between(start, Instant.now()));
         }
     }
+
+    /**
+     * Call the model through the rate governor. Rate-limited calls wait and retry up to
+     * the configured attempts; other retriable errors use the step's maxRetries.
+     */
+    private ChatResponse chat(ChatModel chatModel, String provider, String model, String prompt,
+            int maxTokens, int maxRetries) throws InterruptedException {
+        int estimatedTokens = prompt.length() / 4 + maxTokens;
+        int retries = 0;
+        int rateLimited = 0;
+
+        while (true) {
+            LlmRateGovernor.Permit permit = rateGovernor.acquire(provider, model, estimatedTokens);
+            try {
+                ChatResponse response = chatModel.chat(UserMessage.from(prompt));
+                permit.success(response.tokenUsage() != null ? response.tokenUsage().totalTokenCount() : null);
+                return response;
+            } catch (RateLimitException e) {
+                permit.rateLimited();
+                if (++rateLimited >= rateLimitedAttempts) {
+                    throw e;
+                }
+            } catch (RetriableException e) {
+                permit.failure();
+                if (++retries > maxRetries) {
+                    throw e;
+                }
+            } catch (RuntimeException e) {
+                permit.failure();
+                throw e;
+            }
+        }
+    }
 }
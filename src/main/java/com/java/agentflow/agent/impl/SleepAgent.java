@@ -0,0 +1,65 @@
+package com.java.agentflow.agent.impl;
+
+import com.java.agentflow.agent.Agent;
+import com.java.agentflow.agent.AgentCapabilities;
+import com.java.agentflow.agent.AgentContext;
+import com.java.agentflow.agent.AgentResult;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Benchmark agent standing in for a remote call: blocks for a configurable
+ * latency and returns a payload of configurable size.
+ * Only registered with {@code agentflow.bench.agents.enabled=true}.
+ */
+@Component
+@ConditionalOnProperty(name = "agentflow.bench.agents.enabled", havingValue = "true")
+public class SleepAgent implements Agent {
+
+    @Override
+    public String getType() {
+        return "sleep";
+    }
+
+    @Override
+    public AgentCapabilities getCapabilities() {
+        return new AgentCapabilities(
+                "sleep",
+                "Benchmark agent. Sleeps latencyMs (+/- jitterMs), returns payloadBytes of filler and fails with probability failureRate.");
+    }
+
+    @Override
+    public AgentResult execute(AgentContext context) {
+        Instant start = Instant.now();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        long latencyMs = BenchPayload.number(context, "latencyMs", 100);
+        long jitterMs = BenchPayload.number(context, "jitterMs", 0);
+        int payloadBytes = (int) BenchPayload.number(context, "payloadBytes", 0);
+        double failureRate = BenchPayload.fraction(context, "failureRate");
+
+        long sleepMs = Math.max(0, latencyMs + (jitterMs > 0 ? random.nextLong(-jitterMs, jitterMs + 1) : 0));
+        try {
+            Thread.sleep(sleepMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return AgentResult.failure("Interrupted", Duration.between(start, Instant.now()));
+        }
+
+        Duration executionTime = Duration.between(start, Instant.now());
+        if (failureRate > 0 && random.nextDouble() < failureRate) {
+            return AgentResult.failure("Injected failure", executionTime);
+        }
+
+        Map<String, Object> outputs = new HashMap<>();
+        outputs.put("sleptMs", sleepMs);
+        outputs.put("payload", BenchPayload.of(payloadBytes));
+        return AgentResult.success(outputs, executionTime);
+    }
+}
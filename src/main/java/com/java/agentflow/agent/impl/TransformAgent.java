@@ -1,12 +1,11 @@
 package com.java.agentflow.agent.impl;
 
-import com.fasterxml.jackson.core.JsonPointer;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.java.agentflow.agent.Agent;
 import com.java.agentflow.agent.AgentCapabilities;
 import com.java.agentflow.agent.AgentContext;
 import com.java.agentflow.agent.AgentResult;
+import com.java.agentflow.agent.transform.ProjectionCache;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.time.Duration;
@@ -21,10 +20,10 @@ import java.util.Map;
 @Component
 public class TransformAgent implements Agent {
 
-    private final ObjectMapper objectMapper;
+    private final ProjectionCache projections;
 
-    public TransformAgent() {
-        this.objectMapper = new ObjectMapper();
+    public TransformAgent(@Value("${agentflow.transform.projection-cache-size:1024}") int cacheSize) {
+        this.projections = new ProjectionCache(cacheSize);
     }
 
     @Override
@@ -36,7 +35,7 @@ public class TransformAgent implements Agent {
     public AgentCapabilities getCapabilities() {
         return new AgentCapabilities(
                 "transform",
-                "Transforms data using JSON Pointer expressions. Extract and restructure data.");
+                "Transforms data using JSON Pointer expressions (with * array wildcards). Extract and restructure data.");
     }
 
     @Override
@@ -56,25 +55,18 @@ public class TransformAgent implements Agent {
             // Get optional output mappings
             Map<String, String> mappings = context.getConfig("mappings", null);
 
-            Map<String, Object> outputs = new HashMap<>();
-
-            // Convert input to JsonNode for processing
-            JsonNode rootNode = objectMapper.valueToTree(inputData);
+            Map<String, Object> outputs;
 
+            // Compiled projections walk the input Map/List structure directly
             if (expression != null) {
                 // Single expression mode - extract one value
-                JsonNode result = extractValue(rootNode, expression);
-                outputs.put("result", nodeToValue(result));
+                outputs = projections.forExpression(expression).apply(inputData);
             } else if (mappings != null) {
-                // Mapping mode - extract multiple values
-                for (Map.Entry<String, String> mapping : mappings.entrySet()) {
-                    String outputKey = mapping.getKey();
-                    String path = mapping.getValue();
-                    JsonNode result = extractValue(rootNode, path);
-                    outputs.put(outputKey, nodeToValue(result));
-                }
+                // Mapping mode - extract all values in one pass
+                outputs = projections.forMappings(mappings).apply(inputData);
             } else {
                 // Pass-through mode
+                outputs = new HashMap<>();
                 outputs.put("result", inputData);
             }
 
@@ -86,32 +78,4 @@ public class TransformAgent implements Agent {
             return AgentResult.failure("Transform failed: " + e.getMessage(), executionTime);
         }
     }
-
-    private JsonNode extractValue(JsonNode root, String expression) {
-        // Support both "/path/to/value" and "path.to.value" formats
-        String pointer = expression.startsWith("/")
-                ? expression
-                : "/" + expression.replace(".", "/");
-
-        return root.at(JsonPointer.compile(pointer));
-    }
-
-    private Object nodeToValue(JsonNode node) {
-        if (node == null || node.isMissingNode() || node.isNull()) {
-            return null;
-        }
-        if (node.isTextual()) {
-            return node.asText();
-        }
-        if (node.isNumber()) {
-            return node.numberValue();
-        }
-        if (node.isBoolean()) {
-            return node.asBoolean();
-        }
-        if (node.isArray() || node.isObject()) {
-            return objectMapper.convertValue(node, Object.class);
-        }
-        return node.asText();
-    }
 }
@@ -0,0 +1,157 @@
+package com.java.agentflow.agent.impl;
+
+import com.java.agentflow.agent.Agent;
+import com.java.agentflow.agent.AgentCapabilities;
+import com.java.agentflow.agent.AgentContext;
+import com.java.agentflow.agent.AgentResult;
+import com.java.agentflow.agent.NonRetryableAgentException;
+import com.java.agentflow.workflow.engine.ExecutionScope;
+import com.java.agentflow.workflow.engine.WorkflowExecutor;
+import com.java.agentflow.workflow.entity.Workflow;
+import com.java.agentflow.workflow.entity.WorkflowExecution;
+import com.java.agentflow.workflow.model.ExecutionStatus;
+import com.java.agentflow.workflow.parser.WorkflowParseException;
+import com.java.agentflow.workflow.parser.WorkflowParser;
+import com.java.agentflow.workflow.repository.WorkflowRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Agent that runs another registered workflow in-process, by name and
+ * optionally version (latest otherwise). The child runs through the engine on
+ * the step's thread and shares the step pool and the caller's deadline,
+ * with no HTTP call, serialization or quota of its own.
+ *
+ * Config: {@code workflow}, {@code version}, {@code inputs}, {@code ephemeral}
+ * (defaults to the child's own flag) and {@code timeout}. Outputs are the
+ * child's status, execution id and step outputs, so later steps can read
+ * {@code ${steps.<id>.outputs.steps.<childStep>.outputs...}}.
+ *
+ * Failures are not retried: the child's steps have retried already, and
+ * retrying at every level would multiply attempts with the nesting depth.
+ */
+@Component
+public class WorkflowAgent implements Agent {
+
+    private static final int MAX_CACHED_WORKFLOWS = 1024;
+
+    private final WorkflowRepository workflowRepository;
+    private final ObjectProvider<WorkflowExecutor> workflowExecutor;
+    private final int maxDepth;
+    private final long cacheTtlMillis;
+    private final Map<String, CachedWorkflow> workflows = new ConcurrentHashMap<>();
+
+    public WorkflowAgent(
+            WorkflowRepository workflowRepository,
+            // The executor runs agents, so it is looked up when first needed
+            ObjectProvider<WorkflowExecutor> workflowExecutor,
+            @Value("${agentflow.agents.workflow.max-depth:5}") int maxDepth,
+            @Value("${agentflow.agents.workflow.cache-ttl:PT30S}") Duration cacheTtl) {
+        this.workflowRepository = workflowRepository;
+        this.workflowExecutor = workflowExecutor;
+        this.maxDepth = maxDepth;
+        this.cacheTtlMillis = cacheTtl.toMillis();
+    }
+
+    @Override
+    public String getType() {
+        return "workflow";
+    }
+
+    @Override
+    public AgentCapabilities getCapabilities() {
+        return new AgentCapabilities(
+                "workflow",
+                "Runs another workflow in-process. Config: workflow (name), version, inputs, ephemeral, timeout.");
+    }
+
+    @Override
+    public AgentResult execute(AgentContext context) {
+        Instant start = Instant.now();
+        String name = context.getRequiredConfig("workflow");
+        Object version = context.getConfig("version", null);
+        Map<String, Object> inputs = context.getConfig("inputs", Map.of());
+
+        int depth = ExecutionScope.current().depth() + 1;
+        if (depth > maxDepth) {
+            throw new NonRetryableAgentException("Sub-workflow " + name + " would nest " + depth
+                    + " levels deep (max " + maxDepth + ")");
+        }
+
+        Workflow workflow = find(name, version != null ? version.toString() : null)
+                .orElseThrow(() -> new NonRetryableAgentException(
+                        "Workflow not found: " + name + (version != null ? " " + version : "")));
+
+        WorkflowExecution child = workflowExecutor.getObject()
+                .executeNested(workflow, inputs, ephemeral(context), timeout(context));
+        Duration executionTime = Duration.between(start, Instant.now());
+        if (child.getStatus() != ExecutionStatus.COMPLETED) {
+            throw new NonRetryableAgentException("Sub-workflow " + name + " failed: " + child.getError());
+        }
+
+        Map<String, Object> outputs = new HashMap<>();
+        outputs.put("executionId", child.getId().toString());
+        outputs.put("status", child.getStatus().name());
+        outputs.put("steps", child.getOutputs().get("steps"));
+        return AgentResult.success(outputs, executionTime);
+    }
+
+    /**
+     * Workflows are never modified, only deleted, so a lookup is reused for
+     * the cache TTL; a deleted workflow may still run for that long.
+     */
+    private Optional<Workflow> find(String name, String version) {
+        String key = version != null ? name + "\u0000" + version : name;
+        long now = System.currentTimeMillis();
+        CachedWorkflow cached = workflows.get(key);
+        if (cached != null && cached.expiresAt() > now) {
+            return Optional.of(cached.workflow());
+        }
+        Optional<Workflow> found = version != null
+                ? workflowRepository.findByNameAndVersion(name, version)
+                : workflowRepository.findFirstByNameOrderByVersionDesc(name);
+        if (found.isPresent()) {
+            if (workflows.size() >= MAX_CACHED_WORKFLOWS) {
+                workflows.clear();
+            }
+            workflows.put(key, new CachedWorkflow(found.get(), now + cacheTtlMillis));
+        } else {
+            workflows.remove(key);
+        }
+        return found;
+    }
+
+    /**
+     * The ephemeral flag, or null to follow the child's definition. Invalid
+     * values fail the step rather than silently running persisted.
+     */
+    private static Boolean ephemeral(AgentContext context) {
+        try {
+            return WorkflowParser.parseFlag(context.getConfig("ephemeral", null), "ephemeral");
+        } catch (WorkflowParseException e) {
+            throw new NonRetryableAgentException(e.getMessage());
+        }
+    }
+
+    private static Duration timeout(AgentContext context) {
+        Object value = context.getConfig("timeout", null);
+        if (value == null) {
+            return null;
+        }
+        return value instanceof Number millis
+                ? Duration.ofMillis(millis.longValue())
+                : DurationStyle.detectAndParse(value.toString());
+    }
+
+    private record CachedWorkflow(Workflow workflow, long expiresAt) {
+    }
+}
@@ -0,0 +1,102 @@
+package com.java.agentflow.agent.ratelimit;
+
+import java.time.Duration;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Local adaptive concurrency limit using additive-increase / multiplicative-decrease.
+ * Callers over the limit wait in a fair FIFO queue instead of failing.
+ */
+class AimdLimiter {
+
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final Condition slotFreed = lock.newCondition();
+
+    private final double minLimit;
+    private final double maxLimit;
+    private final double backoffRatio;
+    private final long latencyThresholdNanos;
+
+    private double limit;
+    private int inFlight;
+
+    AimdLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio, Duration latencyThreshold) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.backoffRatio = backoffRatio;
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+    }
+
+    /**
+     * Wait for a concurrency slot.
+     *
+     * @return false if no slot became free before the deadline
+     */
+    boolean acquire(long deadlineNanos) throws InterruptedException {
+        lock.lock();
+        try {
+            while (inFlight >= (int) limit) {
+                long remaining = deadlineNanos - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                slotFreed.awaitNanos(remaining);
+            }
+            inFlight++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Release a slot and adjust the limit from the call outcome.
+     */
+    void release(Outcome outcome, long latencyNanos) {
+        lock.lock();
+        try {
+            inFlight--;
+            switch (outcome) {
+                case RATE_LIMITED -> limit = Math.max(minLimit, limit * backoffRatio);
+                case SUCCESS -> {
+                    if (latencyNanos > latencyThresholdNanos) {
+                        // Slow responses are an early sign of provider saturation
+                        limit = Math.max(minLimit, limit * Math.sqrt(backoffRatio));
+                    } else {
+                        limit = Math.min(maxLimit, limit + 1.0 / limit);
+                    }
+                }
+                case ERROR -> {
+                    // Unrelated failures do not move the limit
+                }
+            }
+            slotFreed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    double limit() {
+        lock.lock();
+        try {
+            return limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int inFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    enum Outcome {
+        SUCCESS, RATE_LIMITED, ERROR
+    }
+}
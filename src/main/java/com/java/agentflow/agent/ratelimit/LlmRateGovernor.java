@@ -0,0 +1,238 @@
+package com.java.agentflow.agent.ratelimit;
+
+import com.java.agentflow.agent.ratelimit.AimdLimiter.Outcome;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Governs calls to LLM providers per provider and model.
+ * Combines a cluster-wide requests/tokens-per-minute budget and a shared
+ * cooldown (both in Redis) with a local AIMD concurrency limit. Calls that
+ * exceed either wait locally instead of failing.
+ *
+ * Limits are read from {@code agentflow.llm.rate-limit.<provider>.*} and can be
+ * overridden per model with {@code agentflow.llm.rate-limit.<provider>.models[<model>].*}.
+ */
+@Component
+public class LlmRateGovernor {
+
+    private static final Logger log = LoggerFactory.getLogger(LlmRateGovernor.class);
+    private static final String PREFIX = "agentflow.llm.rate-limit.";
+
+    private final StringRedisTemplate redis;
+    private final MeterRegistry meterRegistry;
+    private final Environment environment;
+    private final DefaultRedisScript<Long> budgetScript;
+    private final Map<String, AimdLimiter> limiters = new ConcurrentHashMap<>();
+
+    private final boolean enabled;
+    private final Duration maxWait;
+    private final Duration cooldown;
+
+    public LlmRateGovernor(
+            StringRedisTemplate redis,
+            MeterRegistry meterRegistry,
+            Environment environment,
+            @Value("${agentflow.llm.rate-limit.enabled:true}") boolean enabled,
+            @Value("${agentflow.llm.rate-limit.max-wait:PT60S}") Duration maxWait,
+            @Value("${agentflow.llm.rate-limit.cooldown:PT2S}") Duration cooldown) {
+        this.redis = redis;
+        this.meterRegistry = meterRegistry;
+        this.environment = environment;
+        this.enabled = enabled;
+        this.maxWait = maxWait;
+        this.cooldown = cooldown;
+
+        this.budgetScript = new DefaultRedisScript<>();
+        this.budgetScript.setScriptSource(new ResourceScriptSource(new ClassPathResource("redis/llm-budget.lua")));
+        this.budgetScript.setResultType(Long.class);
+    }
+
+    /**
+     * Wait for capacity to make one call.
+     *
+     * @param estimatedTokens prompt plus max completion tokens, reserved against the token budget
+     * @throws RateLimitWaitExceededException if capacity did not free up within the max wait
+     */
+    public Permit acquire(String provider, String model, int estimatedTokens) throws InterruptedException {
+        String key = provider.toLowerCase() + ":" + model;
+        if (!enabled) {
+            return new Permit(key, null, 0);
+        }
+
+        long start = System.nanoTime();
+        long deadline = start + maxWait.toNanos();
+        AimdLimiter limiter = limiters.computeIfAbsent(key, k -> createLimiter(provider, model, k));
+
+        if (!limiter.acquire(deadline)) {
+            throw waitExceeded(key);
+        }
+
+        try {
+            reserveBudget(provider, model, key, estimatedTokens, deadline);
+        } catch (InterruptedException | RuntimeException e) {
+            limiter.release(Outcome.ERROR, 0);
+            throw e;
+        }
+
+        meterRegistry.timer("agentflow.llm.rate-limit.wait", "key", key)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return new Permit(key, limiter, estimatedTokens);
+    }
+
+    private void reserveBudget(String provider, String model, String key, int tokens, long deadline)
+            throws InterruptedException {
+        int rpm = limit(provider, model, "requests-per-minute", 0);
+        int tpm = limit(provider, model, "tokens-per-minute", 0);
+
+        while (true) {
+            long now = System.currentTimeMillis();
+            long window = now / 60_000;
+            long windowLeft = 60_000 - now % 60_000;
+
+            Long waitMs;
+            try {
+                waitMs = redis.execute(budgetScript,
+                        List.of(budgetKey(key, "requests", window), budgetKey(key, "tokens", window), cooldownKey(key)),
+                        String.valueOf(rpm),
+                        String.valueOf(tpm),
+                        String.valueOf(tokens),
+                        String.valueOf(windowLeft));
+            } catch (DataAccessException e) {
+                // Fail open: the local AIMD limit still protects the provider
+                log.warn("LLM budget check skipped, Redis unavailable: {}", e.getMessage());
+                return;
+            }
+
+            if (waitMs == null || waitMs <= 0) {
+                return;
+            }
+
+            long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMs <= 0) {
+                throw waitExceeded(key);
+            }
+            meterRegistry.counter("agentflow.llm.rate-limit.throttled", "key", key).increment();
+            Thread.sleep(Math.min(waitMs, remainingMs));
+        }
+    }
+
+    private AimdLimiter createLimiter(String provider, String model, String key) {
+        AimdLimiter limiter = new AimdLimiter(
+                limit(provider, model, "initial-concurrency", 4),
+                limit(provider, model, "min-concurrency", 1),
+                limit(provider, model, "max-concurrency", 32),
+                environment.getProperty(PREFIX + "backoff-ratio", Double.class, 0.5),
+                environment.getProperty(PREFIX + "latency-threshold", Duration.class, Duration.ofSeconds(20)));
+
+        Tags tags = Tags.of("key", key);
+        Gauge.builder("agentflow.llm.rate-limit.concurrency.limit", limiter, AimdLimiter::limit)
+                .tags(tags).register(meterRegistry);
+        Gauge.builder("agentflow.llm.rate-limit.concurrency.in-flight", limiter, AimdLimiter::inFlight)
+                .tags(tags).register(meterRegistry);
+        return limiter;
+    }
+
+    private int limit(String provider, String model, String name, int defaultValue) {
+        String providerKey = PREFIX + provider.toLowerCase() + ".";
+        Integer modelLimit = environment.getProperty(providerKey + "models[" + model + "]." + name, Integer.class);
+        if (modelLimit != null) {
+            return modelLimit;
+        }
+        Integer providerLimit = environment.getProperty(providerKey + name, Integer.class);
+        return providerLimit != null ? providerLimit : defaultValue;
+    }
+
+    private RateLimitWaitExceededException waitExceeded(String key) {
+        meterRegistry.counter("agentflow.llm.rate-limit.wait-exceeded", "key", key).increment();
+        return new RateLimitWaitExceededException("Timed out after " + maxWait.toSeconds()
+                + "s waiting for LLM capacity on " + key);
+    }
+
+    private String budgetKey(String key, String kind, long window) {
+        return "llm:budget:" + key + ":" + kind + ":" + window;
+    }
+
+    private String cooldownKey(String key) {
+        return "llm:cooldown:" + key;
+    }
+
+    /**
+     * A reserved call slot. Report exactly one outcome when the call finishes.
+     */
+    public final class Permit {
+
+        private final String key;
+        private final AimdLimiter limiter;
+        private final int reservedTokens;
+        private final long startNanos = System.nanoTime();
+        private boolean released;
+
+        private Permit(String key, AimdLimiter limiter, int reservedTokens) {
+            this.key = key;
+            this.limiter = limiter;
+            this.reservedTokens = reservedTokens;
+        }
+
+        /**
+         * The call succeeded; corrects the token reservation with the actual usage.
+         */
+        public void success(Integer actualTokens) {
+            if (release(Outcome.SUCCESS) && actualTokens != null && actualTokens != reservedTokens) {
+                long window = System.currentTimeMillis() / 60_000;
+                try {
+                    redis.opsForValue().increment(budgetKey(key, "tokens", window), actualTokens - reservedTokens);
+                } catch (DataAccessException e) {
+                    log.debug("Failed to adjust token budget for {}: {}", key, e.getMessage());
+                }
+            }
+        }
+
+        /**
+         * The provider answered 429; shrinks the local limit and pauses every node.
+         */
+        public void rateLimited() {
+            if (release(Outcome.RATE_LIMITED)) {
+                meterRegistry.counter("agentflow.llm.rate-limit.rejections", "key", key).increment();
+                try {
+                    redis.opsForValue().set(cooldownKey(key), "1", cooldown);
+                } catch (DataAccessException e) {
+                    log.debug("Failed to set cooldown for {}: {}", key, e.getMessage());
+                }
+            }
+        }
+
+        /**
+         * The call failed for another reason.
+         */
+        public void failure() {
+            release(Outcome.ERROR);
+        }
+
+        private boolean release(Outcome outcome) {
+            if (released || limiter == null) {
+                return false;
+            }
+            released = true;
+            limiter.release(outcome, System.nanoTime() - startNanos);
+            return true;
+        }
+    }
+}
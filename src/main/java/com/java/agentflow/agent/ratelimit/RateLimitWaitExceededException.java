@@ -0,0 +1,11 @@
+package com.java.agentflow.agent.ratelimit;
+
+/**
+ * Exception thrown when a call waited longer than allowed for provider capacity.
+ */
+public class RateLimitWaitExceededException extends RuntimeException {
+
+    public RateLimitWaitExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,64 @@
+package com.java.agentflow.agent.search;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of search results with a fixed time-to-live.
+ * Queries are normalized so that case and whitespace differences share an entry.
+ * Empty results are not cached, as they are often transient (a blocked or
+ * changed page) and would hide results that appear shortly after.
+ */
+public class SearchResultCache {
+
+    private final Duration ttl;
+    private final Map<String, Entry> entries;
+
+    public SearchResultCache(Duration ttl, int maxEntries) {
+        this.ttl = ttl;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public synchronized List<Map<String, String>> get(String query, int maxResults) {
+        if (ttl.isZero()) {
+            return null;
+        }
+        String key = key(query, maxResults);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt() < System.nanoTime()) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.results();
+    }
+
+    public synchronized void put(String query, int maxResults, List<Map<String, String>> results) {
+        if (ttl.isZero() || results.isEmpty()) {
+            return;
+        }
+        List<Map<String, String>> immutable = results.stream().map(Map::copyOf).toList();
+        entries.put(key(query, maxResults), new Entry(immutable, System.nanoTime() + ttl.toNanos()));
+    }
+
+    static String normalize(String query) {
+        return query.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static String key(String query, int maxResults) {
+        return maxResults + "|" + normalize(query);
+    }
+
+    private record Entry(List<Map<String, String>> results, long expiresAt) {
+    }
+}
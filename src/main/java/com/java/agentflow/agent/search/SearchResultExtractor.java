@@ -0,0 +1,281 @@
+package com.java.agentflow.agent.search;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Single-pass, streaming extractor for DuckDuckGo HTML result pages.
+ * Tokenizes the response as it is read and groups each title, link and snippet
+ * by the result block that contains it, so a missing snippet never shifts the
+ * following results. Stops reading as soon as enough results are complete.
+ */
+public class SearchResultExtractor {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Extract up to {@code maxResults} results from the page.
+     */
+    public List<Map<String, String>> extract(Reader reader, int maxResults) throws IOException {
+        return new Pass(reader, maxResults).run();
+    }
+
+    /**
+     * State for one extraction. Not thread-safe; a new pass is created per call.
+     */
+    private static final class Pass {
+
+        private final Reader reader;
+        private final int maxResults;
+        private final char[] buffer = new char[BUFFER_SIZE];
+        private int position;
+        private int limit;
+
+        private final List<Map<String, String>> results = new ArrayList<>();
+        private final StringBuilder tag = new StringBuilder(256);
+        private final StringBuilder text = new StringBuilder(256);
+
+        private Map<String, String> current;
+        private String capturing; // "title" or "snippet" while inside the matching anchor
+        private int anchorDepth;
+
+        private Pass(Reader reader, int maxResults) {
+            this.reader = reader;
+            this.maxResults = maxResults;
+        }
+
+        private List<Map<String, String>> run() throws IOException {
+            int c;
+            while ((c = read()) != -1) {
+                if (c == '<') {
+                    readTag();
+                    if (!handleTag()) {
+                        break;
+                    }
+                } else if (capturing != null) {
+                    text.append((char) c);
+                }
+            }
+            finishResult();
+            return results;
+        }
+
+        private int read() throws IOException {
+            if (position == limit) {
+                limit = reader.read(buffer, 0, buffer.length);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return -1;
+                }
+            }
+            return buffer[position++];
+        }
+
+        /**
+         * Read the rest of a tag up to its closing '>', honouring quoted attribute values.
+         */
+        private void readTag() throws IOException {
+            tag.setLength(0);
+            char quote = 0;
+            int c;
+            while ((c = read()) != -1) {
+                if (quote != 0) {
+                    if (c == quote) {
+                        quote = 0;
+                    }
+                } else if (c == '"' || c == '\'') {
+                    quote = (char) c;
+                } else if (c == '>') {
+                    return;
+                }
+                tag.append((char) c);
+            }
+        }
+
+        /**
+         * Returns false once enough results are complete and reading can stop.
+         */
+        private boolean handleTag() {
+            if (tag.isEmpty() || tag.charAt(0) == '!') {
+                return true;
+            }
+
+            if (tag.charAt(0) == '/') {
+                if (capturing != null && isTag(tag, 1, "a") && --anchorDepth == 0) {
+                    String value = decodeEntities(text.toString().strip());
+                    if (current != null && !value.isEmpty()) {
+                        current.putIfAbsent(capturing, value);
+                    }
+                    capturing = null;
+                }
+                return true;
+            }
+
+            if (capturing != null && isTag(tag, 0, "a")) {
+                anchorDepth++;
+                return true;
+            }
+
+            String classes = attribute(tag, "class");
+            if (classes == null) {
+                return true;
+            }
+
+            if (hasClass(classes, "result")) {
+                finishResult();
+                if (results.size() >= maxResults) {
+                    return false;
+                }
+                // Sponsored blocks are skipped entirely
+                current = hasClass(classes, "result--ad") ? null : new HashMap<>();
+            } else if (current != null && isTag(tag, 0, "a")) {
+                if (hasClass(classes, "result__a")) {
+                    String href = attribute(tag, "href");
+                    if (href != null) {
+                        current.putIfAbsent("url", decodeEntities(href));
+                    }
+                    startCapture("title");
+                } else if (hasClass(classes, "result__snippet")) {
+                    startCapture("snippet");
+                }
+            }
+            return true;
+        }
+
+        private void startCapture(String field) {
+            capturing = field;
+            anchorDepth = 1;
+            text.setLength(0);
+        }
+
+        private void finishResult() {
+            if (current != null && current.containsKey("url") && current.containsKey("title")
+                    && results.size() < maxResults) {
+                results.add(current);
+            }
+            current = null;
+            capturing = null;
+        }
+    }
+
+    private static boolean isTag(CharSequence tag, int offset, String name) {
+        int end = offset + name.length();
+        if (tag.length() < end) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            if (Character.toLowerCase(tag.charAt(offset + i)) != name.charAt(i)) {
+                return false;
+            }
+        }
+        return tag.length() == end || Character.isWhitespace(tag.charAt(end)) || tag.charAt(end) == '/';
+    }
+
+    /**
+     * Find a quoted attribute value inside a raw tag, or null if absent.
+     */
+    static String attribute(CharSequence tag, String name) {
+        String raw = tag.toString();
+        int from = 0;
+        while (true) {
+            int index = raw.indexOf(name, from);
+            if (index < 0) {
+                return null;
+            }
+            int after = index + name.length();
+            boolean boundary = index > 0 && Character.isWhitespace(raw.charAt(index - 1));
+            int eq = after;
+            while (eq < raw.length() && Character.isWhitespace(raw.charAt(eq))) {
+                eq++;
+            }
+            if (boundary && eq < raw.length() && raw.charAt(eq) == '=') {
+                int start = eq + 1;
+                while (start < raw.length() && Character.isWhitespace(raw.charAt(start))) {
+                    start++;
+                }
+                if (start >= raw.length()) {
+                    return null;
+                }
+                char quote = raw.charAt(start);
+                if (quote == '"' || quote == '\'') {
+                    int end = raw.indexOf(quote, start + 1);
+                    return end < 0 ? raw.substring(start + 1) : raw.substring(start + 1, end);
+                }
+                int end = start;
+                while (end < raw.length() && !Character.isWhitespace(raw.charAt(end))) {
+                    end++;
+                }
+                return raw.substring(start, end);
+            }
+            from = after;
+        }
+    }
+
+    static boolean hasClass(String classes, String name) {
+        int index = 0;
+        while ((index = classes.indexOf(name, index)) >= 0) {
+            int end = index + name.length();
+            boolean startOk = index == 0 || Character.isWhitespace(classes.charAt(index - 1));
+            boolean endOk = end == classes.length() || Character.isWhitespace(classes.charAt(end));
+            if (startOk && endOk) {
+                return true;
+            }
+            index = end;
+        }
+        return false;
+    }
+
+    static String decodeEntities(String value) {
+        if (value.indexOf('&') < 0) {
+            return value;
+        }
+        StringBuilder out = new StringBuilder(value.length());
+        int i = 0;
+        while (i < value.length()) {
+            char c = value.charAt(i);
+            int semi = c == '&' ? value.indexOf(';', i) : -1;
+            if (semi < 0 || semi - i > 10) {
+                out.append(c);
+                i++;
+                continue;
+            }
+            String entity = value.substring(i + 1, semi);
+            String decoded = switch (entity) {
+                case "amp" -> "&";
+                case "lt" -> "<";
+                case "gt" -> ">";
+                case "quot" -> "\"";
+                case "apos" -> "'";
+                case "nbsp" -> " ";
+                default -> decodeNumeric(entity);
+            };
+            if (decoded == null) {
+                out.append(c);
+                i++;
+            } else {
+                out.append(decoded);
+                i = semi + 1;
+            }
+        }
+        return out.toString();
+    }
+
+    private static String decodeNumeric(String entity) {
+        if (entity.length() < 2 || entity.charAt(0) != '#') {
+            return null;
+        }
+        try {
+            int codePoint = entity.charAt(1) == 'x' || entity.charAt(1) == 'X'
+                    ? Integer.parseInt(entity.substring(2), 16)
+                    : Integer.parseInt(entity.substring(1));
+            return new String(Character.toChars(codePoint));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
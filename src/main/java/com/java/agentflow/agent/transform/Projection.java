@@ -0,0 +1,188 @@
+package com.java.agentflow.agent.transform;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.*;
+
+/**
+ * A compiled set of path expressions evaluated directly against Map/List data.
+ * Paths sharing a prefix are merged into a trie, so every mapping is resolved in
+ * a single walk and nothing is copied into an intermediate tree.
+ *
+ * Paths use JSON Pointer ("/body/items/0/title") or dotted ("body.items.0.title")
+ * syntax. A "*" segment maps over every element of a list, producing a list.
+ */
+public final class Projection {
+
+    private static final ObjectMapper FALLBACK_MAPPER = new ObjectMapper();
+
+    private final Node root = new Node();
+    private final List<String> outputKeys = new ArrayList<>();
+
+    private Projection() {
+    }
+
+    /**
+     * Compile named paths into one projection. Output keys keep mapping order.
+     */
+    public static Projection compile(Map<String, String> mappings) {
+        Projection projection = new Projection();
+        for (Map.Entry<String, String> mapping : mappings.entrySet()) {
+            projection.add(mapping.getKey(), mapping.getValue());
+        }
+        projection.root.freeze();
+        return projection;
+    }
+
+    private void add(String outputKey, String expression) {
+        Node node = root;
+        for (String token : tokenize(expression)) {
+            node = node.child(token);
+        }
+        node.outputKeys.add(outputKey);
+        outputKeys.add(outputKey);
+    }
+
+    /**
+     * Evaluate every path against the data. Missing values map to null.
+     */
+    public Map<String, Object> apply(Object data) {
+        Map<String, Object> out = new LinkedHashMap<>();
+        for (String key : outputKeys) {
+            out.put(key, null);
+        }
+        walk(root, data, out);
+        return out;
+    }
+
+    private static void walk(Node node, Object value, Map<String, Object> out) {
+        for (String key : node.outputKeys) {
+            out.put(key, value);
+        }
+        if (value == null) {
+            return;
+        }
+        if (!isContainer(value) && !isScalar(value)) {
+            // Arbitrary objects are converted once so their properties can be walked
+            value = FALLBACK_MAPPER.convertValue(value, Object.class);
+        }
+
+        for (Map.Entry<String, Node> child : node.children.entrySet()) {
+            walk(child.getValue(), child.getValue().step(child.getKey(), value), out);
+        }
+
+        if (node.wildcard != null) {
+            if (value instanceof List<?> list) {
+                List<String> keys = node.wildcard.leafKeys;
+                Map<String, List<Object>> collected = new LinkedHashMap<>();
+                for (String key : keys) {
+                    collected.put(key, new ArrayList<>(list.size()));
+                }
+                Map<String, Object> element = new HashMap<>();
+                for (Object item : list) {
+                    element.clear();
+                    walk(node.wildcard, item, element);
+                    for (String key : keys) {
+                        collected.get(key).add(element.get(key));
+                    }
+                }
+                out.putAll(collected);
+            } else if (value instanceof Map<?, ?> map) {
+                // A literal "*" key on an object, as plain JSON Pointer would read it
+                walk(node.wildcard, map.get("*"), out);
+            }
+        }
+    }
+
+    private static boolean isContainer(Object value) {
+        return value instanceof Map<?, ?> || value instanceof List<?>;
+    }
+
+    private static boolean isScalar(Object value) {
+        return value instanceof CharSequence || value instanceof Number || value instanceof Boolean
+                || value instanceof Character;
+    }
+
+    /**
+     * Split an expression into unescaped JSON Pointer tokens.
+     */
+    static List<String> tokenize(String expression) {
+        // Support both "/path/to/value" and "path.to.value" formats
+        String pointer = expression.startsWith("/")
+                ? expression
+                : "/" + expression.replace(".", "/");
+
+        if (pointer.isEmpty()) {
+            return List.of();
+        }
+        String[] parts = pointer.substring(1).split("/", -1);
+        List<String> tokens = new ArrayList<>(parts.length);
+        for (String part : parts) {
+            tokens.add(part.replace("~1", "/").replace("~0", "~"));
+        }
+        return tokens;
+    }
+
+    private static final class Node {
+        private final Map<String, Node> children = new LinkedHashMap<>();
+        private final List<String> outputKeys = new ArrayList<>(1);
+        private Node wildcard;
+        private int index = -1;
+        private List<String> leafKeys = List.of();
+
+        private Node child(String token) {
+            if (token.equals("*")) {
+                if (wildcard == null) {
+                    wildcard = new Node();
+                }
+                return wildcard;
+            }
+            return children.computeIfAbsent(token, t -> {
+                Node node = new Node();
+                node.index = parseIndex(t);
+                return node;
+            });
+        }
+
+        /**
+         * Resolve one token against a value: object field or array index.
+         */
+        private Object step(String token, Object value) {
+            if (value instanceof Map<?, ?> map) {
+                return map.get(token);
+            }
+            if (value instanceof List<?> list) {
+                return index >= 0 && index < list.size() ? list.get(index) : null;
+            }
+            return null;
+        }
+
+        /**
+         * Precompute the output keys below each node once compilation is done.
+         */
+        private List<String> freeze() {
+            List<String> keys = new ArrayList<>(outputKeys);
+            children.values().forEach(child -> keys.addAll(child.freeze()));
+            if (wildcard != null) {
+                keys.addAll(wildcard.freeze());
+            }
+            leafKeys = List.copyOf(keys);
+            return leafKeys;
+        }
+
+        /**
+         * Array index per JSON Pointer rules: digits only, no leading zeros.
+         */
+        private static int parseIndex(String token) {
+            if (token.isEmpty() || token.length() > 9 || (token.length() > 1 && token.charAt(0) == '0')) {
+                return -1;
+            }
+            for (int i = 0; i < token.length(); i++) {
+                if (!Character.isDigit(token.charAt(i))) {
+                    return -1;
+                }
+            }
+            return Integer.parseInt(token);
+        }
+    }
+}
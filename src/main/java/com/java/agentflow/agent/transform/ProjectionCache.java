@@ -0,0 +1,47 @@
+package com.java.agentflow.agent.transform;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches compiled projections by expression or mapping set.
+ * Workflow configs are static, so the same few expressions repeat on every run.
+ */
+public class ProjectionCache {
+
+    private static final String SINGLE_KEY = "result";
+
+    private final int maxEntries;
+    private final Map<Object, Projection> projections = new ConcurrentHashMap<>();
+
+    public ProjectionCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Projection for a single expression, producing a "result" key.
+     */
+    public Projection forExpression(String expression) {
+        return lookup(expression, () -> Projection.compile(Map.of(SINGLE_KEY, expression)));
+    }
+
+    /**
+     * Projection for a set of output key to expression mappings.
+     */
+    public Projection forMappings(Map<String, String> mappings) {
+        Map<String, String> key = Map.copyOf(mappings);
+        return lookup(key, () -> Projection.compile(mappings));
+    }
+
+    private Projection lookup(Object key, java.util.function.Supplier<Projection> compiler) {
+        Projection projection = projections.get(key);
+        if (projection != null) {
+            return projection;
+        }
+        if (projections.size() >= maxEntries) {
+            // Interpolated expressions can be unbounded; start over rather than grow forever
+            projections.clear();
+        }
+        return projections.computeIfAbsent(key, k -> compiler.get());
+    }
+}
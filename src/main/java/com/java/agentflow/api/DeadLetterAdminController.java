@@ -0,0 +1,89 @@
+package com.java.agentflow.api;
+
+import com.java.agentflow.api.dto.RedriveRequest;
+import com.java.agentflow.async.DeadLetterFilter;
+import com.java.agentflow.async.DeadLetterRedriveService;
+import com.java.agentflow.async.DeadLetterRedriveService.Entry;
+import com.java.agentflow.async.DeadLetterRedriveService.Progress;
+import com.java.agentflow.async.RedriveJobNotFoundException;
+import com.java.agentflow.workflow.model.ExecutionStatus;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Admin API for inspecting dead letters and re-driving them onto the queue.
+ */
+@RestController
+@RequestMapping("/api/admin/dead-letters")
+@Tag(name = "Admin", description = "Operational endpoints")
+public class DeadLetterAdminController {
+
+    private static final int MAX_LIMIT = 1000;
+
+    private final DeadLetterRedriveService redriveService;
+
+    public DeadLetterAdminController(DeadLetterRedriveService redriveService) {
+        this.redriveService = redriveService;
+    }
+
+    @GetMapping
+    @Operation(summary = "List dead letters, newest first, with the current status of each execution")
+    public List<Entry> list(
+            @RequestParam(required = false) UUID workflowId,
+            @RequestParam(required = false) String tenantId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant since,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant until,
+            @RequestParam(required = false) String errorContains,
+            @RequestParam(required = false) Set<ExecutionStatus> status,
+            @RequestParam(defaultValue = "100") int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        DeadLetterFilter filter = new DeadLetterFilter(workflowId, tenantId, since, until, errorContains);
+        Set<ExecutionStatus> statuses = status == null || status.isEmpty()
+                ? Set.of()
+                : EnumSet.copyOf(status);
+        return redriveService.list(filter, statuses, limit);
+    }
+
+    @PostMapping("/redrive")
+    @Operation(summary = "Start re-driving matching dead letters at a limited rate")
+    public ResponseEntity<Progress> redrive(@RequestBody(required = false) RedriveRequest request) {
+        RedriveRequest r = request != null ? request
+                : new RedriveRequest(null, null, null, null, null, null, null, null);
+        DeadLetterFilter filter = new DeadLetterFilter(r.workflowId(), r.tenantId(), r.since(), r.until(),
+                r.errorContains());
+        Progress progress = redriveService.start(filter, r.limit(), r.ratePerSecond(), r.maxConcurrent());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(progress);
+    }
+
+    @GetMapping("/redrive")
+    @Operation(summary = "List recent re-drive jobs")
+    public List<Progress> jobs() {
+        return redriveService.jobs();
+    }
+
+    @GetMapping("/redrive/{jobId}")
+    @Operation(summary = "Get the progress of a re-drive job")
+    public Progress progress(@PathVariable UUID jobId) {
+        return redriveService.progress(jobId)
+                .orElseThrow(() -> new RedriveJobNotFoundException("Re-drive job not found: " + jobId));
+    }
+
+    @DeleteMapping("/redrive/{jobId}")
+    @Operation(summary = "Cancel a re-drive job; executions already queued still run")
+    public Progress cancel(@PathVariable UUID jobId) {
+        return redriveService.cancel(jobId)
+                .orElseThrow(() -> new RedriveJobNotFoundException("Re-drive job not found: " + jobId));
+    }
+}
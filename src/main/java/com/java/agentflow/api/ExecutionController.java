@@ -1,12 +1,15 @@
 package com.java.agentflow.api;
 
 import com.java.agentflow.api.dto.ExecutionResponse;
+import com.java.agentflow.events.ExecutionEventStreams;
 import com.java.agentflow.workflow.service.WorkflowNotFoundException;
 import com.java.agentflow.workflow.service.WorkflowService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.UUID;
 
@@ -19,9 +22,11 @@ import java.util.UUID;
 public class ExecutionController {
 
     private final WorkflowService workflowService;
+    private final ExecutionEventStreams eventStreams;
 
-    public ExecutionController(WorkflowService workflowService) {
+    public ExecutionController(WorkflowService workflowService, ExecutionEventStreams eventStreams) {
         this.workflowService = workflowService;
+        this.eventStreams = eventStreams;
     }
 
     @GetMapping("/{id}")
@@ -32,4 +37,12 @@ public class ExecutionController {
                 .map(ResponseEntity::ok)
                 .orElseThrow(() -> new WorkflowNotFoundException("Execution not found: " + id));
     }
+
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream execution progress as server-sent events",
+            description = "Replays the steps finished so far, then pushes step-started, step-completed and "
+                    + "step-failed events as they happen, and closes after execution-completed or execution-failed.")
+    public SseEmitter streamEvents(@PathVariable UUID id) {
+        return eventStreams.open(id);
+    }
 }
@@ -1,11 +1,17 @@
 package com.java.agentflow.api;
 
+import com.java.agentflow.async.QueueFullException;
+import com.java.agentflow.async.RedriveJobNotFoundException;
+import com.java.agentflow.idempotency.IdempotencyKeyInUseException;
+import com.java.agentflow.idempotency.IdempotencyKeyMismatchException;
+import com.java.agentflow.quota.QuotaExceededException;
 import com.java.agentflow.workflow.engine.InterpolationException;
 import com.java.agentflow.workflow.parser.WorkflowParseException;
 import com.java.agentflow.workflow.service.WorkflowAlreadyExistsException;
 import com.java.agentflow.workflow.service.WorkflowNotFoundException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -31,6 +37,13 @@ public class GlobalExceptionHandler {
                 .body(errorResponse("NOT_FOUND", e.getMessage()));
     }
 
+    @ExceptionHandler(RedriveJobNotFoundException.class)
+    public ResponseEntity<Map<String, Object>> handleRedriveJobNotFound(RedriveJobNotFoundException e) {
+        return ResponseEntity
+                .status(HttpStatus.NOT_FOUND)
+                .body(errorResponse("NOT_FOUND", e.getMessage()));
+    }
+
     @ExceptionHandler(WorkflowAlreadyExistsException.class)
     public ResponseEntity<Map<String, Object>> handleConflict(WorkflowAlreadyExistsException e) {
         return ResponseEntity
@@ -52,6 +65,39 @@ public class GlobalExceptionHandler {
                 .body(errorResponse("INTERPOLATION_ERROR", e.getMessage()));
     }
 
+    @ExceptionHandler(QuotaExceededException.class)
+    public ResponseEntity<Map<String, Object>> handleQuotaExceeded(QuotaExceededException e) {
+        long retryAfterSeconds = Math.max(1, (e.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity
+                .status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(errorResponse("QUOTA_EXCEEDED", e.getMessage()));
+    }
+
+    @ExceptionHandler(QueueFullException.class)
+    public ResponseEntity<Map<String, Object>> handleQueueFull(QueueFullException e) {
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(errorResponse("QUEUE_FULL", e.getMessage()));
+    }
+
+    @ExceptionHandler(IdempotencyKeyInUseException.class)
+    public ResponseEntity<Map<String, Object>> handleIdempotencyKeyInUse(IdempotencyKeyInUseException e) {
+        long retryAfterSeconds = Math.max(1, (e.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(errorResponse("IDEMPOTENCY_KEY_IN_USE", e.getMessage()));
+    }
+
+    @ExceptionHandler(IdempotencyKeyMismatchException.class)
+    public ResponseEntity<Map<String, Object>> handleIdempotencyKeyMismatch(IdempotencyKeyMismatchException e) {
+        return ResponseEntity
+                .status(HttpStatus.UNPROCESSABLE_ENTITY)
+                .body(errorResponse("IDEMPOTENCY_KEY_MISMATCH", e.getMessage()));
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<Map<String, Object>> handleIllegalArgument(IllegalArgumentException e) {
         return ResponseEntity
@@ -0,0 +1,36 @@
+package com.java.agentflow.api;
+
+import com.java.agentflow.quota.QuotaService;
+import com.java.agentflow.quota.QuotaState;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+/**
+ * Admin API for inspecting admission control state.
+ */
+@RestController
+@RequestMapping("/api/admin/quotas")
+@Tag(name = "Admin", description = "Operational endpoints")
+public class QuotaAdminController {
+
+    private final QuotaService quotaService;
+
+    public QuotaAdminController(QuotaService quotaService) {
+        this.quotaService = quotaService;
+    }
+
+    @GetMapping("/tenants/{tenantId}")
+    @Operation(summary = "Get quota state for a tenant")
+    public QuotaState getTenantQuota(@PathVariable String tenantId) {
+        return quotaService.getTenantState(tenantId);
+    }
+
+    @GetMapping("/workflows/{workflowId}")
+    @Operation(summary = "Get quota state for a workflow")
+    public QuotaState getWorkflowQuota(@PathVariable UUID workflowId) {
+        return quotaService.getWorkflowState(workflowId);
+    }
+}
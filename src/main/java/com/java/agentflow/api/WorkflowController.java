@@ -5,20 +5,26 @@ import com.java.agentflow.api.dto.ExecutionResponse;
 import com.java.agentflow.api.dto.WorkflowResponse;
 import com.java.agentflow.workflow.entity.Workflow;
 import com.java.agentflow.workflow.entity.WorkflowExecution;
+import com.java.agentflow.workflow.model.CursorPage;
+import com.java.agentflow.workflow.model.ExecutionPriority;
+import com.java.agentflow.workflow.model.ExecutionSummary;
+import com.java.agentflow.workflow.model.WorkflowSummary;
+import com.java.agentflow.workflow.service.ExecutionExportService;
+import com.java.agentflow.workflow.service.ExecutionOptions;
 import com.java.agentflow.workflow.service.WorkflowNotFoundException;
 import com.java.agentflow.workflow.service.WorkflowService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.Instant;
 import java.util.UUID;
 
 /**
@@ -29,10 +35,15 @@ import java.util.UUID;
 @Tag(name = "Workflows", description = "Create, manage, and execute workflows")
 public class WorkflowController {
 
+    private static final String NDJSON = "application/x-ndjson";
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final WorkflowService workflowService;
+    private final ExecutionExportService exportService;
 
-    public WorkflowController(WorkflowService workflowService) {
+    public WorkflowController(WorkflowService workflowService, ExecutionExportService exportService) {
         this.workflowService = workflowService;
+        this.exportService = exportService;
     }
 
     @PostMapping(consumes = { MediaType.TEXT_PLAIN_VALUE, "application/x-yaml", "text/yaml" })
@@ -45,10 +56,12 @@ public class WorkflowController {
     }
 
     @GetMapping
-    @Operation(summary = "List all workflows")
-    public Page<WorkflowResponse> listWorkflows(
-            @PageableDefault(size = 20, sort = "createdAt") Pageable pageable) {
-        return workflowService.findAll(pageable).map(WorkflowResponse::from);
+    @Operation(summary = "List workflows, newest first")
+    public CursorPage<WorkflowSummary> listWorkflows(
+            @Parameter(description = "nextCursor from the previous page; omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return workflowService.listWorkflows(cursor, clampPageSize(size));
     }
 
     @GetMapping("/{id}")
@@ -73,18 +86,55 @@ public class WorkflowController {
     public ResponseEntity<ExecutionResponse> executeWorkflow(
             @PathVariable UUID id,
             @RequestParam(defaultValue = "false") boolean async,
+            @Parameter(description = "Priority lane for async runs; defaults to the workflow's priority")
+            @RequestParam(required = false) String priority,
+            @Parameter(description = "Run sync without persisting state; defaults to the workflow's ephemeral flag")
+            @RequestParam(required = false) Boolean ephemeral,
+            @RequestHeader(value = "X-User-Id", required = false) String userId,
+            @Parameter(description = "Retries with the same key return the first request's execution")
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @Valid @RequestBody(required = false) ExecuteWorkflowRequest request) {
         var inputs = request != null ? request.inputs() : java.util.Map.<String, Object>of();
-        WorkflowExecution execution = workflowService.execute(id, inputs, async);
+        var callbackUrl = request != null ? request.callbackUrl() : null;
+        var options = new ExecutionOptions(async, ExecutionPriority.parse(priority), userId, ephemeral, callbackUrl,
+                idempotencyKey);
+        WorkflowExecution execution = workflowService.execute(id, inputs, options);
         return ResponseEntity.ok(ExecutionResponse.from(execution));
     }
 
     @GetMapping("/{id}/executions")
-    @Operation(summary = "Get execution history for a workflow")
-    public Page<ExecutionResponse> getExecutions(
+    @Operation(summary = "Get recent execution history for a workflow, newest first")
+    public CursorPage<ExecutionSummary> getExecutions(
+            @PathVariable UUID id,
+            @Parameter(description = "Inclusive lower bound on creation time (ISO-8601); defaults to the start of "
+                    + "the history hot window (agentflow.history.hot-window, 30 days), so older executions are "
+                    + "only listed when asked for. Pass the same value with every page's cursor.")
+            @RequestParam(required = false) Instant since,
+            @Parameter(description = "nextCursor from the previous page; omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return workflowService.listExecutions(id, since, cursor, clampPageSize(size));
+    }
+
+    @GetMapping(value = "/{id}/executions/export", produces = NDJSON)
+    @Operation(summary = "Export all executions of a workflow as NDJSON, oldest first")
+    public ResponseEntity<StreamingResponseBody> exportExecutions(
             @PathVariable UUID id,
-            @PageableDefault(size = 20) Pageable pageable) {
-        return workflowService.findExecutionsByWorkflow(id, pageable)
-                .map(ExecutionResponse::from);
+            @Parameter(description = "Inclusive lower bound on creation time (ISO-8601)")
+            @RequestParam(required = false) Instant from,
+            @Parameter(description = "Exclusive upper bound on creation time (ISO-8601)")
+            @RequestParam(required = false) Instant to) {
+        if (workflowService.findById(id).isEmpty()) {
+            throw new WorkflowNotFoundException("Workflow not found: " + id);
+        }
+        StreamingResponseBody body = out -> exportService.export(id, from, to, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"executions-" + id + ".ndjson\"")
+                .body(body);
+    }
+
+    private static int clampPageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
     }
 }
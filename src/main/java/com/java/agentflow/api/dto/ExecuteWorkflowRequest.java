@@ -8,7 +8,8 @@ import java.util.Map;
  * Request to execute a workflow.
  */
 public record ExecuteWorkflowRequest(
-        @NotNull Map<String, Object> inputs) {
+        @NotNull Map<String, Object> inputs,
+        String callbackUrl) {
     public ExecuteWorkflowRequest {
         inputs = inputs != null ? inputs : Map.of();
     }
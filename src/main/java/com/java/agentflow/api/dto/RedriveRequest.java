@@ -0,0 +1,19 @@
+package com.java.agentflow.api.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Request to re-drive dead letters. Filters left null match everything; rate
+ * and concurrency left null use the configured limits.
+ */
+public record RedriveRequest(
+        UUID workflowId,
+        String tenantId,
+        Instant since,
+        Instant until,
+        String errorContains,
+        Integer limit,
+        Double ratePerSecond,
+        Integer maxConcurrent) {
+}
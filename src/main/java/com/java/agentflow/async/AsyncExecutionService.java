@@ -1,11 +1,17 @@
 package com.java.agentflow.async;
 
+import com.java.agentflow.events.ExecutionEventBus;
 import com.java.agentflow.workflow.entity.Workflow;
 import com.java.agentflow.workflow.entity.WorkflowExecution;
+import com.java.agentflow.workflow.engine.RunAbortedException;
 import com.java.agentflow.workflow.engine.WorkflowExecutor;
+import com.java.agentflow.workflow.model.ExecutionStatus;
 import com.java.agentflow.workflow.repository.WorkflowExecutionRepository;
 import com.java.agentflow.workflow.repository.WorkflowRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.UUID;
@@ -13,35 +19,58 @@ import java.util.UUID;
 @Service
 public class AsyncExecutionService {
 
+    private static final Logger log = LoggerFactory.getLogger(AsyncExecutionService.class);
+
     private final WorkflowRepository workflowRepository;
     private final WorkflowExecutionRepository executionRepository;
     private final WorkflowExecutor workflowExecutor;
+    private final ExecutionEventBus events;
 
     public AsyncExecutionService(
             WorkflowRepository workflowRepository,
             WorkflowExecutionRepository executionRepository,
-            WorkflowExecutor workflowExecutor) {
+            WorkflowExecutor workflowExecutor,
+            ExecutionEventBus events) {
         this.workflowRepository = workflowRepository;
         this.executionRepository = executionRepository;
         this.workflowExecutor = workflowExecutor;
+        this.events = events;
     }
 
+    /**
+     * Run a queued execution.
+     *
+     * @param beforeSave called before every write; throws {@link RunAbortedException} once the
+     *                   execution no longer belongs to this node, rolling back the run
+     */
     @Transactional
-    public void executeWorkflow(UUID workflowId, UUID executionId, java.util.Map<String, Object> inputs) {
+    public void executeWorkflow(UUID workflowId, UUID executionId, java.util.Map<String, Object> inputs,
+            Runnable beforeSave) {
         Workflow workflow = workflowRepository.findById(workflowId)
                 .orElseThrow(() -> new RuntimeException("Workflow not found: " + workflowId));
 
         WorkflowExecution execution = executionRepository.findById(executionId)
                 .orElseThrow(() -> new RuntimeException("Execution not found: " + executionId));
+        if (execution.getStatus() == ExecutionStatus.COMPLETED) {
+            // Delivered again, e.g. re-driven from the dead letters while an earlier copy was still queued
+            log.warn("Skipping completed execution: {}", executionId);
+            return;
+        }
 
-        workflowExecutor.execute(workflow, execution, inputs);
+        // Claim-checked messages carry no inputs; they were stored with the execution
+        workflowExecutor.execute(workflow, execution, inputs != null ? inputs : execution.getInputs(), beforeSave);
     }
 
-    @Transactional
+    /**
+     * Commits on its own, so it also takes effect when called after the
+     * caller's transaction has committed.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void markExecutionFailed(UUID executionId, String error) {
         executionRepository.findById(executionId).ifPresent(execution -> {
             execution.markFailed(error);
             executionRepository.save(execution);
+            events.executionFinished(execution);
         });
     }
 }
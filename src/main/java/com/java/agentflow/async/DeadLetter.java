@@ -0,0 +1,12 @@
+package com.java.agentflow.async;
+
+import java.time.Instant;
+
+/**
+ * A message parked by {@link WorkflowQueue#deadLetter} after it exhausted its retries.
+ *
+ * @param error          why it was parked, or null when the backend does not record it
+ * @param deadLetteredAt when it was parked
+ */
+public record DeadLetter(WorkflowMessage message, String error, Instant deadLetteredAt) {
+}
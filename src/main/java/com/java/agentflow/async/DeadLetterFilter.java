@@ -0,0 +1,27 @@
+package com.java.agentflow.async;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Selects dead letters by workflow, tenant, time parked and error text.
+ * Null fields match everything.
+ */
+public record DeadLetterFilter(
+        UUID workflowId,
+        String tenantId,
+        Instant since,
+        Instant until,
+        String errorContains) {
+
+    public boolean matches(DeadLetter deadLetter) {
+        WorkflowMessage message = deadLetter.message();
+        Instant at = deadLetter.deadLetteredAt();
+        return (workflowId == null || workflowId.equals(message.workflowId()))
+                && (tenantId == null || tenantId.equals(message.tenantId()))
+                && (since == null || (at != null && !at.isBefore(since)))
+                && (until == null || (at != null && at.isBefore(until)))
+                && (errorContains == null || (deadLetter.error() != null
+                        && deadLetter.error().toLowerCase().contains(errorContains.toLowerCase())));
+    }
+}
@@ -0,0 +1,400 @@
+package com.java.agentflow.async;
+
+import com.java.agentflow.quota.QuotaExceededException;
+import com.java.agentflow.quota.QuotaService;
+import com.java.agentflow.workflow.entity.WorkflowExecution;
+import com.java.agentflow.workflow.model.ExecutionPriority;
+import com.java.agentflow.workflow.model.ExecutionStatus;
+import com.java.agentflow.workflow.repository.WorkflowExecutionRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lists dead letters and re-drives them back onto the queue in the background.
+ *
+ * A re-drive job queues the selected executions oldest first, paced to a rate
+ * and holding back while too many of them are still queued or running, so a
+ * backlog parked during an outage does not overload the workers again. Each
+ * execution keeps its row: it is reset to PENDING, its retry count starts
+ * over, and its quota is taken again. Executions that have completed or are
+ * running since they were parked are skipped. Each execution is claimed in the
+ * database before it is queued, so a dead letter is re-driven once even when
+ * several jobs or nodes select it.
+ */
+@Service
+public class DeadLetterRedriveService {
+
+    private static final Logger log = LoggerFactory.getLogger(DeadLetterRedriveService.class);
+    private static final int MAX_FINISHED_JOBS = 20;
+
+    private final WorkflowQueue workflowQueue;
+    private final WorkflowExecutionRepository executionRepository;
+    private final ExecutionStateService stateService;
+    private final QuotaService quotaService;
+    private final TransactionTemplate transactionTemplate;
+    private final int scanLimit;
+    private final double maxRate;
+    private final int maxConcurrent;
+    private final Duration pollInterval;
+    private final Map<UUID, Job> jobs = new ConcurrentHashMap<>();
+    private final ExecutorService runner = Executors.newCachedThreadPool(
+            Thread.ofPlatform().name("dlq-redrive-", 0).daemon().factory());
+
+    public DeadLetterRedriveService(
+            WorkflowQueue workflowQueue,
+            WorkflowExecutionRepository executionRepository,
+            ExecutionStateService stateService,
+            QuotaService quotaService,
+            PlatformTransactionManager transactionManager,
+            @Value("${agentflow.dlq.scan-limit:10000}") int scanLimit,
+            @Value("${agentflow.dlq.redrive.rate:5}") double maxRate,
+            @Value("${agentflow.dlq.redrive.max-concurrent:4}") int maxConcurrent,
+            @Value("${agentflow.dlq.redrive.poll-interval:PT1S}") Duration pollInterval) {
+        this.workflowQueue = workflowQueue;
+        this.executionRepository = executionRepository;
+        this.stateService = stateService;
+        this.quotaService = quotaService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.scanLimit = Math.max(1, scanLimit);
+        this.maxRate = maxRate;
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+        this.pollInterval = pollInterval;
+    }
+
+    /**
+     * Matching dead letters, newest first and one per execution, with the
+     * current status of each execution (null if it no longer exists).
+     */
+    public List<Entry> list(DeadLetterFilter filter, Set<ExecutionStatus> statuses, int limit) {
+        List<DeadLetter> deadLetters = select(filter);
+        Map<UUID, ExecutionStatus> current = currentStatuses(
+                deadLetters.stream().map(d -> d.message().executionId()).toList());
+
+        List<Entry> entries = new ArrayList<>();
+        for (DeadLetter deadLetter : deadLetters) {
+            ExecutionStatus status = current.get(deadLetter.message().executionId());
+            if (statuses.isEmpty() || statuses.contains(status)) {
+                entries.add(Entry.of(deadLetter, status));
+                if (entries.size() >= limit) {
+                    break;
+                }
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Start re-driving the matching dead letters. Rate and concurrency
+     * default to, and are capped by, the configured limits.
+     *
+     * @param limit         the most executions to re-drive, or null for all matching
+     * @param ratePerSecond executions queued per second
+     * @param concurrency   re-driven executions allowed to be queued or running at once
+     */
+    public Progress start(DeadLetterFilter filter, Integer limit, Double ratePerSecond, Integer concurrency) {
+        if (ratePerSecond != null && ratePerSecond <= 0) {
+            throw new IllegalArgumentException("ratePerSecond must be positive");
+        }
+        if (concurrency != null && concurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrent must be positive");
+        }
+        double rate = ratePerSecond != null ? Math.min(ratePerSecond, maxRate) : maxRate;
+        int cap = concurrency != null ? Math.min(concurrency, maxConcurrent) : maxConcurrent;
+
+        List<DeadLetter> selected = new ArrayList<>(select(filter));
+        if (limit != null && selected.size() > limit) {
+            selected = selected.subList(0, Math.max(0, limit));
+        }
+        // Replay in the order they were parked
+        Collections.reverse(selected);
+
+        Job job = new Job(UUID.randomUUID(), filter, rate, cap, selected);
+        evictFinished();
+        jobs.put(job.id, job);
+        runner.execute(() -> run(job));
+        log.info("Started dead letter re-drive {}: {} executions at {}/s, {} at once",
+                job.id, selected.size(), rate, cap);
+        return job.progress();
+    }
+
+    public Optional<Progress> progress(UUID jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(Job::progress);
+    }
+
+    public List<Progress> jobs() {
+        return jobs.values().stream()
+                .map(Job::progress)
+                .sorted(Comparator.comparing(Progress::startedAt).reversed())
+                .toList();
+    }
+
+    /**
+     * Stop a job after the execution it is re-driving. Executions already
+     * queued are left to run.
+     */
+    public Optional<Progress> cancel(UUID jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null) {
+            return Optional.empty();
+        }
+        job.cancelled = true;
+        return Optional.of(job.progress());
+    }
+
+    private void run(Job job) {
+        JobState outcome = JobState.FAILED;
+        try {
+            long interval = (long) (TimeUnit.SECONDS.toNanos(1) / job.rate);
+            long next = System.nanoTime();
+            for (DeadLetter deadLetter : job.deadLetters) {
+                awaitCapacity(job);
+                long wait = next - System.nanoTime();
+                if (wait > 0) {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                }
+                if (job.cancelled) {
+                    break;
+                }
+                next = Math.max(next, System.nanoTime()) + interval;
+                redriveWithBackoff(job, deadLetter);
+            }
+            // Keep reporting until the re-driven executions have finished
+            while (!job.cancelled && !job.inFlight.isEmpty()) {
+                Thread.sleep(pollInterval.toMillis());
+                refreshInFlight(job);
+            }
+            outcome = job.cancelled ? JobState.CANCELLED : JobState.COMPLETED;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            outcome = JobState.CANCELLED;
+        } catch (RuntimeException e) {
+            log.error("Dead letter re-drive {} failed", job.id, e);
+            job.lastError = e.getMessage();
+        } finally {
+            job.finishedAt = Instant.now();
+            job.state = outcome;
+            log.info("Dead letter re-drive {} {}: {} re-driven, {} skipped, {} failed",
+                    job.id, outcome, job.redriven.get(), job.skipped.get(), job.failed.get());
+        }
+    }
+
+    private void awaitCapacity(Job job) throws InterruptedException {
+        while (!job.cancelled && job.inFlight.size() >= job.concurrency) {
+            Thread.sleep(pollInterval.toMillis());
+            refreshInFlight(job);
+        }
+    }
+
+    /**
+     * Re-drive one execution, waiting out quota and full queues rather than
+     * counting them as failures.
+     */
+    private void redriveWithBackoff(Job job, DeadLetter deadLetter) throws InterruptedException {
+        UUID executionId = deadLetter.message().executionId();
+        while (!job.cancelled) {
+            try {
+                if (redrive(deadLetter)) {
+                    job.inFlight.add(executionId);
+                    job.redriven.incrementAndGet();
+                } else {
+                    job.skipped.incrementAndGet();
+                }
+                return;
+            } catch (QuotaExceededException e) {
+                Thread.sleep(Math.max(e.getRetryAfter().toMillis(), pollInterval.toMillis()));
+            } catch (QueueFullException e) {
+                Thread.sleep(pollInterval.toMillis());
+            } catch (RuntimeException e) {
+                log.warn("Failed to re-drive execution {}: {}", executionId, e.getMessage());
+                job.failed.incrementAndGet();
+                job.lastError = executionId + ": " + e.getMessage();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Reset the execution row and queue it again, in one transaction so the
+     * message is only published once the reset has committed.
+     *
+     * @return false if the execution is gone, no longer needs re-driving or was re-driven already
+     */
+    private boolean redrive(DeadLetter deadLetter) {
+        WorkflowMessage parked = deadLetter.message();
+        UUID executionId = parked.executionId();
+        Instant deadLetteredAt = deadLetter.deadLetteredAt() != null ? deadLetter.deadLetteredAt() : Instant.EPOCH;
+        Boolean queued = transactionTemplate.execute(status -> {
+            if (executionRepository.claimForRedrive(executionId, deadLetteredAt) == 0) {
+                return false;
+            }
+            WorkflowExecution execution = executionRepository.findById(executionId).orElse(null);
+            if (execution == null) {
+                return false;
+            }
+            quotaService.acquire(parked.tenantId(), parked.workflowId(), executionId);
+            try {
+                execution.markPending();
+                executionRepository.save(execution);
+                stateService.resetRetries(executionId);
+                workflowQueue.enqueue(new WorkflowMessage(parked.workflowId(), executionId, parked.inputs(),
+                        parked.priority(), System.currentTimeMillis(), parked.tenantId()));
+            } catch (RuntimeException e) {
+                quotaService.release(parked.tenantId(), parked.workflowId(), executionId);
+                throw e;
+            }
+            return true;
+        });
+        return Boolean.TRUE.equals(queued);
+    }
+
+    private void refreshInFlight(Job job) {
+        Map<UUID, ExecutionStatus> current = currentStatuses(List.copyOf(job.inFlight));
+        for (UUID executionId : List.copyOf(job.inFlight)) {
+            ExecutionStatus status = current.get(executionId);
+            if (status == ExecutionStatus.COMPLETED) {
+                job.succeeded.incrementAndGet();
+            } else if (status == ExecutionStatus.FAILED) {
+                job.failedAgain.incrementAndGet();
+            } else if (status != null) {
+                continue;
+            }
+            job.inFlight.remove(executionId);
+        }
+    }
+
+    /**
+     * Matching dead letters among the most recent ones, newest first, keeping
+     * only the latest for each execution.
+     */
+    private List<DeadLetter> select(DeadLetterFilter filter) {
+        Set<UUID> seen = new HashSet<>();
+        List<DeadLetter> selected = new ArrayList<>();
+        for (DeadLetter deadLetter : workflowQueue.deadLetters(scanLimit)) {
+            if (seen.add(deadLetter.message().executionId()) && filter.matches(deadLetter)) {
+                selected.add(deadLetter);
+            }
+        }
+        return selected;
+    }
+
+    private Map<UUID, ExecutionStatus> currentStatuses(List<UUID> executionIds) {
+        Map<UUID, ExecutionStatus> statuses = new HashMap<>();
+        for (WorkflowExecution execution : executionRepository.findAllById(executionIds)) {
+            statuses.put(execution.getId(), execution.getStatus());
+        }
+        return statuses;
+    }
+
+    private void evictFinished() {
+        List<Job> finished = jobs.values().stream()
+                .filter(job -> job.finishedAt != null)
+                .sorted(Comparator.comparing((Job job) -> job.finishedAt).reversed())
+                .toList();
+        for (Job job : finished.subList(Math.min(finished.size(), MAX_FINISHED_JOBS - 1), finished.size())) {
+            jobs.remove(job.id);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdownNow();
+    }
+
+    public enum JobState { RUNNING, COMPLETED, CANCELLED, FAILED }
+
+    /**
+     * A dead letter as listed by the admin API.
+     *
+     * @param executionStatus current status of the execution, null if it no longer exists
+     */
+    public record Entry(
+            UUID executionId,
+            UUID workflowId,
+            String tenantId,
+            ExecutionPriority priority,
+            String error,
+            Instant deadLetteredAt,
+            ExecutionStatus executionStatus) {
+
+        static Entry of(DeadLetter deadLetter, ExecutionStatus status) {
+            WorkflowMessage message = deadLetter.message();
+            return new Entry(message.executionId(), message.workflowId(), message.tenantId(), message.priority(),
+                    deadLetter.error(), deadLetter.deadLetteredAt(), status);
+        }
+    }
+
+    /**
+     * Snapshot of a re-drive job.
+     *
+     * @param redriven    executions queued again
+     * @param skipped     executions that were gone, completed, running or re-driven by another job
+     * @param failed      executions that could not be queued
+     * @param inFlight    re-driven executions still queued or running
+     * @param succeeded   re-driven executions that have since completed
+     * @param failedAgain re-driven executions that have since failed
+     */
+    public record Progress(
+            UUID jobId,
+            JobState state,
+            DeadLetterFilter filter,
+            double ratePerSecond,
+            int maxConcurrent,
+            int total,
+            int redriven,
+            int skipped,
+            int failed,
+            int inFlight,
+            int succeeded,
+            int failedAgain,
+            String lastError,
+            Instant startedAt,
+            Instant finishedAt) {
+    }
+
+    private static final class Job {
+        private final UUID id;
+        private final DeadLetterFilter filter;
+        private final double rate;
+        private final int concurrency;
+        private final List<DeadLetter> deadLetters;
+        private final Instant startedAt = Instant.now();
+        private final Set<UUID> inFlight = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger redriven = new AtomicInteger();
+        private final AtomicInteger skipped = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicInteger succeeded = new AtomicInteger();
+        private final AtomicInteger failedAgain = new AtomicInteger();
+        private volatile JobState state = JobState.RUNNING;
+        private volatile boolean cancelled;
+        private volatile String lastError;
+        private volatile Instant finishedAt;
+
+        private Job(UUID id, DeadLetterFilter filter, double rate, int concurrency, List<DeadLetter> deadLetters) {
+            this.id = id;
+            this.filter = filter;
+            this.rate = rate;
+            this.concurrency = concurrency;
+            this.deadLetters = List.copyOf(deadLetters);
+        }
+
+        private Progress progress() {
+            return new Progress(id, state, filter, rate, concurrency, deadLetters.size(), redriven.get(),
+                    skipped.get(), failed.get(), inFlight.size(), succeeded.get(), failedAgain.get(), lastError,
+                    startedAt, finishedAt);
+        }
+    }
+}
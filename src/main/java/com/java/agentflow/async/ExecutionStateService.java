@@ -2,12 +2,32 @@ package com.java.agentflow.async;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scripting.support.ResourceScriptSource;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Per-execution locks and retry counters, shared across nodes through Redis.
+ * When Redis is unavailable, falls back to node-local state, which is exact for
+ * a single node (e.g. the in-process queue backend) and best effort otherwise.
+ *
+ * Locks are renewed while their holder runs, on every {@link #holdsLock} check
+ * and by a heartbeat. A lock can be revoked while its holder is still running,
+ * e.g. when the holder missed its cluster heartbeat and its work was handed to
+ * another node. Revoking bumps a fencing generation kept next to the lock, and
+ * the holder checks it before writing; a lock that merely expired is taken
+ * again instead of stopping the run.
+ */
 @Service
 public class ExecutionStateService {
 
@@ -16,26 +36,142 @@ public class ExecutionStateService {
     private static final Duration STATE_TTL = Duration.ofHours(24);
 
     private final StringRedisTemplate redis;
+    private final DefaultRedisScript<String> acquireScript;
+    private final DefaultRedisScript<Long> renewScript;
+    private final DefaultRedisScript<Long> revokeScript;
+    private final DefaultRedisScript<Long> releaseScript;
+    private final Map<UUID, String> localLocks = new ConcurrentHashMap<>();
+    // Redis locks held by this node, renewed by the heartbeat
+    private final Map<UUID, String> heldLocks = new ConcurrentHashMap<>();
+    private final Map<UUID, Integer> localRetries = new ConcurrentHashMap<>();
 
     public ExecutionStateService(StringRedisTemplate redis) {
         this.redis = redis;
+        this.acquireScript = script("redis/lock-acquire.lua", String.class);
+        this.renewScript = script("redis/lock-renew.lua", Long.class);
+        this.revokeScript = script("redis/lock-revoke.lua", Long.class);
+        this.releaseScript = script("redis/lock-release.lua", Long.class);
     }
 
-    public boolean tryLock(UUID executionId) {
-        String key = lockKey(executionId);
-        Boolean acquired = redis.opsForValue().setIfAbsent(key, "locked", LOCK_TTL);
-        return Boolean.TRUE.equals(acquired);
+    /**
+     * Lock an execution for processing.
+     *
+     * @return the lock's token, or null if the execution is already locked
+     */
+    public String tryLock(UUID executionId) {
+        String id = UUID.randomUUID().toString();
+        try {
+            String generation = redis.execute(acquireScript, keys(executionId), id,
+                    String.valueOf(LOCK_TTL.toMillis()));
+            if (generation == null) {
+                return null;
+            }
+            String token = id + ":" + generation;
+            heldLocks.put(executionId, token);
+            return token;
+        } catch (DataAccessException e) {
+            log.warn("Redis unavailable, using node-local lock for {}: {}", executionId, e.getMessage());
+            return localLocks.putIfAbsent(executionId, id) == null ? id : null;
+        }
     }
 
-    public void unlock(UUID executionId) {
-        redis.delete(lockKey(executionId));
+    /**
+     * Whether the lock taken with {@code token} is still held, extending it if
+     * so. False only once the lock was revoked or another holder has it.
+     * Answers true when Redis cannot be reached, as locks cannot be revoked
+     * without it either.
+     */
+    public boolean holdsLock(UUID executionId, String token) {
+        String local = localLocks.get(executionId);
+        if (local != null) {
+            return local.equals(token);
+        }
+        try {
+            return renew(executionId, token);
+        } catch (DataAccessException e) {
+            log.warn("Cannot check lock of {}: {}", executionId, e.getMessage());
+            return true;
+        }
+    }
+
+    /**
+     * Release a lock, unless it was revoked and has been taken again since.
+     */
+    public void unlock(UUID executionId, String token) {
+        if (localLocks.remove(executionId, token)) {
+            return;
+        }
+        heldLocks.remove(executionId, token);
+        try {
+            redis.execute(releaseScript, List.of(lockKey(executionId)), lockId(token));
+        } catch (DataAccessException e) {
+            log.warn("Failed to release lock for {}: {}", executionId, e.getMessage());
+        }
+    }
+
+    /**
+     * Take a lock away from its holder, so the execution can be locked again.
+     * The holder's next {@link #holdsLock} check fails.
+     */
+    public void revoke(UUID executionId) {
+        localLocks.remove(executionId);
+        try {
+            redis.execute(revokeScript, keys(executionId), String.valueOf(STATE_TTL.toMillis()));
+        } catch (DataAccessException e) {
+            log.warn("Failed to revoke lock for {}: {}", executionId, e.getMessage());
+        }
+    }
+
+    /**
+     * Extend the locks of runs in progress, so a long step between two saves
+     * does not let its lock expire.
+     */
+    @Scheduled(fixedDelayString = "PT1M")
+    public void renewHeldLocks() {
+        heldLocks.forEach((executionId, token) -> {
+            try {
+                if (!renew(executionId, token)) {
+                    // The holder finds out at its next save
+                    heldLocks.remove(executionId, token);
+                } else if (!token.equals(heldLocks.get(executionId))) {
+                    // Unlocked while being renewed
+                    redis.execute(releaseScript, List.of(lockKey(executionId)), lockId(token));
+                }
+            } catch (DataAccessException e) {
+                log.warn("Failed to renew lock of {}: {}", executionId, e.getMessage());
+            }
+        });
+    }
+
+    private boolean renew(UUID executionId, String token) {
+        int separator = token.lastIndexOf(':');
+        Long held = redis.execute(renewScript, keys(executionId), lockId(token),
+                token.substring(separator + 1), String.valueOf(LOCK_TTL.toMillis()));
+        return held != null && held == 1;
     }
 
     public int incrementRetry(UUID executionId) {
         String key = retryKey(executionId);
-        Long count = redis.opsForValue().increment(key);
-        redis.expire(key, STATE_TTL);
-        return count != null ? count.intValue() : 1;
+        try {
+            Long count = redis.opsForValue().increment(key);
+            redis.expire(key, STATE_TTL);
+            return count != null ? count.intValue() : 1;
+        } catch (DataAccessException e) {
+            log.warn("Redis unavailable, counting retries locally for {}: {}", executionId, e.getMessage());
+            return localRetries.merge(executionId, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * Start counting retries from zero again, e.g. when a dead letter is re-driven.
+     */
+    public void resetRetries(UUID executionId) {
+        localRetries.remove(executionId);
+        try {
+            redis.delete(retryKey(executionId));
+        } catch (DataAccessException e) {
+            log.warn("Failed to reset retries for {}: {}", executionId, e.getMessage());
+        }
     }
 
     public void markFailed(UUID executionId, String error) {
@@ -51,6 +187,23 @@ public class ExecutionStateService {
         return redis.opsForValue().get(stateKey(executionId));
     }
 
+    private static <T> DefaultRedisScript<T> script(String path, Class<T> resultType) {
+        DefaultRedisScript<T> script = new DefaultRedisScript<>();
+        script.setScriptSource(new ResourceScriptSource(new ClassPathResource(path)));
+        script.setResultType(resultType);
+        return script;
+    }
+
+    /** The part of a token stored in Redis; a Redis lock's token also carries its generation. */
+    private static String lockId(String token) {
+        int separator = token.indexOf(':');
+        return separator < 0 ? token : token.substring(0, separator);
+    }
+
+    private List<String> keys(UUID id) {
+        return List.of(lockKey(id), "lock-fence:" + id);
+    }
+
     private String lockKey(UUID id) {
         return "lock:" + id;
     }
@@ -0,0 +1,208 @@
+package com.java.agentflow.async;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.java.agentflow.workflow.model.ExecutionPriority;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Single-node backend: one bounded lock-free ring buffer per priority lane,
+ * consumed by {@link PollingQueueConsumer} in the same JVM. No broker round
+ * trip and no serialization on the hot path. With a journal directory set,
+ * queued messages are also appended to a local file and replayed on restart.
+ */
+@Component
+@ConditionalOnProperty(name = "agentflow.queue.backend", havingValue = "in-process")
+public class InProcessWorkflowQueue implements PollingWorkflowQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(InProcessWorkflowQueue.class);
+    private static final int SPINS = 100;
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final Map<ExecutionPriority, Lane> lanes = new EnumMap<>(ExecutionPriority.class);
+    private final QueueJournal journal;
+    private final Duration offerTimeout;
+    private final int deadLetterLimit;
+    private final Deque<DeadLetter> deadLetters = new ArrayDeque<>();
+    private final MeterRegistry meterRegistry;
+
+    public InProcessWorkflowQueue(
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${agentflow.queue.in-process.capacity:4096}") int capacity,
+            @Value("${agentflow.queue.in-process.journal-dir:}") String journalDir,
+            @Value("${agentflow.queue.in-process.journal-fsync:false}") boolean journalFsync,
+            @Value("${agentflow.queue.in-process.journal-max-size:64MB}") DataSize journalMaxSize,
+            @Value("${agentflow.queue.in-process.offer-timeout:PT5S}") Duration offerTimeout,
+            @Value("${agentflow.queue.in-process.dead-letter-limit:1000}") int deadLetterLimit) {
+        this.meterRegistry = meterRegistry;
+        this.offerTimeout = offerTimeout;
+        this.deadLetterLimit = deadLetterLimit;
+        for (ExecutionPriority priority : ExecutionPriority.values()) {
+            Lane lane = new Lane(new RingBuffer<>(capacity));
+            lanes.put(priority, lane);
+            Gauge.builder("agentflow.queue.depth", lane.ring, RingBuffer::size)
+                    .tag("lane", priority.name().toLowerCase())
+                    .tag("backend", "in-process")
+                    .register(meterRegistry);
+        }
+
+        if (journalDir.isBlank()) {
+            this.journal = null;
+        } else {
+            this.journal = new QueueJournal(Path.of(journalDir), objectMapper, journalFsync, journalMaxSize.toBytes());
+            for (WorkflowMessage message : journal.recover()) {
+                if (!lanes.get(message.priority()).ring.offer(message)) {
+                    deadLetter(message, "Queue full during journal recovery");
+                }
+            }
+        }
+    }
+
+    /**
+     * Inside a transaction the message is published after commit, so a consumer
+     * never sees an execution row that is not yet visible.
+     */
+    @Override
+    public void enqueue(WorkflowMessage message) {
+        Lane lane = lanes.get(message.priority());
+        if (lane.ring.size() >= lane.ring.capacity()) {
+            throw new QueueFullException("Queue full for lane " + message.priority());
+        }
+        AfterCommit.run(() -> publish(lane, message));
+    }
+
+    @Override
+    public void deadLetter(WorkflowMessage message, String error) {
+        if (journal != null) {
+            journal.deadLettered(message, error);
+        } else {
+            synchronized (deadLetters) {
+                if (deadLetters.size() >= deadLetterLimit) {
+                    deadLetters.pollFirst();
+                }
+                deadLetters.addLast(new DeadLetter(message, error, Instant.now()));
+            }
+        }
+        meterRegistry.counter("agentflow.queue.dead-letters", "backend", "in-process").increment();
+    }
+
+    /**
+     * The most recent dead letters: from the journal's dead letter file, which
+     * keeps them across restarts, or without a journal from memory, up to the
+     * dead letter limit.
+     */
+    @Override
+    public List<DeadLetter> deadLetters(int limit) {
+        if (journal != null) {
+            return journal.deadLetters(limit);
+        }
+        List<DeadLetter> result = new ArrayList<>();
+        synchronized (deadLetters) {
+            Iterator<DeadLetter> newestFirst = deadLetters.descendingIterator();
+            while (newestFirst.hasNext() && result.size() < limit) {
+                result.add(newestFirst.next());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Take the next message from a lane, parking while it is empty.
+     */
+    @Override
+    public WorkflowMessage take(ExecutionPriority priority) throws InterruptedException {
+        Lane lane = lanes.get(priority);
+        int spins = 0;
+        while (true) {
+            WorkflowMessage message = lane.ring.poll();
+            if (message != null) {
+                return message;
+            }
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            if (spins++ < SPINS) {
+                Thread.onSpinWait();
+                continue;
+            }
+            Thread current = Thread.currentThread();
+            lane.waiters.add(current);
+            // Re-check after registering so a concurrent publish cannot be missed
+            message = lane.ring.poll();
+            if (message != null) {
+                lane.waiters.remove(current);
+                return message;
+            }
+            LockSupport.parkNanos(this, MAX_PARK_NANOS);
+            lane.waiters.remove(current);
+        }
+    }
+
+    @Override
+    public void ack(WorkflowMessage message) {
+        if (journal != null) {
+            journal.acked(message.executionId());
+        }
+    }
+
+    private void publish(Lane lane, WorkflowMessage message) {
+        if (journal != null) {
+            journal.enqueued(message);
+        }
+        long deadline = System.nanoTime() + offerTimeout.toNanos();
+        while (!lane.ring.offer(message)) {
+            if (System.nanoTime() - deadline > 0) {
+                log.error("Failed to queue workflow: {} (lane {} full)", message.executionId(), message.priority());
+                ack(message);
+                deadLetter(message, "Queue full");
+                return;
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        Thread waiter = lane.waiters.poll();
+        if (waiter != null) {
+            LockSupport.unpark(waiter);
+        }
+        log.debug("Queued workflow execution: {} ({})", message.executionId(), message.priority());
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    private static final class Lane {
+        private final RingBuffer<WorkflowMessage> ring;
+        private final Queue<Thread> waiters = new ConcurrentLinkedQueue<>();
+
+        private Lane(RingBuffer<WorkflowMessage> ring) {
+            this.ring = ring;
+        }
+    }
+}
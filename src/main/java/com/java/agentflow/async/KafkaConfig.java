@@ -1,29 +1,49 @@
 package com.java.agentflow.async;
 
+import com.java.agentflow.workflow.model.ExecutionPriority;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
-import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.util.unit.DataSize;
 
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Lane topics and producer for the Kafka queue backend.
+ */
 @Configuration
+@ConditionalOnProperty(name = "agentflow.queue.backend", havingValue = "kafka", matchIfMissing = true)
 public class KafkaConfig {
 
     @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
     private String bootstrapServers;
 
     public static final String WORKFLOW_TOPIC = "workflow-executions";
+    public static final String INTERACTIVE_TOPIC = "workflow-executions-interactive";
+    public static final String BATCH_TOPIC = "workflow-executions-batch";
     public static final String DLQ_TOPIC = "workflow-executions-dlq";
 
+    /**
+     * Topic backing each priority lane. NORMAL keeps the original topic name.
+     */
+    public static String topicFor(ExecutionPriority priority) {
+        return switch (priority) {
+            case INTERACTIVE -> INTERACTIVE_TOPIC;
+            case BATCH -> BATCH_TOPIC;
+            case NORMAL -> WORKFLOW_TOPIC;
+        };
+    }
+
     @Bean
     public NewTopic workflowTopic() {
         return TopicBuilder.name(WORKFLOW_TOPIC)
@@ -32,6 +52,22 @@ public class KafkaConfig {
                 .build();
     }
 
+    @Bean
+    public NewTopic interactiveTopic() {
+        return TopicBuilder.name(INTERACTIVE_TOPIC)
+                .partitions(3)
+                .replicas(1)
+                .build();
+    }
+
+    @Bean
+    public NewTopic batchTopic() {
+        return TopicBuilder.name(BATCH_TOPIC)
+                .partitions(3)
+                .replicas(1)
+                .build();
+    }
+
     @Bean
     public NewTopic dlqTopic() {
         return TopicBuilder.name(DLQ_TOPIC)
@@ -40,17 +76,34 @@ public class KafkaConfig {
                 .build();
     }
 
+    /**
+     * Encodes messages for the lane and dead-letter topics; also used by the listeners to decode them.
+     * Defaults to plain JSON with every message carrying its inputs, which nodes that predate the
+     * codec can still read; Smile and claim-checks are switched on once every node reads them.
+     */
+    @Bean
+    public WorkflowMessageCodec workflowMessageCodec(
+            MeterRegistry meterRegistry,
+            @Value("${agentflow.queue.kafka.codec:json}") WorkflowMessageCodec.Format format,
+            @Value("${agentflow.queue.kafka.claim-check-threshold:0}") DataSize claimCheckThreshold) {
+        return new WorkflowMessageCodec(format, claimCheckThreshold.toBytes(), meterRegistry);
+    }
+
     @Bean
-    public ProducerFactory<String, WorkflowMessage> producerFactory() {
+    public ProducerFactory<String, WorkflowMessage> producerFactory(
+            WorkflowMessageCodec workflowMessageCodec,
+            @Value("${agentflow.queue.kafka.compression:lz4}") String compression) {
         Map<String, Object> config = new HashMap<>();
         config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-        return new DefaultKafkaProducerFactory<>(config);
+        config.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compression);
+        return new DefaultKafkaProducerFactory<>(config, new StringSerializer(), workflowMessageCodec);
     }
 
     @Bean
-    public KafkaTemplate<String, WorkflowMessage> kafkaTemplate() {
-        return new KafkaTemplate<>(producerFactory());
+    public KafkaTemplate<String, WorkflowMessage> kafkaTemplate(ProducerFactory<String, WorkflowMessage> producerFactory) {
+        KafkaTemplate<String, WorkflowMessage> template = new KafkaTemplate<>(producerFactory);
+        // Sends the trace context in record headers
+        template.setObservationEnabled(true);
+        return template;
     }
 }
@@ -1,25 +1,39 @@
 package com.java.agentflow.async;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.MicrometerConsumerListener;
 import org.springframework.kafka.listener.ContainerProperties;
-import org.springframework.kafka.support.serializer.JsonDeserializer;
 
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Listener containers for the Kafka queue backend.
+ */
 @Configuration
+@ConditionalOnProperty(name = "agentflow.queue.backend", havingValue = "kafka", matchIfMissing = true)
 public class KafkaConsumerConfig {
 
     @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
     private String bootstrapServers;
 
+    private final MeterRegistry meterRegistry;
+    private final WorkflowMessageCodec workflowMessageCodec;
+
+    public KafkaConsumerConfig(MeterRegistry meterRegistry, WorkflowMessageCodec workflowMessageCodec) {
+        this.meterRegistry = meterRegistry;
+        this.workflowMessageCodec = workflowMessageCodec;
+    }
+
     @Bean
     public ConsumerFactory<String, WorkflowMessage> consumerFactory() {
         Map<String, Object> config = new HashMap<>();
@@ -28,10 +42,11 @@ public class KafkaConsumerConfig {
         config.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
         config.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
 
-        JsonDeserializer<WorkflowMessage> deserializer = new JsonDeserializer<>(WorkflowMessage.class);
-        deserializer.addTrustedPackages("com.java.agentflow.async");
-
-        return new DefaultKafkaConsumerFactory<>(config, new StringDeserializer(), deserializer);
+        DefaultKafkaConsumerFactory<String, WorkflowMessage> factory = new DefaultKafkaConsumerFactory<>(
+                config, new StringDeserializer(), workflowMessageCodec);
+        // Exposes kafka.consumer.fetch.manager.records.lag per lane topic and partition
+        factory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+        return factory;
     }
 
     @Bean
@@ -40,6 +55,8 @@ public class KafkaConsumerConfig {
         factory.setConsumerFactory(consumerFactory());
         factory.setConcurrency(3);
         factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        // Continues the producer's trace from the record headers
+        factory.getContainerProperties().setObservationEnabled(true);
         return factory;
     }
 }
@@ -0,0 +1,36 @@
+package com.java.agentflow.async;
+
+import com.java.agentflow.workflow.model.ExecutionPriority;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Consumes the lane topics and hands each message to {@link WorkflowConsumer}.
+ */
+@Component
+@ConditionalOnProperty(name = "agentflow.queue.backend", havingValue = "kafka", matchIfMissing = true)
+public class KafkaWorkflowListener {
+
+    private final WorkflowConsumer workflowConsumer;
+
+    public KafkaWorkflowListener(WorkflowConsumer workflowConsumer) {
+        this.workflowConsumer = workflowConsumer;
+    }
+
+    @KafkaListener(id = "lane-interactive", topics = KafkaConfig.INTERACTIVE_TOPIC, groupId = "agentflow-workers", containerFactory = "kafkaListenerContainerFactory", concurrency = "${agentflow.lanes.consumers.interactive:3}")
+    public void handleInteractive(WorkflowMessage message, Acknowledgment ack) throws InterruptedException {
+        workflowConsumer.dispatch(ExecutionPriority.INTERACTIVE, message, ack::acknowledge);
+    }
+
+    @KafkaListener(id = "lane-normal", topics = KafkaConfig.WORKFLOW_TOPIC, groupId = "agentflow-workers", containerFactory = "kafkaListenerContainerFactory", concurrency = "${agentflow.lanes.consumers.normal:3}")
+    public void handleExecution(WorkflowMessage message, Acknowledgment ack) throws InterruptedException {
+        workflowConsumer.dispatch(ExecutionPriority.NORMAL, message, ack::acknowledge);
+    }
+
+    @KafkaListener(id = "lane-batch", topics = KafkaConfig.BATCH_TOPIC, groupId = "agentflow-workers", containerFactory = "kafkaListenerContainerFactory", concurrency = "${agentflow.lanes.consumers.batch:3}")
+    public void handleBatch(WorkflowMessage message, Acknowledgment ack) throws InterruptedException {
+        workflowConsumer.dispatch(ExecutionPriority.BATCH, message, ack::acknowledge);
+    }
+}
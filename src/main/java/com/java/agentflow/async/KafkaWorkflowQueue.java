@@ -0,0 +1,126 @@
+package com.java.agentflow.async;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.RecordDeserializationException;
+import org.apache.kafka.common.header.Header;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Kafka backend: one topic per priority lane plus a dead-letter topic.
+ */
+@Component
+@ConditionalOnProperty(name = "agentflow.queue.backend", havingValue = "kafka", matchIfMissing = true)
+public class KafkaWorkflowQueue implements WorkflowQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(KafkaWorkflowQueue.class);
+    private static final String ERROR_HEADER = "agentflow-error";
+    private static final Duration BROWSE_TIMEOUT = Duration.ofSeconds(10);
+
+    private final KafkaTemplate<String, WorkflowMessage> kafkaTemplate;
+    private final ConsumerFactory<String, WorkflowMessage> consumerFactory;
+
+    public KafkaWorkflowQueue(
+            KafkaTemplate<String, WorkflowMessage> kafkaTemplate,
+            ConsumerFactory<String, WorkflowMessage> consumerFactory) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.consumerFactory = consumerFactory;
+    }
+
+    /**
+     * Sent once the transaction that created the execution commits, so the
+     * consumer can load the row, and its inputs for claim-checked messages.
+     */
+    @Override
+    public void enqueue(WorkflowMessage message) {
+        AfterCommit.run(() -> kafkaTemplate
+                .send(KafkaConfig.topicFor(message.priority()), message.executionId().toString(), message)
+                .whenComplete((result, ex) -> {
+                    if (ex != null) {
+                        log.error("Failed to queue workflow: {}", message.executionId(), ex);
+                    } else {
+                        log.info("Queued workflow execution: {} ({})", message.executionId(), message.priority());
+                    }
+                }));
+    }
+
+    @Override
+    public void deadLetter(WorkflowMessage message, String error) {
+        ProducerRecord<String, WorkflowMessage> record = new ProducerRecord<>(
+                KafkaConfig.DLQ_TOPIC, message.executionId().toString(), message);
+        if (error != null) {
+            record.headers().add(ERROR_HEADER, error.getBytes(StandardCharsets.UTF_8));
+        }
+        kafkaTemplate.send(record);
+    }
+
+    /**
+     * Reads the tail of the dead-letter topic with a short-lived consumer that
+     * is assigned its partitions directly, so no offsets are committed and the
+     * topic is left as it was.
+     */
+    @Override
+    public List<DeadLetter> deadLetters(int limit) {
+        List<DeadLetter> result = new ArrayList<>();
+        try (Consumer<String, WorkflowMessage> consumer = consumerFactory.createConsumer(
+                "agentflow-dead-letters", null, "-browser")) {
+            List<PartitionInfo> infos = consumer.partitionsFor(KafkaConfig.DLQ_TOPIC);
+            if (infos == null || infos.isEmpty()) {
+                return result;
+            }
+            List<TopicPartition> partitions = infos.stream()
+                    .map(info -> new TopicPartition(info.topic(), info.partition()))
+                    .toList();
+            consumer.assign(partitions);
+            Map<TopicPartition, Long> beginning = consumer.beginningOffsets(partitions);
+            Map<TopicPartition, Long> end = consumer.endOffsets(partitions);
+            for (TopicPartition partition : partitions) {
+                consumer.seek(partition, Math.max(beginning.get(partition), end.get(partition) - limit));
+            }
+
+            long deadline = System.nanoTime() + BROWSE_TIMEOUT.toNanos();
+            while (!caughtUp(consumer, end) && System.nanoTime() - deadline < 0) {
+                try {
+                    for (ConsumerRecord<String, WorkflowMessage> record : consumer.poll(Duration.ofMillis(200))) {
+                        if (record.value() != null) {
+                            Header error = record.headers().lastHeader(ERROR_HEADER);
+                            result.add(new DeadLetter(record.value(),
+                                    error != null ? new String(error.value(), StandardCharsets.UTF_8) : null,
+                                    Instant.ofEpochMilli(record.timestamp())));
+                        }
+                    }
+                } catch (RecordDeserializationException e) {
+                    log.debug("Skipping unreadable dead letter at {}@{}", e.topicPartition(), e.offset());
+                    consumer.seek(e.topicPartition(), e.offset() + 1);
+                }
+            }
+        }
+        result.sort(Comparator.comparing(DeadLetter::deadLetteredAt).reversed());
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    private static boolean caughtUp(Consumer<?, ?> consumer, Map<TopicPartition, Long> end) {
+        for (Map.Entry<TopicPartition, Long> partition : end.entrySet()) {
+            if (consumer.position(partition.getKey()) < partition.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,221 @@
+package com.java.agentflow.async;
+
+import com.java.agentflow.workflow.model.ExecutionPriority;
+import io.micrometer.context.ContextSnapshotFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Weighted scheduler that arbitrates worker slots between priority lanes.
+ * Uses smooth weighted round-robin so higher lanes are favored, plus an age
+ * guard so a lower lane is never starved for longer than the max wait.
+ */
+@Component
+public class LaneScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(LaneScheduler.class);
+
+    private final Map<ExecutionPriority, Lane> lanes = new EnumMap<>(ExecutionPriority.class);
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final ExecutorService workers;
+    private final ContextSnapshotFactory snapshots = ContextSnapshotFactory.builder().build();
+    private final long maxWaitNanos;
+    private volatile boolean running = true;
+
+    public LaneScheduler(
+            MeterRegistry meterRegistry,
+            @Value("${agentflow.lanes.workers:4}") int workerCount,
+            @Value("${agentflow.lanes.max-wait:PT30S}") Duration maxWait,
+            @Value("${agentflow.lanes.weights.interactive:6}") int interactiveWeight,
+            @Value("${agentflow.lanes.weights.normal:3}") int normalWeight,
+            @Value("${agentflow.lanes.weights.batch:1}") int batchWeight) {
+        this.maxWaitNanos = maxWait.toNanos();
+
+        lanes.put(ExecutionPriority.INTERACTIVE, new Lane(ExecutionPriority.INTERACTIVE, interactiveWeight, meterRegistry));
+        lanes.put(ExecutionPriority.NORMAL, new Lane(ExecutionPriority.NORMAL, normalWeight, meterRegistry));
+        lanes.put(ExecutionPriority.BATCH, new Lane(ExecutionPriority.BATCH, batchWeight, meterRegistry));
+
+        this.workers = Executors.newFixedThreadPool(workerCount, Thread.ofPlatform().name("lane-worker-", 0).factory());
+        for (int i = 0; i < workerCount; i++) {
+            workers.submit(this::workLoop);
+        }
+    }
+
+    /**
+     * Queue a task on a lane and block until a worker has run it.
+     *
+     * @param priority   the lane to queue on
+     * @param enqueuedAt epoch millis when the execution was first queued, used for wait-time metrics
+     * @param task       the work to run
+     */
+    public void run(ExecutionPriority priority, long enqueuedAt, Runnable task) throws InterruptedException {
+        // Carry the delivering thread's trace context over to the worker
+        LaneTask laneTask = new LaneTask(snapshots.captureAll().wrap(task), enqueuedAt, System.nanoTime(),
+                new CompletableFuture<>());
+        Lane lane = lanes.get(priority);
+
+        lock.lock();
+        try {
+            if (!running) {
+                throw new RejectedExecutionException("Lane scheduler is shut down");
+            }
+            lane.queue.addLast(laneTask);
+            lane.depth.incrementAndGet();
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            laneTask.done().get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void workLoop() {
+        while (running) {
+            Lane lane;
+            LaneTask task;
+
+            lock.lock();
+            try {
+                while ((lane = nextLane()) == null) {
+                    notEmpty.await();
+                }
+                task = lane.queue.pollFirst();
+                lane.depth.decrementAndGet();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            lane.localWait.record(System.nanoTime() - task.queuedAtNanos(), TimeUnit.NANOSECONDS);
+            if (task.enqueuedAt() > 0) {
+                lane.queueWait.record(Math.max(0, System.currentTimeMillis() - task.enqueuedAt()), TimeUnit.MILLISECONDS);
+            }
+
+            try {
+                task.runnable().run();
+                task.done().complete(null);
+            } catch (Throwable t) {
+                log.error("Lane task failed on {}", lane.priority, t);
+                task.done().completeExceptionally(t);
+            }
+        }
+    }
+
+    /**
+     * Pick the next lane. Must be called while holding the lock.
+     * Returns null when every lane is empty.
+     */
+    private Lane nextLane() {
+        long now = System.nanoTime();
+        Lane starved = null;
+        Lane best = null;
+        int totalWeight = 0;
+
+        for (Lane lane : lanes.values()) {
+            LaneTask head = lane.queue.peekFirst();
+            if (head == null) {
+                continue;
+            }
+            if (now - head.queuedAtNanos() > maxWaitNanos
+                    && (starved == null || head.queuedAtNanos() < starved.queue.peekFirst().queuedAtNanos())) {
+                starved = lane;
+            }
+            lane.currentWeight += lane.weight;
+            totalWeight += lane.weight;
+            if (best == null || lane.currentWeight > best.currentWeight) {
+                best = lane;
+            }
+        }
+
+        Lane selected = starved != null ? starved : best;
+        if (selected != null) {
+            selected.currentWeight -= totalWeight;
+        }
+        return selected;
+    }
+
+    /**
+     * Stop the workers and fail every task still queued, so the threads
+     * waiting on them are released instead of blocking forever.
+     */
+    @PreDestroy
+    public void shutdown() {
+        lock.lock();
+        try {
+            running = false;
+            for (Lane lane : lanes.values()) {
+                LaneTask task;
+                while ((task = lane.queue.pollFirst()) != null) {
+                    lane.depth.decrementAndGet();
+                    task.done().completeExceptionally(new RejectedExecutionException("Lane scheduler is shut down"));
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        workers.shutdownNow();
+    }
+
+    private record LaneTask(Runnable runnable, long enqueuedAt, long queuedAtNanos, CompletableFuture<Void> done) {
+    }
+
+    private static final class Lane {
+        private final ExecutionPriority priority;
+        private final int weight;
+        private final ArrayDeque<LaneTask> queue = new ArrayDeque<>();
+        private final AtomicInteger depth = new AtomicInteger();
+        private final Timer queueWait;
+        private final Timer localWait;
+        private int currentWeight;
+
+        private Lane(ExecutionPriority priority, int weight, MeterRegistry meterRegistry) {
+            this.priority = priority;
+            this.weight = Math.max(1, weight);
+            String tag = priority.name().toLowerCase();
+
+            // Time from producer enqueue to worker start, across broker and local scheduling
+            this.queueWait = Timer.builder("agentflow.lane.queue.wait")
+                    .tag("lane", tag)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry);
+            // Time spent waiting for a worker slot on this node only
+            this.localWait = Timer.builder("agentflow.lane.local.wait")
+                    .tag("lane", tag)
+                    .publishPercentiles(0.5, 0.99)
+                    .register(meterRegistry);
+            Gauge.builder("agentflow.lane.depth", depth, AtomicInteger::get)
+                    .tag("lane", tag)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.java.agentflow.async;
+
+import com.java.agentflow.workflow.model.ExecutionPriority;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Drains a {@link PollingWorkflowQueue} into {@link WorkflowConsumer}. Each lane
+ * gets the same number of consumer threads a Kafka deployment would run for its topic.
+ */
+@Component
+@ConditionalOnExpression("'${agentflow.queue.backend:kafka}' != 'kafka'")
+public class PollingQueueConsumer {
+
+    private static final Logger log = LoggerFactory.getLogger(PollingQueueConsumer.class);
+
+    private final PollingWorkflowQueue queue;
+    private final WorkflowConsumer workflowConsumer;
+    private final Map<ExecutionPriority, Integer> consumers = new EnumMap<>(ExecutionPriority.class);
+    private final ExecutorService threads;
+    private volatile boolean running = true;
+
+    public PollingQueueConsumer(
+            PollingWorkflowQueue queue,
+            WorkflowConsumer workflowConsumer,
+            @Value("${agentflow.lanes.consumers.interactive:3}") int interactiveConsumers,
+            @Value("${agentflow.lanes.consumers.normal:3}") int normalConsumers,
+            @Value("${agentflow.lanes.consumers.batch:3}") int batchConsumers) {
+        this.queue = queue;
+        this.workflowConsumer = workflowConsumer;
+        consumers.put(ExecutionPriority.INTERACTIVE, interactiveConsumers);
+        consumers.put(ExecutionPriority.NORMAL, normalConsumers);
+        consumers.put(ExecutionPriority.BATCH, batchConsumers);
+        this.threads = Executors.newCachedThreadPool(Thread.ofPlatform().name("queue-consumer-", 0).factory());
+    }
+
+    /**
+     * Start once the context is up, so journal-recovered messages are not
+     * processed while the application is still starting.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        consumers.forEach((lane, count) -> {
+            for (int i = 0; i < count; i++) {
+                threads.submit(() -> consume(lane));
+            }
+        });
+    }
+
+    private void consume(ExecutionPriority lane) {
+        while (running) {
+            try {
+                WorkflowMessage message = queue.take(lane);
+                workflowConsumer.dispatch(lane, message, () -> queue.ack(message));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Queue consumer error on {}", lane, e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        threads.shutdownNow();
+    }
+}
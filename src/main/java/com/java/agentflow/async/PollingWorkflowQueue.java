@@ -0,0 +1,20 @@
+package com.java.agentflow.async;
+
+import com.java.agentflow.workflow.model.ExecutionPriority;
+
+/**
+ * A queue backend whose messages are pulled by {@link PollingQueueConsumer}
+ * rather than pushed by a broker client.
+ */
+public interface PollingWorkflowQueue extends WorkflowQueue {
+
+    /**
+     * Take the next message for a lane on this node, blocking while there is none.
+     */
+    WorkflowMessage take(ExecutionPriority priority) throws InterruptedException;
+
+    /**
+     * Record that a taken message has been fully handled.
+     */
+    void ack(WorkflowMessage message);
+}
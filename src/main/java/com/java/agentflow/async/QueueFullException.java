@@ -0,0 +1,11 @@
+package com.java.agentflow.async;
+
+/**
+ * Exception thrown when a bounded queue backend has no room for a submission.
+ */
+public class QueueFullException extends RuntimeException {
+
+    public QueueFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,213 @@
+package com.java.agentflow.async;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Append-only local journal for the in-process queue. Every enqueue and ack is
+ * written as one JSON line, so messages that were queued but not yet processed
+ * survive a restart. The journal is rewritten with only the pending messages on
+ * startup and whenever it grows past {@code maxBytes}. Dead letters go to a
+ * separate file that is never compacted.
+ */
+final class QueueJournal implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(QueueJournal.class);
+
+    private final Path file;
+    private final Path deadLetterFile;
+    private final ObjectMapper objectMapper;
+    private final boolean fsync;
+    private final long maxBytes;
+    private final Map<UUID, WorkflowMessage> pending = new LinkedHashMap<>();
+    private FileChannel channel;
+    private long size;
+
+    QueueJournal(Path dir, ObjectMapper objectMapper, boolean fsync, long maxBytes) {
+        this.file = dir.resolve("queue.journal");
+        this.deadLetterFile = dir.resolve("dead-letters.ndjson");
+        this.objectMapper = objectMapper;
+        this.fsync = fsync;
+        this.maxBytes = maxBytes;
+        try {
+            Files.createDirectories(dir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create queue journal directory " + dir, e);
+        }
+    }
+
+    /**
+     * Replay the journal and return the messages that were never acknowledged, oldest first.
+     */
+    synchronized List<WorkflowMessage> recover() {
+        if (Files.exists(file)) {
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    replay(line);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read queue journal " + file, e);
+            }
+        }
+        compact();
+        if (!pending.isEmpty()) {
+            log.info("Recovered {} queued executions from {}", pending.size(), file);
+        }
+        return new ArrayList<>(pending.values());
+    }
+
+    synchronized void enqueued(WorkflowMessage message) {
+        pending.put(message.executionId(), message);
+        size += append(channel, new Entry("enqueue", message, null, null, null));
+    }
+
+    synchronized void acked(UUID executionId) {
+        if (pending.remove(executionId) == null) {
+            return;
+        }
+        size += append(channel, new Entry("ack", null, executionId, null, null));
+        if (size > maxBytes) {
+            compact();
+        }
+    }
+
+    synchronized void deadLettered(WorkflowMessage message, String error) {
+        try (FileChannel deadLetters = FileChannel.open(deadLetterFile,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            append(deadLetters, new Entry("dead-letter", message, null, error, Instant.now()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write dead letter to " + deadLetterFile, e);
+        }
+    }
+
+    /**
+     * The most recent dead letters in the dead letter file, newest first.
+     */
+    synchronized List<DeadLetter> deadLetters(int limit) {
+        if (!Files.exists(deadLetterFile)) {
+            return List.of();
+        }
+        Deque<DeadLetter> newest = new ArrayDeque<>();
+        try (BufferedReader reader = Files.newBufferedReader(deadLetterFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    Entry entry = objectMapper.readValue(line, Entry.class);
+                    if (entry.message() != null) {
+                        if (newest.size() >= limit) {
+                            newest.pollLast();
+                        }
+                        newest.addFirst(new DeadLetter(entry.message(), entry.error(), entry.at()));
+                    }
+                } catch (IOException e) {
+                    log.warn("Skipping unreadable dead letter line: {}", e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read dead letters from " + deadLetterFile, e);
+        }
+        return new ArrayList<>(newest);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private void replay(String line) {
+        if (line.isBlank()) {
+            return;
+        }
+        try {
+            Entry entry = objectMapper.readValue(line, Entry.class);
+            if ("enqueue".equals(entry.op()) && entry.message() != null) {
+                pending.put(entry.message().executionId(), entry.message());
+            } else if ("ack".equals(entry.op())) {
+                pending.remove(entry.executionId());
+            }
+        } catch (IOException e) {
+            // A torn final line from a crash mid-write
+            log.warn("Skipping unreadable queue journal line: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Rewrite the journal with only the pending messages. Written to a temp file
+     * and moved into place so a crash leaves either the old or the new journal.
+     */
+    private void compact() {
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                for (WorkflowMessage message : pending.values()) {
+                    out.write(ByteBuffer.wrap(line(new Entry("enqueue", message, null, null, null))));
+                }
+                out.force(true);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            size = channel.size();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot compact queue journal " + file, e);
+        }
+    }
+
+    private long append(FileChannel target, Entry entry) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(line(entry));
+            long written = 0;
+            while (buffer.hasRemaining()) {
+                written += target.write(buffer);
+            }
+            if (fsync) {
+                target.force(false);
+            }
+            return written;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot append to queue journal", e);
+        }
+    }
+
+    private byte[] line(Entry entry) throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(entry);
+        byte[] line = new byte[json.length + 1];
+        System.arraycopy(json, 0, line, 0, json.length);
+        line[json.length] = '\n';
+        return line;
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    record Entry(String op, WorkflowMessage message, UUID executionId, String error, Instant at) {
+    }
+}
@@ -0,0 +1,11 @@
+package com.java.agentflow.async;
+
+/**
+ * Exception thrown when a dead letter re-drive job is not known to this node.
+ */
+public class RedriveJobNotFoundException extends RuntimeException {
+
+    public RedriveJobNotFoundException(String message) {
+        super(message);
+    }
+}
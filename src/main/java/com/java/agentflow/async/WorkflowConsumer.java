@@ -1,12 +1,18 @@
 package com.java.agentflow.async;
 
+import com.java.agentflow.quota.QuotaService;
+import com.java.agentflow.workflow.engine.RunAbortedException;
+import com.java.agentflow.workflow.model.ExecutionPriority;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
 
+import java.util.UUID;
+
+/**
+ * Handles delivered workflow messages for every queue backend: runs them on
+ * their priority lane and applies the retry and dead-letter policy.
+ */
 @Component
 public class WorkflowConsumer {
 
@@ -15,53 +21,78 @@ public class WorkflowConsumer {
 
     private final AsyncExecutionService executionService;
     private final ExecutionStateService stateService;
-    private final KafkaTemplate<String, WorkflowMessage> kafkaTemplate;
+    private final WorkflowQueue workflowQueue;
+    private final LaneScheduler laneScheduler;
+    private final QuotaService quotaService;
 
     public WorkflowConsumer(
             AsyncExecutionService executionService,
             ExecutionStateService stateService,
-            KafkaTemplate<String, WorkflowMessage> kafkaTemplate) {
+            WorkflowQueue workflowQueue,
+            LaneScheduler laneScheduler,
+            QuotaService quotaService) {
         this.executionService = executionService;
         this.stateService = stateService;
-        this.kafkaTemplate = kafkaTemplate;
+        this.workflowQueue = workflowQueue;
+        this.laneScheduler = laneScheduler;
+        this.quotaService = quotaService;
+    }
+
+    /**
+     * Hand the message to the lane scheduler and acknowledge once a worker has processed it.
+     * The delivering thread blocks meanwhile, so Kafka offsets are committed in order.
+     * A message that was not processed, because the thread was interrupted or the
+     * scheduler shut down, is left unacknowledged so it is delivered again.
+     */
+    public void dispatch(ExecutionPriority lane, WorkflowMessage message, Runnable ack) throws InterruptedException {
+        laneScheduler.run(lane, message.enqueuedAt(), () -> process(message));
+        ack.run();
     }
 
-    @KafkaListener(topics = KafkaConfig.WORKFLOW_TOPIC, groupId = "agentflow-workers", containerFactory = "kafkaListenerContainerFactory")
-    public void handleExecution(WorkflowMessage message, Acknowledgment ack) {
-        log.info("Processing workflow: {}", message.executionId());
+    private void process(WorkflowMessage message) {
+        log.info("Processing workflow: {} ({})", message.executionId(), message.priority());
 
-        if (!stateService.tryLock(message.executionId())) {
-            log.warn("Execution already being processed: {}", message.executionId());
-            ack.acknowledge();
+        UUID executionId = message.executionId();
+        String lock = stateService.tryLock(executionId);
+        if (lock == null) {
+            log.warn("Execution already being processed: {}", executionId);
             return;
         }
 
+        boolean handedOver = false;
         try {
-            executionService.executeWorkflow(message.workflowId(), message.executionId(), message.inputs());
-            ack.acknowledge();
+            executionService.executeWorkflow(message.workflowId(), executionId, message.inputs(), () -> {
+                if (!stateService.holdsLock(executionId, lock)) {
+                    throw new RunAbortedException("Lock of execution " + executionId + " was revoked");
+                }
+            });
+        } catch (RunAbortedException e) {
+            // Re-queued to another node, which now runs it and holds its quota lease
+            handedOver = true;
+            log.warn("Stopped execution {} taken over by another node: {}", executionId, e.getMessage());
         } catch (Exception e) {
             // If execution or workflow no longer exists, just acknowledge and skip
             if (e.getMessage() != null && e.getMessage().contains("not found")) {
-                log.warn("Skipping deleted execution: {} - {}", message.executionId(), e.getMessage());
-                ack.acknowledge();
+                log.warn("Skipping deleted execution: {} - {}", executionId, e.getMessage());
                 return;
             }
-            log.error("Execution failed: {}", message.executionId(), e);
-            handleFailure(message, e, ack);
+            log.error("Execution failed: {}", executionId, e);
+            handleFailure(message, e);
         } finally {
-            stateService.unlock(message.executionId());
+            stateService.unlock(executionId, lock);
+            if (!handedOver) {
+                quotaService.release(message.tenantId(), message.workflowId(), executionId);
+            }
         }
     }
 
-    private void handleFailure(WorkflowMessage message, Exception e, Acknowledgment ack) {
+    private void handleFailure(WorkflowMessage message, Exception e) {
         int retryCount = stateService.incrementRetry(message.executionId());
 
         if (retryCount >= MAX_RETRIES) {
             log.error("Max retries reached, sending to DLQ: {}", message.executionId());
-            kafkaTemplate.send(KafkaConfig.DLQ_TOPIC, message.executionId().toString(), message);
+            workflowQueue.deadLetter(message, e.getMessage());
             executionService.markExecutionFailed(message.executionId(), e.getMessage());
         }
-
-        ack.acknowledge();
     }
 }
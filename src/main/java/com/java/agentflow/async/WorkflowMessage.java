@@ -1,10 +1,18 @@
 package com.java.agentflow.async;
 
+import com.java.agentflow.workflow.model.ExecutionPriority;
+
 import java.util.Map;
 import java.util.UUID;
 
 public record WorkflowMessage(
         UUID workflowId,
         UUID executionId,
-        Map<String, Object> inputs) {
+        Map<String, Object> inputs,
+        ExecutionPriority priority,
+        long enqueuedAt,
+        String tenantId) {
+    public WorkflowMessage {
+        priority = priority != null ? priority : ExecutionPriority.NORMAL;
+    }
 }
@@ -0,0 +1,107 @@
+package com.java.agentflow.async;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kafka serializer and deserializer for {@link WorkflowMessage}. Writes JSON or
+ * Smile (binary JSON) and reads either, recognizing Smile by its header, so the
+ * format can be switched with a rolling restart.
+ *
+ * Messages larger than the claim-check threshold are sent without their inputs.
+ * The consumer then loads them from the execution row, which is committed with
+ * the same inputs before the message is published.
+ */
+public class WorkflowMessageCodec implements Serializer<WorkflowMessage>, Deserializer<WorkflowMessage> {
+
+    public enum Format {
+        JSON,
+        SMILE
+    }
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final ObjectMapper SMILE = new ObjectMapper(new SmileFactory());
+
+    private final ObjectMapper writer;
+    private final long claimCheckThreshold;
+    private final DistributionSummary messageBytes;
+    private final Counter claimChecks;
+    private final Timer decodeTime;
+
+    /**
+     * @param claimCheckThreshold encoded size above which inputs are left out; 0 to always include them
+     */
+    public WorkflowMessageCodec(Format format, long claimCheckThreshold, MeterRegistry meterRegistry) {
+        this.writer = format == Format.SMILE ? SMILE : JSON;
+        this.claimCheckThreshold = claimCheckThreshold;
+        String codec = format.name().toLowerCase();
+        this.messageBytes = DistributionSummary.builder("agentflow.queue.message.bytes")
+                .baseUnit("bytes")
+                .tag("codec", codec)
+                .register(meterRegistry);
+        this.claimChecks = meterRegistry.counter("agentflow.queue.message.claim-checks", "codec", codec);
+        this.decodeTime = meterRegistry.timer("agentflow.queue.message.decode");
+    }
+
+    @Override
+    public byte[] serialize(String topic, WorkflowMessage message) {
+        if (message == null) {
+            return null;
+        }
+        try {
+            byte[] bytes = writer.writeValueAsBytes(message);
+            if (claimCheckThreshold > 0 && bytes.length > claimCheckThreshold && message.inputs() != null) {
+                bytes = writer.writeValueAsBytes(new WorkflowMessage(message.workflowId(), message.executionId(),
+                        null, message.priority(), message.enqueuedAt(), message.tenantId()));
+                claimChecks.increment();
+            }
+            messageBytes.record(bytes.length);
+            return bytes;
+        } catch (IOException e) {
+            throw new SerializationException("Cannot encode message for " + message.executionId(), e);
+        }
+    }
+
+    @Override
+    public WorkflowMessage deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        long start = System.nanoTime();
+        try {
+            return (isSmile(data) ? SMILE : JSON).readValue(data, WorkflowMessage.class);
+        } catch (IOException e) {
+            throw new SerializationException("Cannot decode message from " + topic, e);
+        } finally {
+            decodeTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // Configured through the constructor
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+    }
+
+    /**
+     * Shared by the producer and every consumer, so closing one of them must not affect the others.
+     */
+    @Override
+    public void close() {
+    }
+
+    // Smile documents start with ":)\n"
+    private static boolean isSmile(byte[] data) {
+        return data.length >= 3 && data[0] == ':' && data[1] == ')' && data[2] == '\n';
+    }
+}
@@ -1,8 +1,6 @@
 package com.java.agentflow.async;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.springframework.kafka.core.KafkaTemplate;
+import com.java.agentflow.workflow.model.ExecutionPriority;
 import org.springframework.stereotype.Component;
 
 import java.util.Map;
@@ -11,24 +9,20 @@ import java.util.UUID;
 @Component
 public class WorkflowProducer {
 
-    private static final Logger log = LoggerFactory.getLogger(WorkflowProducer.class);
+    private final WorkflowQueue workflowQueue;
 
-    private final KafkaTemplate<String, WorkflowMessage> kafkaTemplate;
-
-    public WorkflowProducer(KafkaTemplate<String, WorkflowMessage> kafkaTemplate) {
-        this.kafkaTemplate = kafkaTemplate;
+    public WorkflowProducer(WorkflowQueue workflowQueue) {
+        this.workflowQueue = workflowQueue;
     }
 
     public void queueExecution(UUID workflowId, UUID executionId, Map<String, Object> inputs) {
-        WorkflowMessage message = new WorkflowMessage(workflowId, executionId, inputs);
+        queueExecution(workflowId, executionId, inputs, ExecutionPriority.NORMAL, null);
+    }
 
-        kafkaTemplate.send(KafkaConfig.WORKFLOW_TOPIC, executionId.toString(), message)
-                .whenComplete((result, ex) -> {
-                    if (ex != null) {
-                        log.error("Failed to queue workflow: {}", executionId, ex);
-                    } else {
-                        log.info("Queued workflow execution: {}", executionId);
-                    }
-                });
+    public void queueExecution(UUID workflowId, UUID executionId, Map<String, Object> inputs,
+            ExecutionPriority priority, String tenantId) {
+        WorkflowMessage message = new WorkflowMessage(workflowId, executionId, inputs, priority,
+                System.currentTimeMillis(), tenantId);
+        workflowQueue.enqueue(message);
     }
 }
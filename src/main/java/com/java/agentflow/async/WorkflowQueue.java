@@ -0,0 +1,28 @@
+package com.java.agentflow.async;
+
+import java.util.List;
+
+/**
+ * Transport between {@link WorkflowProducer} and the workers. Selected with
+ * {@code agentflow.queue.backend}: {@code kafka} (default) or {@code in-process}.
+ * Either way, delivered messages are handled by {@link WorkflowConsumer}.
+ */
+public interface WorkflowQueue {
+
+    /**
+     * Queue a message on its priority lane. Throws {@link QueueFullException}
+     * when the backend cannot accept it.
+     */
+    void enqueue(WorkflowMessage message);
+
+    /**
+     * Park a message that exhausted its retries.
+     */
+    void deadLetter(WorkflowMessage message, String error);
+
+    /**
+     * Up to {@code limit} of the most recently parked messages, newest first.
+     * Messages stay parked after being read.
+     */
+    List<DeadLetter> deadLetters(int limit);
+}
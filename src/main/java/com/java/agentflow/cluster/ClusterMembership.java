@@ -0,0 +1,149 @@
+package com.java.agentflow.cluster;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Tracks the live nodes of the cluster through Redis heartbeats. Each node
+ * scores itself in a sorted set with the time of its last heartbeat; nodes
+ * whose heartbeat is older than the node TTL are considered gone. The live
+ * set is turned into a {@link HashRing} that decides which node owns an execution.
+ */
+@Component
+@ConditionalOnProperty(name = "agentflow.queue.backend", havingValue = "cluster")
+public class ClusterMembership {
+
+    private static final Logger log = LoggerFactory.getLogger(ClusterMembership.class);
+    static final String NODES_KEY = "cluster:nodes";
+    static final String REMOVED_KEY = "cluster:removed";
+
+    private final StringRedisTemplate redis;
+    private final String nodeId;
+    private final Duration nodeTtl;
+    private final Duration removedRetention;
+    private final int virtualNodes;
+    private volatile HashRing ring;
+    private volatile Set<String> departed = Set.of();
+
+    public ClusterMembership(
+            StringRedisTemplate redis,
+            MeterRegistry meterRegistry,
+            @Value("${agentflow.cluster.node-id:}") String nodeId,
+            @Value("${agentflow.cluster.node-ttl:PT10S}") Duration nodeTtl,
+            @Value("${agentflow.cluster.removed-retention:PT5M}") Duration removedRetention,
+            @Value("${agentflow.cluster.virtual-nodes:64}") int virtualNodes) {
+        this.redis = redis;
+        this.nodeId = nodeId.isBlank() ? defaultNodeId() : nodeId;
+        this.nodeTtl = nodeTtl;
+        this.removedRetention = removedRetention;
+        this.virtualNodes = virtualNodes;
+        this.ring = new HashRing(Set.of(this.nodeId), virtualNodes);
+        Gauge.builder("agentflow.cluster.members", this, m -> m.ring.nodes().size()).register(meterRegistry);
+        heartbeat();
+        log.info("Joined cluster as {}", this.nodeId);
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    /**
+     * The ring over the live nodes as of the last heartbeat. Always contains this node.
+     */
+    public HashRing ring() {
+        return ring;
+    }
+
+    /**
+     * Nodes that were registered but missed their heartbeat as of the last refresh.
+     */
+    public Set<String> departed() {
+        return departed;
+    }
+
+    @Scheduled(fixedDelayString = "${agentflow.cluster.heartbeat-interval:PT2S}")
+    public void heartbeat() {
+        long now = System.currentTimeMillis();
+        try {
+            redis.opsForZSet().add(NODES_KEY, nodeId, now);
+            Set<String> live = new HashSet<>(redis.opsForZSet()
+                    .rangeByScore(NODES_KEY, now - nodeTtl.toMillis(), Double.POSITIVE_INFINITY));
+            live.add(nodeId);
+            Set<String> stale = redis.opsForZSet().rangeByScore(NODES_KEY, 0, now - nodeTtl.toMillis() - 1);
+            departed = stale != null ? Set.copyOf(stale) : Set.of();
+            if (!live.equals(ring.nodes())) {
+                log.info("Cluster membership changed: {}", live);
+                ring = new HashRing(live, virtualNodes);
+            }
+        } catch (DataAccessException e) {
+            // Keep the last known ring; peers will see this node as gone until Redis is back
+            log.warn("Cluster heartbeat failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Forget a departed node once its queued work has been handed to the live nodes.
+     * It is remembered as removed for the retention period, see {@link #removed}.
+     */
+    void remove(String node) {
+        redis.opsForZSet().add(REMOVED_KEY, node, System.currentTimeMillis());
+        redis.opsForZSet().remove(NODES_KEY, node);
+    }
+
+    /**
+     * Nodes removed within the retention period that have not come back.
+     * Producers still holding a ring from before the removal may queue work
+     * on them, so their inboxes are swept until the retention ends.
+     */
+    Set<String> removed() {
+        long now = System.currentTimeMillis();
+        long since = now - removedRetention.toMillis();
+        redis.opsForZSet().removeRangeByScore(REMOVED_KEY, 0, since - 1);
+        Set<String> removed = redis.opsForZSet().rangeByScore(REMOVED_KEY, since, Double.POSITIVE_INFINITY);
+        if (removed == null || removed.isEmpty()) {
+            return Set.of();
+        }
+        Set<String> gone = new HashSet<>(removed);
+        gone.removeAll(ring.nodes());
+        return gone;
+    }
+
+    /**
+     * Mark this node as gone right away, so peers reclaim its queue without waiting for the TTL.
+     */
+    @PreDestroy
+    public void leave() {
+        try {
+            redis.opsForZSet().add(NODES_KEY, nodeId, 0);
+        } catch (DataAccessException e) {
+            log.warn("Failed to leave cluster: {}", e.getMessage());
+        }
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "node";
+        }
+        // A restarted node gets a new id, so its predecessor's leftovers are reclaimed
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
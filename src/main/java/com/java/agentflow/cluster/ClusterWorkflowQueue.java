@@ -0,0 +1,352 @@
+package com.java.agentflow.cluster;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.java.agentflow.async.AfterCommit;
+import com.java.agentflow.async.AsyncExecutionService;
+import com.java.agentflow.async.DeadLetter;
+import com.java.agentflow.async.ExecutionStateService;
+import com.java.agentflow.async.PollingWorkflowQueue;
+import com.java.agentflow.async.WorkflowMessage;
+import com.java.agentflow.quota.QuotaService;
+import com.java.agentflow.workflow.model.ExecutionPriority;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisListCommands.Direction;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cluster backend: every node has a Redis inbox per priority lane, and each
+ * execution is queued on the inbox of the node that owns it on the
+ * {@link HashRing}. A node takes from its own inbox first; when that is empty
+ * it steals from the peer with the longest backlog, so adding nodes adds
+ * throughput instead of being capped by a fixed partition count.
+ *
+ * Taken messages sit in the node's processing list until acknowledged. Inboxes
+ * and processing lists of departed nodes are re-queued to their new owners.
+ */
+@Component
+@ConditionalOnProperty(name = "agentflow.queue.backend", havingValue = "cluster")
+public class ClusterWorkflowQueue implements PollingWorkflowQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(ClusterWorkflowQueue.class);
+    private static final String DEAD_LETTERS_KEY = "cluster:dead-letters";
+    private static final long MIN_BACKOFF_MS = 5;
+    private static final int PUSH_ATTEMPTS = 3;
+    private static final long PUSH_BACKOFF_MS = 100;
+
+    private final StringRedisTemplate redis;
+    private final ClusterMembership membership;
+    private final ExecutionStateService stateService;
+    private final AsyncExecutionService executionService;
+    private final QuotaService quotaService;
+    private final ObjectMapper objectMapper;
+    private final long pollIntervalMs;
+    private final int stealThreshold;
+    private final int deadLetterLimit;
+    private final Map<UUID, String> taken = new ConcurrentHashMap<>();
+    private final Counter steals;
+    private final Counter reclaimed;
+
+    public ClusterWorkflowQueue(
+            StringRedisTemplate redis,
+            ClusterMembership membership,
+            ExecutionStateService stateService,
+            AsyncExecutionService executionService,
+            QuotaService quotaService,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${agentflow.cluster.poll-interval:PT0.1S}") Duration pollInterval,
+            @Value("${agentflow.cluster.steal-threshold:2}") int stealThreshold,
+            @Value("${agentflow.cluster.dead-letter-limit:10000}") int deadLetterLimit) {
+        this.redis = redis;
+        this.membership = membership;
+        this.stateService = stateService;
+        this.executionService = executionService;
+        this.quotaService = quotaService;
+        this.objectMapper = objectMapper;
+        this.pollIntervalMs = Math.max(MIN_BACKOFF_MS, pollInterval.toMillis());
+        this.stealThreshold = Math.max(1, stealThreshold);
+        this.deadLetterLimit = deadLetterLimit;
+        this.steals = meterRegistry.counter("agentflow.cluster.steals");
+        this.reclaimed = meterRegistry.counter("agentflow.cluster.reclaimed");
+    }
+
+    @Override
+    public void enqueue(WorkflowMessage message) {
+        String payload = encode(message);
+        AfterCommit.run(() -> push(message, payload));
+    }
+
+    /**
+     * Push a committed execution onto its owner's inbox, retrying briefly. If
+     * Redis stays unreachable the execution is marked failed and its quota
+     * lease released, rather than left pending with nothing queued.
+     */
+    private void push(WorkflowMessage message, String payload) {
+        DataAccessException failure = null;
+        for (int attempt = 1; attempt <= PUSH_ATTEMPTS; attempt++) {
+            String owner = membership.ring().ownerOf(message.executionId().toString());
+            try {
+                redis.opsForList().leftPush(inboxKey(owner, message.priority()), payload);
+                log.info("Queued workflow execution: {} ({}) on {}", message.executionId(), message.priority(), owner);
+                return;
+            } catch (DataAccessException e) {
+                failure = e;
+                log.warn("Failed to queue workflow {} (attempt {}): {}", message.executionId(), attempt, e.getMessage());
+            }
+            if (attempt < PUSH_ATTEMPTS) {
+                try {
+                    Thread.sleep(PUSH_BACKOFF_MS * attempt);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        log.error("Failed to queue workflow: {}", message.executionId(), failure);
+        executionService.markExecutionFailed(message.executionId(), "Could not be queued: " + failure.getMessage());
+        quotaService.release(message.tenantId(), message.workflowId(), message.executionId());
+    }
+
+    @Override
+    public void deadLetter(WorkflowMessage message, String error) {
+        String payload = encode(Map.of("message", message, "error", String.valueOf(error),
+                "node", membership.nodeId(), "at", Instant.now().toString()));
+        redis.opsForList().leftPush(DEAD_LETTERS_KEY, payload);
+        redis.opsForList().trim(DEAD_LETTERS_KEY, 0, deadLetterLimit - 1);
+    }
+
+    /**
+     * Dead letters from every node. Payloads that could not be decoded when
+     * they were taken are kept in the list but cannot be re-driven, so they
+     * are left out.
+     */
+    @Override
+    public List<DeadLetter> deadLetters(int limit) {
+        List<String> payloads = redis.opsForList().range(DEAD_LETTERS_KEY, 0, limit - 1);
+        List<DeadLetter> result = new ArrayList<>();
+        for (String payload : payloads != null ? payloads : List.<String>of()) {
+            try {
+                JsonNode node = objectMapper.readTree(payload);
+                if (node.has("message")) {
+                    result.add(new DeadLetter(
+                            objectMapper.treeToValue(node.get("message"), WorkflowMessage.class),
+                            node.path("error").asText(null),
+                            node.hasNonNull("at") ? Instant.parse(node.get("at").asText()) : null));
+                }
+            } catch (JsonProcessingException | DateTimeParseException e) {
+                log.debug("Skipping unreadable dead letter: {}", e.getMessage());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Take from this node's inbox, or steal from the busiest peer. Polls with
+     * backoff up to the poll interval while the whole cluster is idle.
+     */
+    @Override
+    public WorkflowMessage take(ExecutionPriority priority) throws InterruptedException {
+        long backoff = MIN_BACKOFF_MS;
+        while (true) {
+            try {
+                String self = membership.nodeId();
+                String payload = redis.opsForList().move(
+                        inboxKey(self, priority), Direction.RIGHT, processingKey(self), Direction.LEFT);
+                if (payload == null) {
+                    payload = steal(priority);
+                }
+                if (payload != null) {
+                    WorkflowMessage message = decode(payload);
+                    if (message != null) {
+                        taken.put(message.executionId(), payload);
+                        return message;
+                    }
+                    redis.opsForList().remove(processingKey(self), 1, payload);
+                    redis.opsForList().leftPush(DEAD_LETTERS_KEY, payload);
+                    continue;
+                }
+            } catch (DataAccessException e) {
+                log.warn("Cluster queue poll failed: {}", e.getMessage());
+                backoff = pollIntervalMs;
+            }
+            Thread.sleep(backoff);
+            backoff = Math.min(backoff * 2, pollIntervalMs);
+        }
+    }
+
+    @Override
+    public void ack(WorkflowMessage message) {
+        String payload = taken.remove(message.executionId());
+        if (payload == null) {
+            return;
+        }
+        try {
+            redis.opsForList().remove(processingKey(membership.nodeId()), 1, payload);
+        } catch (DataAccessException e) {
+            log.warn("Failed to acknowledge {}: {}", message.executionId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Move the newest message of the peer with the longest backlog on this lane.
+     * Owners take from the other end, so their oldest work keeps its order.
+     */
+    private String steal(ExecutionPriority priority) {
+        String self = membership.nodeId();
+        String victim = null;
+        long longest = stealThreshold - 1;
+        for (String node : membership.ring().nodes()) {
+            if (node.equals(self)) {
+                continue;
+            }
+            Long length = redis.opsForList().size(inboxKey(node, priority));
+            if (length != null && length > longest) {
+                longest = length;
+                victim = node;
+            }
+        }
+        if (victim == null) {
+            return null;
+        }
+        String payload = redis.opsForList().move(
+                inboxKey(victim, priority), Direction.LEFT, processingKey(self), Direction.LEFT);
+        if (payload != null) {
+            steals.increment();
+            log.debug("Stole execution from {} ({} queued)", victim, longest);
+        }
+        return payload;
+    }
+
+    /**
+     * Hand the queued and in-flight messages of departed nodes to their new owners.
+     * In-flight messages are redelivered, as Kafka would after a consumer dies. The
+     * departed node may only have missed its heartbeat and still be running them,
+     * so their execution locks are revoked: its next save fails the fencing check
+     * and rolls back, and the new owner locks and runs them afresh.
+     *
+     * Inboxes of nodes removed earlier are swept as well, for messages queued
+     * by producers that had not seen the removal yet.
+     */
+    @Scheduled(fixedDelayString = "${agentflow.cluster.heartbeat-interval:PT2S}")
+    public void reclaimDeparted() {
+        try {
+            // Left over if forwarding failed half-way last time
+            drain(stagingKey(membership.nodeId()), true);
+        } catch (DataAccessException e) {
+            log.warn("Failed to forward staged messages: {}", e.getMessage());
+            return;
+        }
+        for (String node : membership.departed()) {
+            try {
+                Boolean claimed = redis.opsForValue().setIfAbsent(
+                        "cluster:reclaim:" + node, membership.nodeId(), Duration.ofMinutes(1));
+                if (!Boolean.TRUE.equals(claimed)) {
+                    continue;
+                }
+                int moved = drain(processingKey(node), true) + drain(stagingKey(node), true);
+                for (ExecutionPriority priority : ExecutionPriority.values()) {
+                    moved += drain(inboxKey(node, priority), false);
+                }
+                membership.remove(node);
+                reclaimed.increment(moved);
+                log.info("Reclaimed {} queued executions from departed node {}", moved, node);
+            } catch (DataAccessException e) {
+                log.warn("Failed to reclaim work from {}: {}", node, e.getMessage());
+            }
+        }
+        try {
+            for (String node : membership.removed()) {
+                int moved = 0;
+                for (ExecutionPriority priority : ExecutionPriority.values()) {
+                    moved += drain(inboxKey(node, priority), false);
+                }
+                if (moved > 0) {
+                    reclaimed.increment(moved);
+                    log.info("Forwarded {} executions queued on removed node {}", moved, node);
+                }
+            }
+        } catch (DataAccessException e) {
+            log.warn("Failed to sweep inboxes of removed nodes: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Move every message of a list to its owner's inbox, oldest ending up first in line.
+     * Each message is first moved atomically to this node's staging list, so no
+     * message is lost or delivered twice when several nodes drain the same list.
+     */
+    private int drain(String source, boolean inFlight) {
+        String staging = stagingKey(membership.nodeId());
+        int moved = 0;
+        if (!source.equals(staging)) {
+            // Anything already staged goes first, so the staging list holds one message at a time
+            moved += drain(staging, true);
+        }
+        String payload;
+        while ((payload = source.equals(staging)
+                ? redis.opsForList().index(staging, 0)
+                : redis.opsForList().move(source, Direction.LEFT, staging, Direction.RIGHT)) != null) {
+            WorkflowMessage message = decode(payload);
+            if (message == null) {
+                redis.opsForList().move(staging, Direction.LEFT, DEAD_LETTERS_KEY, Direction.LEFT);
+                continue;
+            }
+            if (inFlight) {
+                stateService.revoke(message.executionId());
+            }
+            String owner = membership.ring().ownerOf(message.executionId().toString());
+            redis.opsForList().move(staging, Direction.LEFT, inboxKey(owner, message.priority()), Direction.RIGHT);
+            moved++;
+        }
+        return moved;
+    }
+
+    private String encode(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize queue message", e);
+        }
+    }
+
+    private WorkflowMessage decode(String payload) {
+        try {
+            return objectMapper.readValue(payload, WorkflowMessage.class);
+        } catch (JsonProcessingException e) {
+            log.error("Unreadable queue message, moving to dead letters: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static String inboxKey(String node, ExecutionPriority priority) {
+        return "cluster:inbox:" + node + ":" + priority.name().toLowerCase();
+    }
+
+    private static String processingKey(String node) {
+        return "cluster:processing:" + node;
+    }
+
+    /** Holds the message being forwarded by {@link #drain}, at most one at a time. */
+    private static String stagingKey(String node) {
+        return "cluster:staging:" + node;
+    }
+}
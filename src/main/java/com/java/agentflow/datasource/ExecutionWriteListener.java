@@ -0,0 +1,33 @@
+package com.java.agentflow.datasource;
+
+import com.java.agentflow.workflow.entity.StepExecution;
+import com.java.agentflow.workflow.entity.WorkflowExecution;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA listener recording which executions this node wrote, for read-your-writes routing.
+ * Instantiated through Spring's bean container so it can be injected.
+ */
+@Component
+public class ExecutionWriteListener {
+
+    private final RecentWrites recentWrites;
+
+    public ExecutionWriteListener(RecentWrites recentWrites) {
+        this.recentWrites = recentWrites;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onWrite(Object entity) {
+        if (entity instanceof WorkflowExecution execution) {
+            recentWrites.record(execution.getId());
+        } else if (entity instanceof StepExecution step && step.getExecution() != null) {
+            recentWrites.record(step.getExecution().getId());
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.java.agentflow.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Thread-scoped override that pins reads to the primary, for callers that must
+ * see their own recent writes. Takes effect for connections opened inside the block.
+ */
+public final class ReadRouting {
+
+    private static final ThreadLocal<Boolean> FORCE_PRIMARY = new ThreadLocal<>();
+
+    private ReadRouting() {
+    }
+
+    public static <T> T onPrimary(Supplier<T> work) {
+        Boolean previous = FORCE_PRIMARY.get();
+        FORCE_PRIMARY.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                FORCE_PRIMARY.remove();
+            } else {
+                FORCE_PRIMARY.set(previous);
+            }
+        }
+    }
+
+    static boolean isPrimaryForced() {
+        return FORCE_PRIMARY.get() != null;
+    }
+}
@@ -0,0 +1,65 @@
+package com.java.agentflow.datasource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Executions this node wrote within the replica lag window. Reads of these are
+ * sent to the primary so a client polling its own execution never goes backwards.
+ */
+@Component
+public class RecentWrites {
+
+    private final Map<UUID, Long> writtenAt = new ConcurrentHashMap<>();
+    private final long windowNanos;
+    private final int maxEntries;
+    private volatile long overflowUntil;
+
+    public RecentWrites(
+            @Value("${agentflow.datasource.max-lag:PT10S}") Duration window,
+            @Value("${agentflow.datasource.recent-writes-max-entries:100000}") int maxEntries) {
+        this.windowNanos = window.toNanos();
+        this.maxEntries = maxEntries;
+    }
+
+    public void record(UUID executionId) {
+        if (executionId == null) {
+            return;
+        }
+        if (writtenAt.size() >= maxEntries) {
+            purgeExpired();
+        }
+        long now = System.nanoTime();
+        if (writtenAt.size() < maxEntries || writtenAt.containsKey(executionId)) {
+            writtenAt.put(executionId, now);
+        } else {
+            // Too many writes to track individually; treat every execution as recent for a window
+            overflowUntil = now + windowNanos;
+        }
+    }
+
+    public boolean isRecent(UUID executionId) {
+        if (System.nanoTime() - overflowUntil < 0) {
+            return true;
+        }
+        Long at = writtenAt.get(executionId);
+        if (at == null) {
+            return false;
+        }
+        if (System.nanoTime() - at > windowNanos) {
+            writtenAt.remove(executionId, at);
+            return false;
+        }
+        return true;
+    }
+
+    private void purgeExpired() {
+        long now = System.nanoTime();
+        writtenAt.entrySet().removeIf(e -> now - e.getValue() > windowNanos);
+    }
+}
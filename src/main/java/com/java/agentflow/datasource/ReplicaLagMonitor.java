@@ -0,0 +1,59 @@
+package com.java.agentflow.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Polls each replica's replay lag and takes it out of read rotation while the
+ * lag exceeds {@code agentflow.datasource.max-lag} or the replica is unreachable.
+ */
+@Component
+public class ReplicaLagMonitor {
+
+    // Zero when fully caught up, so an idle primary does not look like growing lag
+    private static final String LAG_QUERY = """
+            SELECT CASE
+                WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0)
+            END""";
+
+    private final ReplicaRoutingDataSource routingDataSource;
+    private final double maxLagSeconds;
+
+    public ReplicaLagMonitor(
+            ReplicaRoutingDataSource routingDataSource,
+            MeterRegistry meterRegistry,
+            @Value("${agentflow.datasource.max-lag:PT10S}") Duration maxLag) {
+        this.routingDataSource = routingDataSource;
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+
+        for (ReplicaRoutingDataSource.Replica replica : routingDataSource.replicas()) {
+            Gauge.builder("agentflow.datasource.replica.lag", replica, ReplicaRoutingDataSource.Replica::lagSeconds)
+                    .tag("replica", replica.name())
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+            Gauge.builder("agentflow.datasource.replica.healthy", replica, r -> r.isHealthy() ? 1 : 0)
+                    .tag("replica", replica.name())
+                    .register(meterRegistry);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${agentflow.datasource.lag-check-interval:PT5S}")
+    public void check() {
+        for (ReplicaRoutingDataSource.Replica replica : routingDataSource.replicas()) {
+            try {
+                Double lag = new JdbcTemplate(replica.dataSource()).queryForObject(LAG_QUERY, Double.class);
+                double seconds = lag != null ? lag : 0;
+                replica.update(seconds, seconds <= maxLagSeconds);
+            } catch (RuntimeException e) {
+                replica.markDown("lag check failed: " + e.getMessage());
+            }
+        }
+    }
+}
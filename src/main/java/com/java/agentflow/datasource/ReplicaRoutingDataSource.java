@@ -0,0 +1,143 @@
+package com.java.agentflow.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Routes connections for read-only transactions to a healthy replica and
+ * everything else to the primary. Falls back to the primary when no replica is
+ * healthy, a replica refuses connections, or {@link ReadRouting} pins the thread.
+ *
+ * The decision is made when a physical connection is opened, so this must sit
+ * behind a LazyConnectionDataSourceProxy to see the transaction's read-only flag.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter primaryRoutes;
+    private final Counter replicaRoutes;
+    private final Counter fallbacks;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<Replica> replicas, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.primaryRoutes = meterRegistry.counter("agentflow.datasource.routes", "target", "primary");
+        this.replicaRoutes = meterRegistry.counter("agentflow.datasource.routes", "target", "replica");
+        this.fallbacks = meterRegistry.counter("agentflow.datasource.replica.fallbacks");
+    }
+
+    public List<Replica> replicas() {
+        return replicas;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Replica replica = selectReplica();
+        if (replica != null) {
+            try {
+                Connection connection = replica.dataSource().getConnection();
+                replicaRoutes.increment();
+                return connection;
+            } catch (SQLException e) {
+                replica.markDown("connection failed: " + e.getMessage());
+                fallbacks.increment();
+                log.warn("Replica {} unavailable, reading from primary: {}", replica.name(), e.getMessage());
+            }
+        }
+        primaryRoutes.increment();
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    /**
+     * Close the replica pools; the primary is a bean and closed by the container.
+     */
+    public void close() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.dataSource() instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private Replica selectReplica() {
+        if (replicas.isEmpty() || ReadRouting.isPrimaryForced()
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return null;
+        }
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (replica.isHealthy()) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * A replica and its last observed health. Starts down until the first lag check passes.
+     */
+    public static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy;
+        private volatile double lagSeconds = Double.NaN;
+
+        public Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public DataSource dataSource() {
+            return dataSource;
+        }
+
+        public boolean isHealthy() {
+            return healthy;
+        }
+
+        public double lagSeconds() {
+            return lagSeconds;
+        }
+
+        void update(double lagSeconds, boolean healthy) {
+            if (this.healthy != healthy) {
+                log.info("Replica {} is now {} (lag {}s)", name, healthy ? "in rotation" : "out of rotation", lagSeconds);
+            }
+            this.lagSeconds = lagSeconds;
+            this.healthy = healthy;
+        }
+
+        void markDown(String reason) {
+            if (healthy) {
+                log.warn("Replica {} taken out of rotation: {}", name, reason);
+            }
+            this.lagSeconds = Double.NaN;
+            this.healthy = false;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.java.agentflow.dispatch;
+
+import com.java.agentflow.workflow.engine.ExecutionScope;
+import com.java.agentflow.workflow.engine.RemoteStepDispatcher;
+import com.java.agentflow.workflow.engine.StepOutcome;
+import com.java.agentflow.workflow.model.WorkflowDefinition.StepDefinition;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Publishes ready steps to the step-tasks topic and completes the coordinator's
+ * future when the matching result comes back on the results topic.
+ */
+@Component
+@ConditionalOnProperty(name = "agentflow.engine.distributed.enabled", havingValue = "true")
+public class DistributedStepDispatcher implements RemoteStepDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(DistributedStepDispatcher.class);
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final StepOutputStore outputStore;
+    private final Duration stepTimeout;
+    private final Map<UUID, CompletableFuture<StepOutcome>> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger nextPartition = new AtomicInteger();
+    private volatile int partitions;
+
+    public DistributedStepDispatcher(
+            KafkaTemplate<String, Object> kafkaTemplate,
+            StepOutputStore outputStore,
+            MeterRegistry meterRegistry,
+            @Value("${agentflow.engine.distributed.step-timeout:PT10M}") Duration stepTimeout) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.outputStore = outputStore;
+        this.stepTimeout = stepTimeout;
+        meterRegistry.gaugeMapSize("agentflow.engine.distributed.pending", List.of(), pending);
+    }
+
+    @Override
+    public CompletableFuture<StepOutcome> dispatch(
+            UUID executionId,
+            StepDefinition step,
+            Map<String, Object> workflowInputs,
+            Map<String, Map<String, Object>> stepOutputs,
+            Map<String, String> outputRefs,
+            ExecutionScope scope) {
+        Map<String, Object> inline = new HashMap<>();
+        Map<String, String> refs = new HashMap<>();
+        for (String dependency : step.dependsOn() != null ? step.dependsOn() : List.<String>of()) {
+            if (outputRefs.containsKey(dependency)) {
+                refs.put(dependency, outputRefs.get(dependency));
+            } else if (stepOutputs.containsKey(dependency)) {
+                inline.put(dependency, stepOutputs.get(dependency).get("outputs"));
+            }
+        }
+
+        StepTask task = new StepTask(UUID.randomUUID(), executionId, step, workflowInputs, inline, refs,
+                scope.depth(), scope.deadline());
+        CompletableFuture<StepOutcome> outcome = new CompletableFuture<>();
+        pending.put(task.taskId(), outcome);
+        outcome.orTimeout(stepTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .whenComplete((result, error) -> pending.remove(task.taskId()));
+
+        // Round-robin over partitions so the steps of one execution reach different workers
+        int partition = Math.floorMod(nextPartition.getAndIncrement(), taskPartitions());
+        kafkaTemplate.send(StepDispatchConfig.TASKS_TOPIC, partition, task.taskId().toString(), task)
+                .whenComplete((result, error) -> {
+                    if (error != null) {
+                        outcome.completeExceptionally(error);
+                    }
+                });
+        log.debug("Dispatched step {} of {} as task {}", step.id(), executionId, task.taskId());
+        return outcome;
+    }
+
+    private int taskPartitions() {
+        if (partitions == 0) {
+            partitions = kafkaTemplate.partitionsFor(StepDispatchConfig.TASKS_TOPIC).size();
+        }
+        return partitions;
+    }
+
+    @KafkaListener(id = "step-results", idIsGroup = false, topics = StepDispatchConfig.RESULTS_TOPIC, containerFactory = "stepResultListenerContainerFactory")
+    public void onResult(StepResult result) {
+        CompletableFuture<StepOutcome> outcome = pending.get(result.taskId());
+        if (outcome == null) {
+            // Coordinated by another node, or already timed out
+            return;
+        }
+
+        Map<String, Object> outputs = result.outputs();
+        if (result.outputRef() != null) {
+            try {
+                outputs = outputStore.load(result.outputRef());
+            } catch (RuntimeException e) {
+                outcome.completeExceptionally(e);
+                return;
+            }
+            if (outputs == null) {
+                outcome.complete(StepOutcome.failed(result.inputs(), "Step output expired: " + result.outputRef(),
+                        result.retries(), result.startedAt()));
+                return;
+            }
+        }
+        outcome.complete(new StepOutcome(result.success(), result.inputs(), outputs, result.error(),
+                result.retries(), result.startedAt(), result.outputRef()));
+    }
+}
@@ -0,0 +1,117 @@
+package com.java.agentflow.dispatch;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.RoundRobinAssignor;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Topics and clients for distributed step dispatch. Step tasks are shared by
+ * all workers through one consumer group; every node reads all results in a
+ * group of its own and picks out the ones for executions it coordinates.
+ */
+@Configuration
+@ConditionalOnProperty(name = "agentflow.engine.distributed.enabled", havingValue = "true")
+public class StepDispatchConfig {
+
+    public static final String TASKS_TOPIC = "step-tasks";
+    public static final String RESULTS_TOPIC = "step-results";
+
+    @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
+    private String bootstrapServers;
+
+    @Bean
+    public NewTopic stepTasksTopic(@Value("${agentflow.engine.distributed.task-partitions:32}") int partitions) {
+        return TopicBuilder.name(TASKS_TOPIC)
+                .partitions(partitions)
+                .replicas(1)
+                .build();
+    }
+
+    @Bean
+    public NewTopic stepResultsTopic() {
+        return TopicBuilder.name(RESULTS_TOPIC)
+                .partitions(3)
+                .replicas(1)
+                .build();
+    }
+
+    @Bean
+    public KafkaTemplate<String, Object> stepDispatchKafkaTemplate() {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        config.put(ProducerConfig.LINGER_MS_CONFIG, 1);
+        KafkaTemplate<String, Object> template = new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(config));
+        // Steps run by a worker join the coordinator's trace through record headers
+        template.setObservationEnabled(true);
+        return template;
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, StepTask> stepTaskListenerContainerFactory(
+            @Value("${agentflow.engine.distributed.worker-concurrency:8}") int concurrency) {
+        Map<String, Object> config = consumerConfig("agentflow-step-workers");
+        config.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        config.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        // One step at a time per consumer; steps can run for minutes
+        config.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 1);
+        // Interleave partitions over workers to match the dispatcher's round-robin partitioning
+        config.put(ConsumerConfig.PARTITION_ASSIGNMENT_STRATEGY_CONFIG, RoundRobinAssignor.class.getName());
+
+        ConcurrentKafkaListenerContainerFactory<String, StepTask> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(
+                config, new StringDeserializer(), deserializer(StepTask.class)));
+        factory.setConcurrency(concurrency);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.getContainerProperties().setObservationEnabled(true);
+        return factory;
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, StepResult> stepResultListenerContainerFactory() {
+        // A fresh group per node, starting at the end: results only matter to a live coordinator
+        Map<String, Object> config = consumerConfig("agentflow-step-results-" + UUID.randomUUID());
+        config.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        config.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, true);
+
+        ConcurrentKafkaListenerContainerFactory<String, StepResult> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(
+                config, new StringDeserializer(), deserializer(StepResult.class)));
+        factory.getContainerProperties().setObservationEnabled(true);
+        return factory;
+    }
+
+    private Map<String, Object> consumerConfig(String groupId) {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        return config;
+    }
+
+    private static <T> JsonDeserializer<T> deserializer(Class<T> type) {
+        JsonDeserializer<T> deserializer = new JsonDeserializer<>(type);
+        deserializer.addTrustedPackages("com.java.agentflow.dispatch", "com.java.agentflow.workflow.model");
+        deserializer.setUseTypeHeaders(false);
+        return deserializer;
+    }
+}
@@ -0,0 +1,82 @@
+package com.java.agentflow.dispatch;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Keeps large step outputs in Redis so step messages only carry a reference.
+ * A step's output is stored once by the worker that produced it and read by
+ * the coordinator and by every dependent step's worker.
+ */
+@Component
+@ConditionalOnProperty(name = "agentflow.engine.distributed.enabled", havingValue = "true")
+public class StepOutputStore {
+
+    private static final TypeReference<Map<String, Object>> OUTPUTS = new TypeReference<>() {
+    };
+
+    private final StringRedisTemplate redis;
+    private final ObjectMapper objectMapper;
+    private final long inlineLimit;
+    private final Duration ttl;
+
+    public StepOutputStore(
+            StringRedisTemplate redis,
+            ObjectMapper objectMapper,
+            @Value("${agentflow.engine.distributed.inline-limit:64KB}") DataSize inlineLimit,
+            @Value("${agentflow.engine.distributed.output-ttl:PT1H}") Duration ttl) {
+        this.redis = redis;
+        this.objectMapper = objectMapper;
+        this.inlineLimit = inlineLimit.toBytes();
+        this.ttl = ttl;
+    }
+
+    /**
+     * Store outputs whose JSON is larger than the inline limit.
+     *
+     * @return the reference, or null when the outputs are small enough to send inline
+     */
+    public String storeIfLarge(UUID executionId, String stepId, Map<String, Object> outputs) {
+        if (outputs == null) {
+            return null;
+        }
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(outputs);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize outputs of step " + stepId, e);
+        }
+        if (json.length <= inlineLimit) {
+            return null;
+        }
+        String ref = "step-output:" + executionId + ":" + stepId;
+        redis.opsForValue().set(ref, new String(json, StandardCharsets.UTF_8), ttl);
+        return ref;
+    }
+
+    /**
+     * @return the stored outputs, or null if they have expired
+     */
+    public Map<String, Object> load(String ref) {
+        String json = redis.opsForValue().get(ref);
+        if (json == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, OUTPUTS);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable step output " + ref, e);
+        }
+    }
+}
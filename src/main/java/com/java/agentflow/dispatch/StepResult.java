@@ -0,0 +1,22 @@
+package com.java.agentflow.dispatch;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Outcome of a {@link StepTask}, sent back to the coordinating execution.
+ * Large outputs are left in the {@link StepOutputStore} and only referenced.
+ */
+public record StepResult(
+        UUID taskId,
+        UUID executionId,
+        String stepId,
+        boolean success,
+        Map<String, Object> inputs,
+        Map<String, Object> outputs,
+        String outputRef,
+        String error,
+        int retries,
+        Instant startedAt) {
+}
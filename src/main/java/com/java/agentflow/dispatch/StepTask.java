@@ -0,0 +1,27 @@
+package com.java.agentflow.dispatch;
+
+import com.java.agentflow.workflow.model.WorkflowDefinition.StepDefinition;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A ready step sent to any worker. Carries only the outputs of the steps it
+ * depends on: small ones inline, large ones as {@link StepOutputStore} references.
+ *
+ * @param stepOutputs outputs of dependency steps, keyed by step id
+ * @param outputRefs  storage references of dependency outputs too large to inline, keyed by step id
+ * @param depth       nesting depth of the run, so sub-workflow steps stay within the depth limit
+ * @param deadline    when the run must finish, or null for no deadline
+ */
+public record StepTask(
+        UUID taskId,
+        UUID executionId,
+        StepDefinition step,
+        Map<String, Object> workflowInputs,
+        Map<String, Object> stepOutputs,
+        Map<String, String> outputRefs,
+        int depth,
+        Instant deadline) {
+}
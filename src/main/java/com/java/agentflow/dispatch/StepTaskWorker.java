@@ -0,0 +1,101 @@
+package com.java.agentflow.dispatch;
+
+import com.java.agentflow.workflow.engine.ExecutionScope;
+import com.java.agentflow.workflow.engine.StepOutcome;
+import com.java.agentflow.workflow.engine.StepRunner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Runs step tasks published by any coordinator and sends back the result.
+ * The offset is committed after the result is sent, so a task whose worker
+ * dies is redelivered to another worker. A step that throws is reported as
+ * failed rather than left for the coordinator's step timeout.
+ */
+@Component
+@ConditionalOnProperty(name = "agentflow.engine.distributed.enabled", havingValue = "true")
+public class StepTaskWorker {
+
+    private static final Logger log = LoggerFactory.getLogger(StepTaskWorker.class);
+
+    private final StepRunner stepRunner;
+    private final StepOutputStore outputStore;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+
+    public StepTaskWorker(StepRunner stepRunner, StepOutputStore outputStore,
+            KafkaTemplate<String, Object> kafkaTemplate) {
+        this.stepRunner = stepRunner;
+        this.outputStore = outputStore;
+        this.kafkaTemplate = kafkaTemplate;
+    }
+
+    @KafkaListener(id = "step-workers", idIsGroup = false, topics = StepDispatchConfig.TASKS_TOPIC, containerFactory = "stepTaskListenerContainerFactory")
+    public void handle(StepTask task, Acknowledgment ack) {
+        StepResult result;
+        try {
+            result = run(task);
+        } catch (RuntimeException e) {
+            log.warn("Step {} of {} failed on this worker: {}", task.step().id(), task.executionId(), e.getMessage());
+            result = failed(task, "Step failed on worker: " + e.getMessage());
+        }
+        try {
+            send(task, result);
+        } catch (RuntimeException e) {
+            // E.g. a result too large for the topic; the coordinator still has to hear back.
+            // If this send fails as well the task stays unacknowledged and is redelivered.
+            log.warn("Failed to send result of task {}: {}", task.taskId(), e.getMessage());
+            send(task, failed(task, "Step result could not be sent: " + e.getMessage()));
+        }
+        ack.acknowledge();
+    }
+
+    private void send(StepTask task, StepResult result) {
+        kafkaTemplate.send(StepDispatchConfig.RESULTS_TOPIC, task.executionId().toString(), result).join();
+    }
+
+    private static StepResult failed(StepTask task, String error) {
+        return new StepResult(task.taskId(), task.executionId(), task.step().id(), false, null, null, null,
+                error, 0, Instant.now());
+    }
+
+    private StepResult run(StepTask task) {
+        String stepId = task.step().id();
+        log.debug("Running step {} of {} (task {})", stepId, task.executionId(), task.taskId());
+
+        Map<String, Map<String, Object>> stepOutputs = new HashMap<>();
+        task.stepOutputs().forEach((id, outputs) -> stepOutputs.put(id, wrap(outputs)));
+        for (Map.Entry<String, String> ref : task.outputRefs().entrySet()) {
+            Map<String, Object> outputs = outputStore.load(ref.getValue());
+            if (outputs == null) {
+                return failed(task, "Output of step " + ref.getKey() + " expired");
+            }
+            stepOutputs.put(ref.getKey(), wrap(outputs));
+        }
+
+        // Sub-workflow steps nest and time out as they would on the coordinator
+        StepOutcome outcome = ExecutionScope.of(task.depth(), task.deadline())
+                .call(() -> stepRunner.run(task.step(), task.workflowInputs(), stepOutputs));
+        String outputRef = outcome.success()
+                ? outputStore.storeIfLarge(task.executionId(), stepId, outcome.outputs())
+                : null;
+        return new StepResult(task.taskId(), task.executionId(), stepId, outcome.success(), outcome.inputs(),
+                outputRef != null ? null : outcome.outputs(), outputRef, outcome.error(), outcome.retries(),
+                outcome.startedAt());
+    }
+
+    // Same shape as the coordinator's map, so ${steps['id'].outputs.x} resolves
+    private static Map<String, Object> wrap(Object outputs) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("outputs", outputs);
+        return data;
+    }
+}
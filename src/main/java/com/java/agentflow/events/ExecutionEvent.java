@@ -0,0 +1,91 @@
+package com.java.agentflow.events;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.java.agentflow.workflow.entity.StepExecution;
+import com.java.agentflow.workflow.entity.WorkflowExecution;
+import com.java.agentflow.workflow.model.ExecutionStatus;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Progress of an execution, pushed to event streams and webhooks. Carries
+ * statuses only; outputs are read from the execution once it has finished.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ExecutionEvent(
+        Type type,
+        UUID executionId,
+        UUID workflowId,
+        /**
+         * The step, for step events.
+         */
+        String stepId,
+        String agentType,
+        ExecutionStatus status,
+        String error,
+        Instant at) {
+
+    public enum Type {
+        STEP_STARTED, STEP_COMPLETED, STEP_FAILED, EXECUTION_COMPLETED, EXECUTION_FAILED;
+
+        /**
+         * Name used for the SSE event field and the webhook header, e.g. {@code step-completed}.
+         */
+        public String eventName() {
+            return name().toLowerCase(Locale.ROOT).replace('_', '-');
+        }
+    }
+
+    public boolean terminal() {
+        return type == Type.EXECUTION_COMPLETED || type == Type.EXECUTION_FAILED;
+    }
+
+    public static ExecutionEvent stepStarted(WorkflowExecution execution, String stepId, String agentType) {
+        return new ExecutionEvent(Type.STEP_STARTED, execution.getId(), execution.getWorkflow().getId(),
+                stepId, agentType, ExecutionStatus.RUNNING, null, Instant.now());
+    }
+
+    public static ExecutionEvent stepFinished(WorkflowExecution execution, StepExecution step) {
+        boolean failed = step.getStatus() == ExecutionStatus.FAILED;
+        return new ExecutionEvent(failed ? Type.STEP_FAILED : Type.STEP_COMPLETED, execution.getId(),
+                execution.getWorkflow().getId(), step.getStepId(), step.getAgentType(), step.getStatus(),
+                step.getError(), step.getCompletedAt() != null ? step.getCompletedAt() : Instant.now());
+    }
+
+    /**
+     * The terminal event of an execution that has finished; anything but
+     * COMPLETED is reported as failed.
+     */
+    public static ExecutionEvent finished(WorkflowExecution execution) {
+        boolean completed = execution.getStatus() == ExecutionStatus.COMPLETED;
+        return new ExecutionEvent(completed ? Type.EXECUTION_COMPLETED : Type.EXECUTION_FAILED, execution.getId(),
+                execution.getWorkflow().getId(), null, null, execution.getStatus(), execution.getError(),
+                execution.getCompletedAt() != null ? execution.getCompletedAt() : Instant.now());
+    }
+
+    /**
+     * Events reconstructing what is already recorded for an execution: its
+     * finished steps, then its terminal event if it has finished.
+     */
+    public static List<ExecutionEvent> replay(WorkflowExecution execution) {
+        List<ExecutionEvent> events = new ArrayList<>();
+        for (StepExecution step : execution.getStepExecutions()) {
+            if (step.getStatus() == ExecutionStatus.COMPLETED || step.getStatus() == ExecutionStatus.FAILED) {
+                events.add(stepFinished(execution, step));
+            }
+        }
+        if (isFinished(execution.getStatus())) {
+            events.add(finished(execution));
+        }
+        return events;
+    }
+
+    public static boolean isFinished(ExecutionStatus status) {
+        return status == ExecutionStatus.COMPLETED || status == ExecutionStatus.FAILED
+                || status == ExecutionStatus.CANCELLED;
+    }
+}
@@ -0,0 +1,196 @@
+package com.java.agentflow.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.java.agentflow.async.AfterCommit;
+import com.java.agentflow.workflow.entity.StepExecution;
+import com.java.agentflow.workflow.entity.WorkflowExecution;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * Publishes execution events to subscribers on any node.
+ *
+ * Events reach subscribers on the publishing node directly, and other nodes
+ * through a Redis pub/sub channel per execution, which a node only listens on
+ * while it has subscribers for that execution. Publishing never blocks the
+ * engine: delivery and the Redis publish run on their own threads, and events
+ * are dropped when those fall too far behind. Pub/sub is fire-and-forget, so
+ * subscribers must tolerate missed events; see {@link ExecutionEventStreams}.
+ */
+@Component
+public class ExecutionEventBus implements MessageListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ExecutionEventBus.class);
+    private static final String CHANNEL_PREFIX = "agentflow:execution-events:";
+
+    private final StringRedisTemplate redis;
+    private final ObjectMapper objectMapper;
+    private final WebhookDelivery webhooks;
+    private final RedisMessageListenerContainer container;
+    private final Map<UUID, List<Consumer<ExecutionEvent>>> subscribers = new ConcurrentHashMap<>();
+    /** Tells this node's own messages apart when they come back from Redis. */
+    private final String origin = UUID.randomUUID().toString();
+    private final ExecutorService deliverPool;
+    private final ExecutorService publishPool;
+    private final Counter dropped;
+
+    public ExecutionEventBus(
+            StringRedisTemplate redis,
+            RedisConnectionFactory connectionFactory,
+            ObjectMapper objectMapper,
+            WebhookDelivery webhooks,
+            MeterRegistry meterRegistry,
+            @Value("${agentflow.events.queue-capacity:10000}") int queueCapacity) {
+        this.redis = redis;
+        this.objectMapper = objectMapper;
+        this.webhooks = webhooks;
+        this.dropped = meterRegistry.counter("agentflow.events.dropped");
+        // Single threads keep each execution's events in order
+        this.deliverPool = singleThread("event-deliver", queueCapacity);
+        this.publishPool = singleThread("event-publish", queueCapacity);
+        this.container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.setTaskExecutor(deliverPool::execute);
+        container.afterPropertiesSet();
+        container.start();
+    }
+
+    private ExecutorService singleThread(String name, int capacity) {
+        return new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(capacity),
+                Thread.ofPlatform().name(name).daemon().factory(), (task, pool) -> dropped.increment());
+    }
+
+    public void stepStarted(WorkflowExecution execution, String stepId, String agentType) {
+        publish(ExecutionEvent.stepStarted(execution, stepId, agentType));
+    }
+
+    public void stepFinished(WorkflowExecution execution, StepExecution step) {
+        publish(ExecutionEvent.stepFinished(execution, step));
+    }
+
+    /**
+     * Publish the terminal event, and post it to the execution's callback URL,
+     * once the final state has committed, so anyone reacting to it reads that
+     * state rather than an earlier one.
+     */
+    public void executionFinished(WorkflowExecution execution) {
+        ExecutionEvent event = ExecutionEvent.finished(execution);
+        String callbackUrl = execution.getCallbackUrl();
+        AfterCommit.run(() -> {
+            publish(event);
+            if (callbackUrl != null) {
+                webhooks.deliver(callbackUrl, event);
+            }
+        });
+    }
+
+    public void publish(ExecutionEvent event) {
+        if (subscribers.containsKey(event.executionId())) {
+            deliverPool.execute(() -> deliver(event));
+        }
+        publishPool.execute(() -> {
+            try {
+                String json = objectMapper.writeValueAsString(new Envelope(origin, event));
+                redis.convertAndSend(CHANNEL_PREFIX + event.executionId(), json);
+            } catch (Exception e) {
+                dropped.increment();
+                log.debug("Failed to publish event of execution {}: {}", event.executionId(), e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Receive the events of an execution, from whichever node runs it, until
+     * the returned handle is closed. Listeners are called on a shared thread
+     * and must not block.
+     */
+    public synchronized Subscription subscribe(UUID executionId, Consumer<ExecutionEvent> listener) {
+        List<Consumer<ExecutionEvent>> listeners = subscribers.get(executionId);
+        if (listeners == null) {
+            listeners = new CopyOnWriteArrayList<>();
+            subscribers.put(executionId, listeners);
+            try {
+                container.addMessageListener(this, new ChannelTopic(CHANNEL_PREFIX + executionId));
+            } catch (RuntimeException e) {
+                log.warn("Cannot listen for events of execution {} from other nodes: {}", executionId,
+                        e.getMessage());
+            }
+        }
+        listeners.add(listener);
+        return () -> unsubscribe(executionId, listener);
+    }
+
+    private synchronized void unsubscribe(UUID executionId, Consumer<ExecutionEvent> listener) {
+        List<Consumer<ExecutionEvent>> listeners = subscribers.get(executionId);
+        if (listeners == null || !listeners.remove(listener) || !listeners.isEmpty()) {
+            return;
+        }
+        subscribers.remove(executionId);
+        try {
+            container.removeMessageListener(this, new ChannelTopic(CHANNEL_PREFIX + executionId));
+        } catch (RuntimeException e) {
+            log.debug("Failed to stop listening for events of execution {}: {}", executionId, e.getMessage());
+        }
+    }
+
+    /**
+     * Called on the delivery thread for events published by any node.
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            Envelope envelope = objectMapper.readValue(message.getBody(), Envelope.class);
+            if (!origin.equals(envelope.origin())) {
+                deliver(envelope.event());
+            }
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable execution event on {}: {}",
+                    new String(message.getChannel(), StandardCharsets.UTF_8), e.getMessage());
+        }
+    }
+
+    private void deliver(ExecutionEvent event) {
+        for (Consumer<ExecutionEvent> listener : subscribers.getOrDefault(event.executionId(), List.of())) {
+            try {
+                listener.accept(event);
+            } catch (RuntimeException e) {
+                log.warn("Execution event listener failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws Exception {
+        container.destroy();
+        deliverPool.shutdownNow();
+        publishPool.shutdownNow();
+    }
+
+    @FunctionalInterface
+    public interface Subscription extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private record Envelope(String origin, ExecutionEvent event) {
+    }
+}
@@ -0,0 +1,192 @@
+package com.java.agentflow.events;
+
+import com.java.agentflow.workflow.entity.WorkflowExecution;
+import com.java.agentflow.workflow.service.WorkflowNotFoundException;
+import com.java.agentflow.workflow.service.WorkflowService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Server-sent event streams of execution progress.
+ *
+ * A stream first replays what the execution has recorded so far, then
+ * follows live events, and ends after the terminal event. Each event is sent
+ * at most once per stream. Streams idle for a keepalive interval get a
+ * comment line, and their execution is re-read once in case its terminal
+ * event was lost in pub/sub.
+ */
+@Component
+public class ExecutionEventStreams {
+
+    private static final Logger log = LoggerFactory.getLogger(ExecutionEventStreams.class);
+
+    private final ExecutionEventBus bus;
+    private final WorkflowService workflowService;
+    private final Duration timeout;
+    private final Duration keepaliveInterval;
+    private final Set<Stream> streams = ConcurrentHashMap.newKeySet();
+
+    public ExecutionEventStreams(
+            ExecutionEventBus bus,
+            WorkflowService workflowService,
+            MeterRegistry meterRegistry,
+            @Value("${agentflow.events.stream-timeout:PT30M}") Duration timeout,
+            @Value("${agentflow.events.keepalive-interval:PT15S}") Duration keepaliveInterval) {
+        this.bus = bus;
+        this.workflowService = workflowService;
+        this.timeout = timeout;
+        this.keepaliveInterval = keepaliveInterval;
+        Gauge.builder("agentflow.events.streams", streams, Set::size)
+                .description("Open execution event streams on this node")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Open a stream for an execution.
+     *
+     * @throws WorkflowNotFoundException if the execution does not exist
+     */
+    public SseEmitter open(UUID executionId) {
+        Stream stream = new Stream(executionId, new SseEmitter(timeout.toMillis()));
+        // Subscribe before reading the recorded state, so no event falls in between
+        stream.subscription = bus.subscribe(executionId, stream::send);
+        stream.emitter.onCompletion(() -> close(stream));
+        stream.emitter.onTimeout(() -> close(stream));
+        stream.emitter.onError(error -> close(stream));
+
+        Optional<WorkflowExecution> execution;
+        try {
+            execution = workflowService.findExecutionById(executionId);
+        } catch (RuntimeException e) {
+            close(stream);
+            throw e;
+        }
+        if (execution.isEmpty()) {
+            close(stream);
+            throw new WorkflowNotFoundException("Execution not found: " + executionId);
+        }
+        streams.add(stream);
+        stream.replay(ExecutionEvent.replay(execution.get()));
+        return stream.emitter;
+    }
+
+    /**
+     * Keep idle connections open through proxies, notice clients that went
+     * away, and end streams whose execution finished without their seeing it.
+     */
+    @Scheduled(fixedDelayString = "${agentflow.events.keepalive-interval:PT15S}")
+    public void keepalive() {
+        long idleSince = System.currentTimeMillis() - keepaliveInterval.toMillis();
+        Map<UUID, List<Stream>> idle = streams.stream()
+                .filter(stream -> stream.lastSentAt <= idleSince)
+                .collect(Collectors.groupingBy(stream -> stream.executionId));
+        for (Map.Entry<UUID, List<Stream>> entry : idle.entrySet()) {
+            Optional<WorkflowExecution> execution;
+            try {
+                execution = workflowService.findExecutionById(entry.getKey());
+            } catch (RuntimeException e) {
+                log.debug("Cannot check execution {}: {}", entry.getKey(), e.getMessage());
+                execution = Optional.empty();
+            }
+            ExecutionEvent finished = execution
+                    .filter(found -> ExecutionEvent.isFinished(found.getStatus()))
+                    .map(ExecutionEvent::finished)
+                    .orElse(null);
+            for (Stream stream : entry.getValue()) {
+                if (finished != null) {
+                    stream.send(finished);
+                } else {
+                    stream.comment();
+                }
+            }
+        }
+    }
+
+    private void close(Stream stream) {
+        streams.remove(stream);
+        ExecutionEventBus.Subscription subscription = stream.subscription;
+        if (subscription != null) {
+            subscription.close();
+        }
+    }
+
+    private final class Stream {
+        private final UUID executionId;
+        private final SseEmitter emitter;
+        private final Set<String> sent = new HashSet<>();
+        /** Live events that arrived while the recorded ones were being replayed. */
+        private List<ExecutionEvent> pending = new ArrayList<>();
+        private volatile ExecutionEventBus.Subscription subscription;
+        private volatile long lastSentAt = System.currentTimeMillis();
+        private boolean done;
+
+        private Stream(UUID executionId, SseEmitter emitter) {
+            this.executionId = executionId;
+            this.emitter = emitter;
+        }
+
+        synchronized void replay(List<ExecutionEvent> recorded) {
+            recorded.forEach(this::write);
+            List<ExecutionEvent> live = pending;
+            pending = null;
+            live.forEach(this::write);
+        }
+
+        synchronized void send(ExecutionEvent event) {
+            if (pending != null) {
+                pending.add(event);
+            } else {
+                write(event);
+            }
+        }
+
+        synchronized void comment() {
+            if (done) {
+                return;
+            }
+            try {
+                emitter.send(SseEmitter.event().comment("keepalive"));
+                lastSentAt = System.currentTimeMillis();
+            } catch (IOException | IllegalStateException e) {
+                end(e);
+            }
+        }
+
+        private void write(ExecutionEvent event) {
+            String key = event.terminal() ? "terminal" : event.type() + ":" + event.stepId();
+            if (done || !sent.add(key)) {
+                return;
+            }
+            try {
+                emitter.send(SseEmitter.event().name(event.type().eventName()).data(event, MediaType.APPLICATION_JSON));
+                lastSentAt = System.currentTimeMillis();
+                if (event.terminal()) {
+                    done = true;
+                    emitter.complete();
+                }
+            } catch (IOException | IllegalStateException e) {
+                end(e);
+            }
+        }
+
+        private void end(Exception error) {
+            // The client has gone away; the container reports it through onError or onCompletion
+            done = true;
+            log.debug("Execution event stream closed: {}", error.getMessage());
+            close(this);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.java.agentflow.events;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.RequestEntity;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Posts terminal execution events to the callback URL given when the
+ * execution was started. Failed deliveries are retried with exponential
+ * backoff; client errors other than 408 and 429 are not retried. Every
+ * attempt of a delivery carries the same {@code X-Agentflow-Delivery} id so
+ * receivers can drop duplicates, and with a secret configured the body is
+ * signed with HMAC-SHA256 in {@code X-Agentflow-Signature}.
+ *
+ * Retries are held in memory by the node that finished the execution.
+ */
+@Component
+public class WebhookDelivery {
+
+    private static final Logger log = LoggerFactory.getLogger(WebhookDelivery.class);
+
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final RestTemplate restTemplate;
+    private final ScheduledExecutorService scheduler;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final SecretKeySpec signingKey;
+
+    public WebhookDelivery(
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            ObservationRegistry observationRegistry,
+            @Value("${agentflow.webhooks.timeout:PT5S}") Duration timeout,
+            @Value("${agentflow.webhooks.max-attempts:6}") int maxAttempts,
+            @Value("${agentflow.webhooks.initial-backoff:PT1S}") Duration initialBackoff,
+            @Value("${agentflow.webhooks.max-backoff:PT2M}") Duration maxBackoff,
+            @Value("${agentflow.webhooks.secret:}") String secret,
+            @Value("${agentflow.webhooks.threads:2}") int threads) {
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(timeout);
+        requestFactory.setReadTimeout(timeout);
+        this.restTemplate = new RestTemplate(requestFactory);
+        this.restTemplate.setObservationRegistry(observationRegistry);
+        this.scheduler = Executors.newScheduledThreadPool(Math.max(1, threads),
+                Thread.ofPlatform().name("webhook-", 0).daemon().factory());
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.signingKey = secret.isBlank() ? null
+                : new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+    }
+
+    /**
+     * Queue delivery of an event; returns without waiting for the receiver.
+     */
+    public void deliver(String callbackUrl, ExecutionEvent event) {
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize event of execution " + event.executionId(), e);
+        }
+        Delivery delivery = new Delivery(UUID.randomUUID().toString(), URI.create(callbackUrl), event, body);
+        submit(() -> attempt(delivery, 1), 0);
+    }
+
+    private void attempt(Delivery delivery, int attempt) {
+        try {
+            RequestEntity.BodyBuilder request = RequestEntity.post(delivery.url())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .header("X-Agentflow-Event", delivery.event().type().eventName())
+                    .header("X-Agentflow-Delivery", delivery.id());
+            if (signingKey != null) {
+                request.header("X-Agentflow-Signature", "sha256=" + sign(delivery.body()));
+            }
+            restTemplate.exchange(request.body(delivery.body()), Void.class);
+            record("delivered");
+            log.debug("Delivered {} of execution {} to {}", delivery.event().type(),
+                    delivery.event().executionId(), delivery.url());
+        } catch (HttpClientErrorException e) {
+            int status = e.getStatusCode().value();
+            if (status == 408 || status == 429) {
+                retry(delivery, attempt, e);
+            } else {
+                record("rejected");
+                log.warn("Webhook {} rejected event of execution {}: {}", delivery.url(),
+                        delivery.event().executionId(), e.getStatusCode());
+            }
+        } catch (RestClientException e) {
+            retry(delivery, attempt, e);
+        }
+    }
+
+    private void retry(Delivery delivery, int attempt, RestClientException error) {
+        if (attempt >= maxAttempts) {
+            record("failed");
+            log.warn("Giving up on webhook {} for execution {} after {} attempts: {}", delivery.url(),
+                    delivery.event().executionId(), attempt, error.getMessage());
+            return;
+        }
+        record("retried");
+        long backoff = Math.min(maxBackoff.toMillis(), initialBackoff.toMillis() << Math.min(attempt - 1, 20));
+        submit(() -> attempt(delivery, attempt + 1), backoff);
+    }
+
+    private void submit(Runnable task, long delayMillis) {
+        try {
+            scheduler.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            record("dropped");
+        }
+    }
+
+    private String sign(byte[] body) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(signingKey);
+            return HexFormat.of().formatHex(mac.doFinal(body));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 unavailable", e);
+        }
+    }
+
+    private void record(String outcome) {
+        meterRegistry.counter("agentflow.webhooks.deliveries", "outcome", outcome).increment();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private record Delivery(String id, URI url, ExecutionEvent event, byte[] body) {
+    }
+}
@@ -0,0 +1,246 @@
+package com.java.agentflow.history;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Maintains the monthly partitions of the execution history tables.
+ * Creates partitions ahead of time and, once a month falls out of retention,
+ * exports its partitions to gzip-compressed NDJSON and detaches them, so old
+ * history is dropped as whole tables instead of deleted row by row.
+ *
+ * Runs on every node; a Postgres advisory lock keeps one node working at a time.
+ */
+@Component
+public class PartitionMaintenanceJob {
+
+    private static final Logger log = LoggerFactory.getLogger(PartitionMaintenanceJob.class);
+
+    private static final long LOCK_KEY = 0x6166_6869_7374L; // "afhist"
+    // Steps reference executions, so step partitions are detached first
+    private static final List<String> TABLES = List.of("step_executions", "workflow_executions");
+    private static final Pattern MONTHLY_PARTITION = Pattern.compile("_p(\\d{6})$");
+    private static final DateTimeFormatter MONTH_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final JdbcTemplate jdbc;
+    private final JdbcTemplate exportJdbc;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private final boolean enabled;
+    private final Duration retention;
+    private final int premakeMonths;
+    private final Path archiveDir;
+    private final boolean dropDetached;
+
+    public PartitionMaintenanceJob(
+            DataSource dataSource,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${agentflow.history.maintenance-enabled:true}") boolean enabled,
+            @Value("${agentflow.history.retention:P90D}") Duration retention,
+            @Value("${agentflow.history.premake-months:3}") int premakeMonths,
+            @Value("${agentflow.history.archive-dir:./data/archive}") Path archiveDir,
+            @Value("${agentflow.history.drop-detached:true}") boolean dropDetached) {
+        this.jdbc = new JdbcTemplate(dataSource);
+        // Cursor-based fetch so a partition is streamed rather than loaded into memory
+        this.exportJdbc = new JdbcTemplate(dataSource);
+        this.exportJdbc.setFetchSize(500);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.retention = retention;
+        this.premakeMonths = premakeMonths;
+        this.archiveDir = archiveDir;
+        this.dropDetached = dropDetached;
+    }
+
+    @Scheduled(cron = "${agentflow.history.maintenance-cron:0 15 * * * *}")
+    public void run() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            createUpcomingPartitions();
+            archiveExpiredPartitions();
+        } catch (RuntimeException e) {
+            log.error("Partition maintenance failed", e);
+        }
+    }
+
+    /**
+     * Create this month's partitions and the next {@code premakeMonths}, so rows
+     * never land in the default partition.
+     */
+    public void createUpcomingPartitions() {
+        YearMonth current = YearMonth.now(ZoneOffset.UTC);
+        for (int i = 0; i <= premakeMonths; i++) {
+            YearMonth month = current.plusMonths(i);
+            for (String table : TABLES) {
+                try {
+                    inLockedTransaction(() -> jdbc.queryForObject(
+                            "SELECT ensure_monthly_partition(?, ?::date)",
+                            String.class, table, month.atDay(1).toString()));
+                } catch (DataAccessException e) {
+                    // Typically the default partition already holds rows for that month
+                    log.warn("Could not create {} partition for {}: {}", table, month, e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Export and detach every monthly partition that ends before the retention cutoff.
+     */
+    public void archiveExpiredPartitions() {
+        YearMonth cutoff = YearMonth.from(Instant.now().minus(retention).atZone(ZoneOffset.UTC));
+
+        TreeSet<YearMonth> expired = new TreeSet<>();
+        for (String table : TABLES) {
+            for (String partition : partitions(table)) {
+                Matcher matcher = MONTHLY_PARTITION.matcher(partition);
+                if (matcher.find()) {
+                    YearMonth month = YearMonth.parse(matcher.group(1), MONTH_SUFFIX);
+                    // The whole month must be older than the cutoff
+                    if (month.isBefore(cutoff)) {
+                        expired.add(month);
+                    }
+                }
+            }
+        }
+
+        for (YearMonth month : expired) {
+            for (String table : TABLES) {
+                String partition = table + "_p" + month.format(MONTH_SUFFIX);
+                if (!partitions(table).contains(partition)) {
+                    continue;
+                }
+                Boolean archived = inLockedTransaction(() -> archive(table, partition));
+                if (!Boolean.TRUE.equals(archived)) {
+                    // Another node holds the lock; it will finish the remaining months
+                    return;
+                }
+            }
+        }
+    }
+
+    private boolean archive(String table, String partition) {
+        Path target = archiveDir.resolve(partition + ".ndjson.gz");
+        long rows = export(partition, target);
+
+        jdbc.execute("ALTER TABLE " + table + " DETACH PARTITION " + quote(partition));
+        if (dropDetached) {
+            jdbc.execute("DROP TABLE " + quote(partition));
+        } else {
+            dropHistoryForeignKeys(partition);
+        }
+
+        meterRegistry.counter("agentflow.history.partitions.archived", "table", table).increment();
+        meterRegistry.counter("agentflow.history.rows.archived", "table", table).increment(rows);
+        log.info("Archived partition {} ({} rows) to {}{}", partition, rows, target,
+                dropDetached ? "" : "; detached table kept");
+        return true;
+    }
+
+    /**
+     * Stream a partition to gzip NDJSON, one row_to_json object per line.
+     * Written to a temp file first so a partial export never looks complete.
+     */
+    private long export(String partition, Path target) {
+        AtomicLong rows = new AtomicLong();
+        try {
+            Files.createDirectories(archiveDir);
+            Path temp = Files.createTempFile(archiveDir, partition, ".tmp");
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                    new GZIPOutputStream(Files.newOutputStream(temp), 64 * 1024), StandardCharsets.UTF_8))) {
+                exportJdbc.query("SELECT row_to_json(t)::text FROM " + quote(partition) + " t", rs -> {
+                    try {
+                        writer.write(rs.getString(1));
+                        writer.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    rows.incrementAndGet();
+                });
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(temp);
+                throw e;
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to archive partition " + partition, e);
+        }
+        return rows.get();
+    }
+
+    /**
+     * A kept step partition still references workflow_executions, which would
+     * tie it to the execution partition detached next and to the live table.
+     */
+    private void dropHistoryForeignKeys(String partition) {
+        List<String> constraints = jdbc.queryForList("""
+                SELECT conname FROM pg_constraint
+                WHERE contype = 'f' AND conrelid = ?::regclass
+                  AND confrelid::regclass::text = ANY(?)
+                """, String.class, quote(partition), TABLES.toArray(String[]::new));
+        for (String constraint : constraints) {
+            jdbc.execute("ALTER TABLE " + quote(partition) + " DROP CONSTRAINT " + quote(constraint));
+        }
+    }
+
+    private List<String> partitions(String table) {
+        return jdbc.queryForList("""
+                SELECT c.relname FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                JOIN pg_class p ON p.oid = i.inhparent
+                WHERE p.relname = ?
+                ORDER BY c.relname
+                """, String.class, table);
+    }
+
+    /**
+     * Run work in one transaction holding the maintenance advisory lock.
+     * Returns null without running it when another node holds the lock.
+     */
+    private <T> T inLockedTransaction(Supplier<T> work) {
+        return transactionTemplate.execute(status -> {
+            Boolean locked = jdbc.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, LOCK_KEY);
+            return Boolean.TRUE.equals(locked) ? work.get() : null;
+        });
+    }
+
+    private static String quote(String identifier) {
+        return "\"" + identifier.replace("\"", "\"\"") + "\"";
+    }
+}
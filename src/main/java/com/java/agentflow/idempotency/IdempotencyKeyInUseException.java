@@ -0,0 +1,21 @@
+package com.java.agentflow.idempotency;
+
+import java.time.Duration;
+
+/**
+ * Exception thrown when another request holding the same idempotency key has
+ * not finished yet, so its execution cannot be returned.
+ */
+public class IdempotencyKeyInUseException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public IdempotencyKeyInUseException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,12 @@
+package com.java.agentflow.idempotency;
+
+/**
+ * Exception thrown when an idempotency key is reused for a different workflow
+ * or different inputs than the request that first used it.
+ */
+public class IdempotencyKeyMismatchException extends RuntimeException {
+
+    public IdempotencyKeyMismatchException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,79 @@
+package com.java.agentflow.idempotency;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * The idempotency_keys table. Statements join the caller's transaction, so a
+ * claimed key commits or rolls back together with its execution.
+ */
+@Component
+class IdempotencyKeyStore {
+
+    private static final RowMapper<Row> ROW = (rs, i) -> new Row(
+            rs.getObject("execution_id", UUID.class),
+            rs.getString("request_hash"));
+
+    private final JdbcTemplate jdbc;
+
+    IdempotencyKeyStore(DataSource dataSource) {
+        this.jdbc = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Insert the key, or take over an expired one. While another open
+     * transaction holds the key this waits, for at most {@code lockTimeout}.
+     *
+     * @return false if the key is held by a live request
+     */
+    boolean claim(String tenantId, String key, UUID workflowId, String requestHash, Instant expiresAt,
+            Duration lockTimeout) {
+        jdbc.execute("SET LOCAL lock_timeout = " + Math.max(1, lockTimeout.toMillis()));
+        List<Integer> claimed = jdbc.queryForList("""
+                INSERT INTO idempotency_keys (tenant_id, idempotency_key, workflow_id, request_hash, expires_at)
+                VALUES (?, ?, ?, ?, ?)
+                ON CONFLICT (tenant_id, idempotency_key) DO UPDATE
+                    SET workflow_id = EXCLUDED.workflow_id, request_hash = EXCLUDED.request_hash,
+                        execution_id = NULL, created_at = CURRENT_TIMESTAMP, expires_at = EXCLUDED.expires_at
+                    WHERE idempotency_keys.expires_at <= CURRENT_TIMESTAMP
+                RETURNING 1
+                """, Integer.class, tenantId, key, workflowId, requestHash, Timestamp.from(expiresAt));
+        // Not reached after a timeout, which aborts the transaction and with it the setting
+        jdbc.execute("SET LOCAL lock_timeout TO DEFAULT");
+        return !claimed.isEmpty();
+    }
+
+    void bind(String tenantId, String key, UUID executionId) {
+        jdbc.update("UPDATE idempotency_keys SET execution_id = ? WHERE tenant_id = ? AND idempotency_key = ?",
+                executionId, tenantId, key);
+    }
+
+    Optional<Row> find(String tenantId, String key) {
+        return jdbc.query("""
+                SELECT execution_id, request_hash FROM idempotency_keys
+                WHERE tenant_id = ? AND idempotency_key = ?
+                """, ROW, tenantId, key).stream().findFirst();
+    }
+
+    /**
+     * Delete up to {@code limit} expired keys.
+     */
+    int deleteExpired(int limit) {
+        return jdbc.update("""
+                DELETE FROM idempotency_keys WHERE ctid IN (
+                    SELECT ctid FROM idempotency_keys WHERE expires_at <= CURRENT_TIMESTAMP LIMIT ?)
+                """, limit);
+    }
+
+    record Row(UUID executionId, String requestHash) {
+    }
+}
@@ -0,0 +1,234 @@
+package com.java.agentflow.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.java.agentflow.async.AfterCommit;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Idempotency keys for execution submissions, so a client retrying a request
+ * gets the execution its first attempt started instead of a second one.
+ *
+ * A key is unique per tenant for a window. The database holds the keys: a
+ * request claims its key in the transaction that creates its execution, and
+ * a concurrent request with the same key waits on that claim until it commits
+ * or rolls back. Redis caches the execution each key led to, and a Bloom
+ * filter lets new keys, by far the common case, skip that cache.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+
+    public static final int MAX_KEY_LENGTH = 255;
+    private static final Duration IN_USE_RETRY_AFTER = Duration.ofSeconds(1);
+    private static final int CLEANUP_BATCH = 1000;
+    private static final String LOCK_NOT_AVAILABLE = "55P03";
+
+    private final IdempotencyKeyStore store;
+    private final StringRedisTemplate redis;
+    private final ObjectMapper canonicalMapper;
+    private final MeterRegistry meterRegistry;
+    private final Duration window;
+    private final Duration lockTimeout;
+    private final KeyFilter filter;
+
+    public IdempotencyService(
+            IdempotencyKeyStore store,
+            StringRedisTemplate redis,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${agentflow.idempotency.window:PT24H}") Duration window,
+            @Value("${agentflow.idempotency.lock-timeout:PT2S}") Duration lockTimeout,
+            @Value("${agentflow.idempotency.filter.expected-keys:1000000}") long expectedKeys,
+            @Value("${agentflow.idempotency.filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.store = store;
+        this.redis = redis;
+        // Equal inputs must hash equally whatever order their keys arrived in
+        this.canonicalMapper = objectMapper.copy().configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+        this.meterRegistry = meterRegistry;
+        this.window = window;
+        this.lockTimeout = lockTimeout;
+        this.filter = new KeyFilter(expectedKeys, falsePositiveRate, window.toMillis());
+    }
+
+    /**
+     * Claim a key for a new execution, or find the execution an earlier
+     * request with the key started. Must be called in the transaction that
+     * creates the execution, which then passes it to {@link #bind}.
+     *
+     * @throws IdempotencyKeyMismatchException if the key was used for a different request
+     * @throws IdempotencyKeyInUseException    if the request holding the key is still running
+     */
+    public Claim claim(String tenantId, String key, UUID workflowId, Map<String, Object> inputs) {
+        String requestHash = requestHash(workflowId, inputs);
+        String filterKey = tenantId + '\u0000' + key;
+
+        if (filter.mightContain(filterKey)) {
+            UUID cached = cached(tenantId, key, requestHash);
+            if (cached != null) {
+                return replay(tenantId, key, requestHash, cached);
+            }
+        } else {
+            lookup("filtered");
+        }
+        filter.add(filterKey);
+
+        boolean claimed;
+        try {
+            claimed = store.claim(tenantId, key, workflowId, requestHash, Instant.now().plus(window), lockTimeout);
+        } catch (DataAccessException e) {
+            if (!isLockTimeout(e)) {
+                throw e;
+            }
+            throw inUse(key);
+        }
+        if (claimed) {
+            record("new");
+            return new Claim(tenantId, key, requestHash, null);
+        }
+
+        IdempotencyKeyStore.Row row = store.find(tenantId, key)
+                .orElseThrow(() -> inUse(key));
+        checkSameRequest(key, row.requestHash(), requestHash);
+        if (row.executionId() == null) {
+            throw inUse(key);
+        }
+        cache(tenantId, key, row.executionId(), row.requestHash());
+        return replay(tenantId, key, requestHash, row.executionId());
+    }
+
+    /**
+     * Record the execution a claimed key started. The key is cached once the
+     * transaction commits.
+     */
+    public void bind(Claim claim, UUID executionId) {
+        store.bind(claim.tenantId(), claim.key(), executionId);
+        AfterCommit.run(() -> cache(claim.tenantId(), claim.key(), executionId, claim.requestHash()));
+    }
+
+    @Scheduled(fixedDelayString = "${agentflow.idempotency.cleanup-interval:PT10M}")
+    public void deleteExpired() {
+        try {
+            int deleted;
+            do {
+                deleted = store.deleteExpired(CLEANUP_BATCH);
+                meterRegistry.counter("agentflow.idempotency.expired").increment(deleted);
+            } while (deleted == CLEANUP_BATCH);
+        } catch (DataAccessException e) {
+            log.warn("Failed to delete expired idempotency keys: {}", e.getMessage());
+        }
+    }
+
+    private Claim replay(String tenantId, String key, String requestHash, UUID executionId) {
+        record("replayed");
+        log.debug("Idempotency key {} of tenant {} replays execution {}", key, tenantId, executionId);
+        return new Claim(tenantId, key, requestHash, executionId);
+    }
+
+    /**
+     * The execution cached for a key, or null if Redis does not have it.
+     */
+    private UUID cached(String tenantId, String key, String requestHash) {
+        String value;
+        try {
+            value = redis.opsForValue().get(cacheKey(tenantId, key));
+        } catch (DataAccessException e) {
+            // The database has every key; Redis only saves the round trip
+            log.debug("Idempotency cache unavailable: {}", e.getMessage());
+            value = null;
+        }
+        int separator = value != null ? value.indexOf(' ') : -1;
+        if (separator < 0) {
+            lookup("cache-miss");
+            return null;
+        }
+        lookup("cache-hit");
+        checkSameRequest(key, value.substring(separator + 1), requestHash);
+        return UUID.fromString(value.substring(0, separator));
+    }
+
+    private void cache(String tenantId, String key, UUID executionId, String requestHash) {
+        try {
+            redis.opsForValue().set(cacheKey(tenantId, key), executionId + " " + requestHash, window);
+        } catch (DataAccessException e) {
+            log.debug("Failed to cache idempotency key {}: {}", key, e.getMessage());
+        }
+    }
+
+    private void checkSameRequest(String key, String stored, String requestHash) {
+        if (!stored.equals(requestHash)) {
+            record("mismatched");
+            throw new IdempotencyKeyMismatchException(
+                    "Idempotency key " + key + " was already used with a different workflow or inputs");
+        }
+    }
+
+    private IdempotencyKeyInUseException inUse(String key) {
+        record("in-use");
+        return new IdempotencyKeyInUseException(
+                "A request with idempotency key " + key + " is still in progress", IN_USE_RETRY_AFTER);
+    }
+
+    private static boolean isLockTimeout(DataAccessException e) {
+        return e instanceof PessimisticLockingFailureException
+                || e.getMostSpecificCause() instanceof SQLException sql && LOCK_NOT_AVAILABLE.equals(sql.getSQLState());
+    }
+
+    private String requestHash(UUID workflowId, Map<String, Object> inputs) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(workflowId.toString().getBytes(StandardCharsets.UTF_8));
+            digest.update(canonicalMapper.writeValueAsBytes(inputs));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Inputs cannot be serialized: " + e.getOriginalMessage(), e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+
+    private void record(String outcome) {
+        meterRegistry.counter("agentflow.idempotency.requests", "outcome", outcome).increment();
+    }
+
+    private void lookup(String result) {
+        meterRegistry.counter("agentflow.idempotency.lookups", "result", result).increment();
+    }
+
+    private static String cacheKey(String tenantId, String key) {
+        // Tenant ids may contain the separator, so their length keeps keys of different tenants apart
+        return "idempotency:" + tenantId.length() + ":" + tenantId + ":" + key;
+    }
+
+    /**
+     * A claimed key, or the execution an earlier request with the key started.
+     *
+     * @param original the earlier execution, or null if this request claimed the key
+     */
+    public record Claim(String tenantId, String key, String requestHash, UUID original) {
+
+        public boolean replay() {
+            return original != null;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.java.agentflow.idempotency;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter of the idempotency keys this node has seen, so that requests
+ * with a new key skip the cache lookup. A key it has not seen may still exist,
+ * claimed through another node, so a miss only ever saves a lookup; the
+ * database claim decides.
+ *
+ * Keys cannot be removed from a Bloom filter, so there are two generations:
+ * keys go into the current one, lookups check both, and the older is dropped
+ * after a window or once the current one holds its expected number of keys.
+ * A key is therefore remembered for at least one window, unless more keys than
+ * expected arrive.
+ */
+final class KeyFilter {
+
+    private final int bits;
+    private final int hashes;
+    private final long expectedKeys;
+    private final long rotateAfterMillis;
+    private volatile Generation current;
+    private volatile Generation previous;
+
+    KeyFilter(long expectedKeys, double falsePositiveRate, long windowMillis) {
+        // Zero would mean infinitely many hashes per key and a rotation on every add
+        expectedKeys = Math.max(1, expectedKeys);
+        double ln2 = Math.log(2);
+        long size = (long) Math.ceil(-expectedKeys * Math.log(falsePositiveRate) / (ln2 * ln2));
+        this.bits = (int) Math.max(64, Math.min(size, Integer.MAX_VALUE - 63L));
+        this.hashes = Math.max(1, (int) Math.round((double) bits / expectedKeys * ln2));
+        this.expectedKeys = expectedKeys;
+        this.rotateAfterMillis = windowMillis;
+        this.current = new Generation(bits, System.currentTimeMillis());
+        this.previous = new Generation(bits, System.currentTimeMillis());
+    }
+
+    boolean mightContain(String key) {
+        long h1 = hash(key);
+        long h2 = mix(h1);
+        return current.contains(h1, h2, hashes, bits) || previous.contains(h1, h2, hashes, bits);
+    }
+
+    void add(String key) {
+        Generation generation = current;
+        if (generation.added >= expectedKeys
+                || System.currentTimeMillis() - generation.createdAt >= rotateAfterMillis) {
+            generation = rotate(generation);
+        }
+        long h1 = hash(key);
+        generation.add(h1, mix(h1), hashes, bits);
+    }
+
+    private synchronized Generation rotate(Generation full) {
+        if (current == full) {
+            previous = full;
+            current = new Generation(bits, System.currentTimeMillis());
+        }
+        return current;
+    }
+
+    /** 64-bit FNV-1a of the key's UTF-8 bytes. */
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /** Second, independent hash for double hashing (SplitMix64 finalizer). */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+
+    private static final class Generation {
+        private final AtomicLongArray words;
+        private final long createdAt;
+        // Approximate; only decides when to rotate
+        private volatile long added;
+
+        Generation(int bits, long createdAt) {
+            this.words = new AtomicLongArray((bits + 63) / 64);
+            this.createdAt = createdAt;
+        }
+
+        void add(long h1, long h2, int hashes, int bits) {
+            for (int i = 0; i < hashes; i++) {
+                int bit = (int) Math.floorMod(h1 + i * h2, (long) bits);
+                long mask = 1L << bit;
+                int word = bit >>> 6;
+                long value;
+                while (((value = words.get(word)) & mask) == 0
+                        && !words.compareAndSet(word, value, value | mask)) {
+                    // retry
+                }
+            }
+            added++;
+        }
+
+        boolean contains(long h1, long h2, int hashes, int bits) {
+            for (int i = 0; i < hashes; i++) {
+                int bit = (int) Math.floorMod(h1 + i * h2, (long) bits);
+                if ((words.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
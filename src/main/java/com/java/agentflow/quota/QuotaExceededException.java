@@ -0,0 +1,20 @@
+package com.java.agentflow.quota;
+
+import java.time.Duration;
+
+/**
+ * Exception thrown when a submission is rejected by admission control.
+ */
+public class QuotaExceededException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public QuotaExceededException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
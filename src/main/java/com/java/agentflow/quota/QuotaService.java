@@ -0,0 +1,166 @@
+package com.java.agentflow.quota;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Cluster-wide admission control for workflow executions.
+ * Token buckets limit submission rate and lease sets limit in-flight
+ * (queued or running) executions, per tenant and per workflow.
+ */
+@Service
+public class QuotaService {
+
+    private static final Logger log = LoggerFactory.getLogger(QuotaService.class);
+
+    private final StringRedisTemplate redis;
+    private final MeterRegistry meterRegistry;
+    private final DefaultRedisScript<List> acquireScript;
+
+    private final boolean enabled;
+    private final Limits tenantLimits;
+    private final Limits workflowLimits;
+    private final Duration lease;
+    private final Duration concurrencyRetryAfter;
+
+    public QuotaService(
+            StringRedisTemplate redis,
+            MeterRegistry meterRegistry,
+            @Value("${agentflow.quota.enabled:true}") boolean enabled,
+            @Value("${agentflow.quota.tenant.rate-per-second:10}") double tenantRate,
+            @Value("${agentflow.quota.tenant.burst:50}") int tenantBurst,
+            @Value("${agentflow.quota.tenant.max-concurrent:50}") int tenantMaxConcurrent,
+            @Value("${agentflow.quota.workflow.rate-per-second:20}") double workflowRate,
+            @Value("${agentflow.quota.workflow.burst:100}") int workflowBurst,
+            @Value("${agentflow.quota.workflow.max-concurrent:100}") int workflowMaxConcurrent,
+            @Value("${agentflow.quota.lease:PT30M}") Duration lease,
+            @Value("${agentflow.quota.concurrency-retry-after:PT5S}") Duration concurrencyRetryAfter) {
+        this.redis = redis;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.tenantLimits = new Limits(tenantRate, tenantBurst, tenantMaxConcurrent);
+        this.workflowLimits = new Limits(workflowRate, workflowBurst, workflowMaxConcurrent);
+        this.lease = lease;
+        this.concurrencyRetryAfter = concurrencyRetryAfter;
+
+        this.acquireScript = new DefaultRedisScript<>();
+        this.acquireScript.setScriptSource(new ResourceScriptSource(new ClassPathResource("redis/quota-acquire.lua")));
+        this.acquireScript.setResultType(List.class);
+    }
+
+    /**
+     * Admit an execution, consuming one token from each bucket and taking a
+     * concurrency lease. Throws {@link QuotaExceededException} when rejected.
+     */
+    public void acquire(String tenantId, UUID workflowId, UUID executionId) {
+        if (!enabled) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        List<String> keys = List.of(
+                bucketKey("tenant", tenantId),
+                bucketKey("workflow", workflowId.toString()),
+                runningKey("tenant", tenantId),
+                runningKey("workflow", workflowId.toString()));
+
+        List<?> result;
+        try {
+            result = redis.execute(acquireScript, keys,
+                    String.valueOf(now),
+                    String.valueOf(tenantLimits.ratePerSecond()),
+                    String.valueOf(tenantLimits.burst()),
+                    String.valueOf(workflowLimits.ratePerSecond()),
+                    String.valueOf(workflowLimits.burst()),
+                    String.valueOf(tenantLimits.maxConcurrent()),
+                    String.valueOf(workflowLimits.maxConcurrent()),
+                    String.valueOf(now + lease.toMillis()),
+                    executionId.toString(),
+                    String.valueOf(keyTtl().toSeconds()),
+                    String.valueOf(concurrencyRetryAfter.toMillis()));
+        } catch (DataAccessException e) {
+            // Fail open: an unavailable Redis should not take down execution
+            log.warn("Quota check skipped, Redis unavailable: {}", e.getMessage());
+            return;
+        }
+
+        if (result == null || result.isEmpty() || ((Number) result.get(0)).intValue() == 1) {
+            meterRegistry.counter("agentflow.quota.decisions", "outcome", "admitted").increment();
+            return;
+        }
+
+        String reason = String.valueOf(result.get(1));
+        long retryAfterMs = ((Number) result.get(2)).longValue();
+        meterRegistry.counter("agentflow.quota.decisions", "outcome", "rejected", "reason", reason).increment();
+        throw new QuotaExceededException(
+                "Quota exceeded (" + reason + ") for tenant " + tenantId,
+                Duration.ofMillis(Math.max(retryAfterMs, 1)));
+    }
+
+    /**
+     * Release the concurrency lease taken by {@link #acquire}.
+     */
+    public void release(String tenantId, UUID workflowId, UUID executionId) {
+        if (!enabled || tenantId == null || workflowId == null) {
+            return;
+        }
+        try {
+            redis.opsForZSet().remove(runningKey("tenant", tenantId), executionId.toString());
+            redis.opsForZSet().remove(runningKey("workflow", workflowId.toString()), executionId.toString());
+        } catch (DataAccessException e) {
+            log.warn("Failed to release quota lease for {}: {}", executionId, e.getMessage());
+        }
+    }
+
+    public QuotaState getTenantState(String tenantId) {
+        return readState("tenant", tenantId, tenantLimits);
+    }
+
+    public QuotaState getWorkflowState(UUID workflowId) {
+        return readState("workflow", workflowId.toString(), workflowLimits);
+    }
+
+    private QuotaState readState(String scope, String id, Limits limits) {
+        long now = System.currentTimeMillis();
+
+        List<Object> bucket = redis.opsForHash().multiGet(bucketKey(scope, id), List.of("tokens", "ts"));
+        double tokens = limits.burst();
+        if (bucket.get(0) != null && bucket.get(1) != null) {
+            double stored = Double.parseDouble(bucket.get(0).toString());
+            long ts = Long.parseLong(bucket.get(1).toString());
+            tokens = Math.min(limits.burst(), stored + Math.max(0, now - ts) / 1000.0 * limits.ratePerSecond());
+        }
+
+        Long running = redis.opsForZSet().count(runningKey(scope, id), now, Double.POSITIVE_INFINITY);
+
+        return new QuotaState(scope, id, tokens, limits.ratePerSecond(), limits.burst(),
+                running != null ? running : 0, limits.maxConcurrent());
+    }
+
+    private Duration keyTtl() {
+        return lease.plusMinutes(5);
+    }
+
+    private String bucketKey(String scope, String id) {
+        return "quota:" + scope + ":" + id + ":bucket";
+    }
+
+    private String runningKey(String scope, String id) {
+        return "quota:" + scope + ":" + id + ":running";
+    }
+
+    private record Limits(double ratePerSecond, int burst, int maxConcurrent) {
+    }
+}
@@ -0,0 +1,14 @@
+package com.java.agentflow.quota;
+
+/**
+ * Snapshot of a quota scope (tenant or workflow) as seen in Redis.
+ */
+public record QuotaState(
+        String scope,
+        String id,
+        double availableTokens,
+        double ratePerSecond,
+        int burst,
+        long running,
+        int maxConcurrent) {
+}
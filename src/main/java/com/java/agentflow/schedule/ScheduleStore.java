@@ -0,0 +1,70 @@
+package com.java.agentflow.schedule;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reads the schedules of workflows straight from their JSONB definitions,
+ * through the partial index on scheduled workflows, and holds the claims of
+ * fires made while Redis is unavailable.
+ */
+@Component
+class ScheduleStore {
+
+    private static final String SCHEDULED = "jsonb_typeof(definition->'schedule') = 'object'";
+    private static final RowMapper<Row> ROW = (rs, i) -> new Row(
+            rs.getObject("id", UUID.class),
+            rs.getTimestamp("created_at").toInstant(),
+            rs.getString("schedule"));
+
+    private final JdbcTemplate jdbc;
+
+    ScheduleStore(DataSource dataSource) {
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.jdbc.setFetchSize(1000);
+    }
+
+    List<UUID> findScheduledIds() {
+        return jdbc.queryForList("SELECT id FROM workflows WHERE " + SCHEDULED, UUID.class);
+    }
+
+    List<Row> findCreatedSince(Instant since) {
+        return jdbc.query("SELECT id, created_at, definition->'schedule' AS schedule FROM workflows WHERE "
+                + SCHEDULED + " AND created_at >= ?", ROW, Timestamp.from(since));
+    }
+
+    List<Row> findByIds(Collection<UUID> ids) {
+        return jdbc.query("SELECT id, created_at, definition->'schedule' AS schedule FROM workflows WHERE "
+                + SCHEDULED + " AND id = ANY(?)", ROW, (Object) ids.toArray(UUID[]::new));
+    }
+
+    /**
+     * Claim a fire in the database, for when Redis cannot take the claim.
+     *
+     * @return false if another node already claimed it
+     */
+    boolean claimFire(UUID workflowId, Instant nominal, String nodeId) {
+        return jdbc.update("""
+                INSERT INTO schedule_fire_claims (workflow_id, fire_time, node_id) VALUES (?, ?, ?)
+                ON CONFLICT DO NOTHING
+                """, workflowId, Timestamp.from(nominal), nodeId) == 1;
+    }
+
+    int deleteFireClaimsBefore(Instant before) {
+        return jdbc.update("DELETE FROM schedule_fire_claims WHERE fire_time < ?", Timestamp.from(before));
+    }
+
+    /**
+     * @param schedule the schedule as JSON
+     */
+    record Row(UUID id, Instant createdAt, String schedule) {
+    }
+}
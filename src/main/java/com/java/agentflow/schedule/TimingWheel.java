@@ -0,0 +1,168 @@
+package com.java.agentflow.schedule;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel holding timers as intrusive linked lists.
+ * Scheduling and cancelling are O(1), and advancing the clock by one tick only
+ * touches the timers that expire on that tick, plus those cascading down from a
+ * coarser level once per revolution of the level below. Memory is one small
+ * node per timer, so hundreds of thousands of recurring schedules can be held
+ * with no per-timer thread or heap reordering.
+ *
+ * Level {@code k} has 64 slots of {@code 64^k} ticks each; five levels cover
+ * {@code 64^5} ticks (over three years at 100ms). Timers further out are parked
+ * in the last slot of the top level and re-placed as it comes round. Timers
+ * never expire early: a deadline is rounded up to the next tick.
+ *
+ * Thread-safe; all methods synchronize on the wheel.
+ */
+public final class TimingWheel<T> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 5;
+
+    private final long tickMillis;
+    private final long startMillis;
+    /** Sentinel head of each slot's circular list, by level and slot. */
+    private final Timer<?>[][] slots = new Timer<?>[LEVELS][SLOTS];
+    private long currentTick;
+    private int size;
+
+    public TimingWheel(long tickMillis, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tickMillis must be positive");
+        }
+        this.tickMillis = tickMillis;
+        this.startMillis = startMillis;
+        for (Timer<?>[] level : slots) {
+            for (int i = 0; i < SLOTS; i++) {
+                Timer<?> head = new Timer<>(null, 0);
+                head.prev = head;
+                head.next = head;
+                level[i] = head;
+            }
+        }
+    }
+
+    /**
+     * Add a timer expiring at {@code deadlineMillis}, or on the next tick if that has passed.
+     */
+    public synchronized Timer<T> schedule(T value, long deadlineMillis) {
+        long deadlineTick = Math.floorDiv(deadlineMillis - startMillis + tickMillis - 1, tickMillis);
+        Timer<T> timer = new Timer<>(value, Math.max(deadlineTick, currentTick + 1));
+        place(timer);
+        size++;
+        return timer;
+    }
+
+    /**
+     * Remove a timer that has not expired yet.
+     *
+     * @return false if it had already expired or been cancelled
+     */
+    public synchronized boolean cancel(Timer<T> timer) {
+        if (timer.prev == null) {
+            return false;
+        }
+        unlink(timer);
+        size--;
+        return true;
+    }
+
+    /**
+     * Move the clock to {@code nowMillis}, returning the values of the timers
+     * that expired on the way, earliest first.
+     */
+    public synchronized List<T> advance(long nowMillis) {
+        long targetTick = Math.floorDiv(nowMillis - startMillis, tickMillis);
+        List<T> expired = null;
+        while (currentTick < targetTick) {
+            currentTick++;
+            // Coarser levels first, so their timers can cascade all the way down on this tick
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    cascade(slots[level][(int) (currentTick >>> (SLOT_BITS * level)) & SLOT_MASK]);
+                }
+            }
+            Timer<?> head = slots[0][(int) currentTick & SLOT_MASK];
+            while (head.next != head) {
+                @SuppressWarnings("unchecked")
+                Timer<T> timer = (Timer<T>) head.next;
+                unlink(timer);
+                size--;
+                if (expired == null) {
+                    expired = new ArrayList<>();
+                }
+                expired.add(timer.value);
+            }
+        }
+        return expired != null ? expired : List.of();
+    }
+
+    /**
+     * Wall-clock time of the next tick, for a driver thread to sleep until.
+     */
+    public synchronized long nextTickMillis() {
+        return startMillis + (currentTick + 1) * tickMillis;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private void cascade(Timer<?> head) {
+        while (head.next != head) {
+            Timer<?> timer = head.next;
+            unlink(timer);
+            place(timer);
+        }
+    }
+
+    private void place(Timer<?> timer) {
+        long delta = Math.max(timer.deadlineTick - currentTick, 0);
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        int shift = SLOT_BITS * level;
+        long slot = delta >= 1L << (shift + SLOT_BITS)
+                // Beyond the wheel's range: park in the top level's last slot before this one
+                ? (currentTick >>> shift) + SLOTS - 1
+                : timer.deadlineTick >>> shift;
+        Timer<?> head = slots[level][(int) slot & SLOT_MASK];
+        timer.prev = head.prev;
+        timer.next = head;
+        head.prev.next = timer;
+        head.prev = timer;
+    }
+
+    private static void unlink(Timer<?> timer) {
+        timer.prev.next = timer.next;
+        timer.next.prev = timer.prev;
+        timer.prev = null;
+        timer.next = null;
+    }
+
+    /**
+     * Handle to a scheduled value, used to cancel it.
+     */
+    public static final class Timer<T> {
+        private final T value;
+        private final long deadlineTick;
+        private Timer<?> prev;
+        private Timer<?> next;
+
+        private Timer(T value, long deadlineTick) {
+            this.value = value;
+            this.deadlineTick = deadlineTick;
+        }
+
+        public T value() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.java.agentflow.schedule;
+
+import com.java.agentflow.workflow.model.ExecutionPriority;
+import com.java.agentflow.workflow.model.WorkflowDefinition.ScheduleDefinition;
+import org.springframework.scheduling.support.CronExpression;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A workflow's schedule, ready to compute fire times. Nominal fire times are
+ * the same on every node: cron times in the schedule's zone, or multiples of
+ * the interval since the epoch. Each fire is delayed by a jitter derived from
+ * the workflow and the nominal time, so it is also the same on every node.
+ */
+record WorkflowSchedule(
+        UUID workflowId,
+        CronExpression cron,
+        Duration interval,
+        Duration jitter,
+        ZoneId zone,
+        Map<String, Object> inputs,
+        ExecutionPriority priority,
+        String tenantId) {
+
+    static WorkflowSchedule of(UUID workflowId, ScheduleDefinition definition, Duration defaultJitter) {
+        return new WorkflowSchedule(
+                workflowId,
+                definition.cron() != null ? CronExpression.parse(definition.cron()) : null,
+                definition.interval() != null ? Duration.parse(definition.interval()) : null,
+                definition.jitter() != null ? Duration.parse(definition.jitter()) : defaultJitter,
+                definition.zone() != null ? ZoneId.of(definition.zone()) : ZoneOffset.UTC,
+                definition.inputs() != null ? definition.inputs() : Map.of(),
+                definition.priority(),
+                definition.tenantId());
+    }
+
+    /**
+     * The first nominal fire time after {@code after}, or null if the cron never fires again.
+     */
+    Instant nextAfter(Instant after) {
+        if (cron != null) {
+            ZonedDateTime next = cron.next(after.atZone(zone));
+            return next != null ? next.toInstant() : null;
+        }
+        long period = interval.toMillis();
+        return Instant.ofEpochMilli(Math.floorDiv(after.toEpochMilli(), period) * period + period);
+    }
+
+    /**
+     * Delay of the fire at {@code nominal}, below the jitter and below half the
+     * gap to the following fire so fires never swap order.
+     */
+    long jitterMillis(Instant nominal) {
+        long max = jitter.toMillis();
+        Instant following = nextAfter(nominal);
+        if (following != null) {
+            max = Math.min(max, Duration.between(nominal, following).toMillis() / 2);
+        }
+        if (max <= 0) {
+            return 0;
+        }
+        long seed = workflowId.getMostSignificantBits() ^ workflowId.getLeastSignificantBits()
+                ^ nominal.toEpochMilli() * 0x9E3779B97F4A7C15L;
+        // SplitMix64 finalizer, so neighbouring workflows and fire times spread evenly
+        seed = (seed ^ (seed >>> 30)) * 0xBF58476D1CE4E5B9L;
+        seed = (seed ^ (seed >>> 27)) * 0x94D049BB133111EBL;
+        return Math.floorMod(seed ^ (seed >>> 31), max);
+    }
+}
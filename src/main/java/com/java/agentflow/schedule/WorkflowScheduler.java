@@ -0,0 +1,328 @@
+package com.java.agentflow.schedule;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.java.agentflow.async.QueueFullException;
+import com.java.agentflow.cluster.ClusterMembership;
+import com.java.agentflow.quota.QuotaExceededException;
+import com.java.agentflow.workflow.parser.WorkflowParseException;
+import com.java.agentflow.workflow.parser.WorkflowParser;
+import com.java.agentflow.workflow.service.ExecutionOptions;
+import com.java.agentflow.workflow.service.WorkflowNotFoundException;
+import com.java.agentflow.workflow.service.WorkflowService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Starts workflows that have a {@code schedule} in their definition.
+ *
+ * Every node holds every schedule in a {@link TimingWheel} and advances it
+ * from a single thread. A due fire is claimed in the database under the workflow
+ * and its nominal fire time, so it starts exactly once however many nodes see it.
+ * With the cluster queue backend, schedules are sharded over the hash ring:
+ * the owner claims on time and the other nodes only try after the takeover
+ * delay, which covers for an owner that has gone away. Fires are spread by a
+ * per-schedule jitter, so schedules sharing a cron do not all hit the queue
+ * in the same instant.
+ *
+ * Fires missed while no node was running are skipped, not caught up.
+ */
+@Component
+@ConditionalOnProperty(name = "agentflow.scheduler.enabled", havingValue = "true", matchIfMissing = true)
+public class WorkflowScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkflowScheduler.class);
+    private static final Duration SYNC_OVERLAP = Duration.ofMinutes(1);
+    private static final int LOAD_BATCH = 1000;
+
+    private final ScheduleStore store;
+    private final WorkflowParser workflowParser;
+    private final WorkflowService workflowService;
+    private final StringRedisTemplate redis;
+    private final ClusterMembership membership;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Duration defaultJitter;
+    private final Duration takeoverDelay;
+    private final Duration claimTtl;
+    private final Duration fullSyncInterval;
+    private final String nodeId;
+
+    private final TimingWheel<Fire> wheel;
+    private final Map<UUID, Entry> schedules = new ConcurrentHashMap<>();
+    private final ExecutorService firePool;
+    private final Thread driver;
+    private final Timer fireLag;
+    private volatile Instant lastCreatedAt = Instant.EPOCH;
+    private volatile long lastFullSync;
+
+    public WorkflowScheduler(
+            ScheduleStore store,
+            WorkflowParser workflowParser,
+            WorkflowService workflowService,
+            StringRedisTemplate redis,
+            ObjectProvider<ClusterMembership> membership,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${agentflow.scheduler.tick:PT0.1S}") Duration tick,
+            @Value("${agentflow.scheduler.default-jitter:PT5S}") Duration defaultJitter,
+            @Value("${agentflow.scheduler.takeover-delay:PT15S}") Duration takeoverDelay,
+            @Value("${agentflow.scheduler.claim-ttl:PT10M}") Duration claimTtl,
+            @Value("${agentflow.scheduler.full-sync-interval:PT10M}") Duration fullSyncInterval,
+            @Value("${agentflow.scheduler.fire-threads:4}") int fireThreads) {
+        this.store = store;
+        this.workflowParser = workflowParser;
+        this.workflowService = workflowService;
+        this.redis = redis;
+        this.membership = membership.getIfAvailable();
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.defaultJitter = defaultJitter;
+        this.takeoverDelay = takeoverDelay;
+        this.claimTtl = claimTtl;
+        this.fullSyncInterval = fullSyncInterval;
+        this.nodeId = this.membership != null ? this.membership.nodeId() : UUID.randomUUID().toString();
+
+        this.wheel = new TimingWheel<>(Math.max(1, tick.toMillis()), System.currentTimeMillis());
+        this.firePool = Executors.newFixedThreadPool(Math.max(1, fireThreads),
+                Thread.ofPlatform().name("schedule-fire-", 0).factory());
+        this.fireLag = Timer.builder("agentflow.scheduler.lag")
+                .description("Delay between a fire's nominal time and its execution being queued")
+                .register(meterRegistry);
+        Gauge.builder("agentflow.scheduler.schedules", schedules, Map::size).register(meterRegistry);
+        this.driver = Thread.ofPlatform().name("schedule-wheel").daemon().start(this::drive);
+    }
+
+    /**
+     * Pick up schedules of new workflows, and every full sync interval reload
+     * the whole set so deleted workflows are dropped.
+     */
+    @Scheduled(fixedDelayString = "${agentflow.scheduler.sync-interval:PT10S}")
+    public void sync() {
+        try {
+            long now = System.currentTimeMillis();
+            if (now - lastFullSync >= fullSyncInterval.toMillis()) {
+                Set<UUID> scheduled = new HashSet<>(store.findScheduledIds());
+                schedules.keySet().stream().filter(id -> !scheduled.contains(id)).toList().forEach(this::remove);
+                List<UUID> missing = scheduled.stream().filter(id -> !schedules.containsKey(id)).toList();
+                for (int i = 0; i < missing.size(); i += LOAD_BATCH) {
+                    load(store.findByIds(missing.subList(i, Math.min(missing.size(), i + LOAD_BATCH))));
+                }
+                store.deleteFireClaimsBefore(Instant.ofEpochMilli(now).minus(claimTtl));
+                lastFullSync = now;
+                log.info("Loaded {} workflow schedules", schedules.size());
+            } else {
+                // Overlap the window so rows committed out of creation order are not missed
+                load(store.findCreatedSince(lastCreatedAt.minus(SYNC_OVERLAP)));
+            }
+        } catch (DataAccessException e) {
+            log.warn("Failed to sync workflow schedules: {}", e.getMessage());
+        }
+    }
+
+    private void load(List<ScheduleStore.Row> rows) {
+        for (ScheduleStore.Row row : rows) {
+            if (row.createdAt().isAfter(lastCreatedAt)) {
+                lastCreatedAt = row.createdAt();
+            }
+            if (schedules.containsKey(row.id())) {
+                continue;
+            }
+            try {
+                Map<String, Object> raw = objectMapper.readValue(row.schedule(), new TypeReference<>() {
+                });
+                add(WorkflowSchedule.of(row.id(), workflowParser.parseSchedule(raw), defaultJitter));
+            } catch (JsonProcessingException | WorkflowParseException | IllegalArgumentException e) {
+                log.warn("Ignoring invalid schedule of workflow {}: {}", row.id(), e.getMessage());
+            }
+        }
+    }
+
+    private void add(WorkflowSchedule schedule) {
+        Entry entry = new Entry(schedule);
+        if (schedules.putIfAbsent(schedule.workflowId(), entry) == null) {
+            scheduleNext(entry, Instant.now());
+        }
+    }
+
+    private void remove(UUID workflowId) {
+        Entry entry = schedules.remove(workflowId);
+        if (entry != null) {
+            entry.removed = true;
+            TimingWheel.Timer<Fire> timer = entry.timer;
+            if (timer != null) {
+                wheel.cancel(timer);
+            }
+            log.info("Removed schedule of workflow {}", workflowId);
+        }
+    }
+
+    private void drive() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                for (Fire fire : wheel.advance(System.currentTimeMillis())) {
+                    due(fire);
+                }
+                long sleep = wheel.nextTickMillis() - System.currentTimeMillis();
+                if (sleep > 0) {
+                    Thread.sleep(sleep);
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                log.error("Scheduler tick failed", e);
+            }
+        }
+    }
+
+    /**
+     * Runs on the wheel thread: queue the next fire right away so timing does
+     * not depend on how long starting this one takes.
+     */
+    private void due(Fire fire) {
+        Entry entry = fire.entry();
+        if (entry.removed) {
+            return;
+        }
+        if (!fire.takeover() && !owns(entry.schedule)) {
+            entry.timer = wheel.schedule(new Fire(entry, fire.nominal(), true),
+                    fireAt(entry.schedule, fire.nominal(), true));
+            return;
+        }
+        scheduleNext(entry, fire.nominal());
+        firePool.execute(() -> start(entry, fire));
+    }
+
+    private void scheduleNext(Entry entry, Instant after) {
+        WorkflowSchedule schedule = entry.schedule;
+        Instant nominal = schedule.nextAfter(after);
+        long now = System.currentTimeMillis();
+        if (nominal != null && fireAt(schedule, nominal, true) < now) {
+            // Too late even for a takeover, e.g. after a long pause; skip to the next fire still ahead
+            meterRegistry.counter("agentflow.scheduler.misfires").increment();
+            nominal = schedule.nextAfter(Instant.ofEpochMilli(now));
+        }
+        if (nominal == null || entry.removed) {
+            return;
+        }
+        entry.timer = wheel.schedule(new Fire(entry, nominal, false), fireAt(schedule, nominal, false));
+    }
+
+    /**
+     * When a fire is due: its nominal time plus jitter, plus the takeover
+     * delay for nodes that do not own the schedule.
+     */
+    private long fireAt(WorkflowSchedule schedule, Instant nominal, boolean takeover) {
+        return nominal.toEpochMilli() + schedule.jitterMillis(nominal) + (takeover ? takeoverDelay.toMillis() : 0);
+    }
+
+    private void start(Entry entry, Fire fire) {
+        WorkflowSchedule schedule = entry.schedule;
+        if (!claim(schedule, fire)) {
+            meterRegistry.counter("agentflow.scheduler.fires", "outcome", "claimed-elsewhere").increment();
+            return;
+        }
+        String outcome = "started";
+        try {
+            workflowService.execute(schedule.workflowId(), schedule.inputs(),
+                    ExecutionOptions.queued(schedule.priority(), schedule.tenantId()));
+            fireLag.record(Duration.between(fire.nominal(), Instant.now()));
+        } catch (WorkflowNotFoundException e) {
+            outcome = "deleted";
+            remove(schedule.workflowId());
+        } catch (QuotaExceededException | QueueFullException e) {
+            outcome = "rejected";
+            log.warn("Scheduled run of workflow {} at {} rejected: {}",
+                    schedule.workflowId(), fire.nominal(), e.getMessage());
+        } catch (RuntimeException e) {
+            outcome = "failed";
+            log.error("Scheduled run of workflow {} at {} failed", schedule.workflowId(), fire.nominal(), e);
+        }
+        meterRegistry.counter("agentflow.scheduler.fires", "outcome", outcome).increment();
+        if (fire.takeover()) {
+            meterRegistry.counter("agentflow.scheduler.takeovers").increment();
+        }
+    }
+
+    /**
+     * Claim a fire for this node in the database, the one claim store every
+     * node agrees on. Redis only remembers claimed fires, so nodes standing in
+     * for the owner can skip the insert; a fire that cannot be claimed is
+     * skipped rather than started unclaimed.
+     */
+    private boolean claim(WorkflowSchedule schedule, Fire fire) {
+        String key = "scheduler:fire:" + schedule.workflowId() + ":" + fire.nominal().toEpochMilli();
+        try {
+            if (Boolean.TRUE.equals(redis.hasKey(key))) {
+                return false;
+            }
+        } catch (DataAccessException e) {
+            log.debug("Redis unavailable, claiming scheduled run of workflow {} in the database only: {}",
+                    schedule.workflowId(), e.getMessage());
+        }
+        boolean claimed;
+        try {
+            claimed = store.claimFire(schedule.workflowId(), fire.nominal(), nodeId);
+        } catch (DataAccessException e) {
+            log.warn("Skipping scheduled run of workflow {} at {}, it could not be claimed: {}",
+                    schedule.workflowId(), fire.nominal(), e.getMessage());
+            return false;
+        }
+        if (claimed) {
+            try {
+                redis.opsForValue().set(key, nodeId, claimTtl);
+            } catch (DataAccessException e) {
+                // Other nodes then find the claim in the database
+                log.debug("Failed to record claimed fire of workflow {}: {}", schedule.workflowId(), e.getMessage());
+            }
+        }
+        return claimed;
+    }
+
+    private boolean owns(WorkflowSchedule schedule) {
+        return membership == null
+                || membership.ring().ownerOf(schedule.workflowId().toString()).equals(membership.nodeId());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        driver.interrupt();
+        firePool.shutdownNow();
+    }
+
+    /**
+     * @param nominal  the fire time before jitter, which identifies the fire across nodes
+     * @param takeover whether this node is standing in for the schedule's owner
+     */
+    private record Fire(Entry entry, Instant nominal, boolean takeover) {
+    }
+
+    private static final class Entry {
+        private final WorkflowSchedule schedule;
+        private volatile TimingWheel.Timer<Fire> timer;
+        private volatile boolean removed;
+
+        private Entry(WorkflowSchedule schedule) {
+            this.schedule = schedule;
+        }
+    }
+}
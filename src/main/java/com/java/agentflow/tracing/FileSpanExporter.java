@@ -0,0 +1,131 @@
+package com.java.agentflow.tracing;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Appends finished spans to a local NDJSON file, one span per line, using the
+ * OTLP JSON field names. Lets traces be inspected with jq or grep without
+ * running a collector.
+ */
+public class FileSpanExporter implements SpanExporter {
+
+    private static final Logger log = LoggerFactory.getLogger(FileSpanExporter.class);
+    private static final AttributeKey<String> SERVICE_NAME = AttributeKey.stringKey("service.name");
+
+    private final OutputStream out;
+    private final JsonGenerator generator;
+
+    public FileSpanExporter(Path file) {
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            this.out = Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            this.generator = new JsonFactory().createGenerator(out, JsonEncoding.UTF8);
+            this.generator.setRootValueSeparator(null);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open trace file " + file, e);
+        }
+    }
+
+    @Override
+    public synchronized CompletableResultCode export(Collection<SpanData> spans) {
+        try {
+            for (SpanData span : spans) {
+                write(span);
+            }
+            generator.flush();
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException e) {
+            log.warn("Failed to write {} spans: {}", spans.size(), e.getMessage());
+            return CompletableResultCode.ofFailure();
+        }
+    }
+
+    private void write(SpanData span) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("traceId", span.getTraceId());
+        generator.writeStringField("spanId", span.getSpanId());
+        if (span.getParentSpanContext().isValid()) {
+            generator.writeStringField("parentSpanId", span.getParentSpanId());
+        }
+        generator.writeStringField("name", span.getName());
+        generator.writeStringField("kind", span.getKind().name());
+        generator.writeNumberField("startTimeUnixNano", span.getStartEpochNanos());
+        generator.writeNumberField("endTimeUnixNano", span.getEndEpochNanos());
+        generator.writeNumberField("durationMs", (span.getEndEpochNanos() - span.getStartEpochNanos()) / 1_000_000.0);
+        generator.writeObjectFieldStart("attributes");
+        for (Map.Entry<AttributeKey<?>, Object> attribute : span.getAttributes().asMap().entrySet()) {
+            writeValue(attribute.getKey().getKey(), attribute.getValue());
+        }
+        generator.writeEndObject();
+        generator.writeObjectFieldStart("status");
+        generator.writeStringField("code", span.getStatus().getStatusCode().name());
+        if (!span.getStatus().getDescription().isEmpty()) {
+            generator.writeStringField("message", span.getStatus().getDescription());
+        }
+        generator.writeEndObject();
+        generator.writeStringField("service", span.getResource().getAttribute(SERVICE_NAME));
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    private void writeValue(String field, Object value) throws IOException {
+        if (value instanceof Boolean b) {
+            generator.writeBooleanField(field, b);
+        } else if (value instanceof Long l) {
+            generator.writeNumberField(field, l);
+        } else if (value instanceof Double d) {
+            generator.writeNumberField(field, d);
+        } else if (value instanceof List<?> list) {
+            generator.writeArrayFieldStart(field);
+            for (Object item : list) {
+                generator.writeString(String.valueOf(item));
+            }
+            generator.writeEndArray();
+        } else {
+            generator.writeStringField(field, String.valueOf(value));
+        }
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        try {
+            synchronized (this) {
+                generator.flush();
+            }
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException e) {
+            return CompletableResultCode.ofFailure();
+        }
+    }
+
+    @Override
+    public synchronized CompletableResultCode shutdown() {
+        try {
+            generator.close();
+            out.close();
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException e) {
+            return CompletableResultCode.ofFailure();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.java.agentflow.tracing;
+
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+/**
+ * Tracing exporters and instrumentation not covered by Spring Boot. Spans are
+ * sent over OTLP when {@code management.otlp.tracing.endpoint} is set, and
+ * written to {@code agentflow.tracing.file} when that is set.
+ */
+@Configuration
+public class TracingConfig {
+
+    @Bean
+    static RepositorySaveObservations repositorySaveObservations(
+            ObjectProvider<ObservationRegistry> observationRegistry) {
+        return new RepositorySaveObservations(observationRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "agentflow.tracing.file")
+    public FileSpanExporter fileSpanExporter(@Value("${agentflow.tracing.file}") Path file) {
+        return new FileSpanExporter(file);
+    }
+}
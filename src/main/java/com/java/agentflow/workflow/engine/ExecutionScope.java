@@ -0,0 +1,88 @@
+package com.java.agentflow.workflow.engine;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Nesting depth and deadline of the workflow run a step belongs to. Steps run
+ * with their run's scope as the current one, so an agent that starts another
+ * workflow can pass both on.
+ *
+ * @param depth         0 for runs started through the API or the queue
+ * @param deadlineNanos {@link System#nanoTime()} by which the run must finish, if {@code hasDeadline}
+ */
+public record ExecutionScope(int depth, boolean hasDeadline, long deadlineNanos) {
+
+    public static final ExecutionScope ROOT = new ExecutionScope(0, false, 0);
+
+    private static final ThreadLocal<ExecutionScope> CURRENT = ThreadLocal.withInitial(() -> ROOT);
+
+    /**
+     * The scope of the step running on this thread, or {@link #ROOT} outside of any run.
+     */
+    public static ExecutionScope current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Rebuild a scope sent to another node, whose {@code nanoTime} does not
+     * match this one's.
+     *
+     * @param deadline when the run must finish, or null for no deadline
+     */
+    public static ExecutionScope of(int depth, Instant deadline) {
+        if (deadline == null) {
+            return new ExecutionScope(depth, false, 0);
+        }
+        return new ExecutionScope(depth, true, System.nanoTime() + Duration.between(Instant.now(), deadline).toNanos());
+    }
+
+    /**
+     * The deadline as wall-clock time, for sending to another node, or null if there is none.
+     */
+    public Instant deadline() {
+        return hasDeadline ? Instant.now().plusNanos(deadlineNanos - System.nanoTime()) : null;
+    }
+
+    public boolean nested() {
+        return depth > 0;
+    }
+
+    /**
+     * Scope of a workflow started from this one: one level deeper, and due by
+     * this scope's deadline or after {@code timeout}, whichever comes first.
+     */
+    public ExecutionScope child(Duration timeout) {
+        if (timeout == null) {
+            return new ExecutionScope(depth + 1, hasDeadline, deadlineNanos);
+        }
+        long own = System.nanoTime() + timeout.toNanos();
+        long deadline = hasDeadline && deadlineNanos - own < 0 ? deadlineNanos : own;
+        return new ExecutionScope(depth + 1, true, deadline);
+    }
+
+    /**
+     * Take the next element, waiting no later than the deadline.
+     *
+     * @return null if the deadline passed first
+     */
+    <T> T take(BlockingQueue<T> queue) throws InterruptedException {
+        return hasDeadline ? queue.poll(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS) : queue.take();
+    }
+
+    /**
+     * Run an action with this scope as the current one.
+     */
+    public <T> T call(Supplier<T> action) {
+        ExecutionScope previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return action.get();
+        } finally {
+            CURRENT.set(previous);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.java.agentflow.workflow.engine;
+
+import com.fasterxml.jackson.core.StreamReadConstraints;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.ref.Cleaner;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Accounts for the memory held by step outputs. Outputs are measured by their
+ * JSON size when a step completes and kept on the heap while both the
+ * execution's and this node's budgets allow; beyond that they are spilled to
+ * local files and read back on demand. Outputs over the hard limits fail the
+ * step instead of being admitted at all.
+ *
+ * Outputs kept on the heap hold their share of the node budget until they are
+ * no longer reachable, as the entities and API responses keep them past the
+ * end of the run.
+ */
+@Component
+public class OutputBudget {
+
+    private static final Logger log = LoggerFactory.getLogger(OutputBudget.class);
+
+    static final Cleaner CLEANER = Cleaner.create(Thread.ofPlatform().name("outputs-cleaner").daemon().factory());
+
+    private final ObjectMapper objectMapper;
+    private final long executionBudget;
+    private final long nodeBudget;
+    private final long maxStepSize;
+    private final long maxExecutionSize;
+    private final Path spillDir;
+    private final AtomicLong heapBytes = new AtomicLong();
+    private final DistributionSummary outputSizes;
+    private final Counter spills;
+    private final Counter spilledBytes;
+    private final Counter rejections;
+
+    public OutputBudget(
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${agentflow.engine.outputs.execution-budget:32MB}") DataSize executionBudget,
+            @Value("${agentflow.engine.outputs.node-budget:256MB}") DataSize nodeBudget,
+            @Value("${agentflow.engine.outputs.max-step-size:128MB}") DataSize maxStepSize,
+            @Value("${agentflow.engine.outputs.max-execution-size:256MB}") DataSize maxExecutionSize,
+            @Value("${agentflow.engine.outputs.spill-dir:}") String spillDir) throws IOException {
+        this.executionBudget = executionBudget.toBytes();
+        this.nodeBudget = nodeBudget.toBytes();
+        this.maxStepSize = maxStepSize.toBytes();
+        this.maxExecutionSize = maxExecutionSize.toBytes();
+        // Spilled outputs are read back whole, so allow strings as large as any admitted output
+        this.objectMapper = objectMapper.copy();
+        this.objectMapper.getFactory().setStreamReadConstraints(StreamReadConstraints.builder()
+                .maxStringLength((int) Math.min(this.maxStepSize, Integer.MAX_VALUE))
+                .build());
+        // A directory per process, so nodes sharing a disk never touch each other's files
+        if (spillDir.isBlank()) {
+            this.spillDir = Files.createTempDirectory("agentflow-spill-");
+        } else {
+            Path parent = Files.createDirectories(Path.of(spillDir));
+            this.spillDir = Files.createTempDirectory(parent, "node-");
+        }
+
+        meterRegistry.gauge("agentflow.outputs.heap.bytes", heapBytes);
+        this.outputSizes = DistributionSummary.builder("agentflow.outputs.size")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.spills = meterRegistry.counter("agentflow.outputs.spills");
+        this.spilledBytes = meterRegistry.counter("agentflow.outputs.spilled.bytes");
+        this.rejections = meterRegistry.counter("agentflow.outputs.rejections");
+    }
+
+    /**
+     * Start accounting for one execution.
+     */
+    ExecutionOutputs open(UUID executionId) {
+        return new ExecutionOutputs(executionId);
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        FileSystemUtils.deleteRecursively(spillDir);
+    }
+
+    private long measure(Map<String, Object> outputs) {
+        CountingOutputStream counter = new CountingOutputStream();
+        try {
+            objectMapper.writeValue(counter, outputs);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot serialize step outputs", e);
+        }
+        return counter.count;
+    }
+
+    private boolean reserve(long bytes) {
+        long current;
+        do {
+            current = heapBytes.get();
+            if (current + bytes > nodeBudget) {
+                return false;
+            }
+        } while (!heapBytes.compareAndSet(current, current + bytes));
+        return true;
+    }
+
+    private static String describe(long bytes) {
+        if (bytes >= 1024 * 1024) {
+            return (bytes / (1024 * 1024)) + "MB";
+        }
+        return bytes >= 1024 ? (bytes / 1024) + "KB" : bytes + "B";
+    }
+
+    private Map<String, Object> hold(Map<String, Object> outputs, long bytes) {
+        // A copy of our own, so outputs shared with other executions or caches are counted per holder
+        Map<String, Object> held = Collections.unmodifiableMap(new LinkedHashMap<>(outputs));
+        CLEANER.register(held, () -> heapBytes.addAndGet(-bytes));
+        return held;
+    }
+
+    /**
+     * The outputs of one execution. Used from the coordinating thread only.
+     */
+    final class ExecutionOutputs {
+
+        private final UUID executionId;
+        private long heldBytes;
+        private long totalBytes;
+
+        private ExecutionOutputs(UUID executionId) {
+            this.executionId = executionId;
+        }
+
+        /**
+         * Account for a completed step's outputs.
+         *
+         * @return the outputs, or a lazily loaded copy if they were spilled to disk
+         * @throws OutputLimitExceededException if the step or the execution is over its hard limit
+         */
+        Map<String, Object> admit(String stepId, Map<String, Object> outputs) {
+            if (outputs == null || outputs.isEmpty()) {
+                return outputs;
+            }
+            long bytes = measure(outputs);
+            outputSizes.record(bytes);
+            if (bytes > maxStepSize) {
+                rejections.increment();
+                throw new OutputLimitExceededException("Outputs of step " + stepId + " are " + describe(bytes)
+                        + ", over the " + describe(maxStepSize) + " limit");
+            }
+            if (totalBytes + bytes > maxExecutionSize) {
+                rejections.increment();
+                throw new OutputLimitExceededException("Outputs of the execution would reach "
+                        + describe(totalBytes + bytes) + ", over the " + describe(maxExecutionSize) + " limit");
+            }
+            totalBytes += bytes;
+
+            if (heldBytes + bytes <= executionBudget && reserve(bytes)) {
+                heldBytes += bytes;
+                return hold(outputs, bytes);
+            }
+            return spill(stepId, outputs, bytes);
+        }
+
+        private Map<String, Object> spill(String stepId, Map<String, Object> outputs, long bytes) {
+            Path file = spillDir.resolve(executionId + "-" + UUID.randomUUID() + ".json");
+            try {
+                SpilledOutputs spilled = SpilledOutputs.write(file, outputs, bytes, objectMapper);
+                spills.increment();
+                spilledBytes.increment(bytes);
+                log.info("Spilled {} of outputs of step {} ({}) to disk", describe(bytes), stepId, executionId);
+                return spilled;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot spill outputs of step " + stepId, e);
+            }
+        }
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.java.agentflow.workflow.engine;
+
+/**
+ * Exception thrown when a step's outputs, or all outputs of an execution,
+ * are larger than the configured hard limit.
+ */
+public class OutputLimitExceededException extends RuntimeException {
+
+    public OutputLimitExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,368 @@
+package com.java.agentflow.workflow.engine;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Immutable hash map with structural sharing (a hash array mapped trie).
+ * {@link #with} and {@link #without} return a new map in O(log32 n) that
+ * shares every untouched node with the original, so a snapshot is a single
+ * reference that can be handed to other threads without copying or locking.
+ *
+ * Null values are allowed, null keys are not. The mutating {@link Map}
+ * methods throw {@link UnsupportedOperationException}.
+ */
+public final class PersistentMap<K, V> extends AbstractMap<K, V> {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final Object NOT_FOUND = new Object();
+    private static final PersistentMap<?, ?> EMPTY = new PersistentMap<>(null, 0);
+
+    /** Null when empty, otherwise a Branch, Leaf or Collision. */
+    private final Object root;
+    private final int size;
+
+    private PersistentMap(Object root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentMap<K, V> empty() {
+        return (PersistentMap<K, V>) EMPTY;
+    }
+
+    /**
+     * The map itself if it is already persistent, otherwise a persistent copy.
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentMap<K, V> copyOf(Map<? extends K, ? extends V> map) {
+        if (map instanceof PersistentMap<?, ?> persistent) {
+            return (PersistentMap<K, V>) persistent;
+        }
+        PersistentMap<K, V> result = empty();
+        for (Map.Entry<? extends K, ? extends V> entry : map.entrySet()) {
+            result = result.with(entry.getKey(), entry.getValue());
+        }
+        return result;
+    }
+
+    /**
+     * A map with {@code key} bound to {@code value}; this map is unchanged.
+     */
+    public PersistentMap<K, V> with(K key, V value) {
+        Objects.requireNonNull(key, "key");
+        Leaf leaf = new Leaf(key, value, hash(key));
+        if (root == null) {
+            return new PersistentMap<>(leaf, 1);
+        }
+        boolean[] added = new boolean[1];
+        Object newRoot = insert(root, 0, leaf, added);
+        return newRoot == root ? this : new PersistentMap<>(newRoot, added[0] ? size + 1 : size);
+    }
+
+    /**
+     * A map without {@code key}; this map is unchanged.
+     */
+    public PersistentMap<K, V> without(Object key) {
+        if (root == null || key == null) {
+            return this;
+        }
+        Object newRoot = remove(root, 0, key, hash(key));
+        if (newRoot == root) {
+            return this;
+        }
+        return newRoot == null ? empty() : new PersistentMap<>(newRoot, size - 1);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        Object value = find(key);
+        return value == NOT_FOUND ? null : (V) value;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return find(key) != NOT_FOUND;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Map.Entry<K, V>> iterator() {
+                return new EntryIterator<>(root);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private Object find(Object key) {
+        if (key == null || root == null) {
+            return NOT_FOUND;
+        }
+        int hash = hash(key);
+        Object node = root;
+        int shift = 0;
+        while (true) {
+            if (node instanceof Branch branch) {
+                int bit = bit(hash, shift);
+                if ((branch.bitmap & bit) == 0) {
+                    return NOT_FOUND;
+                }
+                node = branch.slots[branch.index(bit)];
+                shift += BITS;
+            } else if (node instanceof Leaf leaf) {
+                return leaf.hash == hash && leaf.getKey().equals(key) ? leaf.getValue() : NOT_FOUND;
+            } else {
+                Collision collision = (Collision) node;
+                if (collision.hash == hash) {
+                    for (Leaf leaf : collision.leaves) {
+                        if (leaf.getKey().equals(key)) {
+                            return leaf.getValue();
+                        }
+                    }
+                }
+                return NOT_FOUND;
+            }
+        }
+    }
+
+    private static Object insert(Object node, int shift, Leaf leaf, boolean[] added) {
+        if (node instanceof Branch branch) {
+            int bit = bit(leaf.hash, shift);
+            int index = branch.index(bit);
+            if ((branch.bitmap & bit) == 0) {
+                added[0] = true;
+                Object[] slots = new Object[branch.slots.length + 1];
+                System.arraycopy(branch.slots, 0, slots, 0, index);
+                slots[index] = leaf;
+                System.arraycopy(branch.slots, index, slots, index + 1, branch.slots.length - index);
+                return new Branch(branch.bitmap | bit, slots);
+            }
+            Object child = branch.slots[index];
+            Object newChild = insert(child, shift + BITS, leaf, added);
+            if (newChild == child) {
+                return branch;
+            }
+            Object[] slots = branch.slots.clone();
+            slots[index] = newChild;
+            return new Branch(branch.bitmap, slots);
+        }
+
+        if (node instanceof Leaf existing) {
+            if (existing.hash == leaf.hash && existing.getKey().equals(leaf.getKey())) {
+                return existing.getValue() == leaf.getValue() ? existing : leaf;
+            }
+            added[0] = true;
+            if (existing.hash == leaf.hash) {
+                return new Collision(leaf.hash, new Leaf[] { existing, leaf });
+            }
+            return merge(shift, existing, existing.hash, leaf, leaf.hash);
+        }
+
+        Collision collision = (Collision) node;
+        if (collision.hash != leaf.hash) {
+            added[0] = true;
+            return merge(shift, collision, collision.hash, leaf, leaf.hash);
+        }
+        for (int i = 0; i < collision.leaves.length; i++) {
+            if (collision.leaves[i].getKey().equals(leaf.getKey())) {
+                Leaf[] leaves = collision.leaves.clone();
+                leaves[i] = leaf;
+                return new Collision(collision.hash, leaves);
+            }
+        }
+        added[0] = true;
+        Leaf[] leaves = Arrays.copyOf(collision.leaves, collision.leaves.length + 1);
+        leaves[collision.leaves.length] = leaf;
+        return new Collision(collision.hash, leaves);
+    }
+
+    /**
+     * A branch holding two nodes with different hashes, nested until their hash bits diverge.
+     */
+    private static Object merge(int shift, Object a, int hashA, Object b, int hashB) {
+        int bitA = bit(hashA, shift);
+        int bitB = bit(hashB, shift);
+        if (bitA == bitB) {
+            return new Branch(bitA, new Object[] { merge(shift + BITS, a, hashA, b, hashB) });
+        }
+        return Integer.compareUnsigned(bitA, bitB) < 0
+                ? new Branch(bitA | bitB, new Object[] { a, b })
+                : new Branch(bitA | bitB, new Object[] { b, a });
+    }
+
+    private static Object remove(Object node, int shift, Object key, int hash) {
+        if (node instanceof Branch branch) {
+            int bit = bit(hash, shift);
+            if ((branch.bitmap & bit) == 0) {
+                return branch;
+            }
+            int index = branch.index(bit);
+            Object child = branch.slots[index];
+            Object newChild = remove(child, shift + BITS, key, hash);
+            if (newChild == child) {
+                return branch;
+            }
+            if (newChild != null) {
+                Object[] slots = branch.slots.clone();
+                slots[index] = newChild;
+                return new Branch(branch.bitmap, slots);
+            }
+            if (branch.slots.length == 1) {
+                return null;
+            }
+            Object[] slots = new Object[branch.slots.length - 1];
+            System.arraycopy(branch.slots, 0, slots, 0, index);
+            System.arraycopy(branch.slots, index + 1, slots, index, slots.length - index);
+            return new Branch(branch.bitmap & ~bit, slots);
+        }
+
+        if (node instanceof Leaf leaf) {
+            return leaf.hash == hash && leaf.getKey().equals(key) ? null : leaf;
+        }
+
+        Collision collision = (Collision) node;
+        if (collision.hash != hash) {
+            return collision;
+        }
+        for (int i = 0; i < collision.leaves.length; i++) {
+            if (collision.leaves[i].getKey().equals(key)) {
+                if (collision.leaves.length == 2) {
+                    return collision.leaves[1 - i];
+                }
+                Leaf[] leaves = new Leaf[collision.leaves.length - 1];
+                System.arraycopy(collision.leaves, 0, leaves, 0, i);
+                System.arraycopy(collision.leaves, i + 1, leaves, i, leaves.length - i);
+                return new Collision(collision.hash, leaves);
+            }
+        }
+        return collision;
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        // Mix high bits into the low bits used by the first levels
+        return h ^ (h >>> 16);
+    }
+
+    private static int bit(int hash, int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    private static final class Leaf extends AbstractMap.SimpleImmutableEntry<Object, Object> {
+
+        private final int hash;
+
+        private Leaf(Object key, Object value, int hash) {
+            super(key, value);
+            this.hash = hash;
+        }
+    }
+
+    /** Entries whose keys have the same full hash. */
+    private record Collision(int hash, Leaf[] leaves) {
+    }
+
+    /** Up to 32 children, present where the bitmap has a bit set, in bit order. */
+    private record Branch(int bitmap, Object[] slots) {
+
+        int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+    }
+
+    /**
+     * Depth-first walk over the trie. Depth is bounded by the 32-bit hash, so
+     * the stack is a fixed-size array.
+     */
+    private static final class EntryIterator<K, V> implements Iterator<Map.Entry<K, V>> {
+
+        private final Object[][] stack = new Object[8][];
+        private final int[] positions = new int[8];
+        private int depth = -1;
+        private Leaf[] collision;
+        private int collisionPosition;
+        private Leaf next;
+
+        private EntryIterator(Object root) {
+            if (root != null) {
+                push(root);
+            }
+            advance();
+        }
+
+        private void push(Object node) {
+            if (node instanceof Branch branch) {
+                stack[++depth] = branch.slots;
+                positions[depth] = 0;
+            } else if (node instanceof Leaf leaf) {
+                next = leaf;
+            } else {
+                collision = ((Collision) node).leaves;
+                collisionPosition = 0;
+            }
+        }
+
+        private void advance() {
+            if (next != null) {
+                return;
+            }
+            while (true) {
+                if (collision != null) {
+                    if (collisionPosition < collision.length) {
+                        next = collision[collisionPosition++];
+                        return;
+                    }
+                    collision = null;
+                }
+                if (depth < 0) {
+                    return;
+                }
+                if (positions[depth] == stack[depth].length) {
+                    stack[depth--] = null;
+                    continue;
+                }
+                push(stack[depth][positions[depth]++]);
+                if (next != null) {
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Map.Entry<K, V> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Leaf current = next;
+            next = null;
+            advance();
+            return (Map.Entry<K, V>) (Map.Entry<?, ?>) current;
+        }
+    }
+}
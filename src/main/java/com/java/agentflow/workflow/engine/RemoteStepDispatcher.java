@@ -0,0 +1,30 @@
+package com.java.agentflow.workflow.engine;
+
+import com.java.agentflow.workflow.model.WorkflowDefinition.StepDefinition;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Runs steps on workers anywhere in the cluster instead of the local step pool.
+ * Only present when distributed dispatch is enabled.
+ */
+public interface RemoteStepDispatcher {
+
+    /**
+     * Send a ready step to a worker.
+     *
+     * @param stepOutputs outputs of completed steps, as passed to {@link StepRunner}
+     * @param outputRefs  storage references of completed steps whose outputs were too large to send inline
+     * @param scope       the run's scope, which the worker restores around the step
+     * @return the outcome, completed when the worker's result arrives
+     */
+    CompletableFuture<StepOutcome> dispatch(
+            UUID executionId,
+            StepDefinition step,
+            Map<String, Object> workflowInputs,
+            Map<String, Map<String, Object>> stepOutputs,
+            Map<String, String> outputRefs,
+            ExecutionScope scope);
+}
@@ -0,0 +1,13 @@
+package com.java.agentflow.workflow.engine;
+
+/**
+ * Thrown by a run's save guard to stop the run without recording anything
+ * more, e.g. because another node has taken the execution over. Unlike other
+ * failures it is not recorded on the execution.
+ */
+public class RunAbortedException extends RuntimeException {
+
+    public RunAbortedException(String message) {
+        super(message);
+    }
+}
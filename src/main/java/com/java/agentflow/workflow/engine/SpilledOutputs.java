@@ -0,0 +1,97 @@
+package com.java.agentflow.workflow.engine;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.java.agentflow.workflow.entity.JsonFile;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.SoftReference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Step outputs written to a local file and read back on first access. The
+ * loaded map is only softly held, so the collector can drop it again under
+ * memory pressure. The file is deleted once this map is no longer reachable,
+ * which covers every holder: later steps, the entities and the API response.
+ */
+final class SpilledOutputs extends AbstractMap<String, Object> implements JsonFile {
+
+    private static final TypeReference<Map<String, Object>> OUTPUTS = new TypeReference<>() {
+    };
+
+    private final Path file;
+    private final long bytes;
+    private final ObjectMapper objectMapper;
+    private SoftReference<Map<String, Object>> loaded = new SoftReference<>(null);
+
+    private SpilledOutputs(Path file, long bytes, ObjectMapper objectMapper) {
+        this.file = file;
+        this.bytes = bytes;
+        this.objectMapper = objectMapper;
+    }
+
+    static SpilledOutputs write(Path file, Map<String, Object> outputs, long bytes, ObjectMapper objectMapper)
+            throws IOException {
+        objectMapper.writeValue(file.toFile(), outputs);
+        SpilledOutputs spilled = new SpilledOutputs(file, bytes, objectMapper);
+        OutputBudget.CLEANER.register(spilled, () -> {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+                // Left in the spill directory, which is removed on shutdown
+            }
+        });
+        return spilled;
+    }
+
+    /**
+     * Size of the outputs as JSON.
+     */
+    long bytes() {
+        return bytes;
+    }
+
+    @Override
+    public Path jsonFile() {
+        return file;
+    }
+
+    @Override
+    public Object get(Object key) {
+        return load().get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return load().containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return load().size();
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return load().entrySet();
+    }
+
+    private synchronized Map<String, Object> load() {
+        Map<String, Object> outputs = loaded.get();
+        if (outputs == null) {
+            try {
+                outputs = Collections.unmodifiableMap(objectMapper.readValue(file.toFile(), OUTPUTS));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read spilled outputs " + file, e);
+            }
+            loaded = new SoftReference<>(outputs);
+        }
+        return outputs;
+    }
+}
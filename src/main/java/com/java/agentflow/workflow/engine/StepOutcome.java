@@ -0,0 +1,48 @@
+package com.java.agentflow.workflow.engine;
+
+import com.java.agentflow.workflow.entity.StepExecution;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Result of running one step, with its retries. Produced off the coordinating
+ * thread, possibly on another node, and applied to the step entity by the coordinator.
+ *
+ * @param outputRef where large outputs were stored by a remote worker, or null
+ */
+public record StepOutcome(
+        boolean success,
+        Map<String, Object> inputs,
+        Map<String, Object> outputs,
+        String error,
+        int retries,
+        Instant startedAt,
+        String outputRef) {
+
+    public static StepOutcome completed(Map<String, Object> inputs, Map<String, Object> outputs, int retries,
+            Instant startedAt) {
+        return new StepOutcome(true, inputs, outputs, null, retries, startedAt, null);
+    }
+
+    public static StepOutcome failed(Map<String, Object> inputs, String error, int retries, Instant startedAt) {
+        return new StepOutcome(false, inputs, null, error, retries, startedAt, null);
+    }
+
+    StepOutcome withOutputs(Map<String, Object> outputs) {
+        return new StepOutcome(success, inputs, outputs, error, retries, startedAt, outputRef);
+    }
+
+    void applyTo(StepExecution step) {
+        if (inputs != null) {
+            step.setInputs(inputs);
+        }
+        step.setRetryCount(retries);
+        step.setStartedAt(startedAt);
+        if (success) {
+            step.markCompleted(outputs);
+        } else {
+            step.markFailed(error);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.java.agentflow.workflow.engine;
+
+import com.java.agentflow.agent.Agent;
+import com.java.agentflow.agent.AgentContext;
+import com.java.agentflow.agent.AgentInvoker;
+import com.java.agentflow.agent.AgentRegistry;
+import com.java.agentflow.agent.AgentResult;
+import com.java.agentflow.agent.NonRetryableAgentException;
+import com.java.agentflow.workflow.model.WorkflowDefinition.StepDefinition;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Runs a single step with its retries: interpolates the config, invokes the
+ * agent and reports the outcome. Touches no entities, so it can run on any
+ * thread or on a remote worker.
+ */
+@Component
+public class StepRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(StepRunner.class);
+
+    private final AgentRegistry agentRegistry;
+    private final AgentInvoker agentInvoker;
+    private final VariableInterpolator interpolator;
+    private final ObservationRegistry observationRegistry;
+
+    public StepRunner(AgentRegistry agentRegistry, AgentInvoker agentInvoker, VariableInterpolator interpolator,
+            ObservationRegistry observationRegistry) {
+        this.agentRegistry = agentRegistry;
+        this.agentInvoker = agentInvoker;
+        this.interpolator = interpolator;
+        this.observationRegistry = observationRegistry;
+    }
+
+    /**
+     * @param stepOutputs outputs of completed steps, keyed by step id and wrapped in an {@code outputs} entry
+     */
+    public StepOutcome run(
+            StepDefinition stepDef,
+            Map<String, Object> workflowInputs,
+            Map<String, Map<String, Object>> stepOutputs) {
+        Observation observation = Observation.createNotStarted("agentflow.step", observationRegistry)
+                .contextualName("step " + stepDef.id())
+                .lowCardinalityKeyValue("agent.type", stepDef.agent())
+                .highCardinalityKeyValue("step.id", stepDef.id())
+                .start();
+        try (Observation.Scope scope = observation.openScope()) {
+            StepOutcome outcome = runWithRetries(stepDef, workflowInputs, stepOutputs);
+            observation.lowCardinalityKeyValue("outcome", outcome.success() ? "success" : "failure");
+            observation.highCardinalityKeyValue("retries", String.valueOf(outcome.retries()));
+            return outcome;
+        } finally {
+            observation.stop();
+        }
+    }
+
+    private StepOutcome runWithRetries(
+            StepDefinition stepDef,
+            Map<String, Object> workflowInputs,
+            Map<String, Map<String, Object>> stepOutputs) {
+        int retries = 0;
+        while (true) {
+            Instant startedAt = Instant.now();
+            Map<String, Object> interpolatedConfig = null;
+            try {
+                Agent agent = agentRegistry.getAgentOrThrow(stepDef.agent());
+
+                VariableInterpolator.InterpolationContext interpContext = new VariableInterpolator.InterpolationContext(
+                        workflowInputs, stepOutputs);
+
+                @SuppressWarnings("unchecked")
+                Map<String, Object> config = (Map<String, Object>) interpolator
+                        .interpolateObject(stepDef.config(), interpContext);
+                interpolatedConfig = config;
+
+                AgentContext agentContext = new AgentContext(Map.of(), interpolatedConfig);
+                AgentResult result = invoke(agent, agentContext, stepDef, retries);
+
+                if (result.success()) {
+                    log.debug("Step completed: {} in {}ms", stepDef.id(), result.executionTime().toMillis());
+                    return StepOutcome.completed(interpolatedConfig, result.outputs(), retries, startedAt);
+                }
+                if (!shouldRetry(stepDef, retries)) {
+                    log.warn("Step failed: {} - {}", stepDef.id(), result.error());
+                    return StepOutcome.failed(interpolatedConfig, result.error(), retries, startedAt);
+                }
+            } catch (NonRetryableAgentException e) {
+                log.warn("Step failed: {} - {}", stepDef.id(), e.getMessage());
+                return StepOutcome.failed(interpolatedConfig, e.getMessage(), retries, startedAt);
+            } catch (Exception e) {
+                log.error("Step execution error: {}", stepDef.id(), e);
+                return StepOutcome.failed(interpolatedConfig, e.getMessage(), retries, startedAt);
+            }
+
+            retries++;
+            log.info("Retrying step: {} (attempt {})", stepDef.id(), retries + 1);
+            if (stepDef.retry() != null && stepDef.retry().delayMs() > 0) {
+                try {
+                    Thread.sleep(stepDef.retry().delayMs());
+                } catch (InterruptedException e) {
+                    // Cancelled while waiting; retrying now would skip every delay
+                    Thread.currentThread().interrupt();
+                    log.warn("Step interrupted before retry: {}", stepDef.id());
+                    return StepOutcome.failed(interpolatedConfig, "Interrupted before retry " + retries,
+                            retries, startedAt);
+                }
+            }
+        }
+    }
+
+    /**
+     * One agent call, observed separately so each retry gets its own span.
+     */
+    private AgentResult invoke(Agent agent, AgentContext agentContext, StepDefinition stepDef, int retry) {
+        Observation observation = Observation.createNotStarted("agentflow.agent", observationRegistry)
+                .contextualName("agent " + agent.getType())
+                .lowCardinalityKeyValue("agent.type", agent.getType())
+                .highCardinalityKeyValue("step.id", stepDef.id())
+                .highCardinalityKeyValue("retry", String.valueOf(retry))
+                .start();
+        try (Observation.Scope scope = observation.openScope()) {
+            AgentResult result = agentInvoker.invoke(agent, agentContext, stepDef.coalesce());
+            observation.lowCardinalityKeyValue("outcome", result.success() ? "success" : "failure");
+            if (!result.success() && result.error() != null) {
+                observation.highCardinalityKeyValue("error", result.error());
+            }
+            return result;
+        } catch (RuntimeException e) {
+            observation.error(e);
+            throw e;
+        } finally {
+            observation.stop();
+        }
+    }
+
+    private boolean shouldRetry(StepDefinition stepDef, int retries) {
+        if (stepDef.retry() == null) {
+            return false;
+        }
+        return retries < stepDef.retry().maxRetries();
+    }
+}
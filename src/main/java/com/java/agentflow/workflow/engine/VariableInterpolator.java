@@ -1,7 +1,13 @@
 package com.java.agentflow.workflow.engine;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -16,6 +22,8 @@ public class VariableInterpolator {
 
     private static final int MAX_DEPTH = 5;
 
+    private static final ObjectMapper JSON = new ObjectMapper();
+
     public String interpolate(String template, InterpolationContext context) {
         if (template == null || !template.contains("${")) {
             return template;
@@ -24,7 +32,11 @@ public class VariableInterpolator {
         return interpolateRecursive(template, context, 0);
     }
 
-    @SuppressWarnings("unchecked")
+    /**
+     * Interpolate every string inside a config value. Maps and lists without any
+     * placeholder are returned as is rather than rebuilt, so large literal values
+     * are shared instead of copied for every step run.
+     */
     public Object interpolateObject(Object value, InterpolationContext context) {
         if (value == null) {
             return null;
@@ -35,17 +47,41 @@ public class VariableInterpolator {
         }
 
         if (value instanceof Map<?, ?> map) {
-            Map<String, Object> result = new java.util.HashMap<>();
+            Map<String, Object> result = null;
+            int position = 0;
             for (Map.Entry<?, ?> entry : map.entrySet()) {
-                result.put(entry.getKey().toString(), interpolateObject(entry.getValue(), context));
+                Object original = entry.getValue();
+                Object interpolated = interpolateObject(original, context);
+                if (result == null && interpolated != original) {
+                    // First changed entry: copy the unchanged ones passed over so far
+                    result = new HashMap<>();
+                    Iterator<? extends Map.Entry<?, ?>> previous = map.entrySet().iterator();
+                    for (int i = 0; i < position; i++) {
+                        Map.Entry<?, ?> unchanged = previous.next();
+                        result.put(unchanged.getKey().toString(), unchanged.getValue());
+                    }
+                }
+                if (result != null) {
+                    result.put(entry.getKey().toString(), interpolated);
+                }
+                position++;
             }
-            return result;
-        }
-
-        if (value instanceof java.util.List<?> list) {
-            return list.stream()
-                    .map(item -> interpolateObject(item, context))
-                    .toList();
+            return result != null ? result : map;
+        }
+
+        if (value instanceof List<?> list) {
+            List<Object> result = null;
+            for (int i = 0; i < list.size(); i++) {
+                Object original = list.get(i);
+                Object interpolated = interpolateObject(original, context);
+                if (result == null && interpolated != original) {
+                    result = new ArrayList<>(list.subList(0, i));
+                }
+                if (result != null) {
+                    result.add(interpolated);
+                }
+            }
+            return result != null ? Collections.unmodifiableList(result) : list;
         }
 
         return value;
@@ -185,7 +221,7 @@ public class VariableInterpolator {
             return value.toString();
         }
         try {
-            return new com.fasterxml.jackson.databind.ObjectMapper().writeValueAsString(value);
+            return JSON.writeValueAsString(value);
         } catch (Exception e) {
             return value.toString();
         }
@@ -1,9 +1,6 @@
 package com.java.agentflow.workflow.engine;
 
-import com.java.agentflow.agent.Agent;
-import com.java.agentflow.agent.AgentContext;
-import com.java.agentflow.agent.AgentRegistry;
-import com.java.agentflow.agent.AgentResult;
+import com.java.agentflow.events.ExecutionEventBus;
 import com.java.agentflow.workflow.entity.StepExecution;
 import com.java.agentflow.workflow.entity.Workflow;
 import com.java.agentflow.workflow.entity.WorkflowExecution;
@@ -12,163 +9,432 @@ import com.java.agentflow.workflow.model.WorkflowDefinition;
 import com.java.agentflow.workflow.model.WorkflowDefinition.StepDefinition;
 import com.java.agentflow.workflow.parser.WorkflowParser;
 import com.java.agentflow.workflow.repository.WorkflowExecutionRepository;
+import io.micrometer.context.ContextExecutorService;
+import io.micrometer.context.ContextSnapshotFactory;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.orm.jpa.EntityManagerHolder;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 
 /**
  * Orchestrates the execution of workflows.
+ * Steps start as soon as the steps they depend on have completed, running
+ * concurrently on a shared bounded pool, or on workers across the cluster for
+ * {@code distributed} workflows. Step workers only compute results; entities
+ * are updated and saved, and progress events published, on the coordinating thread.
+ *
+ * Workflows started by a step ({@link #executeNested}) are coordinated on that
+ * step's thread and share the pool. A nested run takes a pool thread only if
+ * one is free and otherwise runs the step itself, so steps waiting for their
+ * children can never hold every thread while the children wait for one.
  */
 @Component
 public class WorkflowExecutor {
 
     private static final Logger log = LoggerFactory.getLogger(WorkflowExecutor.class);
+    private static final int MAX_CACHED_PLANS = 1024;
 
-    private final AgentRegistry agentRegistry;
+    private final StepRunner stepRunner;
     private final WorkflowParser workflowParser;
-    private final VariableInterpolator interpolator;
     private final DependencyResolver dependencyResolver;
     private final WorkflowExecutionRepository executionRepository;
+    private final RemoteStepDispatcher remoteDispatcher;
+    private final OutputBudget outputBudget;
+    private final ExecutionEventBus events;
+    private final ObservationRegistry observationRegistry;
+    private final EntityManagerFactory entityManagerFactory;
+    private final TransactionTemplate transactions;
+    private final ExecutorService stepPool;
+    /** One permit per pool thread; a step holds one while submitted to the pool. */
+    private final Semaphore poolSlots;
+    /** Parsed definitions by workflow id; workflows are never modified, only replaced. */
+    private final Map<UUID, Plan> plans = new ConcurrentHashMap<>();
+    private final int maxParallelSteps;
+    private final int maxDistributedSteps;
 
     public WorkflowExecutor(
-            AgentRegistry agentRegistry,
+            StepRunner stepRunner,
             WorkflowParser workflowParser,
-            VariableInterpolator interpolator,
-            WorkflowExecutionRepository executionRepository) {
-        this.agentRegistry = agentRegistry;
+            WorkflowExecutionRepository executionRepository,
+            ObjectProvider<RemoteStepDispatcher> remoteDispatcher,
+            OutputBudget outputBudget,
+            ExecutionEventBus events,
+            ObservationRegistry observationRegistry,
+            EntityManagerFactory entityManagerFactory,
+            PlatformTransactionManager transactionManager,
+            @Value("${agentflow.engine.step-threads:32}") int stepThreads,
+            @Value("${agentflow.engine.max-parallel-steps:8}") int maxParallelSteps,
+            @Value("${agentflow.engine.distributed.max-parallel-steps:64}") int maxDistributedSteps) {
+        this.stepRunner = stepRunner;
         this.workflowParser = workflowParser;
-        this.interpolator = interpolator;
         this.dependencyResolver = new DependencyResolver();
         this.executionRepository = executionRepository;
+        this.remoteDispatcher = remoteDispatcher.getIfAvailable();
+        this.outputBudget = outputBudget;
+        this.events = events;
+        this.observationRegistry = observationRegistry;
+        this.entityManagerFactory = entityManagerFactory;
+        this.transactions = new TransactionTemplate(transactionManager);
+        // Steps run under the workflow's observation, so their spans join its trace
+        ContextSnapshotFactory snapshots = ContextSnapshotFactory.builder().build();
+        this.stepPool = ContextExecutorService.wrap(
+                Executors.newFixedThreadPool(stepThreads, Thread.ofPlatform().name("step-", 0).factory()),
+                snapshots::captureAll);
+        this.poolSlots = new Semaphore(stepThreads, true);
+        this.maxParallelSteps = Math.max(1, maxParallelSteps);
+        this.maxDistributedSteps = Math.max(1, maxDistributedSteps);
     }
 
     @Transactional
     public WorkflowExecution execute(Workflow workflow, WorkflowExecution execution, Map<String, Object> inputs) {
-        log.info("Starting workflow: {} ({})", workflow.getName(), execution.getId());
+        return run(workflow, execution, inputs, new Run(executionRepository::save, ExecutionScope.ROOT, true));
+    }
+
+    /**
+     * Run a workflow, calling {@code beforeSave} before every write of its
+     * state. The guard stops the run by throwing {@link RunAbortedException},
+     * which propagates with nothing more written.
+     */
+    @Transactional
+    public WorkflowExecution execute(Workflow workflow, WorkflowExecution execution, Map<String, Object> inputs,
+            Runnable beforeSave) {
+        UnaryOperator<WorkflowExecution> save = e -> {
+            beforeSave.run();
+            return executionRepository.save(e);
+        };
+        return run(workflow, execution, inputs, new Run(save, ExecutionScope.ROOT, true));
+    }
+
+    /**
+     * Run a workflow without writing to the database. State stays on the
+     * in-memory execution, which the caller is responsible for keeping.
+     */
+    public WorkflowExecution executeEphemeral(Workflow workflow, WorkflowExecution execution,
+            Map<String, Object> inputs) {
+        return run(workflow, execution, inputs, new Run(UnaryOperator.identity(), ExecutionScope.ROOT, true));
+    }
 
+    /**
+     * Run a workflow on behalf of a step of the current run, on the calling
+     * thread. The child is one level deeper than the current scope and shares
+     * its deadline, shortened to {@code timeout} if that comes first. Ephemeral
+     * children touch neither the database nor the event bus.
+     *
+     * @param ephemeral whether to skip persisting the child, or null to use its definition's flag
+     */
+    public WorkflowExecution executeNested(Workflow workflow, Map<String, Object> inputs, Boolean ephemeral,
+            Duration timeout) {
+        ExecutionScope scope = ExecutionScope.current().child(timeout);
+        WorkflowExecution execution = new WorkflowExecution();
+        execution.setWorkflow(workflow);
+        execution.setInputs(inputs);
+        if (ephemeral != null ? ephemeral : plan(workflow).definition().ephemeral()) {
+            execution.setId(UUID.randomUUID());
+            return run(workflow, execution, inputs, new Run(UnaryOperator.identity(), scope, false));
+        }
+        return runInSession(() -> {
+            UnaryOperator<WorkflowExecution> save = e -> transactions.execute(status -> executionRepository.save(e));
+            return run(workflow, save.apply(execution), inputs, new Run(save, scope, true));
+        });
+    }
+
+    /**
+     * Run a nested child with its own session, in which each save commits
+     * on its own. The step's thread cannot join its parent's transaction, and
+     * one transaction for the child's whole run would hold a connection per
+     * running child; this way a connection is only taken while writing. The
+     * session keeps the child's entities managed between saves.
+     */
+    private WorkflowExecution runInSession(Supplier<WorkflowExecution> child) {
+        if (TransactionSynchronizationManager.hasResource(entityManagerFactory)) {
+            // A step run inline on a persisted child's thread, which has a session already
+            return child.get();
+        }
+        Session session = entityManagerFactory.unwrap(SessionFactory.class).withOptions()
+                .connectionHandlingMode(PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION)
+                .openSession();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(session));
         try {
-            WorkflowDefinition definition = workflowParser.parseFromMap(workflow.getDefinition());
-            List<StepDefinition> orderedSteps = dependencyResolver.resolve(definition.steps());
+            return child.get();
+        } finally {
+            TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+            session.close();
+        }
+    }
 
-            execution.markRunning();
-            execution.setInputs(inputs);
-            executionRepository.save(execution);
+    private Plan plan(Workflow workflow) {
+        Plan plan = plans.get(workflow.getId());
+        if (plan != null) {
+            return plan;
+        }
+        WorkflowDefinition definition = workflowParser.parseFromMap(workflow.getDefinition());
+        plan = new Plan(definition, dependencyResolver.resolve(definition.steps()));
+        if (plans.size() >= MAX_CACHED_PLANS) {
+            plans.clear();
+        }
+        plans.put(workflow.getId(), plan);
+        return plan;
+    }
 
-            Map<String, Map<String, Object>> stepOutputs = new HashMap<>();
+    private WorkflowExecution run(Workflow workflow, WorkflowExecution execution, Map<String, Object> inputs,
+            Run run) {
+        Observation observation = Observation.createNotStarted("agentflow.workflow", observationRegistry)
+                .contextualName("workflow " + workflow.getName())
+                .highCardinalityKeyValue("workflow.name", workflow.getName())
+                .highCardinalityKeyValue("execution.id", String.valueOf(execution.getId()))
+                .start();
+        try (Observation.Scope scope = observation.openScope()) {
+            WorkflowExecution result = runObserved(workflow, execution, inputs, run);
+            observation.lowCardinalityKeyValue("status", result.getStatus().name());
+            if (run.publishEvents()) {
+                events.executionFinished(result);
+            }
+            return result;
+        } finally {
+            observation.stop();
+        }
+    }
 
-            for (StepDefinition stepDef : orderedSteps) {
-                execution.setCurrentStep(stepDef.id());
-                executionRepository.save(execution);
+    private WorkflowExecution runObserved(Workflow workflow, WorkflowExecution execution, Map<String, Object> inputs,
+            Run run) {
+        UnaryOperator<WorkflowExecution> save = run.save();
+        if (run.scope().nested()) {
+            log.debug("Starting nested workflow: {} ({})", workflow.getName(), execution.getId());
+        } else {
+            log.info("Starting workflow: {} ({})", workflow.getName(), execution.getId());
+        }
 
-                StepExecution stepExecution = executeStep(stepDef, inputs, stepOutputs, execution);
+        try {
+            Plan plan = plan(workflow);
+            WorkflowDefinition definition = plan.definition();
+            List<StepDefinition> orderedSteps = plan.orderedSteps();
 
-                if (stepExecution.getStatus() == ExecutionStatus.FAILED) {
-                    execution.markFailed("Step failed: " + stepDef.id() + " - " + stepExecution.getError());
-                    return executionRepository.save(execution);
-                }
+            execution.markRunning();
+            execution.setInputs(inputs);
+            save.apply(execution);
+
+            boolean distributed = definition.distributed() && remoteDispatcher != null;
+            if (definition.distributed() && !distributed) {
+                log.warn("Distributed dispatch is disabled; running {} locally", workflow.getName());
+            }
 
-                // Wrap outputs in 'outputs' key so ${steps['stepId'].outputs.xxx} works
-                Map<String, Object> stepData = new HashMap<>();
-                stepData.put("outputs", stepExecution.getOutputs());
-                stepOutputs.put(stepDef.id(), stepData);
+            StepsResult result = runSteps(orderedSteps, inputs, execution, run, distributed);
+            if (result.failure() != null) {
+                execution.markFailed(result.failure());
+                return save.apply(execution);
             }
 
             Map<String, Object> workflowOutputs = new HashMap<>();
-            workflowOutputs.put("steps", stepOutputs);
+            workflowOutputs.put("steps", result.stepOutputs());
 
             execution.markCompleted(workflowOutputs);
-            log.info("Workflow completed: {}", execution.getId());
+            if (!run.scope().nested()) {
+                log.info("Workflow completed: {}", execution.getId());
+            }
 
-            return executionRepository.save(execution);
+            return save.apply(execution);
 
+        } catch (RunAbortedException e) {
+            throw e;
         } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
             log.error("Workflow execution failed: {}", execution.getId(), e);
             execution.markFailed(e.getMessage());
-            return executionRepository.save(execution);
+            return save.apply(execution);
         }
     }
 
-    private StepExecution executeStep(
-            StepDefinition stepDef,
+    /**
+     * Schedule steps in dependency order, keeping up to the parallelism limit in flight.
+     * After the first failure no new steps start; in-flight steps are allowed to finish.
+     *
+     * Each step is handed the outputs completed so far as an immutable snapshot,
+     * which costs one reference however large the outputs are. Outputs count
+     * against the output budget and may be spilled to disk; outputs over its
+     * hard limits fail their step.
+     */
+    private StepsResult runSteps(
+            List<StepDefinition> orderedSteps,
             Map<String, Object> workflowInputs,
-            Map<String, Map<String, Object>> stepOutputs,
-            WorkflowExecution workflowExecution) {
-        return executeStepWithRetry(stepDef, workflowInputs, stepOutputs, workflowExecution, null);
-    }
+            WorkflowExecution execution,
+            Run run,
+            boolean distributed) throws InterruptedException {
 
-    private StepExecution executeStepWithRetry(
-            StepDefinition stepDef,
-            Map<String, Object> workflowInputs,
-            Map<String, Map<String, Object>> stepOutputs,
-            WorkflowExecution workflowExecution,
-            StepExecution existingExecution) {
-
-        // Reuse existing execution for retries, or create new one for first attempt
-        StepExecution stepExecution;
-        if (existingExecution != null) {
-            stepExecution = existingExecution;
-            log.info("Retrying step: {} (attempt {})", stepDef.id(), stepExecution.getRetryCount() + 1);
-        } else {
-            stepExecution = new StepExecution();
-            stepExecution.setStepId(stepDef.id());
-            stepExecution.setAgentType(stepDef.agent());
-            workflowExecution.addStepExecution(stepExecution);
-            log.debug("Executing step: {} (agent: {})", stepDef.id(), stepDef.agent());
+        Map<String, Integer> pendingDependencies = new HashMap<>();
+        Map<String, List<StepDefinition>> dependents = new HashMap<>();
+        Deque<StepDefinition> ready = new ArrayDeque<>();
+        for (StepDefinition step : orderedSteps) {
+            List<String> dependsOn = step.dependsOn() != null ? step.dependsOn() : List.of();
+            pendingDependencies.put(step.id(), dependsOn.size());
+            for (String dependency : dependsOn) {
+                dependents.computeIfAbsent(dependency, k -> new ArrayList<>()).add(step);
+            }
+            if (dependsOn.isEmpty()) {
+                ready.add(step);
+            }
         }
 
-        try {
-            Agent agent = agentRegistry.getAgentOrThrow(stepDef.agent());
-
-            VariableInterpolator.InterpolationContext interpContext = new VariableInterpolator.InterpolationContext(
-                    workflowInputs, stepOutputs);
-
-            @SuppressWarnings("unchecked")
-            Map<String, Object> interpolatedConfig = (Map<String, Object>) interpolator
-                    .interpolateObject(stepDef.config(), interpContext);
-            stepExecution.setInputs(interpolatedConfig);
-            stepExecution.markRunning();
-
-            AgentContext agentContext = new AgentContext(Map.of(), interpolatedConfig);
-            AgentResult result = agent.execute(agentContext);
-
-            if (result.success()) {
-                stepExecution.markCompleted(result.outputs());
-                log.debug("Step completed: {} in {}ms", stepDef.id(), result.executionTime().toMillis());
-            } else {
-                if (shouldRetry(stepDef, stepExecution)) {
-                    // Increment retry count and sleep before retry
-                    stepExecution.incrementRetry();
-                    if (stepDef.retry() != null && stepDef.retry().delayMs() > 0) {
-                        try {
-                            Thread.sleep(stepDef.retry().delayMs());
-                        } catch (InterruptedException e) {
-                            Thread.currentThread().interrupt();
-                        }
-                    }
-                    // Recursive retry with SAME StepExecution object
-                    return executeStepWithRetry(stepDef, workflowInputs, stepOutputs, workflowExecution, stepExecution);
+        int parallelism = distributed ? maxDistributedSteps : maxParallelSteps;
+        PersistentMap<String, Map<String, Object>> stepOutputs = PersistentMap.empty();
+        // References to large outputs kept by remote workers, passed on to dependent steps
+        Map<String, String> outputRefs = new HashMap<>();
+        BlockingQueue<FinishedStep> finished = new LinkedBlockingQueue<>();
+        int inFlight = 0;
+        String failure = null;
+
+        OutputBudget.ExecutionOutputs budget = outputBudget.open(execution.getId());
+        while (inFlight > 0 || (failure == null && !ready.isEmpty())) {
+            while (failure == null && !ready.isEmpty() && inFlight < parallelism) {
+                StepDefinition stepDef = ready.poll();
+                execution.setCurrentStep(stepDef.id());
+
+                // Attached to the execution once finished, so a save never copies it mid-run
+                StepExecution stepExecution = new StepExecution();
+                stepExecution.setStepId(stepDef.id());
+                stepExecution.setAgentType(stepDef.agent());
+                stepExecution.markRunning();
+                if (run.publishEvents()) {
+                    events.stepStarted(execution, stepDef.id(), stepDef.agent());
                 }
-                stepExecution.markFailed(result.error());
-                log.warn("Step failed: {} - {}", stepDef.id(), result.error());
+
+                log.debug("Executing step: {} (agent: {})", stepDef.id(), stepDef.agent());
+                PersistentMap<String, Map<String, Object>> snapshot = stepOutputs;
+                CompletableFuture<StepOutcome> outcome = distributed
+                        ? remoteDispatcher.dispatch(execution.getId(), stepDef, workflowInputs, snapshot,
+                                Map.copyOf(outputRefs), run.scope())
+                        : runLocal(() -> stepRunner.run(stepDef, workflowInputs, snapshot), run.scope());
+                outcome.whenComplete((result, error) -> finished.add(new FinishedStep(stepExecution,
+                        result != null ? result : failedOutcome(stepExecution, error))));
+                inFlight++;
             }
 
-        } catch (Exception e) {
-            log.error("Step execution error: {}", stepDef.id(), e);
-            stepExecution.markFailed(e.getMessage());
+            FinishedStep done = run.scope().take(finished);
+            if (done == null) {
+                // In-flight steps run on, but their outcomes are no longer recorded
+                failure = "Deadline exceeded with " + inFlight + " steps still running";
+                break;
+            }
+            inFlight--;
+            StepExecution stepExecution = done.stepExecution();
+            StepOutcome outcome = admit(done.outcome(), stepExecution.getStepId(), budget);
+            outcome.applyTo(stepExecution);
+            execution.addStepExecution(stepExecution);
+            run.save().apply(execution);
+            if (run.publishEvents()) {
+                events.stepFinished(execution, stepExecution);
+            }
+
+            if (stepExecution.getStatus() == ExecutionStatus.FAILED) {
+                if (failure == null) {
+                    failure = "Step failed: " + stepExecution.getStepId() + " - " + stepExecution.getError();
+                }
+                continue;
+            }
+            if (outcome.outputRef() != null) {
+                outputRefs.put(stepExecution.getStepId(), outcome.outputRef());
+            }
+
+            // Wrap outputs in 'outputs' key so ${steps['stepId'].outputs.xxx} works
+            stepOutputs = stepOutputs.with(stepExecution.getStepId(),
+                    Collections.singletonMap("outputs", stepExecution.getOutputs()));
+
+            for (StepDefinition dependent : dependents.getOrDefault(stepExecution.getStepId(), List.of())) {
+                if (pendingDependencies.merge(dependent.id(), -1, Integer::sum) == 0) {
+                    ready.add(dependent);
+                }
+            }
         }
+        return new StepsResult(failure, stepOutputs);
+    }
 
-        return stepExecution;
+    /**
+     * Run a step on the shared pool with the run's scope as the current one.
+     * Top-level runs wait for a free thread; nested runs already hold one, so
+     * they run the step inline instead of waiting.
+     */
+    private CompletableFuture<StepOutcome> runLocal(Supplier<StepOutcome> step, ExecutionScope scope)
+            throws InterruptedException {
+        Supplier<StepOutcome> scoped = () -> scope.call(step);
+        if (scope.nested()) {
+            if (!poolSlots.tryAcquire()) {
+                try {
+                    return CompletableFuture.completedFuture(scoped.get());
+                } catch (RuntimeException e) {
+                    return CompletableFuture.failedFuture(e);
+                }
+            }
+        } else {
+            poolSlots.acquire();
+        }
+        try {
+            return CompletableFuture.supplyAsync(scoped, stepPool).whenComplete((outcome, error) -> poolSlots.release());
+        } catch (RuntimeException e) {
+            poolSlots.release();
+            throw e;
+        }
     }
 
-    private boolean shouldRetry(StepDefinition stepDef, StepExecution stepExecution) {
-        if (stepDef.retry() == null) {
-            return false;
+    private static StepOutcome admit(StepOutcome outcome, String stepId, OutputBudget.ExecutionOutputs budget) {
+        if (!outcome.success()) {
+            return outcome;
         }
-        return stepExecution.getRetryCount() < stepDef.retry().maxRetries();
+        try {
+            return outcome.withOutputs(budget.admit(stepId, outcome.outputs()));
+        } catch (RuntimeException e) {
+            log.warn("Outputs of step {} not admitted: {}", stepId, e.getMessage());
+            return StepOutcome.failed(outcome.inputs(), e.getMessage(), outcome.retries(), outcome.startedAt());
+        }
+    }
+
+    private static StepOutcome failedOutcome(StepExecution stepExecution, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        String message = cause.getMessage() != null ? cause.getMessage() : cause.toString();
+        return StepOutcome.failed(null, message, stepExecution.getRetryCount(), stepExecution.getStartedAt());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stepPool.shutdownNow();
+    }
+
+    private record FinishedStep(StepExecution stepExecution, StepOutcome outcome) {
+    }
+
+    /**
+     * @param save          persists the execution, or leaves it in memory for ephemeral runs
+     * @param publishEvents whether progress is published; off for ephemeral nested runs, whose ids nobody knows
+     */
+    private record Run(UnaryOperator<WorkflowExecution> save, ExecutionScope scope, boolean publishEvents) {
+    }
+
+    private record Plan(WorkflowDefinition definition, List<StepDefinition> orderedSteps) {
+    }
+
+    /**
+     * @param failure     the failure message, or null if every step completed
+     * @param stepOutputs outputs of the completed steps, keyed by step id
+     */
+    private record StepsResult(String failure, Map<String, Map<String, Object>> stepOutputs) {
     }
 }
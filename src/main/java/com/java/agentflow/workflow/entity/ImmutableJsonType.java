@@ -0,0 +1,257 @@
+package com.java.agentflow.workflow.entity;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.StreamReadConstraints;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.hibernate.HibernateException;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.type.SqlTypes;
+import org.hibernate.usertype.UserType;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Serializable;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * JSONB mapping for output maps that are set once and never changed in place.
+ * Unlike the built-in JSON mapping, Hibernate keeps the map itself instead of
+ * a deep copy (serialized and parsed again) on persist, merge and in its
+ * snapshots, so large or spilled outputs are not duplicated on the heap.
+ *
+ * Values are bound as UTF-8 bytes and converted to JSONB by the database (see
+ * {@link #WRITE}). Maps holding spilled outputs ({@link JsonFile}) are streamed
+ * to the database from a file, so persisting them does not load them either.
+ */
+public class ImmutableJsonType implements UserType<Map<String, Object>> {
+
+    /**
+     * Write expression for the mapped columns, turning the bound bytes into JSONB.
+     */
+    public static final String WRITE = "convert_from(?, 'UTF8')::jsonb";
+
+    private static final TypeReference<Map<String, Object>> MAP = new TypeReference<>() {
+    };
+
+    // Output size is bounded by the output budget, not by Jackson's default 20MB string limit
+    private static final ObjectMapper JSON = new ObjectMapper().findAndRegisterModules();
+
+    static {
+        JSON.getFactory().setStreamReadConstraints(StreamReadConstraints.builder()
+                .maxStringLength(Integer.MAX_VALUE)
+                .build());
+        JSON.registerModule(new SimpleModule().addSerializer(JsonFile.class, new JsonFileSerializer()));
+    }
+
+    @Override
+    public int getSqlType() {
+        return SqlTypes.JSON;
+    }
+
+    @Override
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public Class<Map<String, Object>> returnedClass() {
+        return (Class) Map.class;
+    }
+
+    @Override
+    public boolean equals(Map<String, Object> x, Map<String, Object> y) {
+        return Objects.equals(x, y);
+    }
+
+    @Override
+    public int hashCode(Map<String, Object> x) {
+        return Objects.hashCode(x);
+    }
+
+    @Override
+    public Map<String, Object> nullSafeGet(ResultSet rs, int position, SharedSessionContractImplementor session,
+            Object owner) throws SQLException {
+        String json = rs.getString(position);
+        if (json == null) {
+            return null;
+        }
+        try {
+            return JSON.readValue(json, MAP);
+        } catch (JsonProcessingException e) {
+            throw new HibernateException("Cannot read JSON column", e);
+        }
+    }
+
+    @Override
+    public void nullSafeSet(PreparedStatement st, Map<String, Object> value, int index,
+            SharedSessionContractImplementor session) throws SQLException {
+        if (value == null) {
+            st.setNull(index, Types.BINARY);
+            return;
+        }
+        try {
+            if (value instanceof JsonFile spilled) {
+                bindFile(st, index, spilled.jsonFile(), false);
+            } else if (holdsJsonFile(value)) {
+                bindFile(st, index, spool(value), true);
+            } else {
+                st.setBytes(index, JSON.writeValueAsBytes(value));
+            }
+        } catch (IOException e) {
+            throw new HibernateException("Cannot write JSON column", e);
+        }
+    }
+
+    @Override
+    public Map<String, Object> deepCopy(Map<String, Object> value) {
+        return value;
+    }
+
+    @Override
+    public boolean isMutable() {
+        return false;
+    }
+
+    @Override
+    public Serializable disassemble(Map<String, Object> value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return JSON.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new HibernateException("Cannot cache JSON column", e);
+        }
+    }
+
+    @Override
+    public Map<String, Object> assemble(Serializable cached, Object owner) {
+        if (cached == null) {
+            return null;
+        }
+        try {
+            return JSON.readValue((String) cached, MAP);
+        } catch (JsonProcessingException e) {
+            throw new HibernateException("Cannot read cached JSON column", e);
+        }
+    }
+
+    private static boolean holdsJsonFile(Map<?, ?> map) {
+        for (Object value : map.values()) {
+            if (value instanceof JsonFile || value instanceof Map<?, ?> nested && holdsJsonFile(nested)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Serialize a map holding spilled outputs to a temporary file, copying
+     * the spilled files into it as they are.
+     */
+    private static Path spool(Map<String, Object> value) throws IOException {
+        Path file = Files.createTempFile("agentflow-outputs-", ".json");
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+            JSON.writeValue(out, value);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return file;
+    }
+
+    /**
+     * Bind a file as a stream; the driver reads it while sending the statement.
+     */
+    private static void bindFile(PreparedStatement st, int index, Path file, boolean temporary)
+            throws IOException, SQLException {
+        long length = Files.size(file);
+        if (length > Integer.MAX_VALUE) {
+            throw new HibernateException("JSON column of " + length + " bytes is too large");
+        }
+        InputStream in = temporary
+                ? Files.newInputStream(file, StandardOpenOption.DELETE_ON_CLOSE)
+                : Files.newInputStream(file);
+        st.setBinaryStream(index, new ClosingInputStream(in, length), (int) length);
+    }
+
+    /**
+     * Writes a spilled file into the JSON being generated without parsing it.
+     */
+    private static final class JsonFileSerializer extends StdSerializer<JsonFile> {
+
+        private JsonFileSerializer() {
+            super(JsonFile.class);
+        }
+
+        @Override
+        public void serialize(JsonFile value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            // An empty raw value writes the separator before it; the file's JSON follows
+            gen.writeRawValue("");
+            gen.flush();
+            Object target = gen.getOutputTarget();
+            if (target instanceof OutputStream out) {
+                Files.copy(value.jsonFile(), out);
+            } else {
+                try (Reader reader = Files.newBufferedReader(value.jsonFile())) {
+                    reader.transferTo((Writer) target);
+                }
+            }
+        }
+    }
+
+    /**
+     * Closes the file once the driver has read all of it, as the driver reads
+     * exactly the bound length and never closes the stream itself.
+     */
+    private static final class ClosingInputStream extends FilterInputStream {
+
+        private long remaining;
+
+        private ClosingInputStream(InputStream in, long length) {
+            super(in);
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = super.read();
+            consumed(b < 0 ? -1 : 1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int n = super.read(b, off, len);
+            consumed(n);
+            return n;
+        }
+
+        private void consumed(long n) throws IOException {
+            remaining -= Math.max(n, 0);
+            if (n < 0 || remaining <= 0) {
+                close();
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.java.agentflow.workflow.entity;
+
+import java.nio.file.Path;
+
+/**
+ * An output map whose JSON is already in a local file. {@link ImmutableJsonType}
+ * copies the file into the column instead of serializing the map on the heap.
+ */
+public interface JsonFile {
+
+    Path jsonFile();
+}
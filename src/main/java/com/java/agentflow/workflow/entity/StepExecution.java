@@ -1,8 +1,11 @@
 package com.java.agentflow.workflow.entity;
 
+import com.java.agentflow.datasource.ExecutionWriteListener;
 import com.java.agentflow.workflow.model.ExecutionStatus;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnTransformer;
 import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.Type;
 import org.hibernate.type.SqlTypes;
 
 import java.time.Instant;
@@ -13,6 +16,7 @@ import java.util.UUID;
  * JPA entity tracking individual step execution within a workflow.
  */
 @Entity
+@EntityListeners(ExecutionWriteListener.class)
 @Table(name = "step_executions")
 public class StepExecution {
 
@@ -24,6 +28,10 @@ public class StepExecution {
     @JoinColumn(name = "execution_id", nullable = false)
     private WorkflowExecution execution;
 
+    // Copy of the execution's partition key so steps live in the matching partition
+    @Column(name = "execution_created_at", nullable = false, updatable = false)
+    private Instant executionCreatedAt;
+
     @Column(name = "step_id", nullable = false)
     private String stepId;
 
@@ -38,7 +46,9 @@ public class StepExecution {
     @Column(columnDefinition = "jsonb")
     private Map<String, Object> inputs;
 
-    @JdbcTypeCode(SqlTypes.JSON)
+    // Set once when the step finishes; may be spilled to disk (see OutputBudget)
+    @Type(ImmutableJsonType.class)
+    @ColumnTransformer(write = ImmutableJsonType.WRITE)
     @Column(columnDefinition = "jsonb")
     private Map<String, Object> outputs;
 
@@ -54,6 +64,11 @@ public class StepExecution {
     @Column(name = "retry_count")
     private int retryCount = 0;
 
+    @PrePersist
+    protected void onCreate() {
+        executionCreatedAt = execution.getCreatedAt();
+    }
+
     // Helper methods
     public void markRunning() {
         this.status = ExecutionStatus.RUNNING;
@@ -94,6 +109,10 @@ public class StepExecution {
         this.execution = execution;
     }
 
+    public Instant getExecutionCreatedAt() {
+        return executionCreatedAt;
+    }
+
     public String getStepId() {
         return stepId;
     }
@@ -138,10 +157,18 @@ public class StepExecution {
         return startedAt;
     }
 
+    public void setStartedAt(Instant startedAt) {
+        this.startedAt = startedAt;
+    }
+
     public Instant getCompletedAt() {
         return completedAt;
     }
 
+    public void setCompletedAt(Instant completedAt) {
+        this.completedAt = completedAt;
+    }
+
     public String getError() {
         return error;
     }
@@ -153,4 +180,8 @@ public class StepExecution {
     public int getRetryCount() {
         return retryCount;
     }
+
+    public void setRetryCount(int retryCount) {
+        this.retryCount = retryCount;
+    }
 }
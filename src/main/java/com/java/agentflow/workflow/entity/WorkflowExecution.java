@@ -1,11 +1,15 @@
 package com.java.agentflow.workflow.entity;
 
+import com.java.agentflow.datasource.ExecutionWriteListener;
 import com.java.agentflow.workflow.model.ExecutionStatus;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnTransformer;
 import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.Type;
 import org.hibernate.type.SqlTypes;
 
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -15,6 +19,7 @@ import java.util.UUID;
  * JPA entity tracking workflow execution state.
  */
 @Entity
+@EntityListeners(ExecutionWriteListener.class)
 @Table(name = "workflow_executions")
 public class WorkflowExecution {
 
@@ -34,7 +39,9 @@ public class WorkflowExecution {
     @Column(columnDefinition = "jsonb")
     private Map<String, Object> inputs;
 
-    @JdbcTypeCode(SqlTypes.JSON)
+    // Set once on completion; holds the step outputs, possibly spilled (see OutputBudget)
+    @Type(ImmutableJsonType.class)
+    @ColumnTransformer(write = ImmutableJsonType.WRITE)
     @Column(columnDefinition = "jsonb")
     private Map<String, Object> outputs;
 
@@ -50,7 +57,12 @@ public class WorkflowExecution {
     @Column(columnDefinition = "TEXT")
     private String error;
 
-    @Column(name = "created_at")
+    // Webhook told about the terminal state, if the caller asked for one
+    @Column(name = "callback_url", columnDefinition = "TEXT")
+    private String callbackUrl;
+
+    // Partition key; part of the table's primary key together with id
+    @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
 
     @OneToMany(mappedBy = "execution", cascade = CascadeType.ALL, orphanRemoval = true)
@@ -59,7 +71,8 @@ public class WorkflowExecution {
 
     @PrePersist
     protected void onCreate() {
-        createdAt = Instant.now();
+        // Postgres stores microseconds; truncate so step rows reference the exact stored value
+        createdAt = Instant.now().truncatedTo(ChronoUnit.MICROS);
     }
 
     // Helper methods
@@ -80,6 +93,19 @@ public class WorkflowExecution {
         this.completedAt = Instant.now();
     }
 
+    /**
+     * Reset to a queued state for another run, discarding the previous run's steps.
+     */
+    public void markPending() {
+        this.status = ExecutionStatus.PENDING;
+        this.outputs = null;
+        this.currentStep = null;
+        this.error = null;
+        this.startedAt = null;
+        this.completedAt = null;
+        this.stepExecutions.clear();
+    }
+
     // Getters and setters
     public UUID getId() {
         return id;
@@ -133,10 +159,18 @@ public class WorkflowExecution {
         return startedAt;
     }
 
+    public void setStartedAt(Instant startedAt) {
+        this.startedAt = startedAt;
+    }
+
     public Instant getCompletedAt() {
         return completedAt;
     }
 
+    public void setCompletedAt(Instant completedAt) {
+        this.completedAt = completedAt;
+    }
+
     public String getError() {
         return error;
     }
@@ -145,6 +179,14 @@ public class WorkflowExecution {
         this.error = error;
     }
 
+    public String getCallbackUrl() {
+        return callbackUrl;
+    }
+
+    public void setCallbackUrl(String callbackUrl) {
+        this.callbackUrl = callbackUrl;
+    }
+
     public Instant getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,22 @@
+package com.java.agentflow.workflow.model;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated list. {@code nextCursor} is null on the last page.
+ */
+public record CursorPage<T>(List<T> content, String nextCursor) {
+
+    /**
+     * Build a page from {@code size + 1} fetched rows; the extra row only signals
+     * that another page exists.
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int size, Function<T, Cursor> cursorOf) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> content = rows.subList(0, size);
+        return new CursorPage<>(List.copyOf(content), cursorOf.apply(content.get(size - 1)).encode());
+    }
+}
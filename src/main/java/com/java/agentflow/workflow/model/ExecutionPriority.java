@@ -0,0 +1,25 @@
+package com.java.agentflow.workflow.model;
+
+/**
+ * Priority lane for async executions.
+ * Each lane is backed by its own topic so batch backlogs never block interactive runs.
+ */
+public enum ExecutionPriority {
+    INTERACTIVE, // Latency-sensitive, user-facing runs
+    NORMAL, // Default lane
+    BATCH; // Bulk submissions that can tolerate queueing
+
+    /**
+     * Parse a priority name case-insensitively, returning null for blank values.
+     */
+    public static ExecutionPriority parse(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown priority: " + value);
+        }
+    }
+}
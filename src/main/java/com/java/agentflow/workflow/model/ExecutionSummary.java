@@ -0,0 +1,18 @@
+package com.java.agentflow.workflow.model;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Execution list row, projected without inputs, outputs or steps.
+ */
+public record ExecutionSummary(
+        UUID id,
+        UUID workflowId,
+        ExecutionStatus status,
+        String currentStep,
+        String error,
+        Instant startedAt,
+        Instant completedAt,
+        Instant createdAt) {
+}
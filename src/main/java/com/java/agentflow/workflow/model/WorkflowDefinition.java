@@ -1,16 +1,25 @@
 package com.java.agentflow.workflow.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.List;
 import java.util.Map;
 
 /**
  * Represents a parsed workflow definition.
+ * {@code ephemeral} workflows run synchronously without persisting execution state.
+ * {@code distributed} workflows dispatch their steps to workers across the cluster.
+ * Workflows with a {@code schedule} are also started by the scheduler.
  */
 public record WorkflowDefinition(
         String name,
         String version,
         String description,
-        List<StepDefinition> steps) {
+        List<StepDefinition> steps,
+        ExecutionPriority priority,
+        boolean ephemeral,
+        boolean distributed,
+        @JsonInclude(JsonInclude.Include.NON_NULL) ScheduleDefinition schedule) {
 
     public void validate() {
         if (name == null || name.isBlank()) {
@@ -46,7 +55,8 @@ public record WorkflowDefinition(
             String agent,
             Map<String, Object> config,
             List<String> dependsOn,
-            RetryConfig retry) {
+            RetryConfig retry,
+            Boolean coalesce) {
         public void validate() {
             if (id == null || id.isBlank()) {
                 throw new IllegalArgumentException("Step ID is required");
@@ -61,6 +71,22 @@ public record WorkflowDefinition(
         }
     }
 
+    /**
+     * When the scheduler starts the workflow: on a cron expression (six fields,
+     * seconds first) in {@code zone}, or every {@code interval}. Each fire is
+     * delayed by up to {@code jitter}. Durations are ISO-8601 strings.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record ScheduleDefinition(
+            String cron,
+            String interval,
+            String jitter,
+            String zone,
+            Map<String, Object> inputs,
+            ExecutionPriority priority,
+            String tenantId) {
+    }
+
     public record RetryConfig(
             int maxRetries,
             long delayMs) {
@@ -0,0 +1,16 @@
+package com.java.agentflow.workflow.model;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Workflow list row, projected without the definition JSONB.
+ */
+public record WorkflowSummary(
+        UUID id,
+        String name,
+        String version,
+        String description,
+        Instant createdAt,
+        String createdBy) {
+}
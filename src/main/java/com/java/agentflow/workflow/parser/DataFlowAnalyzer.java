@@ -0,0 +1,151 @@
+package com.java.agentflow.workflow.parser;
+
+import com.java.agentflow.workflow.model.WorkflowDefinition.StepDefinition;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Static data-flow pass over step configs. Every {@code ${steps...}} reference
+ * becomes a dependency edge, so steps only wait for the steps whose outputs they
+ * actually read. References to unknown steps, to a step's own outputs, or that
+ * form a cycle are rejected when the workflow is registered instead of failing
+ * at runtime.
+ */
+final class DataFlowAnalyzer {
+
+    private static final Pattern VARIABLE_PATTERN = Pattern.compile("\\$\\{([^}]+)}");
+
+    /**
+     * Returns the steps with {@code dependsOn} set to the declared dependencies
+     * plus every step referenced from the config.
+     */
+    List<StepDefinition> analyze(List<StepDefinition> steps) {
+        Set<String> stepIds = new HashSet<>();
+        for (StepDefinition step : steps) {
+            stepIds.add(step.id());
+        }
+
+        Map<String, Set<String>> graph = new LinkedHashMap<>();
+        for (StepDefinition step : steps) {
+            Set<String> dependencies = new LinkedHashSet<>();
+            if (step.dependsOn() != null) {
+                dependencies.addAll(step.dependsOn());
+            }
+            for (String reference : references(step.config())) {
+                if (reference.equals(step.id())) {
+                    throw new WorkflowParseException("Step '" + step.id() + "' references its own outputs");
+                }
+                if (!stepIds.contains(reference)) {
+                    throw new WorkflowParseException(
+                            "Step '" + step.id() + "' references unknown step: " + reference);
+                }
+                dependencies.add(reference);
+            }
+            graph.put(step.id(), dependencies);
+        }
+
+        checkAcyclic(graph);
+
+        List<StepDefinition> analyzed = new ArrayList<>(steps.size());
+        for (StepDefinition step : steps) {
+            Set<String> dependencies = graph.get(step.id());
+            analyzed.add(new StepDefinition(
+                    step.id(),
+                    step.agent(),
+                    step.config(),
+                    dependencies.isEmpty() ? null : List.copyOf(dependencies),
+                    step.retry(),
+                    step.coalesce()));
+        }
+        return analyzed;
+    }
+
+    /**
+     * Step ids referenced anywhere in a config value, in order of first appearance.
+     */
+    static Set<String> references(Object value) {
+        Set<String> references = new LinkedHashSet<>();
+        collect(value, references);
+        return references;
+    }
+
+    private static void collect(Object value, Set<String> references) {
+        if (value instanceof String str) {
+            if (!str.contains("${")) {
+                return;
+            }
+            Matcher matcher = VARIABLE_PATTERN.matcher(str);
+            while (matcher.find()) {
+                String stepId = referencedStep(matcher.group(1).trim());
+                if (stepId != null) {
+                    references.add(stepId);
+                }
+            }
+        } else if (value instanceof Map<?, ?> map) {
+            map.values().forEach(v -> collect(v, references));
+        } else if (value instanceof List<?> list) {
+            list.forEach(v -> collect(v, references));
+        }
+    }
+
+    /**
+     * Step id of a {@code steps['id']...} or {@code steps.id...} expression, or null
+     * for any other variable. Mirrors the syntax accepted by VariableInterpolator.
+     */
+    private static String referencedStep(String expression) {
+        if (expression.startsWith("steps['")) {
+            int end = expression.indexOf("']");
+            if (end == -1) {
+                throw new WorkflowParseException("Invalid step reference: " + expression);
+            }
+            return expression.substring("steps['".length(), end);
+        }
+        if (expression.startsWith("steps.")) {
+            String remaining = expression.substring("steps.".length());
+            int dot = remaining.indexOf('.');
+            return dot == -1 ? remaining : remaining.substring(0, dot);
+        }
+        return null;
+    }
+
+    private static void checkAcyclic(Map<String, Set<String>> graph) {
+        Set<String> done = new HashSet<>();
+        Deque<String> path = new ArrayDeque<>();
+        for (String stepId : graph.keySet()) {
+            visit(stepId, graph, done, path);
+        }
+    }
+
+    private static void visit(String stepId, Map<String, Set<String>> graph, Set<String> done, Deque<String> path) {
+        if (done.contains(stepId)) {
+            return;
+        }
+        if (path.contains(stepId)) {
+            List<String> cycle = new ArrayList<>();
+            Iterator<String> it = path.descendingIterator();
+            boolean inCycle = false;
+            while (it.hasNext()) {
+                String id = it.next();
+                inCycle |= id.equals(stepId);
+                if (inCycle) {
+                    cycle.add(id);
+                }
+            }
+            cycle.add(stepId);
+            throw new WorkflowParseException("Cyclic step dependencies: " + String.join(" -> ", cycle));
+        }
+        Set<String> dependencies = graph.get(stepId);
+        if (dependencies == null) {
+            // Unknown declared dependency; reported by WorkflowDefinition.validate
+            return;
+        }
+        path.push(stepId);
+        for (String dependency : dependencies) {
+            visit(dependency, graph, done, path);
+        }
+        path.pop();
+        done.add(stepId);
+    }
+}
@@ -4,11 +4,18 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.java.agentflow.workflow.model.ExecutionPriority;
 import com.java.agentflow.workflow.model.WorkflowDefinition;
 import com.java.agentflow.workflow.model.WorkflowDefinition.RetryConfig;
+import com.java.agentflow.workflow.model.WorkflowDefinition.ScheduleDefinition;
 import com.java.agentflow.workflow.model.WorkflowDefinition.StepDefinition;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.scheduling.support.CronExpression;
 import org.springframework.stereotype.Component;
 
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -21,9 +28,11 @@ public class WorkflowParser {
 
     private static final int MAX_YAML_SIZE = 1024 * 100; // 100KB
     private static final int MAX_STEPS = 100;
+    private static final Duration MIN_SCHEDULE_INTERVAL = Duration.ofSeconds(1);
 
     private final ObjectMapper yamlMapper;
     private final ObjectMapper jsonMapper;
+    private final DataFlowAnalyzer dataFlowAnalyzer = new DataFlowAnalyzer();
 
     public WorkflowParser() {
         this.yamlMapper = new ObjectMapper(new YAMLFactory())
@@ -65,6 +74,10 @@ public class WorkflowParser {
         String name = getString(definition, "name");
         String version = getStringOrDefault(definition, "version", "1.0");
         String description = getStringOrDefault(definition, "description", null);
+        ExecutionPriority priority = parsePriority(definition.get("priority"));
+        boolean ephemeral = Boolean.TRUE.equals(parseFlag(definition.get("ephemeral"), "ephemeral"));
+        boolean distributed = Boolean.TRUE.equals(parseFlag(definition.get("distributed"), "distributed"));
+        ScheduleDefinition schedule = parseSchedule(definition.get("schedule"));
 
         @SuppressWarnings("unchecked")
         List<Map<String, Object>> rawSteps = (List<Map<String, Object>>) definition.get("steps");
@@ -82,10 +95,90 @@ public class WorkflowParser {
             steps.add(parseStep(rawStep));
         }
 
-        WorkflowDefinition workflow = new WorkflowDefinition(name, version, description, steps);
+        WorkflowDefinition workflow = new WorkflowDefinition(name, version, description, steps, priority, ephemeral,
+                distributed, schedule);
         workflow.validate();
 
-        return workflow;
+        // Add the dependencies implied by ${steps...} references
+        return new WorkflowDefinition(name, version, description,
+                dataFlowAnalyzer.analyze(steps), priority, ephemeral, distributed, schedule);
+    }
+
+    /**
+     * Parse and normalize a schedule: five-field cron expressions get a seconds
+     * field, and durations such as {@code 30s} or {@code PT30S} become ISO-8601.
+     */
+    public ScheduleDefinition parseSchedule(Object scheduleObj) {
+        if (scheduleObj == null) {
+            return null;
+        }
+        if (!(scheduleObj instanceof Map<?, ?>)) {
+            throw new WorkflowParseException("schedule must be a map");
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, Object> raw = (Map<String, Object>) scheduleObj;
+
+        String cron = getStringOrDefault(raw, "cron", null);
+        Duration interval = parseDuration(raw, "interval");
+        if ((cron == null) == (interval == null)) {
+            throw new WorkflowParseException("schedule needs exactly one of cron and interval");
+        }
+        if (cron != null) {
+            cron = cron.trim();
+            if (cron.split("\\s+").length == 5) {
+                cron = "0 " + cron;
+            }
+            try {
+                CronExpression.parse(cron);
+            } catch (IllegalArgumentException e) {
+                throw new WorkflowParseException("Invalid schedule cron '" + cron + "': " + e.getMessage());
+            }
+        }
+        if (interval != null && interval.compareTo(MIN_SCHEDULE_INTERVAL) < 0) {
+            throw new WorkflowParseException("schedule interval must be at least " + MIN_SCHEDULE_INTERVAL);
+        }
+
+        Duration jitter = parseDuration(raw, "jitter");
+        if (jitter != null && jitter.isNegative()) {
+            throw new WorkflowParseException("schedule jitter cannot be negative");
+        }
+
+        String zone = getStringOrDefault(raw, "zone", null);
+        if (zone != null) {
+            try {
+                zone = ZoneId.of(zone).getId();
+            } catch (DateTimeException e) {
+                throw new WorkflowParseException("Invalid schedule zone: " + zone);
+            }
+        }
+
+        Object inputsObj = raw.get("inputs");
+        if (inputsObj != null && !(inputsObj instanceof Map<?, ?>)) {
+            throw new WorkflowParseException("schedule inputs must be a map");
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, Object> inputs = (Map<String, Object>) inputsObj;
+
+        return new ScheduleDefinition(
+                cron,
+                interval != null ? interval.toString() : null,
+                jitter != null ? jitter.toString() : null,
+                zone,
+                inputs,
+                parsePriority(raw.get("priority")),
+                getStringOrDefault(raw, "tenantId", null));
+    }
+
+    private Duration parseDuration(Map<String, Object> map, String key) {
+        Object value = map.get(key);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return DurationStyle.detectAndParse(value.toString());
+        } catch (IllegalArgumentException e) {
+            throw new WorkflowParseException("Invalid schedule " + key + ": " + value);
+        }
     }
 
     private StepDefinition parseStep(Map<String, Object> rawStep) {
@@ -100,7 +193,9 @@ public class WorkflowParser {
 
         RetryConfig retry = parseRetryConfig(rawStep.get("retry"));
 
-        return new StepDefinition(id, agent, config, dependsOn, retry);
+        Boolean coalesce = parseFlag(rawStep.get("coalesce"), "step " + id + " coalesce");
+
+        return new StepDefinition(id, agent, config, dependsOn, retry, coalesce);
     }
 
     private RetryConfig parseRetryConfig(Object retryObj) {
@@ -117,6 +212,32 @@ public class WorkflowParser {
         return new RetryConfig(maxRetries, delayMs);
     }
 
+    private ExecutionPriority parsePriority(Object priorityObj) {
+        if (priorityObj == null) {
+            return null;
+        }
+        try {
+            return ExecutionPriority.parse(priorityObj.toString());
+        } catch (IllegalArgumentException e) {
+            throw new WorkflowParseException(e.getMessage());
+        }
+    }
+
+    /**
+     * A true/false flag, or null if absent. Anything else is rejected rather
+     * than read as false, so a typo does not silently turn a setting off.
+     */
+    public static Boolean parseFlag(Object value, String field) {
+        if (value == null || value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        String text = value.toString().trim();
+        if (text.equalsIgnoreCase("true") || text.equalsIgnoreCase("false")) {
+            return Boolean.valueOf(text);
+        }
+        throw new WorkflowParseException(field + " must be true or false: " + value);
+    }
+
     private String getString(Map<String, Object> map, String key) {
         Object value = map.get(key);
         if (value == null) {
@@ -2,11 +2,16 @@ package com.java.agentflow.workflow.repository;
 
 import com.java.agentflow.workflow.entity.WorkflowExecution;
 import com.java.agentflow.workflow.model.ExecutionStatus;
+import com.java.agentflow.workflow.model.ExecutionSummary;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 
@@ -21,6 +26,48 @@ public interface WorkflowExecutionRepository extends JpaRepository<WorkflowExecu
      */
     Page<WorkflowExecution> findByWorkflowIdOrderByCreatedAtDesc(UUID workflowId, Pageable pageable);
 
+    /**
+     * First page of recent execution summaries for a workflow, newest first.
+     * The created_at bound lets Postgres prune every partition older than {@code since}.
+     */
+    @Query("""
+            SELECT new com.java.agentflow.workflow.model.ExecutionSummary(
+                e.id, e.workflow.id, e.status, e.currentStep, e.error, e.startedAt, e.completedAt, e.createdAt)
+            FROM WorkflowExecution e
+            WHERE e.workflow.id = :workflowId AND e.createdAt >= :since
+            ORDER BY e.createdAt DESC, e.id DESC
+            """)
+    List<ExecutionSummary> findSummaries(UUID workflowId, Instant since, Limit limit);
+
+    /**
+     * Recent execution summaries after a keyset position, newest first.
+     */
+    @Query("""
+            SELECT new com.java.agentflow.workflow.model.ExecutionSummary(
+                e.id, e.workflow.id, e.status, e.currentStep, e.error, e.startedAt, e.completedAt, e.createdAt)
+            FROM WorkflowExecution e
+            WHERE e.workflow.id = :workflowId AND e.createdAt >= :since
+              AND (e.createdAt, e.id) < (:createdAt, :id)
+            ORDER BY e.createdAt DESC, e.id DESC
+            """)
+    List<ExecutionSummary> findSummariesBefore(UUID workflowId, Instant since, Instant createdAt, UUID id,
+            Limit limit);
+
+    /**
+     * Claim a failed or pending execution for re-driving a dead letter parked at
+     * {@code deadLetteredAt}. Succeeds once per dead letter, however many jobs
+     * or nodes try; concurrent claims wait on the row and then see it claimed.
+     *
+     * @return 1 if claimed, 0 if the execution is gone, not re-drivable, or already re-driven since
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE workflow_executions SET redriven_at = CURRENT_TIMESTAMP
+            WHERE id = :id AND status IN ('FAILED', 'PENDING')
+              AND (redriven_at IS NULL OR redriven_at < :deadLetteredAt)
+            """, nativeQuery = true)
+    int claimForRedrive(UUID id, Instant deadLetteredAt);
+
     /**
      * Find executions by status.
      */
@@ -1,9 +1,14 @@
 package com.java.agentflow.workflow.repository;
 
 import com.java.agentflow.workflow.entity.Workflow;
+import com.java.agentflow.workflow.model.WorkflowSummary;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -28,4 +33,27 @@ public interface WorkflowRepository extends JpaRepository<Workflow, UUID> {
      * Check if a workflow with the given name and version exists.
      */
     boolean existsByNameAndVersion(String name, String version);
+
+    /**
+     * First page of workflow summaries, newest first.
+     */
+    @Query("""
+            SELECT new com.java.agentflow.workflow.model.WorkflowSummary(
+                w.id, w.name, w.version, w.description, w.createdAt, w.createdBy)
+            FROM Workflow w
+            ORDER BY w.createdAt DESC, w.id DESC
+            """)
+    List<WorkflowSummary> findSummaries(Limit limit);
+
+    /**
+     * Workflow summaries after a keyset position, newest first.
+     */
+    @Query("""
+            SELECT new com.java.agentflow.workflow.model.WorkflowSummary(
+                w.id, w.name, w.version, w.description, w.createdAt, w.createdBy)
+            FROM Workflow w
+            WHERE (w.createdAt, w.id) < (:createdAt, :id)
+            ORDER BY w.createdAt DESC, w.id DESC
+            """)
+    List<WorkflowSummary> findSummariesBefore(Instant createdAt, UUID id, Limit limit);
 }
@@ -0,0 +1,61 @@
+package com.java.agentflow.workflow.service;
+
+import com.java.agentflow.workflow.entity.WorkflowExecution;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Bounded in-memory store for ephemeral executions, which are never written to
+ * the database. Entries expire after a fixed time-to-live and the oldest are
+ * evicted when full. Local to this node.
+ */
+@Component
+public class EphemeralExecutionStore {
+
+    private final Duration ttl;
+    private final Map<UUID, Entry> entries;
+
+    public EphemeralExecutionStore(
+            MeterRegistry meterRegistry,
+            @Value("${agentflow.ephemeral.ttl:PT5M}") Duration ttl,
+            @Value("${agentflow.ephemeral.max-entries:10000}") int maxEntries) {
+        this.ttl = ttl;
+        this.entries = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        meterRegistry.gauge("agentflow.ephemeral.executions", this, EphemeralExecutionStore::size);
+    }
+
+    public synchronized void put(WorkflowExecution execution) {
+        entries.put(execution.getId(), new Entry(execution, System.nanoTime() + ttl.toNanos()));
+    }
+
+    public synchronized Optional<WorkflowExecution> get(UUID id) {
+        Entry entry = entries.get(id);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        if (entry.expiresAt() - System.nanoTime() < 0) {
+            entries.remove(id);
+            return Optional.empty();
+        }
+        return Optional.of(entry.execution());
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private record Entry(WorkflowExecution execution, long expiresAt) {
+    }
+}
@@ -0,0 +1,123 @@
+package com.java.agentflow.workflow.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Streams a workflow's executions as NDJSON (one JSON object per line).
+ * Rows are read through a server-side cursor with a fixed fetch size and
+ * written as they arrive, so memory stays constant regardless of row count.
+ * JSONB columns are copied through as raw JSON without being parsed.
+ */
+@Service
+public class ExecutionExportService {
+
+    private static final String COLUMNS = """
+            SELECT id, workflow_id, status, inputs::text, outputs::text, current_step,
+                   started_at, completed_at, error, created_at
+            FROM workflow_executions
+            WHERE workflow_id = ?""";
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+
+    public ExecutionExportService(
+            DataSource dataSource,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            @Value("${agentflow.export.fetch-size:1000}") int fetchSize) {
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.jdbc.setFetchSize(fetchSize);
+        // Postgres only uses a cursor for fetch size when autocommit is off
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Write executions of a workflow created in [from, to), oldest first.
+     * Either bound may be null.
+     */
+    public void export(UUID workflowId, Instant from, Instant to, OutputStream out) {
+        StringBuilder sql = new StringBuilder(COLUMNS);
+        List<Object> args = new ArrayList<>();
+        args.add(workflowId);
+        if (from != null) {
+            sql.append(" AND created_at >= ?");
+            args.add(Timestamp.from(from));
+        }
+        if (to != null) {
+            sql.append(" AND created_at < ?");
+            args.add(Timestamp.from(to));
+        }
+        sql.append(" ORDER BY created_at, id");
+
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                // Keep the response stream open; the container closes it
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setRootValueSeparator(null);
+                jdbc.query(sql.toString(), rs -> {
+                    try {
+                        writeRow(generator, rs);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, args.toArray());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private void writeRow(JsonGenerator generator, ResultSet rs) throws IOException, SQLException {
+        generator.writeStartObject();
+        generator.writeStringField("id", rs.getString("id"));
+        generator.writeStringField("workflowId", rs.getString("workflow_id"));
+        generator.writeStringField("status", rs.getString("status"));
+        writeRawJson(generator, "inputs", rs.getString("inputs"));
+        writeRawJson(generator, "outputs", rs.getString("outputs"));
+        generator.writeStringField("currentStep", rs.getString("current_step"));
+        writeInstant(generator, "startedAt", rs.getTimestamp("started_at"));
+        writeInstant(generator, "completedAt", rs.getTimestamp("completed_at"));
+        generator.writeStringField("error", rs.getString("error"));
+        writeInstant(generator, "createdAt", rs.getTimestamp("created_at"));
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    private void writeRawJson(JsonGenerator generator, String field, String json) throws IOException {
+        generator.writeFieldName(field);
+        if (json == null) {
+            generator.writeNull();
+        } else {
+            generator.writeRawValue(json);
+        }
+    }
+
+    private void writeInstant(JsonGenerator generator, String field, Timestamp value) throws IOException {
+        if (value == null) {
+            generator.writeNullField(field);
+        } else {
+            generator.writeStringField(field, value.toInstant().toString());
+        }
+    }
+}
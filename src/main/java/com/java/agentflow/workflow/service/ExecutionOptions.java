@@ -0,0 +1,70 @@
+package com.java.agentflow.workflow.service;
+
+import com.java.agentflow.idempotency.IdempotencyService;
+import com.java.agentflow.workflow.model.ExecutionPriority;
+
+import java.net.URI;
+
+/**
+ * Per-request options for starting a workflow execution.
+ *
+ * @param async          queue the execution instead of running it on the caller's thread
+ * @param priority       priority lane for async runs, or null to use the workflow's default
+ * @param tenantId       tenant the execution is accounted to for quotas
+ * @param ephemeral      run without persisting execution state, or null to use the workflow's
+ *                       default; only applies to sync runs
+ * @param callbackUrl    absolute http(s) URL posted the execution's terminal event, or null for none
+ * @param idempotencyKey key under which a retried request returns the execution of its first
+ *                       attempt, unique per tenant, or null for none
+ */
+public record ExecutionOptions(
+        boolean async,
+        ExecutionPriority priority,
+        String tenantId,
+        Boolean ephemeral,
+        String callbackUrl,
+        String idempotencyKey) {
+
+    public static final String ANONYMOUS_TENANT = "anonymous";
+
+    public ExecutionOptions {
+        tenantId = tenantId != null && !tenantId.isBlank() ? tenantId : ANONYMOUS_TENANT;
+        if (async && Boolean.TRUE.equals(ephemeral)) {
+            throw new IllegalArgumentException("Ephemeral executions cannot run async");
+        }
+        if (idempotencyKey != null && idempotencyKey.isBlank()) {
+            idempotencyKey = null;
+        }
+        if (idempotencyKey != null) {
+            if (idempotencyKey.length() > IdempotencyService.MAX_KEY_LENGTH) {
+                throw new IllegalArgumentException(
+                        "Idempotency-Key must be at most " + IdempotencyService.MAX_KEY_LENGTH + " characters");
+            }
+            // A retry must find the first attempt's execution, so it has to be persisted
+            if (Boolean.TRUE.equals(ephemeral)) {
+                throw new IllegalArgumentException("Ephemeral executions cannot take an idempotency key");
+            }
+        }
+        if (callbackUrl != null && callbackUrl.isBlank()) {
+            callbackUrl = null;
+        }
+        if (callbackUrl != null) {
+            URI uri = URI.create(callbackUrl);
+            String scheme = uri.getScheme();
+            if (!("http".equalsIgnoreCase(scheme) || "https".equalsIgnoreCase(scheme)) || uri.getHost() == null) {
+                throw new IllegalArgumentException("callbackUrl must be an absolute http or https URL");
+            }
+        }
+    }
+
+    public static ExecutionOptions sync() {
+        return new ExecutionOptions(false, null, null, null, null, null);
+    }
+
+    /**
+     * A queued run without callback or idempotency key.
+     */
+    public static ExecutionOptions queued(ExecutionPriority priority, String tenantId) {
+        return new ExecutionOptions(true, priority, tenantId, null, null, null);
+    }
+}
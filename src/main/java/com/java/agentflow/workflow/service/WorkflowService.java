@@ -1,42 +1,92 @@
 package com.java.agentflow.workflow.service;
 
 import com.java.agentflow.async.WorkflowProducer;
+import com.java.agentflow.datasource.ReadRouting;
+import com.java.agentflow.datasource.RecentWrites;
+import com.java.agentflow.idempotency.IdempotencyService;
+import com.java.agentflow.quota.QuotaService;
+import com.java.agentflow.workflow.entity.StepExecution;
 import com.java.agentflow.workflow.entity.Workflow;
 import com.java.agentflow.workflow.entity.WorkflowExecution;
 import com.java.agentflow.workflow.engine.WorkflowExecutor;
+import com.java.agentflow.workflow.model.Cursor;
+import com.java.agentflow.workflow.model.CursorPage;
+import com.java.agentflow.workflow.model.ExecutionPriority;
+import com.java.agentflow.workflow.model.ExecutionStatus;
+import com.java.agentflow.workflow.model.ExecutionSummary;
 import com.java.agentflow.workflow.model.WorkflowDefinition;
+import com.java.agentflow.workflow.model.WorkflowSummary;
 import com.java.agentflow.workflow.parser.WorkflowParser;
 import com.java.agentflow.workflow.repository.WorkflowExecutionRepository;
 import com.java.agentflow.workflow.repository.WorkflowRepository;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Service
 public class WorkflowService {
 
+    private static final Logger log = LoggerFactory.getLogger(WorkflowService.class);
+
     private final WorkflowRepository workflowRepository;
     private final WorkflowExecutionRepository executionRepository;
     private final WorkflowParser workflowParser;
     private final WorkflowExecutor workflowExecutor;
     private final WorkflowProducer workflowProducer;
+    private final QuotaService quotaService;
+    private final RecentWrites recentWrites;
+    private final EphemeralExecutionStore ephemeralStore;
+    private final IdempotencyService idempotencyService;
+    private final TransactionTemplate transactions;
+    private final TransactionTemplate readTransactions;
+    /** Failure samples commit on their own, so a failed write cannot roll back the caller's transaction. */
+    private final TransactionTemplate failureSampleTransactions;
+    private final double failureSampleRate;
+    private final Duration historyHotWindow;
 
     public WorkflowService(
             WorkflowRepository workflowRepository,
             WorkflowExecutionRepository executionRepository,
             WorkflowParser workflowParser,
             WorkflowExecutor workflowExecutor,
-            WorkflowProducer workflowProducer) {
+            WorkflowProducer workflowProducer,
+            QuotaService quotaService,
+            RecentWrites recentWrites,
+            EphemeralExecutionStore ephemeralStore,
+            IdempotencyService idempotencyService,
+            PlatformTransactionManager transactionManager,
+            @Value("${agentflow.ephemeral.failure-sample-rate:0.1}") double failureSampleRate,
+            @Value("${agentflow.history.hot-window:P30D}") Duration historyHotWindow) {
         this.workflowRepository = workflowRepository;
         this.executionRepository = executionRepository;
         this.workflowParser = workflowParser;
         this.workflowExecutor = workflowExecutor;
         this.workflowProducer = workflowProducer;
+        this.quotaService = quotaService;
+        this.recentWrites = recentWrites;
+        this.ephemeralStore = ephemeralStore;
+        this.idempotencyService = idempotencyService;
+        this.transactions = new TransactionTemplate(transactionManager);
+        this.readTransactions = new TransactionTemplate(transactionManager);
+        this.readTransactions.setReadOnly(true);
+        this.failureSampleTransactions = new TransactionTemplate(transactionManager);
+        this.failureSampleTransactions.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.failureSampleRate = failureSampleRate;
+        this.historyHotWindow = historyHotWindow;
     }
 
     @Transactional
@@ -58,43 +108,206 @@ public class WorkflowService {
         return workflowRepository.save(workflow);
     }
 
+    @Transactional(readOnly = true)
     public Optional<Workflow> findById(UUID id) {
         return workflowRepository.findById(id);
     }
 
-    public Page<Workflow> findAll(Pageable pageable) {
-        return workflowRepository.findAll(pageable);
+    /**
+     * Workflow summaries, newest first, continuing after {@code cursor} when given.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<WorkflowSummary> listWorkflows(String cursor, int size) {
+        Cursor after = Cursor.decode(cursor);
+        Limit limit = Limit.of(size + 1);
+        List<WorkflowSummary> rows = after == null
+                ? workflowRepository.findSummaries(limit)
+                : workflowRepository.findSummariesBefore(after.createdAt(), after.id(), limit);
+        return CursorPage.of(rows, size, w -> new Cursor(w.createdAt(), w.id()));
     }
 
-    @Transactional
     public WorkflowExecution execute(UUID workflowId, Map<String, Object> inputs) {
         return execute(workflowId, inputs, false);
     }
 
-    @Transactional
     public WorkflowExecution execute(UUID workflowId, Map<String, Object> inputs, boolean async) {
-        Workflow workflow = workflowRepository.findById(workflowId)
+        return execute(workflowId, inputs, async ? ExecutionOptions.queued(null, null) : ExecutionOptions.sync());
+    }
+
+    /**
+     * Execute a workflow. For async runs the priority lane is taken from the options,
+     * falling back to the workflow definition and then to NORMAL.
+     *
+     * With an idempotency key, a repeated request returns the execution the
+     * first one started, in its current state, without running it again.
+     * Such executions are always persisted.
+     *
+     * Ephemeral runs hold no database connection while they run; persisted
+     * runs execute in one transaction.
+     */
+    public WorkflowExecution execute(UUID workflowId, Map<String, Object> inputs, ExecutionOptions options) {
+        // On the primary, as a replica may not have a workflow that was just created
+        Workflow workflow = ReadRouting.onPrimary(
+                        () -> readTransactions.execute(status -> workflowRepository.findById(workflowId)))
                 .orElseThrow(() -> new WorkflowNotFoundException("Workflow not found: " + workflowId));
 
+        if (options.idempotencyKey() == null && !options.async() && resolveEphemeral(workflow, options.ephemeral())) {
+            return executeEphemeral(workflow, inputs, options);
+        }
+        return transactions.execute(status -> executePersisted(workflow, inputs, options));
+    }
+
+    private WorkflowExecution executePersisted(Workflow workflow, Map<String, Object> inputs,
+            ExecutionOptions options) {
+        UUID workflowId = workflow.getId();
+        IdempotencyService.Claim claim = null;
+        if (options.idempotencyKey() != null) {
+            claim = idempotencyService.claim(options.tenantId(), options.idempotencyKey(), workflowId, inputs);
+            if (claim.replay()) {
+                UUID original = claim.original();
+                return executionRepository.findById(original)
+                        .orElseThrow(() -> new WorkflowNotFoundException("Execution not found: " + original));
+            }
+        }
+
         WorkflowExecution execution = new WorkflowExecution();
         execution.setWorkflow(workflow);
         execution.setInputs(inputs);
+        execution.setCallbackUrl(options.callbackUrl());
         execution = executionRepository.save(execution);
+        if (claim != null) {
+            idempotencyService.bind(claim, execution.getId());
+        }
+
+        quotaService.acquire(options.tenantId(), workflowId, execution.getId());
 
-        if (async) {
-            workflowProducer.queueExecution(workflowId, execution.getId(), inputs);
+        if (options.async()) {
+            try {
+                workflowProducer.queueExecution(workflowId, execution.getId(), inputs,
+                        resolvePriority(workflow, options.priority()), options.tenantId());
+            } catch (RuntimeException e) {
+                quotaService.release(options.tenantId(), workflowId, execution.getId());
+                throw e;
+            }
             return execution;
         }
 
-        return workflowExecutor.execute(workflow, execution, inputs);
+        try {
+            return workflowExecutor.execute(workflow, execution, inputs);
+        } finally {
+            quotaService.release(options.tenantId(), workflowId, execution.getId());
+        }
     }
 
+    /**
+     * Run a sync execution entirely in memory. The result stays readable through
+     * {@link #findExecutionById} for the ephemeral store's TTL; a sample of
+     * failures is also persisted for debugging.
+     */
+    private WorkflowExecution executeEphemeral(Workflow workflow, Map<String, Object> inputs,
+            ExecutionOptions options) {
+        WorkflowExecution execution = new WorkflowExecution();
+        execution.setId(UUID.randomUUID());
+        execution.setWorkflow(workflow);
+        execution.setInputs(inputs);
+        execution.setCallbackUrl(options.callbackUrl());
+
+        quotaService.acquire(options.tenantId(), workflow.getId(), execution.getId());
+        try {
+            execution = workflowExecutor.executeEphemeral(workflow, execution, inputs);
+        } finally {
+            quotaService.release(options.tenantId(), workflow.getId(), execution.getId());
+        }
+
+        ephemeralStore.put(execution);
+        if (execution.getStatus() == ExecutionStatus.FAILED && failureSampleRate > 0
+                && ThreadLocalRandom.current().nextDouble() < failureSampleRate) {
+            persistFailureSample(execution);
+        }
+        return execution;
+    }
+
+    private void persistFailureSample(WorkflowExecution ephemeral) {
+        WorkflowExecution copy = new WorkflowExecution();
+        copy.setWorkflow(ephemeral.getWorkflow());
+        copy.setStatus(ephemeral.getStatus());
+        copy.setInputs(ephemeral.getInputs());
+        copy.setOutputs(ephemeral.getOutputs());
+        copy.setCurrentStep(ephemeral.getCurrentStep());
+        copy.setError(ephemeral.getError());
+        copy.setStartedAt(ephemeral.getStartedAt());
+        copy.setCompletedAt(ephemeral.getCompletedAt());
+        for (StepExecution step : ephemeral.getStepExecutions()) {
+            StepExecution stepCopy = new StepExecution();
+            stepCopy.setStepId(step.getStepId());
+            stepCopy.setAgentType(step.getAgentType());
+            stepCopy.setStatus(step.getStatus());
+            stepCopy.setInputs(step.getInputs());
+            stepCopy.setOutputs(step.getOutputs());
+            stepCopy.setError(step.getError());
+            stepCopy.setStartedAt(step.getStartedAt());
+            stepCopy.setCompletedAt(step.getCompletedAt());
+            stepCopy.setRetryCount(step.getRetryCount());
+            copy.addStepExecution(stepCopy);
+        }
+        try {
+            WorkflowExecution sample = copy;
+            copy = failureSampleTransactions.execute(status -> executionRepository.save(sample));
+            log.info("Persisted failed ephemeral execution {} as {}", ephemeral.getId(), copy.getId());
+        } catch (RuntimeException e) {
+            log.warn("Failed to persist sampled ephemeral failure {}: {}", ephemeral.getId(), e.getMessage());
+        }
+    }
+
+    private boolean resolveEphemeral(Workflow workflow, Boolean requested) {
+        if (requested != null) {
+            return requested;
+        }
+        return Boolean.TRUE.equals(WorkflowParser.parseFlag(workflow.getDefinition().get("ephemeral"), "ephemeral"));
+    }
+
+    private ExecutionPriority resolvePriority(Workflow workflow, ExecutionPriority requested) {
+        if (requested != null) {
+            return requested;
+        }
+        Object configured = workflow.getDefinition().get("priority");
+        ExecutionPriority fromDefinition = configured != null ? ExecutionPriority.parse(configured.toString()) : null;
+        return fromDefinition != null ? fromDefinition : ExecutionPriority.NORMAL;
+    }
+
+    /**
+     * Ephemeral executions are served from memory. Persisted ones come from a
+     * replica unless this node wrote the execution within the lag window.
+     */
+    @Transactional(readOnly = true)
     public Optional<WorkflowExecution> findExecutionById(UUID id) {
+        Optional<WorkflowExecution> ephemeral = ephemeralStore.get(id);
+        if (ephemeral.isPresent()) {
+            return ephemeral;
+        }
+        if (recentWrites.isRecent(id)) {
+            return ReadRouting.onPrimary(() -> executionRepository.findById(id));
+        }
         return executionRepository.findById(id);
     }
 
-    public Page<WorkflowExecution> findExecutionsByWorkflow(UUID workflowId, Pageable pageable) {
-        return executionRepository.findByWorkflowIdOrderByCreatedAtDesc(workflowId, pageable);
+    /**
+     * Execution summaries created at or after {@code since}. Without it only the
+     * hot window is listed, so older partitions are not scanned unless asked for.
+     *
+     * @param since lower bound on creation time, or null for the start of the hot window
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ExecutionSummary> listExecutions(UUID workflowId, Instant since, String cursor, int size) {
+        Cursor after = Cursor.decode(cursor);
+        if (since == null) {
+            since = Instant.now().minus(historyHotWindow);
+        }
+        Limit limit = Limit.of(size + 1);
+        List<ExecutionSummary> rows = after == null
+                ? executionRepository.findSummaries(workflowId, since, limit)
+                : executionRepository.findSummariesBefore(workflowId, since, after.createdAt(), after.id(), limit);
+        return CursorPage.of(rows, size, e -> new Cursor(e.createdAt(), e.id()));
     }
 
     @Transactional
@@ -0,0 +1,111 @@
+-- V2__partition_execution_history.sql
+-- Range-partition execution history by month so old data can be archived
+-- and detached as whole partitions instead of deleted row by row.
+
+-- Creates the monthly partition of a parent table covering the given date (UTC).
+CREATE OR REPLACE FUNCTION ensure_monthly_partition(parent TEXT, month DATE) RETURNS TEXT AS $$
+DECLARE
+    start_date DATE := date_trunc('month', month)::date;
+    partition_name TEXT := parent || '_p' || to_char(start_date, 'YYYYMM');
+BEGIN
+    EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+        partition_name,
+        parent,
+        start_date::timestamp AT TIME ZONE 'UTC',
+        (start_date + INTERVAL '1 month')::timestamp AT TIME ZONE 'UTC');
+    RETURN partition_name;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Move the unpartitioned tables out of the way
+DROP INDEX idx_executions_workflow_id;
+DROP INDEX idx_executions_status;
+DROP INDEX idx_executions_created_at;
+DROP INDEX idx_step_executions_execution_id;
+DROP INDEX idx_step_executions_status;
+ALTER TABLE step_executions RENAME TO step_executions_legacy;
+ALTER TABLE step_executions_legacy RENAME CONSTRAINT step_executions_pkey TO step_executions_legacy_pkey;
+ALTER TABLE workflow_executions RENAME TO workflow_executions_legacy;
+ALTER TABLE workflow_executions_legacy RENAME CONSTRAINT workflow_executions_pkey TO workflow_executions_legacy_pkey;
+
+-- The partition key must be part of the primary key
+CREATE TABLE workflow_executions (
+    id UUID NOT NULL DEFAULT gen_random_uuid(),
+    workflow_id UUID NOT NULL REFERENCES workflows(id) ON DELETE CASCADE,
+    status VARCHAR(50) NOT NULL DEFAULT 'PENDING',
+    inputs JSONB,
+    outputs JSONB,
+    current_step VARCHAR(255),
+    started_at TIMESTAMP WITH TIME ZONE,
+    completed_at TIMESTAMP WITH TIME ZONE,
+    error TEXT,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT workflow_executions_pkey PRIMARY KEY (id, created_at),
+    CONSTRAINT chk_execution_status CHECK (status IN ('PENDING', 'RUNNING', 'COMPLETED', 'FAILED', 'CANCELLED'))
+) PARTITION BY RANGE (created_at);
+
+-- Steps are partitioned on their execution's created_at, so both tables share partition boundaries
+CREATE TABLE step_executions (
+    id UUID NOT NULL DEFAULT gen_random_uuid(),
+    execution_id UUID NOT NULL,
+    execution_created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    step_id VARCHAR(255) NOT NULL,
+    agent_type VARCHAR(100) NOT NULL,
+    status VARCHAR(50) NOT NULL DEFAULT 'PENDING',
+    inputs JSONB,
+    outputs JSONB,
+    started_at TIMESTAMP WITH TIME ZONE,
+    completed_at TIMESTAMP WITH TIME ZONE,
+    error TEXT,
+    retry_count INTEGER DEFAULT 0,
+    CONSTRAINT step_executions_pkey PRIMARY KEY (id, execution_created_at),
+    CONSTRAINT fk_step_executions_execution FOREIGN KEY (execution_id, execution_created_at)
+        REFERENCES workflow_executions(id, created_at) ON DELETE CASCADE,
+    CONSTRAINT chk_step_status CHECK (status IN ('PENDING', 'RUNNING', 'COMPLETED', 'FAILED', 'SKIPPED'))
+) PARTITION BY RANGE (execution_created_at);
+
+-- Catch-all partitions; the maintenance job keeps monthly partitions created ahead of time
+CREATE TABLE workflow_executions_default PARTITION OF workflow_executions DEFAULT;
+CREATE TABLE step_executions_default PARTITION OF step_executions DEFAULT;
+
+-- Monthly partitions covering existing history plus the next two months
+DO $$
+DECLARE
+    first_month DATE;
+    month DATE;
+BEGIN
+    SELECT date_trunc('month', COALESCE(MIN(created_at), CURRENT_TIMESTAMP) AT TIME ZONE 'UTC')::date
+    INTO first_month
+    FROM workflow_executions_legacy;
+
+    month := first_month;
+    WHILE month <= (date_trunc('month', CURRENT_TIMESTAMP AT TIME ZONE 'UTC') + INTERVAL '2 months')::date LOOP
+        PERFORM ensure_monthly_partition('workflow_executions', month);
+        PERFORM ensure_monthly_partition('step_executions', month);
+        month := (month + INTERVAL '1 month')::date;
+    END LOOP;
+END;
+$$;
+
+INSERT INTO workflow_executions (id, workflow_id, status, inputs, outputs, current_step,
+        started_at, completed_at, error, created_at)
+SELECT id, workflow_id, status, inputs, outputs, current_step,
+       started_at, completed_at, error, COALESCE(created_at, started_at, CURRENT_TIMESTAMP)
+FROM workflow_executions_legacy;
+
+INSERT INTO step_executions (id, execution_id, execution_created_at, step_id, agent_type, status,
+        inputs, outputs, started_at, completed_at, error, retry_count)
+SELECT s.id, s.execution_id, e.created_at, s.step_id, s.agent_type, s.status,
+       s.inputs, s.outputs, s.started_at, s.completed_at, s.error, s.retry_count
+FROM step_executions_legacy s
+JOIN workflow_executions e ON e.id = s.execution_id;
+
+DROP TABLE step_executions_legacy;
+DROP TABLE workflow_executions_legacy;
+
+-- Indexes on the parents cascade to every partition
+CREATE INDEX idx_executions_workflow_id ON workflow_executions(workflow_id);
+CREATE INDEX idx_executions_status ON workflow_executions(status);
+CREATE INDEX idx_executions_created_at ON workflow_executions(created_at);
+CREATE INDEX idx_step_executions_execution_id ON step_executions(execution_id);
+CREATE INDEX idx_step_executions_status ON step_executions(status);
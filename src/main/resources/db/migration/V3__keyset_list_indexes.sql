@@ -0,0 +1,9 @@
+-- V3__keyset_list_indexes.sql
+-- Indexes matching the keyset order (created_at DESC, id DESC) of the list endpoints
+
+CREATE INDEX idx_workflows_created_at_id ON workflows(created_at DESC, id DESC);
+DROP INDEX idx_workflows_created_at;
+
+-- Leading workflow_id also serves lookups by workflow alone
+CREATE INDEX idx_executions_workflow_created_at_id ON workflow_executions(workflow_id, created_at DESC, id DESC);
+DROP INDEX idx_executions_workflow_id;
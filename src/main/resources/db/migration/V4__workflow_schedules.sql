@@ -0,0 +1,6 @@
+-- V4__workflow_schedules.sql
+-- Workflows with a schedule are loaded by every node's scheduler: in full on startup,
+-- then by creation time. The predicate matches the scheduler's queries exactly.
+
+CREATE INDEX idx_workflows_scheduled ON workflows(created_at, id)
+    WHERE jsonb_typeof(definition->'schedule') = 'object';
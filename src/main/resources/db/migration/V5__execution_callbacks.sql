@@ -0,0 +1,4 @@
+-- V5__execution_callbacks.sql
+-- Webhook notified when an execution reaches a terminal state; stored with the
+-- execution because async runs finish on whichever node consumes them.
+ALTER TABLE workflow_executions ADD COLUMN callback_url TEXT;
@@ -0,0 +1,19 @@
+-- V6__idempotency_keys.sql
+-- Idempotency keys of execution submissions. Kept apart from workflow_executions,
+-- whose unique constraints must include the partition key, so that a key is unique
+-- per tenant regardless of when its execution was created.
+
+CREATE TABLE idempotency_keys (
+    tenant_id VARCHAR(255) NOT NULL,
+    idempotency_key VARCHAR(255) NOT NULL,
+    workflow_id UUID NOT NULL REFERENCES workflows(id) ON DELETE CASCADE,
+    -- Hash of the workflow and inputs, so a key reused for a different request is rejected
+    request_hash VARCHAR(64) NOT NULL,
+    -- Set in the same transaction that claims the key, so never null once committed
+    execution_id UUID,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    expires_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    CONSTRAINT idempotency_keys_pkey PRIMARY KEY (tenant_id, idempotency_key)
+);
+
+CREATE INDEX idx_idempotency_keys_expires_at ON idempotency_keys(expires_at);
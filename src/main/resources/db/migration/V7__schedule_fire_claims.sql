@@ -0,0 +1,14 @@
+-- V7__schedule_fire_claims.sql
+-- Fires of workflow schedules are claimed in Redis. While Redis is unreachable the
+-- scheduler claims them here instead, so a fire still starts on one node only.
+
+CREATE TABLE schedule_fire_claims (
+    workflow_id UUID NOT NULL,
+    -- Nominal fire time, before jitter, which every node derives alike
+    fire_time TIMESTAMP WITH TIME ZONE NOT NULL,
+    node_id VARCHAR(255) NOT NULL,
+    claimed_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT schedule_fire_claims_pkey PRIMARY KEY (workflow_id, fire_time)
+);
+
+CREATE INDEX idx_schedule_fire_claims_fire_time ON schedule_fire_claims(fire_time);
@@ -0,0 +1,6 @@
+-- V8__execution_redrive_claims.sql
+-- When an execution was last re-driven from the dead letters. A re-drive claims the
+-- execution by setting it, only if it is older than the dead letter being re-driven,
+-- so each dead letter queues its execution once however many jobs or nodes try.
+
+ALTER TABLE workflow_executions ADD COLUMN redriven_at TIMESTAMP WITH TIME ZONE;
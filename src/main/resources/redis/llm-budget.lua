@@ -0,0 +1,32 @@
+-- Reserve one request and an estimated number of tokens in the current
+-- one-minute window for a provider/model, unless a cooldown is active.
+-- KEYS: request counter, token counter, cooldown flag
+-- ARGV: requests per minute, tokens per minute, estimated tokens, ms left in window
+-- Returns 0 when reserved, otherwise the number of ms to wait before retrying.
+
+local cooldown = redis.call('PTTL', KEYS[3])
+if cooldown > 0 then
+    return cooldown
+end
+
+local rpm = tonumber(ARGV[1])
+local tpm = tonumber(ARGV[2])
+local want = tonumber(ARGV[3])
+local windowLeft = tonumber(ARGV[4])
+
+local requests = tonumber(redis.call('GET', KEYS[1]) or '0')
+local tokens = tonumber(redis.call('GET', KEYS[2]) or '0')
+
+if rpm > 0 and requests + 1 > rpm then
+    return windowLeft
+end
+-- A single call larger than the whole budget is let through on an empty window
+if tpm > 0 and tokens > 0 and tokens + want > tpm then
+    return windowLeft
+end
+
+redis.call('INCR', KEYS[1])
+redis.call('INCRBY', KEYS[2], want)
+redis.call('PEXPIRE', KEYS[1], windowLeft + 1000)
+redis.call('PEXPIRE', KEYS[2], windowLeft + 1000)
+return 0
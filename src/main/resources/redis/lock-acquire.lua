@@ -0,0 +1,9 @@
+-- Take an execution lock and read the fencing generation it is taken at.
+-- KEYS: lock, fence
+-- ARGV: token, ttl ms
+-- Returns the generation ('0' before any revocation), or nil when the lock is held.
+
+if redis.call('SET', KEYS[1], ARGV[1], 'NX', 'PX', ARGV[2]) then
+    return redis.call('GET', KEYS[2]) or '0'
+end
+return false
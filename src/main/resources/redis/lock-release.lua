@@ -0,0 +1,10 @@
+-- Release an execution lock only if it is still held with the given token, so
+-- a holder whose lock was revoked cannot release the lock of the next holder.
+-- KEYS: lock
+-- ARGV: token
+-- Returns 1 when released, 0 when the lock is held by someone else or not at all.
+
+if redis.call('GET', KEYS[1]) == ARGV[1] then
+    return redis.call('DEL', KEYS[1])
+end
+return 0
@@ -0,0 +1,15 @@
+-- Check an execution lock for its holder and extend it. An expired lock is
+-- taken again; only a revocation or another holder's lock ends it.
+-- KEYS: lock, fence
+-- ARGV: token, generation, ttl ms
+-- Returns 1 when still held, 0 when revoked or held by someone else.
+
+local owner = redis.call('GET', KEYS[1])
+if owner and owner ~= ARGV[1] then
+    return 0
+end
+if (redis.call('GET', KEYS[2]) or '0') ~= ARGV[2] then
+    return 0
+end
+redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[3])
+return 1
@@ -0,0 +1,9 @@
+-- Revoke an execution lock: bump the fencing generation, so the holder's next
+-- renewal fails, and free the lock for the next holder.
+-- KEYS: lock, fence
+-- ARGV: fence ttl ms
+-- Returns 1 if a lock was held.
+
+redis.call('INCR', KEYS[2])
+redis.call('PEXPIRE', KEYS[2], ARGV[1])
+return redis.call('DEL', KEYS[1])
@@ -0,0 +1,56 @@
+-- Atomically admit one execution against tenant and workflow quotas.
+-- KEYS: tenant bucket, workflow bucket, tenant running set, workflow running set
+-- ARGV: now ms, tenant rate/s, tenant burst, workflow rate/s, workflow burst,
+--       tenant max concurrent, workflow max concurrent, lease expiry ms,
+--       execution id, key ttl seconds, concurrency retry ms
+-- Returns {1} when admitted, or {0, reason, retry-after ms} when rejected.
+
+local now = tonumber(ARGV[1])
+
+local function tokens(key, rate, burst)
+    if rate <= 0 then
+        return nil
+    end
+    local data = redis.call('HMGET', key, 'tokens', 'ts')
+    local current = tonumber(data[1]) or burst
+    local ts = tonumber(data[2]) or now
+    return math.min(burst, current + math.max(0, now - ts) / 1000.0 * rate)
+end
+
+local buckets = {
+    { key = KEYS[1], rate = tonumber(ARGV[2]), burst = tonumber(ARGV[3]), reason = 'tenant rate limit' },
+    { key = KEYS[2], rate = tonumber(ARGV[4]), burst = tonumber(ARGV[5]), reason = 'workflow rate limit' },
+}
+local running = {
+    { key = KEYS[3], max = tonumber(ARGV[6]), reason = 'tenant concurrency limit' },
+    { key = KEYS[4], max = tonumber(ARGV[7]), reason = 'workflow concurrency limit' },
+}
+
+for _, bucket in ipairs(buckets) do
+    bucket.tokens = tokens(bucket.key, bucket.rate, bucket.burst)
+    if bucket.tokens ~= nil and bucket.tokens < 1 then
+        return { 0, bucket.reason, math.ceil((1 - bucket.tokens) / bucket.rate * 1000) }
+    end
+end
+
+for _, set in ipairs(running) do
+    -- Leases of crashed nodes expire instead of leaking slots forever
+    redis.call('ZREMRANGEBYSCORE', set.key, '-inf', now)
+    if set.max > 0 and redis.call('ZCARD', set.key) >= set.max then
+        return { 0, set.reason, tonumber(ARGV[11]) }
+    end
+end
+
+local ttl = tonumber(ARGV[10])
+for _, bucket in ipairs(buckets) do
+    if bucket.tokens ~= nil then
+        redis.call('HSET', bucket.key, 'tokens', bucket.tokens - 1, 'ts', now)
+        redis.call('EXPIRE', bucket.key, ttl)
+    end
+end
+for _, set in ipairs(running) do
+    redis.call('ZADD', set.key, tonumber(ARGV[8]), ARGV[9])
+    redis.call('EXPIRE', set.key, ttl)
+end
+
+return { 1 }
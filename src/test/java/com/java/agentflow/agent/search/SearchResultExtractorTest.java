@@ -0,0 +1,151 @@
+package com.java.agentflow.agent.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchResultExtractorTest {
+
+    private final SearchResultExtractor extractor = new SearchResultExtractor();
+
+    @Test
+    void extractsOrganicResultsInPageOrder() throws IOException {
+        List<Map<String, String>> results = extractPage(20);
+
+        assertThat(results).hasSize(11);
+        assertThat(results.get(0)).containsExactlyInAnyOrderEntriesOf(Map.of(
+                "url", "//duckduckgo.com/l/?uddg=https%3A%2F%2Fwww.reuters.com%2Ftechnology/artificial-intelligence/"
+                        + "&rut=0000e1c2",
+                "title", "AI News | Latest Headlines and Developments | Reuters",
+                "snippet", "Explore the latest artificial intelligence news with Reuters"
+                        + " - from AI breakthroughs to regulation."));
+        assertThat(results.get(10)).containsEntry("title", "AI - Ars Technica");
+    }
+
+    @Test
+    void skipsSponsoredResults() throws IOException {
+        List<Map<String, String>> results = extractPage(20);
+
+        assertThat(results).noneSatisfy(result -> assertThat(result.get("url")).contains("ad_domain"));
+        assertThat(results).extracting(result -> result.get("title")).doesNotContain("AI News Platform - Try It Free Today");
+    }
+
+    @Test
+    void leavesOutAMissingSnippetWithoutShiftingLaterOnes() throws IOException {
+        List<Map<String, String>> results = extractPage(20);
+
+        assertThat(results.get(2)).containsEntry("title", "AI – The Verge").doesNotContainKey("snippet");
+        assertThat(results.get(3)).containsEntry("title", "Artificial intelligence | MIT News");
+        assertThat(results.get(3).get("snippet")).startsWith("MIT researchers");
+    }
+
+    @Test
+    void decodesEntitiesInTitlesSnippetsAndLinks() throws IOException {
+        List<Map<String, String>> results = extractPage(20);
+
+        assertThat(results.get(1).get("title")).isEqualTo("AI News & Artificial Intelligence | TechCrunch");
+        assertThat(results.get(3).get("snippet"))
+                .isEqualTo("MIT researchers' new tool helps models \"explain\" their answers > 90% of the time.");
+        assertThat(results.get(7).get("snippet")).startsWith("VentureBeat's AI coverage");
+        assertThat(results.get(1).get("url")).endsWith("&rut=0001e1c2");
+    }
+
+    @Test
+    void ignoresGreaterThanInsideQuotedAttributes() throws IOException {
+        List<Map<String, String>> results = extractPage(20);
+
+        assertThat(results.get(4)).containsEntry("title", "AI News - Artificial Intelligence News");
+
+        List<Map<String, String>> inline = extract("""
+                <div class="result"><a title='1 > 0' class="result__a" href="/a?x=1>0">One</a></div>
+                """, 10);
+        assertThat(inline).containsExactly(Map.of("url", "/a?x=1>0", "title", "One"));
+    }
+
+    @Test
+    void keepsTextOfNestedTagsAndAnchors() throws IOException {
+        List<Map<String, String>> results = extract("""
+                <div class="result">
+                  <a class="result__a" href="/a">Spring <b>Boot</b> <a href="/nested">and <i>Java</i></a> 21</a>
+                  <a class="result__snippet" href="/a">After the <b>nested</b> anchor</a>
+                </div>
+                """, 10);
+
+        assertThat(results).containsExactly(Map.of(
+                "url", "/a", "title", "Spring Boot and Java 21", "snippet", "After the nested anchor"));
+    }
+
+    @Test
+    void dropsResultsWithoutTitleOrLink() throws IOException {
+        List<Map<String, String>> results = extract("""
+                <div class="result"><a class="result__snippet" href="/a">Snippet only</a></div>
+                <div class="result"><a class="result__a" href="/b"> </a></div>
+                <div class="result"><a class="result__a" href="/c">Kept</a></div>
+                """, 10);
+
+        assertThat(results).containsExactly(Map.of("url", "/c", "title", "Kept"));
+    }
+
+    @Test
+    void stopsReadingOnceMaxResultsAreComplete() throws IOException {
+        String page = """
+                <div class="result"><a class="result__a" href="/a">One</a></div>
+                <div class="result"><a class="result__a" href="/b">Two</a></div>
+                <div class="result">""";
+        Reader reader = new Reader() {
+            private final Reader head = new StringReader(page);
+
+            @Override
+            public int read(char[] buffer, int offset, int length) throws IOException {
+                int read = head.read(buffer, offset, length);
+                if (read < 0) {
+                    throw new IOException("Read past the second result");
+                }
+                return read;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        List<Map<String, String>> results = extractor.extract(reader, 2);
+
+        assertThat(results).extracting(result -> result.get("title")).containsExactly("One", "Two");
+    }
+
+    @Test
+    void decodesNumericEntitiesAndLeavesUnknownOnesAlone() {
+        assertThat(SearchResultExtractor.decodeEntities("&#65;&#x42;&#X43; &nbsp;&unknown; AT&T & co;"))
+                .isEqualTo("ABC  &unknown; AT&T & co;");
+        assertThat(SearchResultExtractor.decodeEntities("&#xZZ; &#1114112;")).isEqualTo("&#xZZ; &#1114112;");
+    }
+
+    @Test
+    void matchesWholeClassNamesOnly() {
+        assertThat(SearchResultExtractor.hasClass("result results_links web-result", "result")).isTrue();
+        assertThat(SearchResultExtractor.hasClass("result__body", "result")).isFalse();
+        assertThat(SearchResultExtractor.hasClass("links result--ad", "result--ad")).isTrue();
+        assertThat(SearchResultExtractor.attribute("a data-class=\"x\" class=\"y\"", "class")).isEqualTo("y");
+        assertThat(SearchResultExtractor.attribute("a href=/unquoted rel=nofollow", "href")).isEqualTo("/unquoted");
+    }
+
+    private List<Map<String, String>> extractPage(int maxResults) throws IOException {
+        try (Reader reader = new InputStreamReader(
+                getClass().getResourceAsStream("/search/ddg-ai-news.html"), StandardCharsets.UTF_8)) {
+            return extractor.extract(reader, maxResults);
+        }
+    }
+
+    private List<Map<String, String>> extract(String html, int maxResults) throws IOException {
+        return extractor.extract(new StringReader(html), maxResults);
+    }
+}
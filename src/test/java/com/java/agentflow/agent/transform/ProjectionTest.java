@@ -0,0 +1,129 @@
+package com.java.agentflow.agent.transform;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProjectionTest {
+
+    private static final List<Map<String, Object>> ITEMS = List.of(
+            Map.of("title", "first", "tags", List.of("a", "b"), "meta", Map.of("rank", 1)),
+            Map.of("title", "second", "tags", List.of(), "meta", Map.of("rank", 2)),
+            Map.of("title", "third", "tags", List.of("c")));
+    private static final Map<String, Object> DATA = Map.of(
+            "status", 200,
+            "body", Map.of(
+                    "title", "Results",
+                    "items", ITEMS,
+                    "a/b", "slash",
+                    "m~n", "tilde"));
+
+    @Test
+    void resolvesPointerAndDottedPaths() {
+        Map<String, Object> out = project(Map.of(
+                "status", "/status",
+                "title", "body.title",
+                "first", "/body/items/0/title",
+                "last", "body.items.2.title"), DATA);
+
+        assertThat(out).containsExactlyInAnyOrderEntriesOf(Map.of(
+                "status", 200, "title", "Results", "first", "first", "last", "third"));
+    }
+
+    @Test
+    void keepsTheOrderOfTheMappings() {
+        LinkedHashMap<String, String> mappings = new LinkedHashMap<>();
+        mappings.put("z", "/status");
+        mappings.put("a", "/body/title");
+        mappings.put("m", "/body/items/1/title");
+
+        assertThat(Projection.compile(mappings).apply(DATA).keySet()).containsExactly("z", "a", "m");
+    }
+
+    @Test
+    void mapsMissingValuesToNull() {
+        Map<String, Object> out = project(Map.of(
+                "noField", "/body/missing/deeper",
+                "outOfRange", "/body/items/9/title",
+                "leadingZero", "/body/items/01/title",
+                "intoScalar", "/status/value"), DATA);
+
+        assertThat(out).containsOnlyKeys("noField", "outOfRange", "leadingZero", "intoScalar");
+        assertThat(out.values()).containsOnlyNulls();
+    }
+
+    @Test
+    void unescapesPointerTokens() {
+        Map<String, Object> out = project(Map.of("slash", "/body/a~1b", "tilde", "/body/m~0n"), DATA);
+
+        assertThat(out).containsExactlyInAnyOrderEntriesOf(Map.of("slash", "slash", "tilde", "tilde"));
+        assertThat(Projection.tokenize("/a~01/b")).containsExactly("a~1", "b");
+    }
+
+    @Test
+    void mapsWildcardsOverLists() {
+        Map<String, Object> out = project(Map.of(
+                "titles", "/body/items/*/title",
+                "ranks", "body.items.*.meta.rank",
+                "items", "/body/items/*"), DATA);
+
+        assertThat(out.get("titles")).isEqualTo(List.of("first", "second", "third"));
+        assertThat(out.get("ranks")).isEqualTo(Arrays.asList(1, 2, null));
+        assertThat(out.get("items")).isEqualTo(ITEMS);
+    }
+
+    @Test
+    void nestsWildcards() {
+        Map<String, Object> out = project(Map.of("tags", "/body/items/*/tags/*"), DATA);
+
+        assertThat(out.get("tags")).isEqualTo(List.of(List.of("a", "b"), List.of(), List.of("c")));
+    }
+
+    @Test
+    void readsALiteralStarKeyOnObjects() {
+        Map<String, Object> out = project(Map.of("star", "/body/*", "notAList", "/status/*"),
+                Map.of("body", Map.of("*", "literal"), "status", 200));
+
+        assertThat(out.get("star")).isEqualTo("literal");
+        assertThat(out.get("notAList")).isNull();
+    }
+
+    @Test
+    void sharesPrefixesWithoutMixingUpKeys() {
+        Map<String, String> mappings = new HashMap<>();
+        mappings.put("same1", "/body/title");
+        mappings.put("same2", "body.title");
+        mappings.put("parent", "/body/items/0/meta");
+        mappings.put("child", "/body/items/0/meta/rank");
+
+        Map<String, Object> out = project(mappings, DATA);
+
+        assertThat(out).containsEntry("same1", "Results").containsEntry("same2", "Results")
+                .containsEntry("parent", Map.of("rank", 1)).containsEntry("child", 1);
+    }
+
+    @Test
+    void walksPropertiesOfOtherObjects() {
+        record Hit(String title, int rank) {
+        }
+        Map<String, Object> out = project(Map.of("title", "/hit/title", "rank", "/hits/1/rank"),
+                Map.of("hit", new Hit("one", 1), "hits", List.of(new Hit("a", 1), new Hit("b", 2))));
+
+        assertThat(out).containsEntry("title", "one").containsEntry("rank", 2);
+    }
+
+    @Test
+    void returnsNullsForNullData() {
+        assertThat(project(Map.of("a", "/a", "b", "/b/*"), null).values()).containsOnlyNulls();
+    }
+
+    private static Map<String, Object> project(Map<String, String> mappings, Object data) {
+        return Projection.compile(mappings).apply(data);
+    }
+}
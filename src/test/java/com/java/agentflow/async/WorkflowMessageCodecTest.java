@@ -0,0 +1,96 @@
+package com.java.agentflow.async;
+
+import com.java.agentflow.workflow.model.ExecutionPriority;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WorkflowMessageCodecTest {
+
+    private static final String TOPIC = "workflow-executions";
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final WorkflowMessageCodec json = new WorkflowMessageCodec(WorkflowMessageCodec.Format.JSON, 0, registry);
+    private final WorkflowMessageCodec smile = new WorkflowMessageCodec(WorkflowMessageCodec.Format.SMILE, 0, registry);
+
+    @Test
+    void roundTripsSmile() {
+        WorkflowMessage message = message(20);
+        byte[] bytes = smile.serialize(TOPIC, message);
+
+        assertThat(new String(bytes, 0, 3, StandardCharsets.US_ASCII)).isEqualTo(":)\n");
+        assertThat(smile.deserialize(TOPIC, bytes)).isEqualTo(message);
+    }
+
+    @Test
+    void readsBothFormatsWhicheverItWrites() {
+        WorkflowMessage message = message(20);
+
+        assertThat(json.deserialize(TOPIC, smile.serialize(TOPIC, message))).isEqualTo(message);
+        assertThat(smile.deserialize(TOPIC, json.serialize(TOPIC, message))).isEqualTo(message);
+    }
+
+    @Test
+    void writesJsonThatNodesWithoutTheCodecCanRead() {
+        WorkflowMessage message = message(20);
+        try (JsonDeserializer<WorkflowMessage> previous = new JsonDeserializer<>(WorkflowMessage.class, false)) {
+            WorkflowMessage read = previous.deserialize(TOPIC, new RecordHeaders(), json.serialize(TOPIC, message));
+
+            assertThat(read).isEqualTo(message);
+        }
+    }
+
+    @Test
+    void leavesInputsOutOfMessagesOverTheClaimCheckThreshold() {
+        WorkflowMessageCodec claimCheck = new WorkflowMessageCodec(WorkflowMessageCodec.Format.SMILE, 1024, registry);
+        WorkflowMessage large = message(200);
+        WorkflowMessage small = message(2);
+
+        byte[] largeBytes = claimCheck.serialize(TOPIC, large);
+        WorkflowMessage read = claimCheck.deserialize(TOPIC, largeBytes);
+
+        assertThat(largeBytes.length).isLessThanOrEqualTo(1024);
+        assertThat(read.inputs()).isNull();
+        assertThat(read).usingRecursiveComparison().ignoringFields("inputs").isEqualTo(large);
+        assertThat(claimCheck.deserialize(TOPIC, claimCheck.serialize(TOPIC, small))).isEqualTo(small);
+        assertThat(registry.counter("agentflow.queue.message.claim-checks", "codec", "smile").count()).isEqualTo(1);
+    }
+
+    @Test
+    void keepsInputsWhenTheThresholdIsZero() {
+        WorkflowMessage large = message(200);
+
+        assertThat(smile.deserialize(TOPIC, smile.serialize(TOPIC, large))).isEqualTo(large);
+        assertThat(registry.counter("agentflow.queue.message.claim-checks", "codec", "smile").count()).isZero();
+    }
+
+    @Test
+    void passesNullsThroughAndRejectsGarbage() {
+        assertThat(smile.serialize(TOPIC, null)).isNull();
+        assertThat(smile.deserialize(TOPIC, null)).isNull();
+        assertThatThrownBy(() -> smile.deserialize(TOPIC, ":)\n\u0000garbage".getBytes(StandardCharsets.ISO_8859_1)))
+                .isInstanceOf(SerializationException.class);
+        assertThatThrownBy(() -> json.deserialize(TOPIC, "{not json".getBytes(StandardCharsets.UTF_8)))
+                .isInstanceOf(SerializationException.class);
+    }
+
+    private static WorkflowMessage message(int fields) {
+        Map<String, Object> inputs = new LinkedHashMap<>();
+        for (int i = 0; i < fields; i++) {
+            inputs.put("field" + i, i % 2 == 0 ? "value of field " + i : Map.of("id", i, "tags", List.of("a", "b")));
+        }
+        return new WorkflowMessage(UUID.randomUUID(), UUID.randomUUID(), inputs, ExecutionPriority.BATCH,
+                1_700_000_000_000L, "tenant-1");
+    }
+}
@@ -0,0 +1,361 @@
+package com.java.agentflow.bench;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.java.agentflow.AgentflowApplication;
+import com.java.agentflow.workflow.entity.WorkflowExecution;
+import com.java.agentflow.workflow.model.ExecutionStatus;
+import com.java.agentflow.workflow.repository.WorkflowExecutionRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * End-to-end load test. Boots the application against embedded Kafka and Redis,
+ * registers a workflow of {@code sleep}/{@code echo} bench agents and drives the
+ * sync or async execute endpoint at a fixed arrival rate (open loop, so a slow
+ * server does not slow the generator down). Reports throughput, p50/p99 latency
+ * and JPA write counts. Only Postgres must be running; point
+ * {@code SPRING_DATASOURCE_URL} at a scratch database.
+ *
+ * <pre>
+ * ./mvnw -Pload test-compile exec:exec -Dload.mode=async -Dload.rate=200 -Dload.duration=60
+ * </pre>
+ *
+ * Latency is measured from the scheduled send time: for sync runs to the
+ * response, for async runs to the execution's {@code completedAt}.
+ */
+public final class LoadGenerator {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private record Settings(String mode, String queue, double rate, int durationSeconds, int warmupSeconds,
+            int steps, int latencyMs, int payloadBytes, int maxInFlight, boolean ephemeral) {
+
+        static Settings fromSystemProperties() {
+            return new Settings(
+                    System.getProperty("load.mode", "sync"),
+                    System.getProperty("load.queue", "kafka"),
+                    Double.parseDouble(System.getProperty("load.rate", "50")),
+                    Integer.getInteger("load.duration", 30),
+                    Integer.getInteger("load.warmup", 5),
+                    Integer.getInteger("load.steps", 3),
+                    Integer.getInteger("load.latency-ms", 20),
+                    Integer.getInteger("load.payload-bytes", 256),
+                    Integer.getInteger("load.max-in-flight", 2000),
+                    Boolean.getBoolean("load.ephemeral"));
+        }
+
+        boolean async() {
+            return mode.equals("async");
+        }
+    }
+
+    /** One request as sent; filled in when its response arrives. */
+    private record Sample(Instant intendedAt, long latencyNanos, int status, UUID executionId, String executionStatus) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Settings settings = Settings.fromSystemProperties();
+        // The embedded broker starts before Spring configures logging
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+
+        EmbeddedKafkaKraftBroker kafka = null;
+        if (settings.async() && settings.queue().equals("kafka")) {
+            kafka = new EmbeddedKafkaKraftBroker(1, 3);
+            kafka.afterPropertiesSet();
+        }
+        int redisPort = freePort();
+        RedisServer redis = RedisServer.newRedisServer().port(redisPort).setting("save \"\"").build();
+        redis.start();
+
+        List<String> appArgs = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.data.redis.port=" + redisPort,
+                "--agentflow.bench.agents.enabled=true",
+                "--agentflow.queue.backend=" + settings.queue(),
+                "--agentflow.quota.enabled=false",
+                "--agentflow.history.maintenance-enabled=false",
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.generate_statistics=true",
+                "--logging.level.root=WARN",
+                "--logging.level.com.java.agentflow=WARN"));
+        if (kafka != null) {
+            appArgs.add("--spring.kafka.bootstrap-servers=" + kafka.getBrokersAsString());
+        }
+        ConfigurableApplicationContext app = SpringApplication.run(AgentflowApplication.class,
+                appArgs.toArray(String[]::new));
+
+        try {
+            int port = app.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            run(settings, app, URI.create("http://localhost:" + port));
+        } finally {
+            app.close();
+            if (kafka != null) {
+                kafka.destroy();
+            }
+            redis.stop();
+        }
+        System.exit(0);
+    }
+
+    private static void run(Settings settings, ConfigurableApplicationContext app, URI base) throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        UUID workflowId = createWorkflow(client, base, settings);
+        StringBuilder query = new StringBuilder("?async=").append(settings.async());
+        if (settings.ephemeral()) {
+            query.append("&ephemeral=true");
+        }
+        HttpRequest request = HttpRequest.newBuilder(base.resolve("/api/workflows/" + workflowId + "/execute" + query))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"inputs\":{\"source\":\"load\"}}"))
+                .build();
+
+        Statistics statistics = app.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+
+        System.out.printf("Warming up for %ds at %.0f/s%n", settings.warmupSeconds(), settings.rate());
+        Run warmup = drive(client, request, settings, settings.warmupSeconds());
+        awaitDrained(app, settings, new ArrayList<>(warmup.samples()));
+        statistics.clear();
+
+        System.out.printf("Measuring for %ds at %.0f/s%n", settings.durationSeconds(), settings.rate());
+        Instant measureStart = Instant.now();
+        Run run = drive(client, request, settings, settings.durationSeconds());
+        List<Sample> samples = new ArrayList<>(run.samples());
+        Instant lastCompletion = awaitDrained(app, settings, samples);
+
+        report(settings, run, samples, measureStart, lastCompletion, statistics);
+    }
+
+    private record Run(Collection<Sample> samples, long sent, long shed, long errors) {
+    }
+
+    /**
+     * Send requests at the target rate for the given time and wait for every response.
+     * Requests due while {@code maxInFlight} are outstanding are shed and counted.
+     */
+    private static Run drive(HttpClient client, HttpRequest request, Settings settings, int seconds)
+            throws InterruptedException {
+        Queue<Sample> samples = new ConcurrentLinkedQueue<>();
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicLong errors = new AtomicLong();
+        long shed = 0;
+        long sent = 0;
+
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / settings.rate());
+        long total = (long) (settings.rate() * seconds);
+        CountDownLatch responses = new CountDownLatch((int) total);
+        Instant startInstant = Instant.now();
+        long start = System.nanoTime();
+
+        for (long i = 0; i < total; i++) {
+            long intended = start + i * intervalNanos;
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (inFlight.get() >= settings.maxInFlight()) {
+                shed++;
+                responses.countDown();
+                continue;
+            }
+            inFlight.incrementAndGet();
+            sent++;
+            Instant intendedAt = startInstant.plusNanos(intended - start);
+            client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenComplete((response, error) -> {
+                long latency = System.nanoTime() - intended;
+                inFlight.decrementAndGet();
+                try {
+                    if (error != null) {
+                        errors.incrementAndGet();
+                    } else {
+                        samples.add(toSample(intendedAt, latency, response));
+                    }
+                } finally {
+                    responses.countDown();
+                }
+            });
+        }
+        if (!responses.await(5, TimeUnit.MINUTES)) {
+            System.out.println("Gave up waiting for " + responses.getCount() + " responses");
+        }
+        return new Run(samples, sent, shed, errors.get());
+    }
+
+    private static Sample toSample(Instant intendedAt, long latency, HttpResponse<String> response) {
+        UUID executionId = null;
+        String status = null;
+        if (response.statusCode() == 200) {
+            try {
+                JsonNode body = JSON.readTree(response.body());
+                executionId = UUID.fromString(body.path("id").asText());
+                status = body.path("status").asText();
+            } catch (IOException | IllegalArgumentException e) {
+                status = "UNPARSEABLE";
+            }
+        }
+        return new Sample(intendedAt, latency, response.statusCode(), executionId, status);
+    }
+
+    /**
+     * For async runs, wait until every accepted execution is terminal and replace each
+     * sample's latency with intended send time to {@code completedAt}.
+     *
+     * @return when the last execution completed
+     */
+    private static Instant awaitDrained(ConfigurableApplicationContext app, Settings settings, List<Sample> samples)
+            throws InterruptedException {
+        if (!settings.async()) {
+            return Instant.now();
+        }
+        WorkflowExecutionRepository repository = app.getBean(WorkflowExecutionRepository.class);
+        Map<UUID, Sample> pending = new HashMap<>();
+        for (Sample sample : samples) {
+            if (sample.executionId() != null) {
+                pending.put(sample.executionId(), sample);
+            }
+        }
+        Map<UUID, Sample> finished = new HashMap<>();
+        Instant last = Instant.now();
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(5);
+
+        while (!pending.isEmpty() && System.nanoTime() < deadline) {
+            List<UUID> ids = new ArrayList<>(pending.keySet());
+            for (int from = 0; from < ids.size(); from += 1000) {
+                for (WorkflowExecution execution : repository.findAllById(ids.subList(from,
+                        Math.min(ids.size(), from + 1000)))) {
+                    ExecutionStatus status = execution.getStatus();
+                    if (status != ExecutionStatus.COMPLETED && status != ExecutionStatus.FAILED) {
+                        continue;
+                    }
+                    Sample sample = pending.remove(execution.getId());
+                    Instant completedAt = execution.getCompletedAt() != null ? execution.getCompletedAt() : Instant.now();
+                    finished.put(execution.getId(), new Sample(sample.intendedAt(),
+                            Duration.between(sample.intendedAt(), completedAt).toNanos(),
+                            sample.status(), sample.executionId(), status.name()));
+                    if (completedAt.isAfter(last)) {
+                        last = completedAt;
+                    }
+                }
+            }
+            if (!pending.isEmpty()) {
+                Thread.sleep(250);
+            }
+        }
+        if (!pending.isEmpty()) {
+            System.out.println(pending.size() + " executions did not finish");
+        }
+        samples.replaceAll(sample -> finished.getOrDefault(sample.executionId(), sample));
+        return last;
+    }
+
+    private static void report(Settings settings, Run run, List<Sample> samples, Instant measureStart,
+            Instant lastCompletion, Statistics statistics) {
+        Map<Integer, Long> statusCodes = new TreeMap<>();
+        Map<String, Long> outcomes = new TreeMap<>();
+        List<Long> latencies = new ArrayList<>();
+        for (Sample sample : samples) {
+            statusCodes.merge(sample.status(), 1L, Long::sum);
+            if (sample.executionStatus() != null) {
+                outcomes.merge(sample.executionStatus(), 1L, Long::sum);
+            }
+            if ("COMPLETED".equals(sample.executionStatus())) {
+                latencies.add(sample.latencyNanos());
+            }
+        }
+        long completed = outcomes.getOrDefault("COMPLETED", 0L);
+        double elapsed = Math.max(settings.durationSeconds(),
+                Duration.between(measureStart, lastCompletion).toMillis() / 1000.0);
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+
+        System.out.println();
+        System.out.printf("mode=%s%s rate=%.0f/s duration=%ds steps=%d latency=%dms payload=%dB%s%n",
+                settings.mode(), settings.async() ? " queue=" + settings.queue() : "", settings.rate(),
+                settings.durationSeconds(), settings.steps(), settings.latencyMs(), settings.payloadBytes(),
+                settings.ephemeral() ? " ephemeral" : "");
+        System.out.printf("requests   sent=%d shed=%d transport-errors=%d http=%s%n",
+                run.sent(), run.shed(), run.errors(), statusCodes);
+        System.out.printf("executions %s%n", outcomes);
+        System.out.printf("throughput %.1f completed/s over %.1fs%n", completed / elapsed, elapsed);
+        System.out.printf("latency    p50=%.1fms p90=%.1fms p99=%.1fms max=%.1fms%n",
+                millis(sorted, 0.50), millis(sorted, 0.90), millis(sorted, 0.99), millis(sorted, 1.0));
+        double perExecution = Math.max(1, completed);
+        System.out.printf("db writes  inserts=%d (%.1f/exec) updates=%d (%.1f/exec) statements=%d (%.1f/exec) transactions=%d%n",
+                statistics.getEntityInsertCount(), statistics.getEntityInsertCount() / perExecution,
+                statistics.getEntityUpdateCount(), statistics.getEntityUpdateCount() / perExecution,
+                statistics.getPrepareStatementCount(), statistics.getPrepareStatementCount() / perExecution,
+                statistics.getTransactionCount());
+    }
+
+    private static double millis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    private static UUID createWorkflow(HttpClient client, URI base, Settings settings) throws Exception {
+        StringBuilder yaml = new StringBuilder()
+                .append("name: load-").append(System.currentTimeMillis()).append('\n')
+                .append("version: \"1.0\"\n")
+                .append("steps:\n");
+        for (int i = 1; i <= settings.steps(); i++) {
+            yaml.append("  - id: s").append(i).append('\n')
+                    .append("    agent: sleep\n");
+            if (i > 1) {
+                yaml.append("    dependsOn: [s").append(i - 1).append("]\n");
+            }
+            yaml.append("    config:\n")
+                    .append("      latencyMs: ").append(settings.latencyMs()).append('\n')
+                    .append("      payloadBytes: ").append(settings.payloadBytes()).append('\n');
+        }
+        yaml.append("  - id: result\n")
+                .append("    agent: echo\n")
+                .append("    config:\n")
+                .append("      message: \"${steps['s").append(settings.steps()).append("'].outputs.sleptMs}\"\n");
+
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(base.resolve("/api/workflows"))
+                .header("Content-Type", "text/yaml")
+                .POST(HttpRequest.BodyPublishers.ofString(yaml.toString()))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() / 100 != 2) {
+            throw new IllegalStateException("Could not create workflow: " + response.statusCode() + " " + response.body());
+        }
+        return UUID.fromString(JSON.readTree(response.body()).path("id").asText());
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
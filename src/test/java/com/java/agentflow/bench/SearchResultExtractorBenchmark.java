@@ -0,0 +1,70 @@
+package com.java.agentflow.bench;
+
+import com.java.agentflow.agent.search.SearchResultExtractor;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parse cost of a recorded DuckDuckGo result page with the previous approach
+ * (buffer the page, then run the link and snippet regexes over it) and with
+ * the streaming SearchResultExtractor, which stops once enough results are complete.
+ * Prints how many results each variant finds once per trial, as the regexes
+ * miss titles that contain markup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchResultExtractorBenchmark {
+
+    private static final Pattern LINK = Pattern.compile("class=\"result__a\"[^>]*href=\"([^\"]+)\"[^>]*>([^<]+)</a>");
+    private static final Pattern SNIPPET = Pattern.compile("class=\"result__snippet\">([^<]+)</a>");
+
+    /** Results asked for; 5 is the agent's default, 10 a full page. */
+    @Param({ "5", "10" })
+    public int maxResults;
+
+    private final SearchResultExtractor extractor = new SearchResultExtractor();
+    private String page;
+
+    @Setup
+    public void setup() throws IOException {
+        try (InputStream in = SearchResultExtractorBenchmark.class.getResourceAsStream("/search/ddg-ai-news.html")) {
+            page = new String(Objects.requireNonNull(in, "recorded page").readAllBytes(), StandardCharsets.UTF_8);
+        }
+        System.out.printf("%n[maxResults=%d] results: regex %d, streaming %d%n",
+                maxResults, regex().size(), streaming().size());
+    }
+
+    @Benchmark
+    public List<Map<String, String>> regex() {
+        List<Map<String, String>> results = new ArrayList<>();
+        Matcher links = LINK.matcher(page);
+        Matcher snippets = SNIPPET.matcher(page);
+        while (results.size() < maxResults && links.find()) {
+            Map<String, String> result = new HashMap<>();
+            result.put("url", links.group(1));
+            result.put("title", links.group(2));
+            if (snippets.find()) {
+                result.put("snippet", snippets.group(1));
+            }
+            results.add(result);
+        }
+        return results;
+    }
+
+    @Benchmark
+    public List<Map<String, String>> streaming() throws IOException {
+        return extractor.extract(new StringReader(page), maxResults);
+    }
+}
@@ -0,0 +1,107 @@
+package com.java.agentflow.bench;
+
+import com.java.agentflow.agent.AgentContext;
+import com.java.agentflow.workflow.engine.PersistentMap;
+import com.java.agentflow.workflow.engine.VariableInterpolator;
+import com.java.agentflow.workflow.engine.VariableInterpolator.InterpolationContext;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of preparing one step of a wide workflow: snapshotting the outputs of
+ * the steps completed so far, interpolating a config with a large literal
+ * payload and a single placeholder, and building the AgentContext. Compares
+ * the previous copy-everything path with the shared persistent one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StepContextBenchmark {
+
+    @Param({ "10", "200" })
+    public int completedSteps;
+
+    @Param({ "1000" })
+    public int payloadItems;
+
+    private final VariableInterpolator interpolator = new VariableInterpolator();
+    private Map<String, Map<String, Object>> legacyOutputs;
+    private PersistentMap<String, Map<String, Object>> persistentOutputs;
+    private Map<String, Object> config;
+
+    @Setup
+    public void setup() {
+        legacyOutputs = new ConcurrentHashMap<>();
+        persistentOutputs = PersistentMap.empty();
+        for (int i = 0; i < completedSteps; i++) {
+            Map<String, Object> outputs = Map.of("statusCode", 200, "body", "result " + i);
+            legacyOutputs.put("step" + i, new HashMap<>(Map.of("outputs", outputs)));
+            persistentOutputs = persistentOutputs.with("step" + i, Collections.singletonMap("outputs", outputs));
+        }
+
+        // Shaped like a definition loaded from JSONB: LinkedHashMaps and ArrayLists
+        List<Object> items = new ArrayList<>(payloadItems);
+        for (int i = 0; i < payloadItems; i++) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("id", i);
+            item.put("title", "Item " + i);
+            item.put("tags", new ArrayList<>(List.of("a", "b", "c")));
+            items.add(item);
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("items", items);
+        body.put("query", "${steps.step0.outputs.body}");
+        config = new LinkedHashMap<>();
+        config.put("url", "http://localhost/items");
+        config.put("body", body);
+    }
+
+    @Benchmark
+    public AgentContext legacy() {
+        // Per-step snapshot copy, full config rebuild, defensive copy in the context
+        Map<String, Map<String, Object>> snapshot = new HashMap<>(legacyOutputs);
+        InterpolationContext context = new InterpolationContext(Map.of(), snapshot);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> interpolated = (Map<String, Object>) rebuild(config, context);
+        return new AgentContext(Map.of(), Map.copyOf(interpolated));
+    }
+
+    @Benchmark
+    public AgentContext persistent() {
+        InterpolationContext context = new InterpolationContext(Map.of(), persistentOutputs);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> interpolated = (Map<String, Object>) interpolator.interpolateObject(config, context);
+        return new AgentContext(Map.of(), interpolated);
+    }
+
+    @Benchmark
+    public PersistentMap<String, Map<String, Object>> persistentAppend() {
+        return persistentOutputs.with("next", Collections.singletonMap("outputs", Map.of()));
+    }
+
+    /**
+     * The previous interpolateObject: every map and list is rebuilt.
+     */
+    private Object rebuild(Object value, InterpolationContext context) {
+        if (value instanceof String str) {
+            return interpolator.interpolate(str, context);
+        }
+        if (value instanceof Map<?, ?> map) {
+            Map<String, Object> result = new HashMap<>();
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                result.put(entry.getKey().toString(), rebuild(entry.getValue(), context));
+            }
+            return result;
+        }
+        if (value instanceof List<?> list) {
+            return list.stream().map(item -> rebuild(item, context)).toList();
+        }
+        return value;
+    }
+}
@@ -0,0 +1,100 @@
+package com.java.agentflow.bench;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.java.agentflow.agent.transform.ProjectionCache;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the compiled projection engine with the previous tree-based
+ * TransformAgent path (valueToTree + JsonPointer per call + convertValue).
+ * The input mimics an HTTP step body with a large item list.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransformProjectionBenchmark {
+
+    @Param({ "100", "10000" })
+    public int items;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ProjectionCache projections = new ProjectionCache(16);
+    private final Map<String, String> mappings = new LinkedHashMap<>();
+    private Map<String, Object> data;
+
+    @Setup
+    public void setup() {
+        List<Map<String, Object>> list = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            Map<String, Object> item = new HashMap<>();
+            item.put("id", i);
+            item.put("title", "Item " + i);
+            item.put("description", "Lorem ipsum dolor sit amet ".repeat(8));
+            item.put("tags", List.of("a", "b", "c"));
+            list.add(item);
+        }
+        Map<String, Object> body = new HashMap<>();
+        body.put("items", list);
+        body.put("total", items);
+        body.put("meta", Map.of("page", 1, "source", "bench"));
+        data = Map.of("statusCode", 200, "body", body);
+
+        mappings.put("total", "/body/total");
+        mappings.put("source", "body.meta.source");
+        mappings.put("firstTitle", "/body/items/0/title");
+    }
+
+    @Benchmark
+    public Map<String, Object> compiledMappings() {
+        return projections.forMappings(mappings).apply(data);
+    }
+
+    @Benchmark
+    public Map<String, Object> treeMappings() {
+        JsonNode root = objectMapper.valueToTree(data);
+        Map<String, Object> outputs = new HashMap<>();
+        for (Map.Entry<String, String> mapping : mappings.entrySet()) {
+            outputs.put(mapping.getKey(), nodeToValue(extractValue(root, mapping.getValue())));
+        }
+        return outputs;
+    }
+
+    @Benchmark
+    public Map<String, Object> compiledWildcard() {
+        return projections.forExpression("/body/items/*/title").apply(data);
+    }
+
+    private JsonNode extractValue(JsonNode root, String expression) {
+        String pointer = expression.startsWith("/")
+                ? expression
+                : "/" + expression.replace(".", "/");
+        return root.at(JsonPointer.compile(pointer));
+    }
+
+    private Object nodeToValue(JsonNode node) {
+        if (node == null || node.isMissingNode() || node.isNull()) {
+            return null;
+        }
+        if (node.isTextual()) {
+            return node.asText();
+        }
+        if (node.isNumber()) {
+            return node.numberValue();
+        }
+        if (node.isBoolean()) {
+            return node.asBoolean();
+        }
+        if (node.isArray() || node.isObject()) {
+            return objectMapper.convertValue(node, Object.class);
+        }
+        return node.asText();
+    }
+}
@@ -0,0 +1,89 @@
+package com.java.agentflow.bench;
+
+import com.java.agentflow.async.WorkflowMessage;
+import com.java.agentflow.async.WorkflowMessageCodec;
+import com.java.agentflow.workflow.model.ExecutionPriority;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consumer-side decode cost of a workflow message with the previous Spring
+ * JsonSerializer/JsonDeserializer pair and with WorkflowMessageCodec. Prints
+ * the encoded size of each variant, raw and lz4-compressed, once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorkflowMessageCodecBenchmark {
+
+    private static final String TOPIC = "workflow-executions";
+
+    /** Number of input fields; 8 is a typical request, 500 a document-sized one. */
+    @Param({ "8", "500" })
+    public int fields;
+
+    private final JsonDeserializer<WorkflowMessage> springDeserializer = new JsonDeserializer<>(WorkflowMessage.class);
+    private final RecordHeaders springHeaders = new RecordHeaders();
+    private byte[] springJson;
+    private WorkflowMessageCodec codec;
+    private byte[] json;
+    private byte[] smile;
+    private byte[] claimChecked;
+
+    @Setup
+    public void setup() {
+        Map<String, Object> inputs = new LinkedHashMap<>();
+        for (int i = 0; i < fields; i++) {
+            inputs.put("field" + i, i % 2 == 0 ? "value of field " + i : Map.of("id", i, "tags", List.of("a", "b")));
+        }
+        WorkflowMessage message = new WorkflowMessage(UUID.randomUUID(), UUID.randomUUID(), inputs,
+                ExecutionPriority.NORMAL, System.currentTimeMillis(), "tenant-1");
+
+        springDeserializer.addTrustedPackages("com.java.agentflow.async");
+        try (JsonSerializer<WorkflowMessage> serializer = new JsonSerializer<>()) {
+            springJson = serializer.serialize(TOPIC, springHeaders, message);
+        }
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        codec = new WorkflowMessageCodec(WorkflowMessageCodec.Format.SMILE, 0, registry);
+        json = new WorkflowMessageCodec(WorkflowMessageCodec.Format.JSON, 0, registry).serialize(TOPIC, message);
+        smile = codec.serialize(TOPIC, message);
+        claimChecked = new WorkflowMessageCodec(WorkflowMessageCodec.Format.SMILE, 1, registry)
+                .serialize(TOPIC, message);
+
+        LZ4Compressor lz4 = LZ4Factory.fastestInstance().fastCompressor();
+        System.out.printf("%n[fields=%d] bytes (raw/lz4): spring-json %d/%d, json %d/%d, smile %d/%d, claim-check %d/%d%n",
+                fields, springJson.length, lz4.compress(springJson).length, json.length, lz4.compress(json).length,
+                smile.length, lz4.compress(smile).length, claimChecked.length, lz4.compress(claimChecked).length);
+    }
+
+    @Benchmark
+    public WorkflowMessage springJson() {
+        return springDeserializer.deserialize(TOPIC, springHeaders, springJson);
+    }
+
+    @Benchmark
+    public WorkflowMessage json() {
+        return codec.deserialize(TOPIC, json);
+    }
+
+    @Benchmark
+    public WorkflowMessage smile() {
+        return codec.deserialize(TOPIC, smile);
+    }
+
+    @Benchmark
+    public WorkflowMessage claimCheck() {
+        return codec.deserialize(TOPIC, claimChecked);
+    }
+}
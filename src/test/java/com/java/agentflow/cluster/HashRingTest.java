@@ -0,0 +1,82 @@
+package com.java.agentflow.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HashRingTest {
+
+    private static final int VIRTUAL_NODES = 64;
+    private static final List<String> KEYS = IntStream.range(0, 30_000)
+            .mapToObj(i -> new UUID(i, i * 31L).toString())
+            .toList();
+
+    @Test
+    void rejectsLookupsOnAnEmptyRing() {
+        HashRing ring = new HashRing(List.of(), VIRTUAL_NODES);
+
+        assertThatThrownBy(() -> ring.ownerOf("key")).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void ownersDoNotDependOnNodeOrder() {
+        HashRing ring = new HashRing(List.of("a", "b", "c"), VIRTUAL_NODES);
+        HashRing reordered = new HashRing(List.of("c", "a", "b"), VIRTUAL_NODES);
+
+        assertThat(KEYS).allMatch(key -> ring.ownerOf(key).equals(reordered.ownerOf(key)));
+    }
+
+    @Test
+    void spreadsKeysAcrossNodes() {
+        HashRing ring = new HashRing(List.of("a", "b", "c", "d"), VIRTUAL_NODES);
+
+        Map<String, Integer> counts = owners(ring, KEYS);
+        assertThat(counts).containsOnlyKeys("a", "b", "c", "d");
+        // An even share is 7500 keys
+        assertThat(counts.values()).allSatisfy(count -> assertThat(count).isBetween(5_000, 10_000));
+    }
+
+    @Test
+    void addingANodeOnlyMovesKeysToIt() {
+        HashRing before = new HashRing(List.of("a", "b", "c"), VIRTUAL_NODES);
+        HashRing after = new HashRing(List.of("a", "b", "c", "d"), VIRTUAL_NODES);
+
+        long moved = KEYS.stream().filter(key -> !before.ownerOf(key).equals(after.ownerOf(key))).count();
+        assertThat(KEYS).filteredOn(key -> !before.ownerOf(key).equals(after.ownerOf(key)))
+                .allMatch(key -> after.ownerOf(key).equals("d"));
+        // About a quarter of the keys, not a reshuffle
+        assertThat(moved).isBetween(5_000L, 10_000L);
+    }
+
+    @Test
+    void removingANodeOnlyMovesItsKeys() {
+        HashRing before = new HashRing(List.of("a", "b", "c", "d"), VIRTUAL_NODES);
+        HashRing after = new HashRing(List.of("a", "b", "d"), VIRTUAL_NODES);
+
+        for (String key : KEYS) {
+            String owner = before.ownerOf(key);
+            if (owner.equals("c")) {
+                assertThat(after.ownerOf(key)).isIn("a", "b", "d");
+            } else {
+                assertThat(after.ownerOf(key)).isEqualTo(owner);
+            }
+        }
+        // The removed node's keys are shared out rather than landing on one neighbour
+        List<String> removedKeys = KEYS.stream().filter(key -> before.ownerOf(key).equals("c")).toList();
+        Map<String, Integer> inherited = owners(after, removedKeys);
+        assertThat(inherited).containsOnlyKeys("a", "b", "d");
+    }
+
+    private static Map<String, Integer> owners(HashRing ring, List<String> keys) {
+        Map<String, Integer> counts = new HashMap<>();
+        keys.forEach(key -> counts.merge(ring.ownerOf(key), 1, Integer::sum));
+        return counts;
+    }
+}
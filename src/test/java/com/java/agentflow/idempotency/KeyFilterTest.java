@@ -0,0 +1,72 @@
+package com.java.agentflow.idempotency;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeyFilterTest {
+
+    private static final long HOUR = 3_600_000;
+
+    @Test
+    void containsAddedKeys() {
+        KeyFilter filter = new KeyFilter(1000, 0.01, HOUR);
+        IntStream.range(0, 1000).forEach(i -> filter.add("key-" + i));
+
+        assertThat(IntStream.range(0, 1000)).allMatch(i -> filter.mightContain("key-" + i));
+    }
+
+    @Test
+    void keepsFalsePositivesNearTheConfiguredRate() {
+        KeyFilter filter = new KeyFilter(10_000, 0.01, HOUR);
+        IntStream.range(0, 10_000).forEach(i -> filter.add("key-" + i));
+
+        long falsePositives = IntStream.range(0, 10_000).filter(i -> filter.mightContain("other-" + i)).count();
+        // Both generations are checked, but the older one is still empty
+        assertThat(falsePositives).isLessThan(200);
+    }
+
+    @Test
+    void remembersTheOlderGenerationUntilTheNextRotation() {
+        KeyFilter filter = new KeyFilter(100, 0.01, HOUR);
+        IntStream.range(0, 100).forEach(i -> filter.add("first-" + i));
+        // Full, so this rotates: the first keys move to the older generation
+        IntStream.range(0, 100).forEach(i -> filter.add("second-" + i));
+
+        assertThat(IntStream.range(0, 100)).allMatch(i -> filter.mightContain("first-" + i));
+        assertThat(IntStream.range(0, 100)).allMatch(i -> filter.mightContain("second-" + i));
+
+        // Rotating again drops the first keys
+        IntStream.range(0, 100).forEach(i -> filter.add("third-" + i));
+
+        long remembered = IntStream.range(0, 100).filter(i -> filter.mightContain("first-" + i)).count();
+        assertThat(remembered).isLessThan(10);
+        assertThat(IntStream.range(0, 100)).allMatch(i -> filter.mightContain("second-" + i));
+    }
+
+    @Test
+    void rotatesOnceTheWindowHasPassed() {
+        KeyFilter filter = new KeyFilter(1000, 0.01, 0);
+        filter.add("a");
+        filter.add("b");
+
+        assertThat(filter.mightContain("a")).isTrue();
+        assertThat(filter.mightContain("b")).isTrue();
+
+        filter.add("c");
+
+        assertThat(filter.mightContain("a")).isFalse();
+        assertThat(filter.mightContain("b")).isTrue();
+        assertThat(filter.mightContain("c")).isTrue();
+    }
+
+    @Test
+    void acceptsZeroExpectedKeys() {
+        KeyFilter filter = new KeyFilter(0, 0.01, HOUR);
+        filter.add("a");
+
+        assertThat(filter.mightContain("a")).isTrue();
+    }
+}
@@ -0,0 +1,112 @@
+package com.java.agentflow.schedule;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTest {
+
+    private static final long TICK = 100;
+
+    @Test
+    void roundsDeadlinesUpToTheNextTick() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, 0);
+        wheel.schedule("a", 250);
+
+        assertThat(wheel.advance(299)).isEmpty();
+        assertThat(wheel.advance(300)).containsExactly("a");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void firesPastDeadlinesOnTheNextTick() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, 0);
+        wheel.advance(1_000);
+        wheel.schedule("late", 0);
+
+        assertThat(wheel.nextTickMillis()).isEqualTo(1_100);
+        assertThat(wheel.advance(1_099)).isEmpty();
+        assertThat(wheel.advance(1_100)).containsExactly("late");
+    }
+
+    @Test
+    void returnsTimersExpiringInOneAdvanceEarliestFirst() {
+        TimingWheel<Integer> wheel = new TimingWheel<>(TICK, 0);
+        for (long tick : new long[] { 4_100, 5, 70, 3 }) {
+            wheel.schedule((int) tick, tick * TICK);
+        }
+
+        assertThat(wheel.advance(5_000 * TICK)).containsExactly(3, 5, 70, 4_100);
+    }
+
+    @Test
+    void cascadesThroughEveryLevelOnTime() {
+        TimingWheel<Long> wheel = new TimingWheel<>(TICK, 0);
+        // Start off a level boundary, so cascades happen partway through each timer's range
+        long now = 1_234;
+        wheel.advance(now * TICK);
+
+        long[] delays = {
+                1, 63, 64, 65, 127, 128,
+                4_095, 4_096, 4_097, 64L * 64 * 5 + 17,
+                262_143, 262_144, 262_145, 64L * 64 * 64 * 7 + 1_000,
+                16_777_215, 16_777_216, 16_777_217, 30_000_000 };
+        TreeMap<Long, Long> byDeadline = new TreeMap<>();
+        for (long delay : delays) {
+            long deadline = now + delay;
+            wheel.schedule(deadline, deadline * TICK);
+            byDeadline.put(deadline, deadline);
+        }
+        assertThat(wheel.size()).isEqualTo(delays.length);
+
+        for (long deadline : byDeadline.keySet()) {
+            assertThat(wheel.advance((deadline - 1) * TICK)).as("before %d", deadline).isEmpty();
+            assertThat(wheel.advance(deadline * TICK)).as("at %d", deadline).containsExactly(deadline);
+        }
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void firesRandomTimersNeitherEarlyNorLate() {
+        Random random = new Random(11);
+        TimingWheel<Long> wheel = new TimingWheel<>(TICK, 0);
+        List<Long> deadlines = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            long deadline = 1 + random.nextInt(300_000);
+            deadlines.add(deadline);
+            wheel.schedule(deadline, deadline * TICK);
+        }
+
+        long now = 0;
+        List<Long> fired = new ArrayList<>();
+        while (wheel.size() > 0) {
+            now += 1 + random.nextInt(5_000);
+            for (long deadline : wheel.advance(now * TICK)) {
+                assertThat(deadline).isLessThanOrEqualTo(now).isGreaterThan(now - 5_000);
+                fired.add(deadline);
+            }
+        }
+        assertThat(fired).isSorted().containsExactlyInAnyOrderElementsOf(deadlines);
+    }
+
+    @Test
+    void cancelledTimersNeverFire() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, 0);
+        TimingWheel.Timer<String> near = wheel.schedule("near", 500);
+        TimingWheel.Timer<String> far = wheel.schedule("far", 1_000_000);
+        TimingWheel.Timer<String> kept = wheel.schedule("kept", 700);
+
+        assertThat(wheel.cancel(near)).isTrue();
+        assertThat(wheel.cancel(far)).isTrue();
+        assertThat(wheel.cancel(far)).isFalse();
+        assertThat(wheel.size()).isEqualTo(1);
+
+        assertThat(wheel.advance(2_000_000)).containsExactly("kept");
+        assertThat(wheel.cancel(kept)).isFalse();
+    }
+}
@@ -0,0 +1,147 @@
+package com.java.agentflow.workflow.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PersistentMapTest {
+
+    @Test
+    void leavesTheOriginalUnchanged() {
+        PersistentMap<String, Integer> one = PersistentMap.<String, Integer>empty().with("a", 1);
+        PersistentMap<String, Integer> two = one.with("b", 2);
+        PersistentMap<String, Integer> replaced = two.with("a", 3);
+        PersistentMap<String, Integer> removed = replaced.without("b");
+
+        assertThat(one).containsExactlyInAnyOrderEntriesOf(Map.of("a", 1));
+        assertThat(two).containsExactlyInAnyOrderEntriesOf(Map.of("a", 1, "b", 2));
+        assertThat(replaced).containsExactlyInAnyOrderEntriesOf(Map.of("a", 3, "b", 2));
+        assertThat(removed).containsExactlyInAnyOrderEntriesOf(Map.of("a", 3));
+    }
+
+    @Test
+    void returnsItselfWhenNothingChanges() {
+        Integer value = 1;
+        PersistentMap<String, Integer> map = PersistentMap.<String, Integer>empty().with("a", value);
+
+        assertThat(map.with("a", value)).isSameAs(map);
+        assertThat(map.without("missing")).isSameAs(map);
+        assertThat(map.without("a")).isSameAs(PersistentMap.empty());
+    }
+
+    @Test
+    void allowsNullValuesButNotNullKeys() {
+        PersistentMap<String, Object> map = PersistentMap.<String, Object>empty().with("a", null);
+
+        assertThat(map.containsKey("a")).isTrue();
+        assertThat(map.get("a")).isNull();
+        assertThat(map).hasSize(1);
+        assertThatThrownBy(() -> map.with(null, 1)).isInstanceOf(NullPointerException.class);
+        assertThatThrownBy(() -> map.put("b", 1)).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void keepsKeysWithTheSameHashApart() {
+        Key a = new Key("a", 42);
+        Key b = new Key("b", 42);
+        Key c = new Key("c", 42);
+        Key other = new Key("other", 43);
+
+        PersistentMap<Key, String> map = PersistentMap.<Key, String>empty()
+                .with(a, "A").with(b, "B").with(c, "C").with(other, "O");
+
+        assertThat(map).hasSize(4);
+        assertThat(map.get(a)).isEqualTo("A");
+        assertThat(map.get(b)).isEqualTo("B");
+        assertThat(map.get(c)).isEqualTo("C");
+        assertThat(map.get(new Key("d", 42))).isNull();
+        assertThat(map.entrySet()).hasSize(4);
+
+        PersistentMap<Key, String> replaced = map.with(b, "B2");
+        assertThat(replaced).hasSize(4);
+        assertThat(replaced.get(b)).isEqualTo("B2");
+        assertThat(map.get(b)).isEqualTo("B");
+    }
+
+    @Test
+    void removesKeysWithTheSameHash() {
+        Key a = new Key("a", 7);
+        Key b = new Key("b", 7);
+        Key c = new Key("c", 7);
+        PersistentMap<Key, String> map = PersistentMap.<Key, String>empty().with(a, "A").with(b, "B").with(c, "C");
+
+        PersistentMap<Key, String> withoutB = map.without(b);
+        assertThat(withoutB).containsExactlyInAnyOrderEntriesOf(Map.of(a, "A", c, "C"));
+        assertThat(withoutB.without(new Key("d", 7))).isSameAs(withoutB);
+
+        // Down to one key the collision turns back into a plain entry
+        PersistentMap<Key, String> onlyC = withoutB.without(a);
+        assertThat(onlyC).containsExactlyInAnyOrderEntriesOf(Map.of(c, "C"));
+        assertThat(onlyC.with(a, "A2")).containsExactlyInAnyOrderEntriesOf(Map.of(a, "A2", c, "C"));
+        assertThat(onlyC.without(c)).isEmpty();
+        assertThat(map).hasSize(3);
+    }
+
+    @Test
+    void separatesHashesThatDifferOnlyInTheirTopBits() {
+        // The hashes share their low 30 bits, so the trie nests down to its last level
+        Key low = new Key("low", 0x0000_1234);
+        Key high = new Key("high", 0x4000_1234);
+        PersistentMap<Key, String> map = PersistentMap.<Key, String>empty().with(low, "L").with(high, "H");
+
+        assertThat(map.get(low)).isEqualTo("L");
+        assertThat(map.get(high)).isEqualTo("H");
+        assertThat(map.without(low)).containsExactlyInAnyOrderEntriesOf(Map.of(high, "H"));
+        assertThat(map.without(high).without(low)).isEmpty();
+    }
+
+    @Test
+    void matchesHashMapUnderRandomUpdates() {
+        Random random = new Random(7);
+        Map<Key, Integer> expected = new HashMap<>();
+        PersistentMap<Key, Integer> map = PersistentMap.empty();
+
+        for (int i = 0; i < 20_000; i++) {
+            // Few distinct hashes, so many keys collide
+            int id = random.nextInt(2_000);
+            Key key = new Key("k" + id, random.nextBoolean() ? id % 300 : id * 0x9E3779B9);
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                map = map.without(key);
+            } else {
+                expected.put(key, i);
+                map = map.with(key, i);
+            }
+            assertThat(map.size()).isEqualTo(expected.size());
+        }
+
+        assertThat(map).isEqualTo(expected);
+        assertThat(map.entrySet()).hasSize(expected.size());
+        for (Map.Entry<Key, Integer> entry : expected.entrySet()) {
+            assertThat(map.get(entry.getKey())).isEqualTo(entry.getValue());
+        }
+    }
+
+    @Test
+    void copiesOtherMaps() {
+        Map<String, Integer> source = Map.of("a", 1, "b", 2, "c", 3);
+        PersistentMap<String, Integer> copy = PersistentMap.copyOf(source);
+
+        assertThat(copy).isEqualTo(source);
+        assertThat(PersistentMap.copyOf(copy)).isSameAs(copy);
+    }
+
+    /** A key with a chosen hash code, so tests can make keys collide. */
+    private record Key(String name, int hash) {
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.java.agentflow.workflow.parser;
+
+import com.java.agentflow.workflow.model.WorkflowDefinition.RetryConfig;
+import com.java.agentflow.workflow.model.WorkflowDefinition.StepDefinition;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DataFlowAnalyzerTest {
+
+    private final DataFlowAnalyzer analyzer = new DataFlowAnalyzer();
+
+    @Test
+    void turnsStepReferencesIntoDependencies() {
+        List<StepDefinition> analyzed = analyzer.analyze(List.of(
+                step("search", Map.of("query", "${inputs.topic}")),
+                step("fetch", Map.of("url", "${steps.search.outputs.results[0].link}")),
+                step("summarize", Map.of("prompt", "Summarize ${steps['fetch'].outputs.body}"))));
+
+        assertThat(analyzed.get(0).dependsOn()).isNull();
+        assertThat(analyzed.get(1).dependsOn()).containsExactly("search");
+        assertThat(analyzed.get(2).dependsOn()).containsExactly("fetch");
+    }
+
+    @Test
+    void findsReferencesInNestedConfigs() {
+        Map<String, Object> config = Map.of(
+                "messages", List.of(Map.of("content", "${steps.a.outputs.x} and ${steps.b.outputs.y}")),
+                "headers", Map.of("x-trace", "${ steps.c.outputs.id }"));
+
+        assertThat(DataFlowAnalyzer.references(config)).containsExactlyInAnyOrder("a", "b", "c");
+        assertThat(DataFlowAnalyzer.references("${inputs.a} ${env} plain text")).isEmpty();
+    }
+
+    @Test
+    void mergesReferencesWithDeclaredDependencies() {
+        List<StepDefinition> analyzed = analyzer.analyze(List.of(
+                step("a", Map.of()),
+                step("b", Map.of()),
+                new StepDefinition("c", "llm", Map.of("prompt", "${steps.b.outputs.text} ${steps.a.outputs.text}"),
+                        List.of("a"), RetryConfig.defaultConfig(), Boolean.TRUE)));
+
+        StepDefinition c = analyzed.get(2);
+        assertThat(c.dependsOn()).containsExactly("a", "b");
+        assertThat(c.agent()).isEqualTo("llm");
+        assertThat(c.retry()).isEqualTo(RetryConfig.defaultConfig());
+        assertThat(c.coalesce()).isTrue();
+    }
+
+    @Test
+    void rejectsReferencesToItselfOrUnknownSteps() {
+        assertThatThrownBy(() -> analyzer.analyze(List.of(step("a", Map.of("x", "${steps.a.outputs.y}")))))
+                .isInstanceOf(WorkflowParseException.class)
+                .hasMessageContaining("references its own outputs");
+        assertThatThrownBy(() -> analyzer.analyze(List.of(step("a", Map.of("x", "${steps.missing.outputs.y}")))))
+                .isInstanceOf(WorkflowParseException.class)
+                .hasMessageContaining("unknown step: missing");
+        assertThatThrownBy(() -> analyzer.analyze(List.of(step("a", Map.of("x", "${steps['b.outputs}")))))
+                .isInstanceOf(WorkflowParseException.class)
+                .hasMessageContaining("Invalid step reference");
+    }
+
+    @Test
+    void rejectsCyclesThroughReferencesAndDeclaredDependencies() {
+        assertThatThrownBy(() -> analyzer.analyze(List.of(
+                new StepDefinition("a", "echo", Map.of(), List.of("c"), RetryConfig.defaultConfig(), null),
+                step("b", Map.of("x", "${steps.a.outputs.y}")),
+                step("c", Map.of("x", "${steps['b'].outputs.y}")))))
+                .isInstanceOf(WorkflowParseException.class)
+                .hasMessage("Cyclic step dependencies: a -> c -> b -> a");
+    }
+
+    @Test
+    void acceptsDiamonds() {
+        List<StepDefinition> analyzed = analyzer.analyze(List.of(
+                step("root", Map.of()),
+                step("left", Map.of("x", "${steps.root.outputs.v}")),
+                step("right", Map.of("x", "${steps.root.outputs.v}")),
+                step("join", Map.of("x", "${steps.left.outputs.v}${steps.right.outputs.v}"))));
+
+        assertThat(analyzed.get(3).dependsOn()).containsExactly("left", "right");
+    }
+
+    private static StepDefinition step(String id, Map<String, Object> config) {
+        return new StepDefinition(id, "echo", config, null, RetryConfig.defaultConfig(), null);
+    }
+}